@@ -1,6 +1,7 @@
 package com.recklesscoding.abode;
 
 import com.recklesscoding.abode.core.Editor;
+import com.recklesscoding.abode.core.metrics.MetricsDumper;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.scene.Scene;
@@ -54,6 +55,7 @@ public class Main extends Application {
 
     @Override
     public void start(Stage primaryWindow) {
+        MetricsDumper.startFromSystemProperties();
         editor = new Editor(primaryWindow);
         initWindow(primaryWindow);
         primaryWindow.show();
@@ -0,0 +1,158 @@
+package com.recklesscoding.abode.batch;
+
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanWorkspace;
+import com.recklesscoding.abode.core.plan.reader.PlanReader;
+import com.recklesscoding.abode.debugger.prerecorded.instinct.InstictLogReader;
+import com.recklesscoding.abode.debugger.prerecorded.instinct.InstinctLogIndex;
+import com.recklesscoding.abode.debugger.prerecorded.instinct.InstinctLogStatistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * Works out the statistics of every element of a plan in Instinct logs, without the GUI, and writes them to a file;
+ * see {@link InstinctLogStatistics} for what is counted. The logs are read at the same time by a pool of threads, and
+ * each is streamed through once, so neither their size nor how many there are adds to the memory used.
+ * </p>
+ * <p>
+ * Usage: {@code LogAnalysis <plan> <output> <log or directory>...}, where the logs of a directory are the files in it
+ * that look like Instinct logs, leaving out their indexes. An output ending in {@code .json} gets one JSON object
+ * per log and line; any other gets CSV, one line per element and log. Either way, the statistics of all logs added up
+ * come last, as the log {@code ALL}. {@code -Dabode.analysis.threads=<n>} sets how many logs are read at once, by
+ * default one per core.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class LogAnalysis {
+
+    public static final String THREADS_PROPERTY = "abode.analysis.threads";
+
+    private final Plan plan;
+
+    private final int threads;
+
+    public LogAnalysis(Plan plan, int threads) {
+        this.plan = plan;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: LogAnalysis <plan> <output> <log or directory>...");
+            System.exit(2);
+        }
+        PlanReader planReader = PlanReader.forFile(args[0]);
+        if (planReader == null) {
+            System.err.println("Cannot read the plan " + args[0]);
+            System.exit(2);
+        }
+        Plan plan = PlanWorkspace.getInstance().createDetachedPlan(args[0]);
+        planReader.readFile(args[0], plan);
+        if (planReader.hasFailed()) {
+            System.err.println("Cannot read the plan " + args[0]);
+            System.exit(2);
+        }
+        List<String> logFiles = findLogs(Arrays.asList(args).subList(2, args.length));
+        int threads = Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+        int failedLogs;
+        try (LogStatisticsWriter writer = new LogStatisticsWriter(args[1])) {
+            failedLogs = new LogAnalysis(plan, Math.max(1, threads)).run(logFiles, writer);
+        } catch (IOException e) {
+            e.printStackTrace();
+            failedLogs = logFiles.size();
+        }
+        System.out.println("Analysed " + (logFiles.size() - failedLogs) + " of " + logFiles.size() + " logs into "
+                + args[1]);
+        if (failedLogs > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the logs and writes their statistics in the order given, as they are done. A log is only read once fewer
+     * than two per thread are waiting to be written, so memory does not grow with the number of logs.
+     *
+     * @return How many logs could not be read.
+     */
+    public int run(List<String> logFiles, LogStatisticsWriter writer) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<InstinctLogStatistics>> pending = new ArrayDeque<>();
+        int failedLogs = 0;
+        try {
+            for (String logFile : logFiles) {
+                if (pending.size() >= threads * 2) {
+                    failedLogs += writeNext(pending, writer);
+                }
+                pending.add(executor.submit(() -> {
+                    InstinctLogStatistics statistics = new InstinctLogStatistics(logFile);
+                    statistics.read(plan);
+                    return statistics;
+                }));
+            }
+            while (!pending.isEmpty()) {
+                failedLogs += writeNext(pending, writer);
+            }
+            writer.writeTotals();
+        } finally {
+            executor.shutdownNow();
+        }
+        return failedLogs;
+    }
+
+    /**
+     * @return 1 if the log failed, 0 if it was written.
+     */
+    private static int writeNext(Deque<Future<InstinctLogStatistics>> pending, LogStatisticsWriter writer)
+            throws IOException {
+        try {
+            writer.write(pending.poll().get());
+            return 0;
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * @return The files named, with the directories replaced by the Instinct logs in them, in the order of their names.
+     */
+    private static List<String> findLogs(List<String> paths) {
+        InstictLogReader logReader = new InstictLogReader();
+        List<String> logFiles = new ArrayList<>();
+        for (String path : paths) {
+            File file = new File(path);
+            if (!file.isDirectory()) {
+                logFiles.add(path);
+                continue;
+            }
+            File[] files = file.listFiles();
+            if (files == null) {
+                continue;
+            }
+            Arrays.sort(files);
+            for (File log : files) {
+                if (log.isFile() && !log.getName().endsWith(InstinctLogIndex.SUFFIX)
+                        && logReader.canRead(log.getPath())) {
+                    logFiles.add(log.getPath());
+                }
+            }
+        }
+        return logFiles;
+    }
+}
@@ -0,0 +1,161 @@
+package com.recklesscoding.abode.batch;
+
+import com.recklesscoding.abode.debugger.prerecorded.instinct.InstinctLogStatistics;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the statistics of logs to a file as they come, and adds them up for the totals written last. Files ending in
+ * {@code .json} get one JSON object per log and line; any other file gets CSV, one line per element and log. In CSV,
+ * the drive switches of a log are those to each of its drives added up.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class LogStatisticsWriter implements Closeable {
+
+    /**
+     * The name the totals of all logs are written under.
+     */
+    public static final String TOTALS = "ALL";
+
+    private static final String CSV_HEADER =
+            "log,type,element,activations,successes,failures,in_progress,errors,dwell_ms,switches_to\n";
+
+    private final Writer writer;
+
+    private final boolean isJson;
+
+    private final Map<String, InstinctLogStatistics.Element> totals = new LinkedHashMap<>();
+
+    private long totalEvents = 0;
+
+    private long totalDriveSwitches = 0;
+
+    private int logs = 0;
+
+    public LogStatisticsWriter(String filePath) throws IOException {
+        this.writer = new BufferedWriter(new FileWriter(filePath));
+        this.isJson = filePath.toLowerCase(Locale.ROOT).endsWith(".json");
+        if (!isJson) {
+            writer.write(CSV_HEADER);
+        }
+    }
+
+    public void write(InstinctLogStatistics statistics) throws IOException {
+        for (InstinctLogStatistics.Element element : statistics.getElements()) {
+            totals.computeIfAbsent(element.getType() + " " + element.getName(),
+                    key -> InstinctLogStatistics.Element.empty(element.getType(), element.getName())).add(element);
+        }
+        totalEvents += statistics.getEvents();
+        totalDriveSwitches += statistics.getDriveSwitches();
+        logs++;
+        if (isJson) {
+            StringBuilder json = new StringBuilder("{\"log\":\"").append(escapeJson(statistics.getLogFile()))
+                    .append("\",\"events\":").append(statistics.getEvents())
+                    .append(",\"startTime\":").append(toJson(statistics.getStartTime()))
+                    .append(",\"endTime\":").append(toJson(statistics.getEndTime()))
+                    .append(",\"driveSwitches\":").append(statistics.getDriveSwitches());
+            writer.write(appendJson(json, statistics.getElements()));
+        } else {
+            writer.write(toCsv(statistics.getLogFile(), statistics.getElements()));
+        }
+    }
+
+    /**
+     * Writes the statistics of all the logs written so far added up, each element once.
+     */
+    public void writeTotals() throws IOException {
+        List<InstinctLogStatistics.Element> elements = new ArrayList<>(totals.values());
+        if (isJson) {
+            StringBuilder json = new StringBuilder("{\"log\":\"").append(TOTALS)
+                    .append("\",\"logs\":").append(logs)
+                    .append(",\"events\":").append(totalEvents)
+                    .append(",\"driveSwitches\":").append(totalDriveSwitches);
+            writer.write(appendJson(json, elements));
+        } else {
+            writer.write(toCsv(TOTALS, elements));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static String toCsv(String log, List<InstinctLogStatistics.Element> elements) {
+        StringBuilder csv = new StringBuilder();
+        String quotedLog = quoteCsv(log);
+        for (InstinctLogStatistics.Element element : elements) {
+            csv.append(quotedLog).append(',')
+                    .append(element.getType()).append(',')
+                    .append(quoteCsv(element.getName())).append(',')
+                    .append(element.getActivations()).append(',')
+                    .append(element.getSuccesses()).append(',')
+                    .append(element.getFailures()).append(',')
+                    .append(element.getInProgress()).append(',')
+                    .append(element.getErrors()).append(',')
+                    .append(String.format(Locale.ROOT, "%.3f", element.getDwellTime())).append(',')
+                    .append(element.getSwitchesTo()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String quoteCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Ends the object started with the elements.
+     */
+    private static String appendJson(StringBuilder json, List<InstinctLogStatistics.Element> elements) {
+        json.append(",\"elements\":[");
+        for (int i = 0; i < elements.size(); i++) {
+            InstinctLogStatistics.Element element = elements.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"type\":\"").append(element.getType())
+                    .append("\",\"name\":\"").append(escapeJson(element.getName()))
+                    .append("\",\"activations\":").append(element.getActivations())
+                    .append(",\"successes\":").append(element.getSuccesses())
+                    .append(",\"failures\":").append(element.getFailures())
+                    .append(",\"inProgress\":").append(element.getInProgress())
+                    .append(",\"errors\":").append(element.getErrors())
+                    .append(",\"dwellMs\":").append(String.format(Locale.ROOT, "%.3f", element.getDwellTime()))
+                    .append(",\"switchesTo\":").append(element.getSwitchesTo())
+                    .append('}');
+        }
+        return json.append("]}\n").toString();
+    }
+
+    private static String toJson(double time) {
+        return Double.isNaN(time) ? "null" : String.format(Locale.ROOT, "%.3f", time);
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
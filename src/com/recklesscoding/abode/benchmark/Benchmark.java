@@ -0,0 +1,136 @@
+package com.recklesscoding.abode.benchmark;
+
+/**
+ * <p>
+ * A single benchmark, run the way JMH runs one in its single-shot mode: a number of warm-up operations that are not
+ * measured, so that the JIT has compiled the code, and then a number of measured operations, each timed on its own.
+ * </p>
+ * <p>
+ * What each operation returns is folded into {@link #sink}, so that the JIT cannot drop the work as unused.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public abstract class Benchmark {
+
+    private static volatile int sink;
+
+    private final String name;
+
+    protected Benchmark(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Called once, before any operation.
+     */
+    protected void setUp() throws Exception {
+    }
+
+    /**
+     * Called before every operation; the time it takes is not measured.
+     */
+    protected void beforeOperation() throws Exception {
+    }
+
+    /**
+     * The operation being measured.
+     *
+     * @return Anything the operation made, so that it is not optimised away.
+     */
+    protected abstract Object operation() throws Exception;
+
+    /**
+     * Called once, after the last operation.
+     */
+    protected void tearDown() throws Exception {
+    }
+
+    public Result run(int warmUpOperations, int measuredOperations) throws Exception {
+        setUp();
+        try {
+            for (int i = 0; i < warmUpOperations; i++) {
+                beforeOperation();
+                consume(operation());
+            }
+            long[] durations = new long[measuredOperations];
+            for (int i = 0; i < measuredOperations; i++) {
+                beforeOperation();
+                long start = System.nanoTime();
+                Object result = operation();
+                durations[i] = System.nanoTime() - start;
+                consume(result);
+            }
+            return new Result(name, durations);
+        } finally {
+            tearDown();
+        }
+    }
+
+    private static void consume(Object result) {
+        sink += System.identityHashCode(result);
+    }
+
+    /**
+     * The durations of the measured operations of a benchmark.
+     */
+    public static final class Result {
+
+        private final String name;
+
+        private final long[] durations;
+
+        private Result(String name, long[] durations) {
+            this.name = name;
+            this.durations = durations;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getMeanMillis() {
+            double total = 0;
+            for (long duration : durations) {
+                total += duration;
+            }
+            return durations.length == 0 ? 0 : total / durations.length / 1e6;
+        }
+
+        public double getMinMillis() {
+            long min = Long.MAX_VALUE;
+            for (long duration : durations) {
+                min = Math.min(min, duration);
+            }
+            return durations.length == 0 ? 0 : min / 1e6;
+        }
+
+        public double getStandardDeviationMillis() {
+            if (durations.length < 2) {
+                return 0;
+            }
+            double mean = getMeanMillis();
+            double squares = 0;
+            for (long duration : durations) {
+                double difference = duration / 1e6 - mean;
+                squares += difference * difference;
+            }
+            return Math.sqrt(squares / (durations.length - 1));
+        }
+
+        public int getOperations() {
+            return durations.length;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %6d ops %12.3f ms/op (min %10.3f, sd %10.3f)", name, durations.length,
+                    getMeanMillis(), getMinMillis(), getStandardDeviationMillis());
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.recklesscoding.abode.benchmark;
+
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanWorkspace;
+import com.recklesscoding.abode.core.plan.generator.LogGenerator;
+import com.recklesscoding.abode.core.plan.generator.PlanGenerator;
+import com.recklesscoding.abode.core.plan.nodes.NodesHolder;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.reader.PlanReader;
+import com.recklesscoding.abode.core.plan.reader.binary.BinaryPlanReader;
+import com.recklesscoding.abode.core.plan.reader.inst.InstPlanReader;
+import com.recklesscoding.abode.core.plan.reader.lap.LapPlanReader;
+import com.recklesscoding.abode.core.plan.reader.xposh.XPOSHPlanReader;
+import com.recklesscoding.abode.core.plan.writer.BinaryPlanWriter;
+import com.recklesscoding.abode.core.plan.writer.LapPlanWriter;
+import com.recklesscoding.abode.core.plan.writer.PlanWriter;
+import com.recklesscoding.abode.core.plan.writer.XMLPOSHPlanWriter;
+import com.recklesscoding.abode.debugger.prerecorded.instinct.InstictLogReader;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * Runs the benchmarks of the core: reading and writing plans in every format, looking elements up by name, building
+ * the nodes of the diagram and reading a log. The plan and the log are made up by {@link PlanGenerator} and
+ * {@link LogGenerator}, so that each run measures the same input.
+ * </p>
+ * <p>
+ * Usage: {@code CoreBenchmarks [elements] [directory]}, where elements is about how many elements the generated plan
+ * has and directory is where its files are written, by default the temporary directory.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class CoreBenchmarks {
+
+    private static final String PLAN_ID = "benchmark";
+
+    private static final String BASE_NAME = "benchmark";
+
+    private static final long SEED = 42;
+
+    private static final int WARM_UP_OPERATIONS = 5;
+
+    private static final int MEASURED_OPERATIONS = 10;
+
+    private static final int LOOKUPS_PER_OPERATION = 10000;
+
+    private final Plan plan;
+
+    private final String path;
+
+    private final int logLines;
+
+    public CoreBenchmarks(int elements, String directory) {
+        this.plan = PlanWorkspace.getInstance().setActivePlan(PLAN_ID);
+        this.path = directory + File.separator + BASE_NAME;
+        this.logLines = elements * 10;
+    }
+
+    public static void main(String[] args) {
+        int elements = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        String directory = args.length > 1 ? args[1] : System.getProperty("java.io.tmpdir");
+        new CoreBenchmarks(elements, directory).run(elements);
+    }
+
+    public void run(int elements) {
+        new File(path).getParentFile().mkdirs();
+        PlanGenerator.forSize(elements, SEED).generateFiles(plan, new File(path).getParent(), BASE_NAME);
+        new BinaryPlanWriter().writeFile(path + ".abodeplan", plan);
+        new LogGenerator(SEED).writeInstinctLog(plan, path + ".log", logLines);
+        System.out.println("Plan of " + countElements() + " elements, log of " + logLines + " lines, in " + path + ".*");
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new ReadPlanBenchmark("read LAP", new LapPlanReader(), path + ".lap"));
+        benchmarks.add(new ReadPlanBenchmark("read XPOSH", new XPOSHPlanReader(), path + ".xml"));
+        benchmarks.add(new ReadPlanBenchmark("read Instinct", new InstPlanReader(), path + ".inst"));
+        benchmarks.add(new ReadPlanBenchmark("read binary", new BinaryPlanReader(), path + ".abodeplan"));
+        benchmarks.add(new WritePlanBenchmark("write LAP", new LapPlanWriter(), path + ".lap"));
+        benchmarks.add(new WritePlanBenchmark("write XPOSH", new XMLPOSHPlanWriter(), path + ".xml"));
+        benchmarks.add(new WritePlanBenchmark("write binary", new BinaryPlanWriter(), path + ".abodeplan"));
+        benchmarks.add(new LookUpBenchmark());
+        benchmarks.add(new NodesHolderBenchmark());
+        benchmarks.add(new ReadInstinctLogBenchmark());
+
+        for (Benchmark benchmark : benchmarks) {
+            try {
+                System.out.println(benchmark.run(WARM_UP_OPERATIONS, MEASURED_OPERATIONS));
+            } catch (Exception | Error e) {
+                System.out.println(String.format("%-40s skipped: %s", benchmark.getName(), e));
+            }
+        }
+    }
+
+    private int countElements() {
+        return plan.getActionEvents().size() + plan.getActionPatterns().size() + plan.getCompetences().size()
+                + plan.getCompetenceElements().size() + plan.getDriveElements().size()
+                + plan.getDriveCollections().size();
+    }
+
+    /**
+     * Reads the plan from a file into the emptied benchmark plan. Afterwards the plan is read back from the binary
+     * file, so that the benchmarks that follow see the whole plan whatever the reader under test made of it.
+     */
+    private class ReadPlanBenchmark extends Benchmark {
+
+        private final PlanReader planReader;
+
+        private final String filePath;
+
+        private ReadPlanBenchmark(String name, PlanReader planReader, String filePath) {
+            super(name);
+            this.planReader = planReader;
+            this.filePath = filePath;
+        }
+
+        @Override
+        protected void beforeOperation() {
+            plan.cleanAllLists();
+        }
+
+        @Override
+        protected Object operation() {
+            planReader.readFile(filePath, plan);
+            return plan.getDriveElements();
+        }
+
+        @Override
+        protected void tearDown() {
+            plan.cleanAllLists();
+            new BinaryPlanReader().readFile(path + ".abodeplan", plan);
+        }
+    }
+
+    private class WritePlanBenchmark extends Benchmark {
+
+        private final PlanWriter planWriter;
+
+        private final String filePath;
+
+        private WritePlanBenchmark(String name, PlanWriter planWriter, String filePath) {
+            super(name);
+            this.planWriter = planWriter;
+            this.filePath = filePath;
+        }
+
+        @Override
+        protected Object operation() {
+            planWriter.writeFile(filePath, plan);
+            return filePath;
+        }
+    }
+
+    /**
+     * Looks up competences, action patterns and actions by name, a third of which are not in the plan.
+     */
+    private class LookUpBenchmark extends Benchmark {
+
+        private final String[] names = new String[LOOKUPS_PER_OPERATION];
+
+        private LookUpBenchmark() {
+            super("look up " + LOOKUPS_PER_OPERATION + " names");
+        }
+
+        @Override
+        protected void setUp() {
+            Random random = new Random(SEED);
+            List<PlanElement> planElements = new ArrayList<>();
+            planElements.addAll(plan.getCompetences());
+            planElements.addAll(plan.getActionPatterns());
+            planElements.addAll(plan.getActionEvents());
+            for (int i = 0; i < names.length; i++) {
+                names[i] = i % 3 == 2 || planElements.isEmpty() ? "missing-" + i
+                        : planElements.get(random.nextInt(planElements.size())).getNameOfElement();
+            }
+        }
+
+        @Override
+        protected Object operation() {
+            int found = 0;
+            for (String name : names) {
+                if (plan.findCompetence(name) != null || plan.findActionPattern(name) != null
+                        || plan.findAction(name) != null) {
+                    found++;
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Builds the nodes of the diagram of the active plan, which is most of the work of drawing it.
+     */
+    private class NodesHolderBenchmark extends Benchmark {
+
+        private NodesHolderBenchmark() {
+            super("build diagram nodes");
+        }
+
+        @Override
+        protected Object operation() {
+            return new NodesHolder(new PlanElement("Drives"));
+        }
+    }
+
+    /**
+     * Reads the log generated for the plan; the reader looks the elements up in the active plan.
+     */
+    private class ReadInstinctLogBenchmark extends Benchmark {
+
+        private ReadInstinctLogBenchmark() {
+            super("read Instinct log of " + logLines + " lines");
+        }
+
+        @Override
+        protected Object operation() {
+            InstictLogReader logReader = new InstictLogReader();
+            logReader.readFile(path + ".log");
+            return logReader.getEventStore();
+        }
+    }
+}
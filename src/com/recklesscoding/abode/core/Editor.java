@@ -1,15 +1,16 @@
 package com.recklesscoding.abode.core;
 
-import com.recklesscoding.abode.core.plan.reader.xposh.XPOSHPlanReader;
+import com.recklesscoding.abode.core.plan.BinaryPlanFormat;
+import com.recklesscoding.abode.core.plan.writer.BinaryPlanWriter;
 import com.recklesscoding.abode.core.plan.writer.XMLPOSHPlanWriter;
 import com.recklesscoding.abode.debugger.InsinctDebugger;
 import com.recklesscoding.abode.debugger.IDebugger;
 import com.recklesscoding.abode.debugger.UnityPOSHDebugger;
 import com.recklesscoding.abode.gui.EditorLayout;
-import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanWorkspace;
+import com.recklesscoding.abode.core.plan.reader.PlanFileWatcher;
+import com.recklesscoding.abode.core.plan.reader.PlanLoadTask;
 import com.recklesscoding.abode.core.plan.reader.PlanReader;
-import com.recklesscoding.abode.core.plan.reader.inst.InstPlanReader;
-import com.recklesscoding.abode.core.plan.reader.lap.LapPlanReader;
 import com.recklesscoding.abode.core.plan.writer.LapPlanWriter;
 import javafx.stage.Stage;
 
@@ -37,11 +38,23 @@ public class Editor {
 
     private EditorLayout editorLayout;
 
-    private PlanReader planReader;
+    /**
+     * The plan file being loaded, or null.
+     */
+    private PlanLoadTask planLoadTask;
+
+    private final PlanFileWatcher planFileWatcher = new PlanFileWatcher();
+
+    private boolean hotReload = false;
 
     private IDebugger insinctDebugger = new InsinctDebugger();
     private IDebugger unityPOSHDebugger = new UnityPOSHDebugger();
 
+    /**
+     * The debugger of the log opened last.
+     */
+    private IDebugger logDebugger = insinctDebugger;
+
     /**
      * @param primaryWindow The primary window of the application, where the views will reside.
      */
@@ -54,24 +67,80 @@ public class Editor {
         editorLayout = new EditorLayout(primaryWindow, this);
     }
 
+    /**
+     * Loads the plan file in the background, showing how far it has got. Once it is read, the plan replaces the one
+     * loaded from the same file, if any, and becomes the active plan. A file still being loaded is cancelled. A file
+     * that cannot be read in full leaves the plans as they were, and the user is told why.
+     */
     public void readPlanFile(String file) {
-        if (file.endsWith(".xml")) {
-            planReader = new XPOSHPlanReader();
-        }  else if (file.endsWith(".inst")) {
-            planReader = new InstPlanReader();
-        } else if (file.endsWith(".lap")) {
-            planReader = new LapPlanReader();
+        PlanReader planReader = PlanReader.forFile(file);
+        if (planReader == null) {
+            refreshLayout();
+            return;
+        }
+        if (planLoadTask != null) {
+            planLoadTask.cancel();
         }
-        if (planReader != null) {
-            Plan.getInstance().cleanAllLists();
-            planReader.readFile(file);
+        PlanLoadTask task = new PlanLoadTask(file, planReader);
+        planLoadTask = task;
+        task.setOnSucceeded(event -> planLoaded(task));
+        task.setOnFailed(event -> {
+            task.getException().printStackTrace();
+            loadFinished(task);
+            editorLayout.showError("The plan could not be opened", task.getException().getMessage());
+        });
+        task.setOnCancelled(event -> loadFinished(task));
+        editorLayout.showPlanLoading(task);
+        task.start();
+    }
+
+    /**
+     * Swaps the plan that was read into the workspace, unless another file was opened in the meantime.
+     */
+    private void planLoaded(PlanLoadTask task) {
+        if (task != planLoadTask) {
+            return;
+        }
+        loadFinished(task);
+        // Each file gets its own plan in the workspace; reopening a file replaces its plan.
+        PlanWorkspace.getInstance().replacePlan(task.getValue());
+        PlanWorkspace.getInstance().setActivePlan(task.getFileName());
+        if (hotReload) {
+            planFileWatcher.watch(task.getFileName());
         }
         refreshLayout();
     }
 
+    private void loadFinished(PlanLoadTask task) {
+        if (task == planLoadTask) {
+            planLoadTask = null;
+        }
+        editorLayout.hidePlanLoading(task);
+    }
+
+    /**
+     * Turns on or off reloading the active plan whenever its file is written, which keeps the diagram and the
+     * debuggers going; see {@link PlanFileWatcher}.
+     */
+    public void setHotReload(boolean hotReload) {
+        this.hotReload = hotReload;
+        if (hotReload) {
+            planFileWatcher.watch(PlanWorkspace.getInstance().getActivePlan().getPlanId());
+        } else {
+            planFileWatcher.stop();
+        }
+    }
+
+    public boolean isHotReload() {
+        return hotReload;
+    }
+
     public void savePlan(String file) {
-        new XMLPOSHPlanWriter().writeFile(file);
-        refreshLayout();
+        if (file.endsWith(BinaryPlanFormat.FILE_EXTENSION)) {
+            new BinaryPlanWriter().writeFile(file);
+        } else {
+            new XMLPOSHPlanWriter().writeFile(file);
+        }
     }
 
     public void refreshLayout() {
@@ -93,6 +162,29 @@ public class Editor {
         return insinctDebugger;
     }
 
+    /**
+     * Opens the log in the debugger that reads logs like it, Instinct unless it is a UnityPOSH log.
+     */
+    public void openLogFile(String logPath) {
+        logDebugger = unityPOSHDebugger.canReadLogFile(logPath) ? unityPOSHDebugger : insinctDebugger;
+        logDebugger.readLogFile(logPath);
+    }
+
+    /**
+     * @return The debugger that replays the log opened last.
+     */
+    public IDebugger getLogDebugger() {
+        return logDebugger;
+    }
+
+    /**
+     * Sets how fast logs are replayed, by the debuggers of both kinds of log.
+     */
+    public void setLogReplayRate(double rate) {
+        insinctDebugger.setLogDebuggerRate(rate);
+        unityPOSHDebugger.setLogDebuggerRate(rate);
+    }
+
     public static Editor getInstance() {
         return instance;
     }
@@ -0,0 +1,42 @@
+package com.recklesscoding.abode.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Counts events, such as lines read or glow updates. Threads add to their own cell of a {@link LongAdder}, so
+ * counting from many connections at once does not contend.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class Counter extends Metric {
+
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        super(name);
+    }
+
+    public void increment() {
+        if (Metrics.isEnabled()) {
+            count.increment();
+        }
+    }
+
+    public void add(long value) {
+        if (Metrics.isEnabled()) {
+            count.add(value);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public String getType() {
+        return "counter";
+    }
+}
@@ -0,0 +1,42 @@
+package com.recklesscoding.abode.core.metrics;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Hands work to the FX thread through {@link Platform#runLater(Runnable)}, keeping count of how much of it is still
+ * waiting while the metrics are enabled. Only the paths that post often, such as glow updates and plan events, go
+ * through here.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public final class FxQueue {
+
+    private static final AtomicLong pending = new AtomicLong();
+
+    private static final Counter posted = Metrics.getInstance().counter("fx.runLater.posted");
+
+    static {
+        Metrics.getInstance().gauge("fx.runLater.pending", pending::get);
+    }
+
+    private FxQueue() {
+    }
+
+    public static void runLater(Runnable runnable) {
+        if (!Metrics.isEnabled()) {
+            Platform.runLater(runnable);
+            return;
+        }
+        pending.incrementAndGet();
+        posted.increment();
+        Platform.runLater(() -> {
+            pending.decrementAndGet();
+            runnable.run();
+        });
+    }
+}
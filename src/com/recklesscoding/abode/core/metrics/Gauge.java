@@ -0,0 +1,30 @@
+package com.recklesscoding.abode.core.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * <p>
+ * A value read only when the metrics are looked at, such as the length of a queue.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class Gauge extends Metric {
+
+    private final LongSupplier value;
+
+    Gauge(String name, LongSupplier value) {
+        super(name);
+        this.value = value;
+    }
+
+    public long getValue() {
+        return value.getAsLong();
+    }
+
+    @Override
+    public String getType() {
+        return "gauge";
+    }
+}
@@ -0,0 +1,27 @@
+package com.recklesscoding.abode.core.metrics;
+
+/**
+ * <p>
+ * A named measurement kept by {@link Metrics}.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public abstract class Metric {
+
+    private final String name;
+
+    protected Metric(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The word used for this kind of metric in the stats panel and the dumped files.
+     */
+    public abstract String getType();
+}
@@ -0,0 +1,94 @@
+package com.recklesscoding.abode.core.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>
+ * Keeps the counters, gauges and histograms of ABODE by name. Code on a hot path looks its metric up once, keeps it
+ * in a field and records into it; while the metrics are disabled recording is a single read of a volatile flag.
+ * </p>
+ * <p>
+ * The metrics are disabled unless ABODE is started with {@code -Dabode.metrics=true}, or they are turned on from the
+ * stats window.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public final class Metrics {
+
+    public static final String ENABLED_PROPERTY = "abode.metrics";
+
+    private static final Metrics instance = new Metrics();
+
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+    }
+
+    public static Metrics getInstance() {
+        return instance;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * @return The time to give to {@link Histogram#recordSince(long)}, or 0 when the metrics are disabled, so that a
+     * disabled timer does not even read the clock.
+     */
+    public static long startTime() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public Counter counter(String name) {
+        return get(name, Counter.class, Counter::new);
+    }
+
+    public Histogram histogram(String name) {
+        return get(name, Histogram.class, Histogram::new);
+    }
+
+    /**
+     * Registers a gauge, replacing any metric of the same name, so that a gauge follows the latest object it reads.
+     */
+    public Gauge gauge(String name, LongSupplier value) {
+        Gauge gauge = new Gauge(name, value);
+        metrics.put(name, gauge);
+        return gauge;
+    }
+
+    /**
+     * Forgets a metric, such as the ones of a connection that closed.
+     */
+    public void remove(String name) {
+        metrics.remove(name);
+    }
+
+    /**
+     * @return The metrics, sorted by name.
+     */
+    public List<Metric> getMetrics() {
+        return new ArrayList<>(metrics.values());
+    }
+
+    private <T extends Metric> T get(String name, Class<T> type, Function<String, T> newMetric) {
+        Metric metric = metrics.computeIfAbsent(name, newMetric);
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException(name + " is already a " + metric.getType());
+        }
+        return type.cast(metric);
+    }
+}
@@ -0,0 +1,165 @@
+package com.recklesscoding.abode.core.metrics;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Appends a report of all the metrics to a file every few seconds, from a daemon thread. Files ending in
+ * {@code .json} get one JSON object per report and line; any other file gets CSV, one line per metric and report.
+ * </p>
+ * <p>
+ * ABODE starts a dumper by itself when given {@code -Dabode.metrics.dump=<file>}, and
+ * {@code -Dabode.metrics.period=<seconds>} if the default of 5 seconds does not suit.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class MetricsDumper {
+
+    public static final String FILE_PROPERTY = "abode.metrics.dump";
+
+    public static final String PERIOD_PROPERTY = "abode.metrics.period";
+
+    private static final String CSV_HEADER = "time,name,type,value,rate,mean_ns,p50_ns,p99_ns,max_ns\n";
+
+    private final String filePath;
+
+    private final boolean isJson;
+
+    private final MetricsReport report = new MetricsReport();
+
+    private ScheduledExecutorService executor;
+
+    public MetricsDumper(String filePath) {
+        this.filePath = filePath;
+        this.isJson = filePath.toLowerCase(Locale.ROOT).endsWith(".json");
+    }
+
+    /**
+     * Starts the dumper named by the system properties, if there is one, turning the metrics on.
+     *
+     * @return The dumper started, or null.
+     */
+    public static MetricsDumper startFromSystemProperties() {
+        String filePath = System.getProperty(FILE_PROPERTY);
+        if (filePath == null || filePath.isEmpty()) {
+            return null;
+        }
+        Metrics.setEnabled(true);
+        MetricsDumper metricsDumper = new MetricsDumper(filePath);
+        metricsDumper.start(Long.getLong(PERIOD_PROPERTY, 5));
+        return metricsDumper;
+    }
+
+    public synchronized void start(long periodSeconds) {
+        if (executor != null) {
+            return;
+        }
+        if (!isJson) {
+            write(CSV_HEADER, false);
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Metrics dumper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::dump, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the timer, writing one last report.
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            dump();
+        }
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void dump() {
+        List<MetricsReport.Row> rows = report.take();
+        long time = System.currentTimeMillis();
+        write(isJson ? toJson(time, rows) : toCsv(time, rows), true);
+    }
+
+    private void write(String text, boolean append) {
+        try (Writer writer = new BufferedWriter(new FileWriter(filePath, append))) {
+            writer.write(text);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static String toCsv(long time, List<MetricsReport.Row> rows) {
+        StringBuilder csv = new StringBuilder();
+        for (MetricsReport.Row row : rows) {
+            csv.append(time).append(',')
+                    .append(quoteCsv(row.getName())).append(',')
+                    .append(row.getType()).append(',')
+                    .append(row.getValue()).append(',')
+                    .append(String.format(Locale.ROOT, "%.3f", row.getRatePerSecond())).append(',')
+                    .append(String.format(Locale.ROOT, "%.1f", row.getMean())).append(',')
+                    .append(row.getMedian()).append(',')
+                    .append(row.getPercentile99()).append(',')
+                    .append(row.getMax()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String quoteCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String toJson(long time, List<MetricsReport.Row> rows) {
+        StringBuilder json = new StringBuilder("{\"time\":").append(time).append(",\"metrics\":[");
+        for (int i = 0; i < rows.size(); i++) {
+            MetricsReport.Row row = rows.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"").append(escapeJson(row.getName()))
+                    .append("\",\"type\":\"").append(row.getType())
+                    .append("\",\"value\":").append(row.getValue())
+                    .append(",\"rate\":").append(String.format(Locale.ROOT, "%.3f", row.getRatePerSecond()));
+            if ("histogram".equals(row.getType())) {
+                json.append(",\"meanNs\":").append(String.format(Locale.ROOT, "%.1f", row.getMean()))
+                        .append(",\"p50Ns\":").append(row.getMedian())
+                        .append(",\"p99Ns\":").append(row.getPercentile99())
+                        .append(",\"maxNs\":").append(row.getMax());
+            }
+            json.append('}');
+        }
+        return json.append("]}\n").toString();
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,128 @@
+package com.recklesscoding.abode.core.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Reads all the metrics into rows, working out how many events per second each counter and histogram had since the
+ * report was last taken. Each reader of the metrics, such as the stats window or a dumper, keeps its own report, so
+ * that the rates are over its own period.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class MetricsReport {
+
+    private final Map<String, Long> lastCounts = new HashMap<>();
+
+    private long lastTime = System.nanoTime();
+
+    public synchronized List<Row> take() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - lastTime) / 1e9);
+        lastTime = now;
+
+        List<Row> rows = new ArrayList<>();
+        for (Metric metric : Metrics.getInstance().getMetrics()) {
+            if (metric instanceof Counter) {
+                long count = ((Counter) metric).getCount();
+                rows.add(new Row(metric, count, getRate(metric, count, seconds), 0, 0, 0, 0));
+            } else if (metric instanceof Histogram) {
+                Histogram histogram = (Histogram) metric;
+                long count = histogram.getCount();
+                rows.add(new Row(metric, count, getRate(metric, count, seconds), histogram.getMean(),
+                        histogram.getPercentile(50), histogram.getPercentile(99), histogram.getMax()));
+            } else if (metric instanceof Gauge) {
+                rows.add(new Row(metric, ((Gauge) metric).getValue(), 0, 0, 0, 0, 0));
+            }
+        }
+        lastCounts.keySet().retainAll(getNames(rows));
+        return rows;
+    }
+
+    private double getRate(Metric metric, long count, double seconds) {
+        Long lastCount = lastCounts.put(metric.getName(), count);
+        return lastCount == null ? 0 : Math.max(0, count - lastCount) / seconds;
+    }
+
+    private static List<String> getNames(List<Row> rows) {
+        List<String> names = new ArrayList<>();
+        for (Row row : rows) {
+            names.add(row.getName());
+        }
+        return names;
+    }
+
+    /**
+     * One metric at the time the report was taken. Times are in nanoseconds.
+     */
+    public static final class Row {
+
+        private final String name;
+
+        private final String type;
+
+        private final long value;
+
+        private final double ratePerSecond;
+
+        private final double mean;
+
+        private final long median;
+
+        private final long percentile99;
+
+        private final long max;
+
+        private Row(Metric metric, long value, double ratePerSecond, double mean, long median, long percentile99,
+                    long max) {
+            this.name = metric.getName();
+            this.type = metric.getType();
+            this.value = value;
+            this.ratePerSecond = ratePerSecond;
+            this.mean = mean;
+            this.median = median;
+            this.percentile99 = percentile99;
+            this.max = max;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return The count of a counter or a histogram, or the value of a gauge.
+         */
+        public long getValue() {
+            return value;
+        }
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public long getMedian() {
+            return median;
+        }
+
+        public long getPercentile99() {
+            return percentile99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
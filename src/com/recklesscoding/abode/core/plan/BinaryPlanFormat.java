@@ -0,0 +1,82 @@
+package com.recklesscoding.abode.core.plan;
+
+/**
+ * <p>
+ * The layout of the binary plan files, shared by the writer and the reader. All numbers are big-endian.
+ * </p>
+ * <pre>
+ * Header      int magic, short version, short flags (unused, 0)
+ * Strings     int count, int[count] offsets into the blob, int blob length, UTF-8 blob
+ * Elements    int count, count fixed-size records of {@link #RECORD_SIZE} bytes
+ * References  int count, int[count] element indices
+ * </pre>
+ * <p>
+ * An element record is: byte type, byte flags, short unused, int name, int second string, int third string,
+ * double number, int integer, int triggered element, int senses start, int senses count, int sub-elements start,
+ * int sub-elements count. Strings are indices into the string table and elements are indices into the element records;
+ * both are {@link #NONE} when missing. The senses and the sub-elements are ranges of the reference array.
+ * </p>
+ * <p>
+ * What the fields hold depends on the type of the element:
+ * </p>
+ * <ul>
+ * <li>Sense: comparator and value as the second and third strings.</li>
+ * <li>Action pattern: time value and unit (the flags); its actions as the sub-elements.</li>
+ * <li>Competence: timeout and unit; goals as senses and its competence elements as sub-elements.</li>
+ * <li>Competence element: retries as the integer; triggered element; trigger as senses.</li>
+ * <li>Drive element: frequency unit as the second string, frequency as the number; triggered element; trigger as
+ * senses.</li>
+ * <li>Drive collection: {@link #FLAG_REAL_TIME}; goals as senses and its drive elements as sub-elements.</li>
+ * </ul>
+ * <p>
+ * Elements that are in the lists of the plan are flagged {@link #FLAG_IN_PLAN}. The others are only used by an element
+ * that is, e.g. the goals and triggers the LAP reader makes for each of their owners, and come after all of them.
+ * </p>
+ * <p>
+ * Records are written one type after the other, in the order of {@link PlanSnapshot}, so that reading them back keeps
+ * the order of the lists of the plan.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public final class BinaryPlanFormat {
+
+    public static final String FILE_EXTENSION = ".abodeplan";
+
+    /**
+     * "ABPL".
+     */
+    public static final int MAGIC = 0x4142504C;
+
+    public static final short VERSION = 1;
+
+    public static final int NONE = -1;
+
+    public static final int RECORD_SIZE = 48;
+
+    /* Element types */
+    public static final byte SENSE = 0;
+
+    public static final byte ACTION = 1;
+
+    public static final byte ACTION_PATTERN = 2;
+
+    public static final byte COMPETENCE = 3;
+
+    public static final byte COMPETENCE_ELEMENT = 4;
+
+    public static final byte DRIVE_ELEMENT = 5;
+
+    public static final byte DRIVE_COLLECTION = 6;
+
+    /* Flags; the two lowest bits hold the ordinal of the time unit */
+    public static final int TIME_UNITS_MASK = 0x03;
+
+    public static final int FLAG_IN_PLAN = 0x04;
+
+    public static final int FLAG_REAL_TIME = 0x08;
+
+    private BinaryPlanFormat() {
+    }
+}
@@ -1,5 +1,6 @@
 package com.recklesscoding.abode.core.plan;
 
+import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.Sense;
 import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
@@ -10,8 +11,13 @@ import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Author: @Andreas.
@@ -19,39 +25,79 @@ import java.util.List;
  */
 public class Plan {
 
-    private static Plan instance = null;
+    private final String planId;
 
-    private volatile List<Sense> senses = new LinkedList<>();
+    private final PlanWorkspace workspace;
 
-    private volatile List<ActionEvent> actionEvents = new LinkedList<>();
+    private final PlanElementTable elementTable = new PlanElementTable();
 
-    private volatile List<ActionPattern> actionPatterns = new LinkedList<>();
+    private final PlanReferenceIndex references = new PlanReferenceIndex();
 
-    private volatile List<Competence> competences = new LinkedList<>();
+    private final PlanElementIndex<Sense> senses = new PlanElementIndex<>(this);
 
-    private volatile List<CompetenceElement> competenceElements = new LinkedList<>();
+    private final PlanElementIndex<ActionEvent> actionEvents = new PlanElementIndex<>(this);
 
-    private volatile List<DriveElement> driveElements = new LinkedList<>();
+    private final PlanElementIndex<ActionPattern> actionPatterns = new PlanElementIndex<>(this);
 
-    private volatile List<DriveCollection> driveCollections = new LinkedList<>();
+    private final PlanElementIndex<Competence> competences = new PlanElementIndex<>(this);
 
-    private Plan() {
+    private final PlanElementIndex<CompetenceElement> competenceElements = new PlanElementIndex<>(this);
+
+    private final PlanElementIndex<DriveElement> driveElements = new PlanElementIndex<>(this);
+
+    private final PlanElementIndex<DriveCollection> driveCollections = new PlanElementIndex<>(this);
+
+    /**
+     * Actions a reader had to make up because the file triggers something it does not define.
+     */
+    private final Set<PlanElement> implicitElements = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * Increased on every change to the elements of the plan.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile PlanSnapshot snapshot;
+
+    private final List<PlanChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger batchDepth = new AtomicInteger();
+
+    private volatile boolean changedDuringBatch = false;
+
+    Plan(String planId, PlanWorkspace workspace) {
+        this.planId = planId;
+        this.workspace = workspace;
     }
 
+    /**
+     * @return The active plan of the {@link PlanWorkspace}.
+     */
     public static Plan getInstance() {
-        if (instance == null) {
-            instance = new Plan();
-        }
-        return instance;
+        return PlanWorkspace.getInstance().getActivePlan();
+    }
+
+    public String getPlanId() {
+        return planId;
+    }
+
+    PlanWorkspace getWorkspace() {
+        return workspace;
     }
 
     public void cleanAllLists() {
+        senses.clear();
         actionEvents.clear();
         actionPatterns.clear();
         competenceElements.clear();
         competences.clear();
         driveElements.clear();
         driveCollections.clear();
+        elementTable.clear();
+        references.clear();
+        implicitElements.clear();
+        changed();
+        fire(new PlanChangeEvent(this, PlanChangeEvent.Type.PLAN_RELOADED, null, null));
     }
 
     public ActionEvent createAction(String name) {
@@ -61,10 +107,33 @@ public class Plan {
         }
         action = new ActionEvent(name);
         actionEvents.add(action);
+        changed();
 
         return action;
     }
 
+    /**
+     * Like {@link #createAction(String)}, but for a name the file triggers without defining it. If there is not an
+     * action with the name already, the one made is remembered as implicit, so that it can be reported.
+     */
+    public ActionEvent createImplicitAction(String name) {
+        ActionEvent action = findAction(name);
+        if (action != null) {
+            return action;
+        }
+        action = createAction(name);
+        implicitElements.add(action);
+
+        return action;
+    }
+
+    /**
+     * @return True if a reader made the element up, see {@link #createImplicitAction(String)}.
+     */
+    public boolean isImplicit(PlanElement planElement) {
+        return implicitElements.contains(planElement);
+    }
+
     public Sense createSense(String name) {
         Sense sense = findSense(name);
         if (sense != null) {
@@ -72,6 +141,7 @@ public class Plan {
         }
         sense = new Sense(name);
         senses.add(sense);
+        changed();
 
         return sense;
     }
@@ -83,150 +153,357 @@ public class Plan {
         }
         sense = new Sense(name, comperator, value);
         senses.add(sense);
+        changed();
 
         return sense;
     }
 
-    public void addActionPattern(ActionPattern action) {
-        actionPatterns.add(action);
+    public void addSense(Sense sense) {
+        senses.add(sense);
+        changed();
+    }
+
+    public void addAction(ActionEvent actionEvent) {
+        actionEvents.add(actionEvent);
+        changed();
+    }
+
+    public void addActionPattern(ActionPattern actionPattern) {
+        actionPatterns.add(actionPattern);
+        for (ActionEvent actionEvent : actionPattern.getActionEvents()) {
+            actionEvents.add(actionEvent);
+        }
+        changed();
     }
 
     public void addCompetence(Competence competence) {
         competences.add(competence);
+        for (CompetenceElement competenceElement : competence.getCompetenceElements()) {
+            competenceElements.add(competenceElement);
+        }
+        changed();
     }
 
     public void addCompetenceElement(CompetenceElement competenceElement) {
         competenceElements.add(competenceElement);
+        changed();
+    }
+
+    /**
+     * Adds the element to the competence, making sure it can be found by name too.
+     */
+    public void addCompetenceElement(Competence competence, CompetenceElement competenceElement) {
+        competence.addCompetenceElement(competenceElement);
+        competenceElements.add(competenceElement);
+        changed();
     }
 
     public void addDriveElement(DriveElement driveElement) {
         driveElements.add(driveElement);
+        changed();
+    }
+
+    /**
+     * Adds the element to the drive collection, making sure it can be found by name too.
+     */
+    public void addDriveElement(DriveCollection driveCollection, DriveElement driveElement) {
+        driveCollection.addDriveElement(driveElement);
+        driveElements.add(driveElement);
+        changed();
     }
 
     public void addDriveCollection(DriveCollection driveCollection) {
-        this.driveCollections.add(driveCollection);
+        driveCollections.add(driveCollection);
+        for (DriveElement driveElement : driveCollection.getDriveElements()) {
+            driveElements.add(driveElement);
+        }
+        changed();
+    }
+
+    /**
+     * @return The version of the plan; increased every time an element is added, removed or renamed.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Gives an immutable view of the elements of the plan and their names that stays consistent while the plan is
+     * edited; see {@link PlanSnapshot} for what it does not freeze. Taking a snapshot of a plan that has not changed
+     * since the last one is lock-free and returns the same snapshot.
+     */
+    public PlanSnapshot snapshot() {
+        PlanSnapshot currentSnapshot = snapshot;
+        if (currentSnapshot != null && currentSnapshot.getVersion() == version.get()) {
+            return currentSnapshot;
+        }
+        synchronized (version) {
+            currentSnapshot = snapshot;
+            long currentVersion = version.get();
+            if (currentSnapshot == null || currentSnapshot.getVersion() != currentVersion) {
+                currentSnapshot = new PlanSnapshot(currentVersion, senses.view(), actionEvents.view(),
+                        actionPatterns.view(), competences.view(), competenceElements.view(), driveElements.view(),
+                        driveCollections.view());
+                snapshot = currentSnapshot;
+            }
+            return currentSnapshot;
+        }
     }
 
     public List<DriveCollection> getDriveCollections() {
-        return driveCollections;
+        return driveCollections.asList();
     }
 
     public List<DriveElement> getDriveElements() {
-        return driveElements;
+        return driveElements.asList();
     }
 
     public List<CompetenceElement> getCompetenceElements() {
-        return competenceElements;
+        return competenceElements.asList();
     }
 
     public List<Competence> getCompetences() {
-        return competences;
+        return competences.asList();
     }
 
     public List<ActionPattern> getActionPatterns() {
-        return actionPatterns;
+        return actionPatterns.asList();
     }
 
     public List<ActionEvent> getActionEvents() {
-        return actionEvents;
+        return actionEvents.asList();
+    }
+
+    public List<Sense> getSenses() {
+        return senses.asList();
+    }
+
+    /**
+     * @return The element with the given id, or null if no element of this plan has it.
+     */
+    public PlanElement getElement(int id) {
+        return elementTable.get(id);
+    }
+
+    public PlanElementTable getElementTable() {
+        return elementTable;
     }
 
     public void removeDriveCollection(DriveCollection driveCollection) {
         driveCollections.remove(driveCollection);
+        changed();
     }
 
-    public Sense findSense(String name) {
-        for (Sense sense : senses) {
-            if (sense.getNameOfElement().equals(name)) {
-                return sense;
-            }
+    /**
+     * Removes the element from the plan. Elements that reference it are not changed; see {@link #getUsages}.
+     */
+    public void removeElement(PlanElement planElement) {
+        boolean removed = false;
+        if (planElement instanceof Sense) {
+            removed = senses.remove((Sense) planElement);
+        } else if (planElement instanceof ActionEvent) {
+            removed = actionEvents.remove((ActionEvent) planElement);
+        } else if (planElement instanceof ActionPattern) {
+            removed = actionPatterns.remove((ActionPattern) planElement);
+        } else if (planElement instanceof Competence) {
+            removed = competences.remove((Competence) planElement);
+        } else if (planElement instanceof CompetenceElement) {
+            removed = competenceElements.remove((CompetenceElement) planElement);
+        } else if (planElement instanceof DriveElement) {
+            removed = driveElements.remove((DriveElement) planElement);
+        } else if (planElement instanceof DriveCollection) {
+            removed = driveCollections.remove((DriveCollection) planElement);
+        }
+        if (removed) {
+            changed();
         }
-        return null;
     }
 
-    public ActionEvent findAction(String name) {
-        for (ActionEvent actionEvent : actionEvents) {
-            if (actionEvent.getNameOfElement().equals(name)) {
-                return actionEvent;
-            }
+    /**
+     * Stops the referrer from using the element, whether it triggers it or holds it as a sub-element or sense.
+     */
+    public void removeReference(PlanElement referrer, PlanElement planElement) {
+        if (referrer instanceof ElementWithTrigger
+                && ((ElementWithTrigger) referrer).getTriggeredElement() == planElement) {
+            ((ElementWithTrigger) referrer).removeTriggeredElement();
+        }
+        if (referrer instanceof ActionPattern && planElement instanceof ActionEvent) {
+            ((ActionPattern) referrer).removeActionEvent((ActionEvent) planElement);
+        } else if (referrer instanceof Competence && planElement instanceof CompetenceElement) {
+            ((Competence) referrer).removeCompetenceElement((CompetenceElement) planElement);
+        } else if (referrer instanceof DriveCollection && planElement instanceof DriveElement) {
+            ((DriveCollection) referrer).removeDriveElement((DriveElement) planElement);
         }
-        return null;
     }
 
-    public PlanElement findActionPattern(String name) {
-        for (ActionPattern actionsPattern : actionPatterns) {
-            if (actionsPattern.getNameOfElement().equals(name)) {
-                return actionsPattern;
-            }
+    /**
+     * @return The elements that trigger the element, contain it or use it as a sense.
+     */
+    public List<PlanElement> getUsages(PlanElement planElement) {
+        return references.getReferrers(planElement);
+    }
+
+    /**
+     * @return The elements affected by deleting the element: the ones using it, then the ones that are only used
+     * through it and would be left unused.
+     */
+    public Set<PlanElement> getImpactSet(PlanElement planElement) {
+        return references.getImpactSet(planElement);
+    }
+
+    /**
+     * Called by the element when its triggered element, sub-elements or senses have changed.
+     */
+    public void referencesChanged(PlanElement planElement, PlanChangeEvent.Type type) {
+        if (elementTable.get(planElement.getID()) != planElement) {
+            return;
         }
-        return null;
+        references.update(planElement);
+        changed();
+        fire(new PlanChangeEvent(this, type, planElement, null));
     }
 
+    public void addPlanChangeListener(PlanChangeListener listener) {
+        listeners.add(listener);
+    }
 
-    public Competence findCompetence(String name) {
-        for (Competence competence : competences) {
-            if (competence.getNameOfElement().equals(name)) {
-                return competence;
-            }
+    public void removePlanChangeListener(PlanChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Holds back the change events until {@link #endBatch()} is called, e.g. while a file is read into the plan. The
+     * listeners are then sent a single {@link PlanChangeEvent.Type#PLAN_RELOADED} if anything changed.
+     */
+    public void beginBatch() {
+        batchDepth.incrementAndGet();
+    }
+
+    public void endBatch() {
+        if (batchDepth.decrementAndGet() == 0 && changedDuringBatch) {
+            changedDuringBatch = false;
+            fire(new PlanChangeEvent(this, PlanChangeEvent.Type.PLAN_RELOADED, null, null));
         }
-        return null;
     }
 
-    public CompetenceElement findCompetenceElement(String name) {
-        for (Competence competence : competences) {
-            for (CompetenceElement competenceElement : competence.getCompetenceElements()) {
-                if (competenceElement.getNameOfElement().equals(name))
-                    return competenceElement;
-            }
+    /**
+     * Called when the element is added to one of the lists of the plan.
+     */
+    void attach(PlanElement planElement) {
+        planElement.setNameOfElement(workspace.intern(planElement.getNameOfElement()));
+        if (planElement instanceof Sense) {
+            Sense sense = (Sense) planElement;
+            sense.setComperator(workspace.intern(sense.getComperator()));
+            sense.setValue(workspace.intern(sense.getValue()));
         }
-        return null;
+        elementTable.register(planElement);
+        planElement.setPlan(this);
+        references.update(planElement);
+        fire(new PlanChangeEvent(this, PlanChangeEvent.Type.ELEMENT_ADDED, planElement, null));
     }
 
-    public CompetenceElement findCompetenceElementXPOSH(String name) {
-        for (CompetenceElement competenceElement : competenceElements) {
-            if (competenceElement.getNameOfElement().equals(name))
-                return competenceElement;
+    /**
+     * Called when the element is removed from the lists of the plan.
+     */
+    void detach(PlanElement planElement) {
+        references.remove(planElement);
+        implicitElements.remove(planElement);
+        planElement.setPlan(null);
+        fire(new PlanChangeEvent(this, PlanChangeEvent.Type.ELEMENT_REMOVED, planElement, null));
+    }
+
+    /**
+     * Changes the name of an element, keeping the name lookups of the plan up to date.
+     */
+    public void renameElement(PlanElement planElement, String newName) {
+        String oldName = planElement.getNameOfElement();
+        if (planElement instanceof Sense) {
+            senses.rename((Sense) planElement, newName);
+        } else if (planElement instanceof ActionEvent) {
+            actionEvents.rename((ActionEvent) planElement, newName);
+        } else if (planElement instanceof ActionPattern) {
+            actionPatterns.rename((ActionPattern) planElement, newName);
+        } else if (planElement instanceof Competence) {
+            competences.rename((Competence) planElement, newName);
+        } else if (planElement instanceof CompetenceElement) {
+            competenceElements.rename((CompetenceElement) planElement, newName);
+        } else if (planElement instanceof DriveElement) {
+            driveElements.rename((DriveElement) planElement, newName);
+        } else if (planElement instanceof DriveCollection) {
+            driveCollections.rename((DriveCollection) planElement, newName);
         }
-        return null;
+        planElement.setNameOfElement(workspace.intern(newName));
+        changed();
+        fire(new PlanChangeEvent(this, PlanChangeEvent.Type.ELEMENT_RENAMED, planElement, oldName));
     }
 
-    public DriveElement findDriveElementXPOSH(String name) {
-        for (DriveElement driveElement : driveElements) {
-            if (driveElement.getNameOfElement().equals(name))
-                return driveElement;
+    private void changed() {
+        version.incrementAndGet();
+    }
+
+    private void fire(PlanChangeEvent event) {
+        if (batchDepth.get() > 0) {
+            changedDuringBatch = true;
+            return;
         }
-        return null;
+        for (PlanChangeListener listener : listeners) {
+            listener.planChanged(event);
+        }
+    }
+
+    public Sense findSense(String name) {
+        return senses.find(name);
+    }
+
+    public ActionEvent findAction(String name) {
+        return actionEvents.find(name);
+    }
+
+    public PlanElement findActionPattern(String name) {
+        return actionPatterns.find(name);
+    }
+
+    public Competence findCompetence(String name) {
+        return competences.find(name);
+    }
+
+    public CompetenceElement findCompetenceElement(String name) {
+        return competenceElements.find(name);
+    }
+
+    public CompetenceElement findCompetenceElementXPOSH(String name) {
+        return competenceElements.find(name);
+    }
+
+    public DriveElement findDriveElementXPOSH(String name) {
+        return driveElements.find(name);
     }
 
     public DriveCollection findDriveCollection(String name) {
-        for (DriveCollection driveCollection : driveCollections) {
-            if (driveCollection.getNameOfElement().equals(name)) {
-                return driveCollection;
-            }
-        }
-        return null;
+        return driveCollections.find(name);
     }
 
     public PlanElement findActionPatternOrCompetence(String name) {
-        for (Competence competence : competences) {
-            if (competence.getNameOfElement().equals(name)) {
-                return competence;
-            }
+        Competence competence = findCompetence(name);
+        if (competence != null) {
+            return competence;
         }
         return findActionPattern(name);
     }
 
     public List<ActionPattern> findActionPatternsWithAction(String name) {
-        List<ActionPattern> actionPatterns = new ArrayList<>();
+        List<ActionPattern> actionPatternsWithAction = new ArrayList<>();
+        ActionEvent actionEvent = findAction(name);
+        if (actionEvent == null) {
+            return actionPatternsWithAction;
+        }
 
-        for (ActionPattern actionsPattern : actionPatterns) {
-            for (ActionEvent actionEvent : actionsPattern.getActionEvents()) {
-                if (actionEvent.getNameOfElement().equals(name)) {
-                    actionPatterns.add(actionsPattern);
-                }
+        for (PlanElement referrer : getUsages(actionEvent)) {
+            if (referrer instanceof ActionPattern && ((ActionPattern) referrer).getActionEvents().contains(actionEvent)) {
+                actionPatternsWithAction.add((ActionPattern) referrer);
             }
         }
 
-        return actionPatterns;
+        return actionPatternsWithAction;
     }
-}
\ No newline at end of file
+}
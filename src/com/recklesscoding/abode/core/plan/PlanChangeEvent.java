@@ -0,0 +1,90 @@
+package com.recklesscoding.abode.core.plan;
+
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+
+/**
+ * <p>
+ * Describes a single change made to a {@link Plan}, so that the views can update the part of them showing the element
+ * instead of being rebuilt.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ * @see PlanChangeListener
+ */
+public class PlanChangeEvent {
+
+    public enum Type {
+        /**
+         * The element was added to the lists of the plan.
+         */
+        ELEMENT_ADDED,
+        /**
+         * The element was removed from the lists of the plan. Elements still referencing it are not changed.
+         */
+        ELEMENT_REMOVED,
+        ELEMENT_RENAMED,
+        /**
+         * The element now triggers a different element, or none.
+         */
+        TRIGGER_CHANGED,
+        /**
+         * Actions, competence elements or drive elements were added to or removed from the element.
+         */
+        SUB_ELEMENTS_CHANGED,
+        /**
+         * The senses, goals or triggers of the element were replaced.
+         */
+        SENSES_CHANGED,
+        /**
+         * Anything in the plan may have changed, e.g. it was cleared or a file was read into it. The element is null.
+         */
+        PLAN_RELOADED
+    }
+
+    private final Plan plan;
+
+    private final Type type;
+
+    private final PlanElement planElement;
+
+    private final String oldName;
+
+    public PlanChangeEvent(Plan plan, Type type, PlanElement planElement, String oldName) {
+        this.plan = plan;
+        this.type = type;
+        this.planElement = planElement;
+        this.oldName = oldName;
+    }
+
+    public Plan getPlan() {
+        return plan;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public PlanElement getPlanElement() {
+        return planElement;
+    }
+
+    /**
+     * @return The name the element had before it was renamed, or null if the element was not renamed.
+     */
+    public String getOldName() {
+        return oldName;
+    }
+
+    /**
+     * @return True if the change can alter which elements are shown under the element.
+     */
+    public boolean isStructural() {
+        return type == Type.TRIGGER_CHANGED || type == Type.SUB_ELEMENTS_CHANGED || type == Type.SENSES_CHANGED;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + planElement;
+    }
+}
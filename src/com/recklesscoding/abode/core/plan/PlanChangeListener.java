@@ -0,0 +1,12 @@
+package com.recklesscoding.abode.core.plan;
+
+/**
+ * Notified of every change made to a {@link Plan} it was added to. Called on the thread that made the change.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public interface PlanChangeListener {
+
+    void planChanged(PlanChangeEvent event);
+}
@@ -0,0 +1,194 @@
+package com.recklesscoding.abode.core.plan;
+
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * Holds all the {@link PlanElement}s of a single type that are registered in a {@link Plan}. Elements are kept in
+ * insertion order, as the writers and the views list them, and are also indexed by their name so that a lookup does not
+ * need to go through the whole list. Every element added is also attached to the plan, which gives it an id and indexes
+ * what it references.
+ * </p>
+ * <p>
+ * Lookups are lock-free and can be called from the debugger's network threads while the plan is being edited. If more
+ * than one element shares the same name, the first one added is the one returned by {@link #find(String)}.
+ * </p>
+ * <p>
+ * {@link #view()} returns an immutable copy of the elements and their names that is reused until the elements are
+ * added, removed or renamed, so that every {@link PlanSnapshot} taken in between shares it.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+class PlanElementIndex<T extends PlanElement> {
+
+    private final Map<String, T> elementsByName = new ConcurrentHashMap<>();
+
+    private final List<T> elements = new ArrayList<>();
+
+    private final Plan plan;
+
+    /**
+     * The immutable copy handed out by {@link #view()}; null when the elements have changed since it was made.
+     */
+    private volatile View<T> view;
+
+    PlanElementIndex(Plan plan) {
+        this.plan = plan;
+    }
+
+    /**
+     * @return The element with the given name, or null if there is not one.
+     */
+    T find(String name) {
+        if (name == null) {
+            return null;
+        }
+        return elementsByName.get(name);
+    }
+
+    /**
+     * Adds the element at the end of the list, unless the exact same element was already added.
+     *
+     * @return True if the element was added.
+     */
+    synchronized boolean add(T element) {
+        if (contains(element)) {
+            return false;
+        }
+        elements.add(element);
+        view = null;
+        plan.attach(element);
+        String name = element.getNameOfElement();
+        if (name != null) {
+            elementsByName.putIfAbsent(name, element);
+        }
+        return true;
+    }
+
+    synchronized boolean remove(T element) {
+        if (!elements.remove(element)) {
+            return false;
+        }
+        view = null;
+        unindex(element, element.getNameOfElement());
+        plan.detach(element);
+        return true;
+    }
+
+    synchronized boolean contains(T element) {
+        String name = element.getNameOfElement();
+        if (name != null) {
+            T indexedElement = elementsByName.get(name);
+            if (indexedElement == element) {
+                return true;
+            }
+            // The first element with a name is always indexed, so no element has this name yet.
+            if (indexedElement == null) {
+                return false;
+            }
+        }
+        // Only elements with a duplicate or missing name can get here.
+        for (T existingElement : elements) {
+            if (existingElement == element) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the element to its new name in the index. Has to be called before the name of the element is changed.
+     */
+    synchronized void rename(T element, String newName) {
+        if (!contains(element)) {
+            return;
+        }
+        view = null;
+        unindex(element, element.getNameOfElement());
+        if (newName != null) {
+            elementsByName.putIfAbsent(newName, element);
+        }
+    }
+
+    synchronized void clear() {
+        elements.clear();
+        view = null;
+        elementsByName.clear();
+    }
+
+    synchronized int size() {
+        return elements.size();
+    }
+
+    /**
+     * @return An immutable copy of the elements, in the order they were added.
+     */
+    List<T> asList() {
+        return view().elements;
+    }
+
+    /**
+     * @return An immutable copy of the elements and of the names they are found by.
+     */
+    View<T> view() {
+        View<T> currentView = view;
+        if (currentView != null) {
+            return currentView;
+        }
+        synchronized (this) {
+            if (view == null) {
+                view = new View<>(Collections.unmodifiableList(new ArrayList<>(elements)),
+                        Collections.unmodifiableMap(new HashMap<>(elementsByName)));
+            }
+            return view;
+        }
+    }
+
+    private void unindex(T element, String name) {
+        if (name == null || !elementsByName.remove(name, element)) {
+            return;
+        }
+        // Another element with the same name becomes the one found by name.
+        for (T existingElement : elements) {
+            if (existingElement != element && name.equals(existingElement.getNameOfElement())) {
+                elementsByName.put(name, existingElement);
+                return;
+            }
+        }
+    }
+
+    /**
+     * The elements of one type at one time, and the element each name found then.
+     */
+    static final class View<T> {
+
+        private final List<T> elements;
+
+        private final Map<String, T> elementsByName;
+
+        private View(List<T> elements, Map<String, T> elementsByName) {
+            this.elements = elements;
+            this.elementsByName = elementsByName;
+        }
+
+        List<T> getElements() {
+            return elements;
+        }
+
+        T find(String name) {
+            if (name == null) {
+                return null;
+            }
+            return elementsByName.get(name);
+        }
+    }
+}
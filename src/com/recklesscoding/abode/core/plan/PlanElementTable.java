@@ -0,0 +1,84 @@
+package com.recklesscoding.abode.core.plan;
+
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Gives every {@link PlanElement} added to a {@link Plan} a dense int id and keeps the elements in an array indexed by
+ * that id. The debuggers keep ids instead of names, so resolving an element for an incoming event is a single array
+ * read.
+ * </p>
+ * <p>
+ * Ids are stable for as long as the plan is not cleared; removing an element from the plan does not free its id.
+ * Reads are not locked and may be done from any thread.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class PlanElementTable {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private volatile PlanElement[] elements = new PlanElement[INITIAL_CAPACITY];
+
+    private volatile int size = 0;
+
+    /**
+     * Increased every time the table is cleared, so that anything caching ids can tell that they are no longer valid.
+     */
+    private volatile int generation = 0;
+
+    /**
+     * Gives the element the next free id, unless it already has one in this table.
+     *
+     * @return The id of the element.
+     */
+    synchronized int register(PlanElement planElement) {
+        int id = planElement.getID();
+        if (id >= 0 && id < size && elements[id] == planElement) {
+            return id;
+        }
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        id = size;
+        elements[id] = planElement;
+        planElement.setID(id);
+        size = id + 1;
+        return id;
+    }
+
+    synchronized void clear() {
+        for (int i = 0; i < size; i++) {
+            elements[i].setID(-1);
+        }
+        elements = new PlanElement[INITIAL_CAPACITY];
+        size = 0;
+        generation++;
+    }
+
+    /**
+     * @return The element with the given id, or null if there is not one.
+     */
+    public PlanElement get(int id) {
+        PlanElement[] currentElements = elements;
+        if (id < 0 || id >= currentElements.length) {
+            return null;
+        }
+        return currentElements[id];
+    }
+
+    /**
+     * @return One more than the highest id given so far.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+}
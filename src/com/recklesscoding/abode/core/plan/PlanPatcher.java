@@ -0,0 +1,325 @@
+package com.recklesscoding.abode.core.plan;
+
+import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.planelements.Sense;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
+import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
+import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Brings a plan in line with another one, e.g. one read again from the same file, by changing only the elements that
+ * differ. The elements are matched by their type and name, in the order they were added when several share a name.
+ * </p>
+ * <p>
+ * Elements that only exist in the other plan are added, elements that are no longer there are removed, and the
+ * properties, senses, sub-elements and triggers of the rest are set only where they changed. Every change goes through
+ * the usual setters, so the listeners of the plan get an event for each element that changed and the elements that did
+ * not change keep their ids, their nodes and whatever the debugger has attached to them.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class PlanPatcher {
+
+    private final Plan plan;
+
+    private final PlanWorkspace workspace;
+
+    /**
+     * The element of the plan matched to each element of the other plan.
+     */
+    private final Map<PlanElement, PlanElement> counterparts = new IdentityHashMap<>();
+
+    private final List<PlanElement> unmatched = new ArrayList<>();
+
+    private int changes;
+
+    public PlanPatcher(Plan plan) {
+        this.plan = plan;
+        this.workspace = plan.getWorkspace();
+    }
+
+    /**
+     * Changes the plan to match the other one. Has to be called on the thread that edits the plan.
+     *
+     * @param freshPlan A plan that is not in use anywhere else; its elements are only read.
+     * @return How many elements were added, changed or removed.
+     */
+    public int patch(Plan freshPlan) {
+        counterparts.clear();
+        unmatched.clear();
+        changes = 0;
+
+        PlanSnapshot current = plan.snapshot();
+        PlanSnapshot fresh = freshPlan.snapshot();
+
+        // Every element of the other plan gets a counterpart first, as the elements refer to each other in cycles.
+        match(current.getSenses(), fresh.getSenses(),
+                sense -> add(new Sense(sense.getNameOfElement(), sense.getComperator(), sense.getValue())));
+        match(current.getActionEvents(), fresh.getActionEvents(), action -> freshPlan.isImplicit(action)
+                ? plan.createImplicitAction(action.getNameOfElement()) : plan.createAction(action.getNameOfElement()));
+        match(current.getActionPatterns(), fresh.getActionPatterns(),
+                actionPattern -> add(new ActionPattern(actionPattern.getNameOfElement())));
+        match(current.getCompetenceElements(), fresh.getCompetenceElements(),
+                competenceElement -> add(new CompetenceElement(competenceElement.getNameOfElement())));
+        match(current.getCompetences(), fresh.getCompetences(),
+                competence -> add(new Competence(competence.getNameOfElement())));
+        match(current.getDriveElements(), fresh.getDriveElements(),
+                driveElement -> add(new DriveElement(driveElement.getNameOfElement())));
+        match(current.getDriveCollections(), fresh.getDriveCollections(),
+                driveCollection -> add(new DriveCollection(driveCollection.getNameOfElement())));
+
+        for (Sense sense : fresh.getSenses()) {
+            update((Sense) counterparts.get(sense), sense);
+        }
+        for (ActionPattern actionPattern : fresh.getActionPatterns()) {
+            update((ActionPattern) counterparts.get(actionPattern), actionPattern);
+        }
+        for (CompetenceElement competenceElement : fresh.getCompetenceElements()) {
+            update((CompetenceElement) counterparts.get(competenceElement), competenceElement);
+        }
+        for (Competence competence : fresh.getCompetences()) {
+            update((Competence) counterparts.get(competence), competence);
+        }
+        for (DriveElement driveElement : fresh.getDriveElements()) {
+            update((DriveElement) counterparts.get(driveElement), driveElement);
+        }
+        for (DriveCollection driveCollection : fresh.getDriveCollections()) {
+            update((DriveCollection) counterparts.get(driveCollection), driveCollection);
+        }
+
+        // Whatever used the elements left over has been changed to match the other plan, so they can go.
+        for (PlanElement planElement : unmatched) {
+            plan.removeElement(planElement);
+            changes++;
+        }
+        counterparts.clear();
+        unmatched.clear();
+        return changes;
+    }
+
+    private <T extends PlanElement> void match(List<T> currentElements, List<T> freshElements,
+                                               Function<T, T> createCounterpart) {
+        Map<String, Deque<T>> currentByName = new HashMap<>();
+        for (T planElement : currentElements) {
+            currentByName.computeIfAbsent(planElement.getNameOfElement(), name -> new ArrayDeque<>()).add(planElement);
+        }
+        for (T freshElement : freshElements) {
+            Deque<T> sameName = currentByName.get(freshElement.getNameOfElement());
+            T counterpart = sameName != null ? sameName.poll() : null;
+            if (counterpart == null) {
+                counterpart = createCounterpart.apply(freshElement);
+                changes++;
+            }
+            counterparts.put(freshElement, counterpart);
+        }
+        for (Deque<T> sameName : currentByName.values()) {
+            unmatched.addAll(sameName);
+        }
+    }
+
+    private <T extends PlanElement> T add(T planElement) {
+        if (planElement instanceof Sense) {
+            plan.addSense((Sense) planElement);
+        } else if (planElement instanceof ActionPattern) {
+            plan.addActionPattern((ActionPattern) planElement);
+        } else if (planElement instanceof CompetenceElement) {
+            plan.addCompetenceElement((CompetenceElement) planElement);
+        } else if (planElement instanceof Competence) {
+            plan.addCompetence((Competence) planElement);
+        } else if (planElement instanceof DriveElement) {
+            plan.addDriveElement((DriveElement) planElement);
+        } else if (planElement instanceof DriveCollection) {
+            plan.addDriveCollection((DriveCollection) planElement);
+        }
+        return planElement;
+    }
+
+    private void update(Sense sense, Sense freshSense) {
+        if (!Objects.equals(sense.getComperator(), freshSense.getComperator())
+                || !Objects.equals(sense.getValue(), freshSense.getValue())) {
+            sense.setComperator(workspace.intern(freshSense.getComperator()));
+            sense.setValue(workspace.intern(freshSense.getValue()));
+            changes++;
+        }
+    }
+
+    private void update(ActionPattern actionPattern, ActionPattern freshActionPattern) {
+        boolean changed = updateTrigger(actionPattern, freshActionPattern);
+        if (actionPattern.getTimeValue() != freshActionPattern.getTimeValue()
+                || actionPattern.getTimeUnits() != freshActionPattern.getTimeUnits()) {
+            actionPattern.setTimeValue(freshActionPattern.getTimeValue());
+            actionPattern.setTimeUnits(freshActionPattern.getTimeUnits());
+            changed = true;
+        }
+        List<ActionEvent> actions = mapAll(freshActionPattern.getActionEvents());
+        if (!sameElements(actionPattern.getActionEvents(), actions)) {
+            actionPattern.setActions(actions);
+            changed = true;
+        }
+        countIf(changed);
+    }
+
+    private void update(CompetenceElement competenceElement, CompetenceElement freshCompetenceElement) {
+        boolean changed = updateTrigger(competenceElement, freshCompetenceElement);
+        if (competenceElement.getRetries() != freshCompetenceElement.getRetries()) {
+            competenceElement.setRetries(freshCompetenceElement.getRetries());
+            changed = true;
+        }
+        if (!sameSenses(competenceElement.getSenses(), freshCompetenceElement.getSenses())) {
+            competenceElement.setSenses(mapAll(freshCompetenceElement.getSenses()));
+            changed = true;
+        }
+        countIf(changed);
+    }
+
+    private void update(Competence competence, Competence freshCompetence) {
+        boolean changed = false;
+        if (competence.getTimeout() != freshCompetence.getTimeout()
+                || competence.getTimeUnits() != freshCompetence.getTimeUnits()) {
+            competence.setTimeout(freshCompetence.getTimeout());
+            competence.setTimeUnits(freshCompetence.getTimeUnits());
+            changed = true;
+        }
+        if (!sameSenses(competence.getGoals(), freshCompetence.getGoals())) {
+            competence.setGoals(mapAll(freshCompetence.getGoals()));
+            changed = true;
+        }
+        List<CompetenceElement> competenceElements = mapAll(freshCompetence.getCompetenceElements());
+        if (!sameElements(competence.getCompetenceElements(), competenceElements)) {
+            competence.setCompetenceElements(competenceElements);
+            changed = true;
+        }
+        countIf(changed);
+    }
+
+    private void update(DriveElement driveElement, DriveElement freshDriveElement) {
+        boolean changed = updateTrigger(driveElement, freshDriveElement);
+        if (driveElement.getFrequencyValue() != freshDriveElement.getFrequencyValue()
+                || !Objects.equals(driveElement.getFrequencyUnit(), freshDriveElement.getFrequencyUnit())) {
+            driveElement.setFrequencyValue(freshDriveElement.getFrequencyValue());
+            driveElement.setFrequencyUnit(freshDriveElement.getFrequencyUnit());
+            changed = true;
+        }
+        if (!sameSenses(driveElement.getSenses(), freshDriveElement.getSenses())) {
+            driveElement.setDriveElementSenses(mapAll(freshDriveElement.getSenses()));
+            changed = true;
+        }
+        countIf(changed);
+    }
+
+    private void update(DriveCollection driveCollection, DriveCollection freshDriveCollection) {
+        boolean changed = updateTrigger(driveCollection, freshDriveCollection);
+        if (driveCollection.isRealTime() != freshDriveCollection.isRealTime()) {
+            driveCollection.setRealTime(freshDriveCollection.isRealTime());
+            changed = true;
+        }
+        if (!sameSenses(driveCollection.getGoals(), freshDriveCollection.getGoals())) {
+            driveCollection.setGoals(mapAll(freshDriveCollection.getGoals()));
+            changed = true;
+        }
+        List<DriveElement> driveElements = mapAll(freshDriveCollection.getDriveElements());
+        if (!sameElements(driveCollection.getDriveElements(), driveElements)) {
+            driveCollection.setDriveElements(driveElements);
+            changed = true;
+        }
+        countIf(changed);
+    }
+
+    private boolean updateTrigger(ElementWithTrigger element, ElementWithTrigger freshElement) {
+        PlanElement triggeredElement = map(freshElement.getTriggeredElement());
+        if (element.getTriggeredElement() == triggeredElement) {
+            return false;
+        }
+        if (triggeredElement == null) {
+            element.removeTriggeredElement();
+        } else {
+            element.setTriggeredElement(triggeredElement);
+        }
+        return true;
+    }
+
+    private void countIf(boolean changed) {
+        if (changed) {
+            changes++;
+        }
+    }
+
+    /**
+     * @return The counterpart of the element; an element the other plan uses without holding it, e.g. a sense that
+     * belongs to a single element, is copied.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends PlanElement> T map(T freshElement) {
+        if (freshElement == null) {
+            return null;
+        }
+        PlanElement counterpart = counterparts.get(freshElement);
+        if (counterpart != null) {
+            return (T) counterpart;
+        }
+        if (freshElement instanceof Sense) {
+            Sense sense = (Sense) freshElement;
+            return (T) new Sense(sense.getNameOfElement(), sense.getComperator(), sense.getValue());
+        }
+        if (freshElement instanceof ActionEvent) {
+            return (T) plan.createImplicitAction(freshElement.getNameOfElement());
+        }
+        return null;
+    }
+
+    private <T extends PlanElement> List<T> mapAll(List<T> freshElements) {
+        List<T> elements = new ArrayList<>(freshElements.size());
+        for (T freshElement : freshElements) {
+            T element = map(freshElement);
+            if (element != null) {
+                elements.add(element);
+            }
+        }
+        return elements;
+    }
+
+    private static <T extends PlanElement> boolean sameElements(List<T> elements, List<T> otherElements) {
+        if (elements.size() != otherElements.size()) {
+            return false;
+        }
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i) != otherElements.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameSenses(List<Sense> senses, List<Sense> otherSenses) {
+        if (senses.size() != otherSenses.size()) {
+            return false;
+        }
+        for (int i = 0; i < senses.size(); i++) {
+            Sense sense = senses.get(i);
+            Sense otherSense = otherSenses.get(i);
+            if (!Objects.equals(sense.getNameOfElement(), otherSense.getNameOfElement())
+                    || !Objects.equals(sense.getComperator(), otherSense.getComperator())
+                    || !Objects.equals(sense.getValue(), otherSense.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
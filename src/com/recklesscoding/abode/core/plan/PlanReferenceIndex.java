@@ -0,0 +1,137 @@
+package com.recklesscoding.abode.core.plan;
+
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * Keeps, for every {@link PlanElement}, the elements of the {@link Plan} that reference it: the elements that trigger
+ * it, and the action patterns, competences and drive collections that contain it or use it as a sense.
+ * </p>
+ * <p>
+ * The references of an element are updated every time it is added to the plan or one of its triggers, sub-elements or
+ * senses changes, so looking up the usages of an element does not need to go through the plan.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+class PlanReferenceIndex {
+
+    /**
+     * The elements each element referenced the last time it was updated.
+     */
+    private final Map<PlanElement, List<PlanElement>> references = new HashMap<>();
+
+    /**
+     * The elements referencing each element, with the number of times they reference it.
+     */
+    private final Map<PlanElement, Map<PlanElement, Integer>> referrers = new HashMap<>();
+
+    /**
+     * Replaces what the element was known to reference with what it references now.
+     */
+    synchronized void update(PlanElement referrer) {
+        List<PlanElement> newReferences = referrer.getReferencedElements();
+        List<PlanElement> oldReferences = references.put(referrer, newReferences);
+        if (oldReferences != null) {
+            unlink(referrer, oldReferences);
+        }
+        for (PlanElement referencedElement : newReferences) {
+            Map<PlanElement, Integer> elementReferrers = referrers.get(referencedElement);
+            if (elementReferrers == null) {
+                elementReferrers = new LinkedHashMap<>();
+                referrers.put(referencedElement, elementReferrers);
+            }
+            elementReferrers.merge(referrer, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Forgets what the element references. Whatever references the element is kept.
+     */
+    synchronized void remove(PlanElement referrer) {
+        List<PlanElement> oldReferences = references.remove(referrer);
+        if (oldReferences != null) {
+            unlink(referrer, oldReferences);
+        }
+    }
+
+    synchronized void clear() {
+        references.clear();
+        referrers.clear();
+    }
+
+    /**
+     * @return The elements that reference the element, in the order they started referencing it.
+     */
+    synchronized List<PlanElement> getReferrers(PlanElement planElement) {
+        Map<PlanElement, Integer> elementReferrers = referrers.get(planElement);
+        if (elementReferrers == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(elementReferrers.keySet());
+    }
+
+    /**
+     * @return The elements that would be left referencing the element if it was deleted, followed by the elements
+     * that are only used through it and would no longer be used at all.
+     */
+    synchronized Set<PlanElement> getImpactSet(PlanElement planElement) {
+        Set<PlanElement> impactSet = new LinkedHashSet<>(getReferrers(planElement));
+
+        Set<PlanElement> deletedElements = Collections.newSetFromMap(new IdentityHashMap<>());
+        deletedElements.add(planElement);
+        Deque<PlanElement> elementsToCheck = new ArrayDeque<>(getReferences(planElement));
+        while (!elementsToCheck.isEmpty()) {
+            PlanElement referencedElement = elementsToCheck.pop();
+            if (deletedElements.contains(referencedElement)
+                    || !deletedElements.containsAll(referrers.get(referencedElement).keySet())) {
+                continue;
+            }
+            // Every element using it is gone; an element shared with another referrer is checked again when the
+            // last of them goes.
+            deletedElements.add(referencedElement);
+            impactSet.add(referencedElement);
+            elementsToCheck.addAll(getReferences(referencedElement));
+        }
+        return impactSet;
+    }
+
+    private List<PlanElement> getReferences(PlanElement planElement) {
+        List<PlanElement> elementReferences = references.get(planElement);
+        if (elementReferences == null) {
+            return Collections.emptyList();
+        }
+        return elementReferences;
+    }
+
+    private void unlink(PlanElement referrer, List<PlanElement> oldReferences) {
+        for (PlanElement referencedElement : oldReferences) {
+            Map<PlanElement, Integer> elementReferrers = referrers.get(referencedElement);
+            if (elementReferrers == null) {
+                continue;
+            }
+            Integer count = elementReferrers.get(referrer);
+            if (count == null || count <= 1) {
+                elementReferrers.remove(referrer);
+            } else {
+                elementReferrers.put(referrer, count - 1);
+            }
+            if (elementReferrers.isEmpty()) {
+                referrers.remove(referencedElement);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.recklesscoding.abode.core.plan;
+
+import com.recklesscoding.abode.core.plan.planelements.Sense;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
+import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
+import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
+
+import java.util.List;
+
+/**
+ * <p>
+ * An immutable view of the elements of a {@link Plan} at one version. The lists never change once the snapshot is
+ * made, so they can be iterated from the debugger threads without locking while the plan is edited on the FX thread.
+ * Names are looked up as they were at that version too, the first element added winning if several shared one, so a
+ * reader that resolves many names, such as a log being read, finds them all in the same plan.
+ * </p>
+ * <p>
+ * Only which elements the plan has, and the names they are found by, are frozen. The elements themselves are those of
+ * the plan, and an edit made after the snapshot, such as a rename, a new trigger or a reload of the file patching an
+ * element in place, shows through them. Their child lists are copy-on-write, so each one can be iterated while it is
+ * edited, but two of them read one after the other may come from either side of an edit. A reader that needs an
+ * element to still have the name it was found by compares {@link #getVersion()} with {@link Plan#getVersion()}.
+ * </p>
+ * <p>
+ * Each edit of the plan gives it a new version; the next call to {@link Plan#snapshot()} makes a new snapshot that
+ * reuses the lists of every type of element that was not touched, so keeping old snapshots around costs little.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public final class PlanSnapshot {
+
+    private final long version;
+
+    private final PlanElementIndex.View<Sense> senses;
+
+    private final PlanElementIndex.View<ActionEvent> actionEvents;
+
+    private final PlanElementIndex.View<ActionPattern> actionPatterns;
+
+    private final PlanElementIndex.View<Competence> competences;
+
+    private final PlanElementIndex.View<CompetenceElement> competenceElements;
+
+    private final PlanElementIndex.View<DriveElement> driveElements;
+
+    private final PlanElementIndex.View<DriveCollection> driveCollections;
+
+    PlanSnapshot(long version, PlanElementIndex.View<Sense> senses, PlanElementIndex.View<ActionEvent> actionEvents,
+                 PlanElementIndex.View<ActionPattern> actionPatterns, PlanElementIndex.View<Competence> competences,
+                 PlanElementIndex.View<CompetenceElement> competenceElements,
+                 PlanElementIndex.View<DriveElement> driveElements,
+                 PlanElementIndex.View<DriveCollection> driveCollections) {
+        this.version = version;
+        this.senses = senses;
+        this.actionEvents = actionEvents;
+        this.actionPatterns = actionPatterns;
+        this.competences = competences;
+        this.competenceElements = competenceElements;
+        this.driveElements = driveElements;
+        this.driveCollections = driveCollections;
+    }
+
+    /**
+     * @return The version of the plan this snapshot was made from.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Sense> getSenses() {
+        return senses.getElements();
+    }
+
+    public List<ActionEvent> getActionEvents() {
+        return actionEvents.getElements();
+    }
+
+    public List<ActionPattern> getActionPatterns() {
+        return actionPatterns.getElements();
+    }
+
+    public List<Competence> getCompetences() {
+        return competences.getElements();
+    }
+
+    public List<CompetenceElement> getCompetenceElements() {
+        return competenceElements.getElements();
+    }
+
+    public List<DriveElement> getDriveElements() {
+        return driveElements.getElements();
+    }
+
+    public List<DriveCollection> getDriveCollections() {
+        return driveCollections.getElements();
+    }
+
+    public Sense findSense(String name) {
+        return senses.find(name);
+    }
+
+    public ActionEvent findAction(String name) {
+        return actionEvents.find(name);
+    }
+
+    public ActionPattern findActionPattern(String name) {
+        return actionPatterns.find(name);
+    }
+
+    public Competence findCompetence(String name) {
+        return competences.find(name);
+    }
+
+    public CompetenceElement findCompetenceElement(String name) {
+        return competenceElements.find(name);
+    }
+
+    public DriveElement findDriveElement(String name) {
+        return driveElements.find(name);
+    }
+
+    public DriveCollection findDriveCollection(String name) {
+        return driveCollections.find(name);
+    }
+}
@@ -0,0 +1,155 @@
+package com.recklesscoding.abode.core.plan;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * Holds every {@link Plan} that is open, keyed by an id, so that the plans of several agents can be loaded and
+ * debugged at the same time. One of them is the active plan, the one shown and edited by the views and returned by
+ * {@link Plan#getInstance()}.
+ * </p>
+ * <p>
+ * Agents, e.g. the bots reporting to the debuggers, can be assigned to a plan; the events of an agent that was not
+ * assigned go to the active plan. The names of the elements and the values of the senses are interned across all
+ * plans, so plans built from the same sub-plans do not each keep their own copy of them. The strings are held weakly,
+ * so those only used by plans that were replaced, closed or renamed are dropped with them.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class PlanWorkspace {
+
+    public static final String DEFAULT_PLAN_ID = "default";
+
+    private static final PlanWorkspace instance = new PlanWorkspace();
+
+    private final Map<String, Plan> plans = new ConcurrentHashMap<>();
+
+    private final Map<String, String> planIdsOfAgents = new ConcurrentHashMap<>();
+
+    /**
+     * Each string to itself, both held weakly; guarded by itself.
+     */
+    private final Map<String, WeakReference<String>> internedStrings = new WeakHashMap<>();
+
+    private volatile Plan activePlan;
+
+    private PlanWorkspace() {
+        activePlan = createPlan(DEFAULT_PLAN_ID);
+    }
+
+    public static PlanWorkspace getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return The plan with the given id, created empty if there was not one.
+     */
+    public Plan createPlan(String planId) {
+        return plans.computeIfAbsent(planId, id -> new Plan(id, this));
+    }
+
+    /**
+     * @return A new empty plan with the given id that is not part of the workspace yet, so that a file can be read
+     * into it while the plan it is going to replace is still in use. See {@link #replacePlan(Plan)}.
+     */
+    public Plan createDetachedPlan(String planId) {
+        return new Plan(planId, this);
+    }
+
+    /**
+     * Puts the plan in the workspace in place of the plan with the same id, in a single step. If the plan replaced was
+     * the active one, the new plan becomes the active plan.
+     *
+     * @return The plan that was replaced, or null if there was not one.
+     */
+    public synchronized Plan replacePlan(Plan plan) {
+        Plan replacedPlan = plans.put(plan.getPlanId(), plan);
+        if (replacedPlan != null && replacedPlan == activePlan) {
+            activePlan = plan;
+        }
+        return replacedPlan;
+    }
+
+    /**
+     * @return The plan with the given id, or null if there is not one.
+     */
+    public Plan getPlan(String planId) {
+        return plans.get(planId);
+    }
+
+    /**
+     * Closes the plan. The active plan cannot be removed.
+     *
+     * @return True if the plan was removed.
+     */
+    public boolean removePlan(String planId) {
+        Plan plan = plans.get(planId);
+        if (plan == null || plan == activePlan) {
+            return false;
+        }
+        plans.remove(planId);
+        planIdsOfAgents.values().removeIf(planId::equals);
+        return true;
+    }
+
+    public List<String> getPlanIds() {
+        return new ArrayList<>(plans.keySet());
+    }
+
+    public Plan getActivePlan() {
+        return activePlan;
+    }
+
+    /**
+     * Makes the plan with the given id the active one, creating it if there was not one.
+     */
+    public Plan setActivePlan(String planId) {
+        activePlan = createPlan(planId);
+        return activePlan;
+    }
+
+    /**
+     * Sends the events of the agent to the plan with the given id from now on.
+     */
+    public void assignAgent(String agentId, String planId) {
+        createPlan(planId);
+        planIdsOfAgents.put(agentId, planId);
+    }
+
+    /**
+     * @return The plan the agent was assigned to, the plan with the same id as the agent, or the active plan.
+     */
+    public Plan getPlanOfAgent(String agentId) {
+        String planId = planIdsOfAgents.get(agentId);
+        Plan plan = plans.get(planId != null ? planId : agentId);
+        if (plan == null) {
+            return activePlan;
+        }
+        return plan;
+    }
+
+    /**
+     * @return A string equal to the given one that is shared by all plans, or null if the string is null.
+     */
+    public String intern(String string) {
+        if (string == null) {
+            return null;
+        }
+        synchronized (internedStrings) {
+            WeakReference<String> reference = internedStrings.get(string);
+            String internedString = reference != null ? reference.get() : null;
+            if (internedString != null) {
+                return internedString;
+            }
+            internedStrings.put(string, new WeakReference<>(string));
+            return string;
+        }
+    }
+}
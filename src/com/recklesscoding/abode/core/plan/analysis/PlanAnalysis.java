@@ -0,0 +1,75 @@
+package com.recklesscoding.abode.core.plan.analysis;
+
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * The issues the {@link PlanAnalyzer} found in one version of a plan. It is never changed once made, so it can be
+ * handed to any thread.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public final class PlanAnalysis {
+
+    private final long planVersion;
+
+    private final List<PlanIssue> issues;
+
+    private final Map<DriveCollection, Integer> reachableCounts;
+
+    private final long durationNanos;
+
+    PlanAnalysis(long planVersion, List<PlanIssue> issues, Map<DriveCollection, Integer> reachableCounts,
+                 long durationNanos) {
+        this.planVersion = planVersion;
+        this.issues = Collections.unmodifiableList(issues);
+        this.reachableCounts = Collections.unmodifiableMap(reachableCounts);
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * @return The version of the plan that was analysed.
+     */
+    public long getPlanVersion() {
+        return planVersion;
+    }
+
+    public List<PlanIssue> getIssues() {
+        return issues;
+    }
+
+    public List<PlanIssue> getIssues(PlanIssue.Kind kind) {
+        List<PlanIssue> issuesOfKind = new ArrayList<>();
+        for (PlanIssue issue : issues) {
+            if (issue.getKind() == kind) {
+                issuesOfKind.add(issue);
+            }
+        }
+        return issuesOfKind;
+    }
+
+    public boolean hasIssues() {
+        return !issues.isEmpty();
+    }
+
+    /**
+     * @return How many elements each drive collection leads to, itself included.
+     */
+    public Map<DriveCollection, Integer> getReachableCounts() {
+        return reachableCounts;
+    }
+
+    /**
+     * @return How long the analysis took.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+}
@@ -0,0 +1,240 @@
+package com.recklesscoding.abode.core.plan.analysis;
+
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanSnapshot;
+import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
+import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>
+ * Checks a plan for cycles, elements that no drive collection leads to, triggers that lead nowhere or to an action a
+ * reader had to make up, and names used by more than one element.
+ * </p>
+ * <p>
+ * Each drive collection is walked by its own task on the common fork-join pool, while the checks that look at the
+ * whole plan run on the calling task. The result is kept for each plan and handed out again until the version of the
+ * plan changes.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class PlanAnalyzer {
+
+    private static final PlanAnalyzer instance = new PlanAnalyzer();
+
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    private final Map<Plan, PlanAnalysis> analyses = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static PlanAnalyzer getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return The analysis of the current version of the plan, made now if there is not one already.
+     */
+    public PlanAnalysis analyze(Plan plan) {
+        PlanSnapshot snapshot = plan.snapshot();
+        PlanAnalysis analysis = analyses.get(plan);
+        if (analysis != null && analysis.getPlanVersion() == snapshot.getVersion()) {
+            return analysis;
+        }
+        analysis = pool.invoke(new AnalysisTask(plan, snapshot));
+        analyses.put(plan, analysis);
+        return analysis;
+    }
+
+    /**
+     * @return The analysis of the current version of the plan, or null if it has not been analysed since it changed.
+     */
+    public PlanAnalysis getAnalysis(Plan plan) {
+        PlanAnalysis analysis = analyses.get(plan);
+        if (analysis != null && analysis.getPlanVersion() == plan.getVersion()) {
+            return analysis;
+        }
+        return null;
+    }
+
+    private static final class AnalysisTask extends RecursiveTask<PlanAnalysis> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Plan plan;
+
+        private final PlanSnapshot snapshot;
+
+        private final List<PlanIssue> issues = new ArrayList<>();
+
+        private AnalysisTask(Plan plan, PlanSnapshot snapshot) {
+            this.plan = plan;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        protected PlanAnalysis compute() {
+            long start = System.nanoTime();
+            List<ReachabilityTask> reachabilityTasks = new ArrayList<>();
+            for (DriveCollection driveCollection : snapshot.getDriveCollections()) {
+                ReachabilityTask reachabilityTask = new ReachabilityTask(driveCollection);
+                reachabilityTask.fork();
+                reachabilityTasks.add(reachabilityTask);
+            }
+
+            checkDuplicateNames();
+            checkTriggers();
+
+            Set<PlanElement> reachableElements = Collections.newSetFromMap(new IdentityHashMap<>());
+            Set<List<PlanElement>> cycles = new HashSet<>();
+            Map<DriveCollection, Integer> reachableCounts = new LinkedHashMap<>();
+            for (ReachabilityTask reachabilityTask : reachabilityTasks) {
+                reachabilityTask.join();
+                reachableElements.addAll(reachabilityTask.getReachableElements());
+                reachableCounts.put(reachabilityTask.getDriveCollection(), reachabilityTask.getReachableElements().size());
+                for (List<PlanElement> cycle : reachabilityTask.getCycles()) {
+                    // Drive collections that share a cycle find it from different elements of it.
+                    List<PlanElement> rotatedCycle = rotateToLowestId(cycle);
+                    if (cycles.add(rotatedCycle)) {
+                        issues.add(new PlanIssue(PlanIssue.Kind.CYCLE, rotatedCycle.get(0), rotatedCycle,
+                                describeCycle(rotatedCycle)));
+                    }
+                }
+            }
+
+            checkUnreachable(snapshot.getCompetences(), reachableElements);
+            checkUnreachable(snapshot.getCompetenceElements(), reachableElements);
+            checkUnreachable(snapshot.getActionPatterns(), reachableElements);
+            checkUnreachable(snapshot.getDriveElements(), reachableElements);
+            checkUnreachable(snapshot.getActionEvents(), reachableElements);
+
+            return new PlanAnalysis(snapshot.getVersion(), issues, reachableCounts, System.nanoTime() - start);
+        }
+
+        private void checkDuplicateNames() {
+            checkDuplicateNames(snapshot.getActionEvents(), "action");
+            checkDuplicateNames(snapshot.getActionPatterns(), "action pattern");
+            checkDuplicateNames(snapshot.getCompetences(), "competence");
+            checkDuplicateNames(snapshot.getCompetenceElements(), "competence element");
+            checkDuplicateNames(snapshot.getDriveElements(), "drive element");
+            checkDuplicateNames(snapshot.getDriveCollections(), "drive collection");
+
+            // Names are looked up as a competence first, so an action pattern with the same name is never found.
+            Set<String> namesOfCompetences = new HashSet<>();
+            for (Competence competence : snapshot.getCompetences()) {
+                namesOfCompetences.add(competence.getNameOfElement());
+            }
+            for (ActionPattern actionPattern : snapshot.getActionPatterns()) {
+                if (namesOfCompetences.contains(actionPattern.getNameOfElement())) {
+                    issues.add(new PlanIssue(PlanIssue.Kind.DUPLICATE_NAME, actionPattern, "Action pattern "
+                            + actionPattern + " has the same name as a competence, so it is never found."));
+                }
+            }
+        }
+
+        private void checkDuplicateNames(List<? extends PlanElement> planElements, String typeOfElements) {
+            Map<String, PlanElement> elementsByName = new HashMap<>();
+            for (PlanElement planElement : planElements) {
+                String name = planElement.getNameOfElement();
+                if (name != null && elementsByName.putIfAbsent(name, planElement) != null) {
+                    issues.add(new PlanIssue(PlanIssue.Kind.DUPLICATE_NAME, planElement, "More than one "
+                            + typeOfElements + " is named " + name + "."));
+                }
+            }
+        }
+
+        private void checkTriggers() {
+            checkTriggers(snapshot.getCompetenceElements(), true);
+            checkTriggers(snapshot.getDriveElements(), true);
+            checkTriggers(snapshot.getActionPatterns(), false);
+            checkTriggers(snapshot.getDriveCollections(), false);
+            checkContained(snapshot.getCompetences());
+            checkContained(snapshot.getActionPatterns());
+            checkContained(snapshot.getDriveCollections());
+        }
+
+        private void checkTriggers(List<? extends ElementWithTrigger> elementsWithTrigger, boolean isTriggerRequired) {
+            for (ElementWithTrigger elementWithTrigger : elementsWithTrigger) {
+                PlanElement triggeredElement = elementWithTrigger.getTriggeredElement();
+                if (triggeredElement == null) {
+                    if (isTriggerRequired) {
+                        issues.add(new PlanIssue(PlanIssue.Kind.DANGLING_TRIGGER, elementWithTrigger,
+                                elementWithTrigger + " triggers nothing."));
+                    }
+                } else if (triggeredElement.getPlan() != plan) {
+                    issues.add(new PlanIssue(PlanIssue.Kind.DANGLING_TRIGGER, elementWithTrigger, elementWithTrigger
+                            + " triggers " + triggeredElement + ", which is not part of the plan."));
+                } else if (triggeredElement.getNameOfElement() == null
+                        || triggeredElement.getNameOfElement().isEmpty()) {
+                    issues.add(new PlanIssue(PlanIssue.Kind.DANGLING_TRIGGER, elementWithTrigger,
+                            elementWithTrigger + " triggers an element without a name."));
+                } else if (plan.isImplicit(triggeredElement)) {
+                    issues.add(new PlanIssue(PlanIssue.Kind.AUTO_CREATED_TRIGGER, elementWithTrigger, elementWithTrigger
+                            + " triggers " + triggeredElement + ", which is not defined; it was read as an action."));
+                }
+            }
+        }
+
+        private void checkContained(List<? extends PlanElement> planElements) {
+            for (PlanElement planElement : planElements) {
+                for (PlanElement child : ReachabilityTask.getChildren(planElement)) {
+                    if (child.getPlan() != plan && !(planElement instanceof ElementWithTrigger
+                            && ((ElementWithTrigger) planElement).getTriggeredElement() == child)) {
+                        issues.add(new PlanIssue(PlanIssue.Kind.DANGLING_TRIGGER, planElement, planElement
+                                + " contains " + child + ", which is not part of the plan."));
+                    }
+                }
+            }
+        }
+
+        private void checkUnreachable(List<? extends PlanElement> planElements, Set<PlanElement> reachableElements) {
+            for (PlanElement planElement : planElements) {
+                if (!reachableElements.contains(planElement)) {
+                    issues.add(new PlanIssue(PlanIssue.Kind.UNREACHABLE, planElement,
+                            "No drive collection leads to " + planElement + "."));
+                }
+            }
+        }
+
+        /**
+         * @return The cycle started from its element with the lowest id, so that the same cycle found from different
+         * elements is equal.
+         */
+        private List<PlanElement> rotateToLowestId(List<PlanElement> cycle) {
+            List<PlanElement> elements = cycle.subList(0, cycle.size() - 1);
+            int lowest = 0;
+            for (int i = 1; i < elements.size(); i++) {
+                if (elements.get(i).getID() < elements.get(lowest).getID()) {
+                    lowest = i;
+                }
+            }
+            List<PlanElement> rotatedCycle = new ArrayList<>(elements.subList(lowest, elements.size()));
+            rotatedCycle.addAll(elements.subList(0, lowest));
+            rotatedCycle.add(rotatedCycle.get(0));
+            return rotatedCycle;
+        }
+
+        private String describeCycle(List<PlanElement> cycle) {
+            StringBuilder description = new StringBuilder(String.valueOf(cycle.get(0)));
+            for (int i = 1; i < cycle.size(); i++) {
+                description.append(" -> ").append(cycle.get(i));
+            }
+            return description.append(" is a cycle.").toString();
+        }
+    }
+}
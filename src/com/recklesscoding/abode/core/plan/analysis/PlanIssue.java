@@ -0,0 +1,86 @@
+package com.recklesscoding.abode.core.plan.analysis;
+
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * Something wrong with a plan, found by the {@link PlanAnalyzer}.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public final class PlanIssue {
+
+    public enum Kind {
+        /**
+         * The element triggers or contains itself, through the elements in {@link #getPath()}.
+         */
+        CYCLE,
+        /**
+         * No drive collection leads to the element, so it never runs.
+         */
+        UNREACHABLE,
+        /**
+         * The element triggers nothing, or triggers or contains an element that is not part of the plan.
+         */
+        DANGLING_TRIGGER,
+        /**
+         * The element triggers an action the reader made up, because the file names neither an action pattern nor a
+         * competence for it, e.g. because of a typo in an XPOSH triggers attribute.
+         */
+        AUTO_CREATED_TRIGGER,
+        /**
+         * More than one element of the same type, or an action pattern and a competence, share the name; only one of
+         * them can be found by it.
+         */
+        DUPLICATE_NAME
+    }
+
+    private final Kind kind;
+
+    private final PlanElement planElement;
+
+    private final List<PlanElement> path;
+
+    private final String message;
+
+    PlanIssue(Kind kind, PlanElement planElement, String message) {
+        this(kind, planElement, Collections.<PlanElement>emptyList(), message);
+    }
+
+    PlanIssue(Kind kind, PlanElement planElement, List<PlanElement> path, String message) {
+        this.kind = kind;
+        this.planElement = planElement;
+        this.path = Collections.unmodifiableList(path);
+        this.message = message;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public PlanElement getPlanElement() {
+        return planElement;
+    }
+
+    /**
+     * @return The elements that make up the cycle, starting and ending with {@link #getPlanElement()}; empty for the
+     * other kinds of issue.
+     */
+    public List<PlanElement> getPath() {
+        return path;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return kind + ": " + message;
+    }
+}
@@ -0,0 +1,130 @@
+package com.recklesscoding.abode.core.plan.analysis;
+
+import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
+import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Walks everything a single drive collection leads to, finding the elements it reaches and the cycles among them.
+ * The walk is depth-first but does not recurse, as generated plans can be far deeper than the stack of a thread.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+class ReachabilityTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Integer ON_PATH = 1;
+
+    private static final Integer DONE = 2;
+
+    private final DriveCollection driveCollection;
+
+    private final Map<PlanElement, Integer> states = new IdentityHashMap<>();
+
+    private final List<List<PlanElement>> cycles = new ArrayList<>();
+
+    ReachabilityTask(DriveCollection driveCollection) {
+        this.driveCollection = driveCollection;
+    }
+
+    @Override
+    protected void compute() {
+        Deque<Frame> frames = new ArrayDeque<>();
+        List<PlanElement> path = new ArrayList<>();
+        enter(driveCollection, frames, path);
+
+        while (!frames.isEmpty()) {
+            Frame frame = frames.peek();
+            if (frame.next < frame.children.size()) {
+                PlanElement child = frame.children.get(frame.next++);
+                Integer state = states.get(child);
+                if (state == null) {
+                    enter(child, frames, path);
+                } else if (state.equals(ON_PATH)) {
+                    List<PlanElement> cycle = new ArrayList<>(path.subList(path.lastIndexOf(child), path.size()));
+                    cycle.add(child);
+                    cycles.add(cycle);
+                }
+            } else {
+                frames.pop();
+                states.put(frame.planElement, DONE);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    private void enter(PlanElement planElement, Deque<Frame> frames, List<PlanElement> path) {
+        states.put(planElement, ON_PATH);
+        path.add(planElement);
+        frames.push(new Frame(planElement, getChildren(planElement)));
+    }
+
+    DriveCollection getDriveCollection() {
+        return driveCollection;
+    }
+
+    /**
+     * @return Every element the drive collection leads to, itself included.
+     */
+    Set<PlanElement> getReachableElements() {
+        return states.keySet();
+    }
+
+    /**
+     * @return The cycles found, each starting and ending with the same element.
+     */
+    List<List<PlanElement>> getCycles() {
+        return cycles;
+    }
+
+    /**
+     * @return What the element can lead to when it runs: its triggered element and its drive elements, competence
+     * elements or actions. Senses are not followed.
+     */
+    static List<PlanElement> getChildren(PlanElement planElement) {
+        List<PlanElement> children = new ArrayList<>();
+        if (planElement instanceof ElementWithTrigger) {
+            PlanElement triggeredElement = ((ElementWithTrigger) planElement).getTriggeredElement();
+            if (triggeredElement != null) {
+                children.add(triggeredElement);
+            }
+        }
+        if (planElement instanceof DriveCollection) {
+            children.addAll(((DriveCollection) planElement).getDriveElements());
+        } else if (planElement instanceof Competence) {
+            children.addAll(((Competence) planElement).getCompetenceElements());
+        } else if (planElement instanceof ActionPattern) {
+            children.addAll(((ActionPattern) planElement).getActionEvents());
+        }
+        return children;
+    }
+
+    private static final class Frame {
+
+        private final PlanElement planElement;
+
+        private final List<PlanElement> children;
+
+        private int next = 0;
+
+        private Frame(PlanElement planElement, List<PlanElement> children) {
+            this.planElement = planElement;
+            this.children = children;
+        }
+    }
+}
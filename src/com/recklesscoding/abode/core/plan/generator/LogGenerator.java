@@ -0,0 +1,208 @@
+package com.recklesscoding.abode.core.plan.generator;
+
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanSnapshot;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
+import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
+import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * Makes up logs of an agent running a plan, for benchmarking the log readers and the replay of logs far longer than
+ * the ones in testdata. Each cycle of the agent picks a drive collection and one of its drive elements, and follows
+ * what it triggers down to the actions, choosing a competence element at random at each competence. The same seed
+ * always gives the same log.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class LogGenerator {
+
+    /**
+     * How deep competences are followed, so that a plan with a cycle in it still gets a log.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    private final long seed;
+
+    public LogGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Writes a log in the format of the Instinct robot: a ten digit time in milliseconds, then E, S or P for an element
+     * that is executed, succeeded or is in progress, its type and its name.
+     *
+     * @param lines About how many lines to write; the last cycle is always finished.
+     */
+    public void writeInstinctLog(Plan plan, String filePath, int lines) {
+        PlanSnapshot snapshot = plan.snapshot();
+        Random random = new Random(seed);
+        try (Writer writer = new BufferedWriter(new FileWriter(filePath))) {
+            InstinctLogWriter logWriter = new InstinctLogWriter(writer, random);
+            writer.write("*HELLO*0000000000 Established InstinctServer Connection.\n");
+            while (logWriter.linesWritten < lines && !snapshot.getDriveCollections().isEmpty()) {
+                logWriter.writeCycle(pickDriveCollection(snapshot, random));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes a log in the format sent by the UnityPOSH agents: the number of the agent, then the name and the type of
+     * the element, separated by commas.
+     *
+     * @param lines  About how many lines to write; the last cycle is always finished.
+     * @param agents How many agents take turns to run the plan.
+     */
+    public void writeXPOSHLog(Plan plan, String filePath, int lines, int agents) {
+        PlanSnapshot snapshot = plan.snapshot();
+        Random random = new Random(seed);
+        try (Writer writer = new BufferedWriter(new FileWriter(filePath))) {
+            XPOSHLogWriter logWriter = new XPOSHLogWriter(writer);
+            while (logWriter.linesWritten < lines && !snapshot.getDriveCollections().isEmpty()) {
+                String agent = String.valueOf(random.nextInt(Math.max(1, agents)));
+                logWriter.writeCycle(agent, pickDriveCollection(snapshot, random), random);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static DriveCollection pickDriveCollection(PlanSnapshot snapshot, Random random) {
+        List<DriveCollection> driveCollections = snapshot.getDriveCollections();
+        return driveCollections.get(random.nextInt(driveCollections.size()));
+    }
+
+    private static DriveElement pickDriveElement(DriveCollection driveCollection, Random random) {
+        List<DriveElement> driveElements = driveCollection.getDriveElements();
+        if (driveElements.isEmpty()) {
+            return null;
+        }
+        return driveElements.get(random.nextInt(driveElements.size()));
+    }
+
+    private static CompetenceElement pickCompetenceElement(Competence competence, Random random) {
+        List<CompetenceElement> competenceElements = competence.getCompetenceElements();
+        if (competenceElements.isEmpty()) {
+            return null;
+        }
+        return competenceElements.get(random.nextInt(competenceElements.size()));
+    }
+
+    private static final class XPOSHLogWriter {
+
+        private final Writer writer;
+
+        private int linesWritten = 0;
+
+        private XPOSHLogWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        private void writeCycle(String agent, DriveCollection driveCollection, Random random) throws IOException {
+            writeLine(agent, driveCollection, "D");
+            PlanElement planElement = driveCollection.getTriggeredElement();
+            DriveElement driveElement = pickDriveElement(driveCollection, random);
+            if (driveElement != null) {
+                writeLine(agent, driveElement, "DE");
+                planElement = driveElement.getTriggeredElement();
+            }
+            for (int depth = 0; planElement instanceof Competence && depth < MAX_DEPTH; depth++) {
+                writeLine(agent, planElement, "C");
+                CompetenceElement competenceElement = pickCompetenceElement((Competence) planElement, random);
+                if (competenceElement == null) {
+                    return;
+                }
+                writeLine(agent, competenceElement, "CE");
+                planElement = competenceElement.getTriggeredElement();
+            }
+            if (planElement instanceof ActionPattern) {
+                writeLine(agent, planElement, "AP");
+                for (ActionEvent actionEvent : ((ActionPattern) planElement).getActionEvents()) {
+                    writeLine(agent, actionEvent, "A");
+                }
+            } else if (planElement instanceof ActionEvent) {
+                writeLine(agent, planElement, "A");
+            }
+        }
+
+        private void writeLine(String agent, PlanElement planElement, String type) throws IOException {
+            writer.write(agent + "," + planElement.getNameOfElement() + "," + type + "\n");
+            linesWritten++;
+        }
+    }
+
+    /**
+     * Writes the lines of one cycle, keeping the time of the log moving forward.
+     */
+    private static final class InstinctLogWriter {
+
+        private final Writer writer;
+
+        private final Random random;
+
+        private long time = 1000;
+
+        private int linesWritten = 0;
+
+        private InstinctLogWriter(Writer writer, Random random) {
+            this.writer = writer;
+            this.random = random;
+        }
+
+        private void writeCycle(DriveCollection driveCollection) throws IOException {
+            writeLine("E", "D", driveCollection, " 1 0 0 0 100 0");
+            DriveElement driveElement = pickDriveElement(driveCollection, random);
+            PlanElement planElement = driveElement != null ? driveElement.getTriggeredElement()
+                    : driveCollection.getTriggeredElement();
+            writeTriggered(planElement, 0);
+            writeLine("P", "D", driveCollection, " 1 0 0 0 100 0");
+        }
+
+        private void writeTriggered(PlanElement planElement, int depth) throws IOException {
+            if (planElement instanceof Competence && depth < MAX_DEPTH) {
+                Competence competence = (Competence) planElement;
+                writeLine("E", "C", competence, " 1 0 0");
+                CompetenceElement competenceElement = pickCompetenceElement(competence, random);
+                if (competenceElement != null) {
+                    writeLine("E", "CE", competenceElement, " 1 0 0");
+                    writeTriggered(competenceElement.getTriggeredElement(), depth + 1);
+                    writeLine("S", "CE", competenceElement, " 1 1 0");
+                }
+                writeLine("P", "C", competence, " 1 0 " + random.nextInt(100));
+            } else if (planElement instanceof ActionPattern) {
+                ActionPattern actionPattern = (ActionPattern) planElement;
+                writeLine("E", "AP", actionPattern, " 1 0 0");
+                for (ActionEvent actionEvent : actionPattern.getActionEvents()) {
+                    writeLine("E", "A", actionEvent, " 1 0 0");
+                    writeLine("S", "A", actionEvent, " 1 1 0");
+                }
+                writeLine("S", "AP", actionPattern, " 1 1 0");
+            } else if (planElement instanceof ActionEvent) {
+                writeLine("E", "A", planElement, " 1 0 0");
+                writeLine("S", "A", planElement, " 1 1 0");
+            }
+        }
+
+        private void writeLine(String event, String type, PlanElement planElement, String counters) throws IOException {
+            time += 1 + random.nextInt(3);
+            writer.write(String.format("%010d", time));
+            writer.write(" " + event + " " + type + " " + planElement.getNameOfElement() + counters + "\n");
+            linesWritten++;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.recklesscoding.abode.core.plan.generator;
+
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.planelements.Sense;
+import com.recklesscoding.abode.core.plan.planelements.TimeUnits;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
+import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
+import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
+import com.recklesscoding.abode.core.plan.writer.LapPlanWriter;
+import com.recklesscoding.abode.core.plan.writer.XMLPOSHPlanWriter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * Makes up plans of any size, for benchmarking the readers, writers and views on plans far larger than the ones in
+ * testdata. The same seed and sizes always give the same plan.
+ * </p>
+ * <p>
+ * Each drive element triggers a tree of competences {@code depth} levels deep, where each competence has
+ * {@code breadth} competence elements. The competence elements of the last level trigger action patterns, some of
+ * which are shared between competence elements, as they are in hand-written plans. Triggers and goals use senses from
+ * a fixed set of names.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class PlanGenerator {
+
+    private static final String[] COMPARATORS = {"=", ">", "<"};
+
+    /**
+     * How often a competence element of the last level reuses an action pattern made before, instead of a new one.
+     */
+    private static final double SHARED_ACTION_PATTERN_CHANCE = 0.2;
+
+    private final long seed;
+
+    private final int driveCollections;
+
+    private final int drivesPerCollection;
+
+    private final int breadth;
+
+    private final int depth;
+
+    private final int actionsPerPattern;
+
+    private Random random;
+
+    private int nextId;
+
+    private List<ActionEvent> actions;
+
+    private List<ActionPattern> actionPatterns;
+
+    /**
+     * @param driveCollections    How many drive collections the plan has.
+     * @param drivesPerCollection How many drive elements each drive collection has.
+     * @param breadth             How many competence elements each competence has.
+     * @param depth               How many levels of competences each drive element leads to; 0 for none, in which case
+     *                            the drive elements trigger action patterns.
+     * @param actionsPerPattern   How many actions each action pattern has.
+     */
+    public PlanGenerator(long seed, int driveCollections, int drivesPerCollection, int breadth, int depth,
+                         int actionsPerPattern) {
+        this.seed = seed;
+        this.driveCollections = driveCollections;
+        this.drivesPerCollection = drivesPerCollection;
+        this.breadth = breadth;
+        this.depth = depth;
+        this.actionsPerPattern = actionsPerPattern;
+    }
+
+    /**
+     * @return A generator for a plan of about the given number of elements, senses not included.
+     */
+    public static PlanGenerator forSize(int elements, long seed) {
+        int breadth = 5;
+        int depth = 1;
+        while (depth < 8 && countElementsPerDrive(breadth, depth + 1) * 10 <= elements) {
+            depth++;
+        }
+        int drives = Math.max(1, Math.round((float) elements / countElementsPerDrive(breadth, depth)));
+        int driveCollections = Math.max(1, drives / 50);
+        int drivesPerCollection = (drives + driveCollections - 1) / driveCollections;
+        return new PlanGenerator(seed, driveCollections, drivesPerCollection, breadth, depth, 3);
+    }
+
+    /**
+     * @return About how many elements a drive element and the tree under it have; the actions are counted once for the
+     * whole plan.
+     */
+    private static int countElementsPerDrive(int breadth, int depth) {
+        int elements = 1;
+        int elementsOfLevel = 1;
+        for (int level = 0; level < depth; level++) {
+            elements += elementsOfLevel;
+            elementsOfLevel *= breadth;
+            elements += elementsOfLevel;
+        }
+        return elements + (int) (elementsOfLevel * (1 - SHARED_ACTION_PATTERN_CHANCE));
+    }
+
+    /**
+     * Adds the made-up elements to the plan. The listeners of the plan get a single change event.
+     */
+    public void generate(Plan plan) {
+        random = new Random(seed);
+        nextId = 0;
+        actions = new ArrayList<>();
+        actionPatterns = new ArrayList<>();
+
+        plan.beginBatch();
+        try {
+            int numberOfActions = Math.max(16, driveCollections * drivesPerCollection * actionsPerPattern);
+            for (int i = 0; i < numberOfActions; i++) {
+                actions.add(plan.createAction("action-" + i));
+            }
+            for (int i = 0; i < driveCollections; i++) {
+                DriveCollection driveCollection = new DriveCollection("drive-collection-" + i, true, createSenses(1));
+                for (int j = 0; j < drivesPerCollection; j++) {
+                    driveCollection.addDriveElement(new DriveElement(nextName("drive-element"), createSenses(1),
+                            createTriggeredElement(plan, 1), "hz", 1 + random.nextInt(10)));
+                }
+                plan.addDriveCollection(driveCollection);
+            }
+        } finally {
+            plan.endBatch();
+        }
+    }
+
+    /**
+     * Generates the plan and writes it as LAP, Instinct and XPOSH files, named after the directory and base name given.
+     */
+    public void generateFiles(Plan plan, String directory, String baseName) {
+        generate(plan);
+        String path = directory + File.separator + baseName;
+        new LapPlanWriter().writeFile(path + ".lap", plan);
+        new XMLPOSHPlanWriter().writeFile(path + ".xml", plan);
+        writeInstFile(plan, path + ".inst");
+    }
+
+    private PlanElement createTriggeredElement(Plan plan, int level) {
+        if (level > depth) {
+            if (!actionPatterns.isEmpty() && random.nextDouble() < SHARED_ACTION_PATTERN_CHANCE) {
+                return actionPatterns.get(random.nextInt(actionPatterns.size()));
+            }
+            return createActionPattern(plan);
+        }
+        Competence competence = new Competence(nextName("competence"), 1 + random.nextInt(5), TimeUnits.SECONDS,
+                createSenses(random.nextInt(2)), null);
+        for (int i = 0; i < breadth; i++) {
+            competence.addCompetenceElement(new CompetenceElement(nextName("competence-element"), createSenses(1),
+                    createTriggeredElement(plan, level + 1), random.nextInt(3)));
+        }
+        plan.addCompetence(competence);
+        return competence;
+    }
+
+    private ActionPattern createActionPattern(Plan plan) {
+        List<ActionEvent> actionsOfPattern = new ArrayList<>();
+        for (int i = 0; i < actionsPerPattern; i++) {
+            actionsOfPattern.add(actions.get(random.nextInt(actions.size())));
+        }
+        ActionPattern actionPattern = new ActionPattern(nextName("action-pattern"), 1 + random.nextInt(10),
+                TimeUnits.SECONDS, actionsOfPattern);
+        plan.addActionPattern(actionPattern);
+        actionPatterns.add(actionPattern);
+        return actionPattern;
+    }
+
+    private List<Sense> createSenses(int count) {
+        List<Sense> senses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            senses.add(new Sense("sense-" + random.nextInt(64), COMPARATORS[random.nextInt(COMPARATORS.length)],
+                    String.valueOf(random.nextInt(100))));
+        }
+        return senses;
+    }
+
+    private String nextName(String prefix) {
+        return prefix + "-" + nextId++;
+    }
+
+    /**
+     * Writes the plan in the layout of the plans made by the Instinct tools, which is what {@code InstPlanReader}
+     * reads: a commented block for each element, naming its parents and children. Instinct has no drive collections,
+     * so each drive element is written as an Instinct drive.
+     */
+    public static void writeInstFile(Plan plan, String filePath) {
+        try (Writer writer = new BufferedWriter(new FileWriter(filePath))) {
+            int id = 0;
+            writer.write("// *** Instinct Robot Plan generated by ABODE ***\n\n");
+            writer.write("PLAN R C\n\n");
+
+            for (DriveElement driveElement : plan.getDriveElements()) {
+                writer.write("// Drive: " + driveElement + "\n");
+                writer.write("// \tChildren: " + driveElement.getTriggeredElement() + "\n");
+                writer.write("PLAN A D " + id++ + " 0 " + (int) driveElement.getFrequencyValue() + " 1 0 2 0 1 0 1 0 10\n\n");
+            }
+            for (Competence competence : plan.getCompetences()) {
+                writer.write("// Competence: " + competence + "\n");
+                writer.write("// \tParents: " + joinNames(plan.getUsages(competence)) + "\n");
+                writer.write("PLAN A C " + id++ + " 0 " + (int) competence.getTimeout() + " 0\n\n");
+            }
+            for (ActionPattern actionPattern : plan.getActionPatterns()) {
+                writer.write("// ActionPattern: " + actionPattern + "\n");
+                writer.write("// \tParents: " + joinNames(plan.getUsages(actionPattern)) + "\n");
+                writer.write("PLAN A P " + id++ + " 0\n\n");
+            }
+            for (Competence competence : plan.getCompetences()) {
+                for (CompetenceElement competenceElement : competence.getCompetenceElements()) {
+                    writer.write("// CompetenceElement: " + competenceElement + "\n");
+                    writer.write("// \tParents: " + competence + "\n");
+                    writer.write("// \tChildren: " + competenceElement.getTriggeredElement() + "\n");
+                    writer.write("PLAN A E " + id++ + " 0 0 0 " + competenceElement.getRetries() + "\n\n");
+                }
+            }
+            for (ActionPattern actionPattern : plan.getActionPatterns()) {
+                List<ActionEvent> actionEvents = actionPattern.getActionEvents();
+                for (int i = 0; i < actionEvents.size(); i++) {
+                    writer.write("// ActionPatternElement: " + actionPattern + "-" + (i + 1) + "\n");
+                    writer.write("// \tParents: " + actionPattern + "\n");
+                    writer.write("// \tChildren: " + actionEvents.get(i) + "\n");
+                    writer.write("//\tOrder=" + (i + 1) + "\n");
+                    writer.write("PLAN A L " + id++ + " 0 0 " + (i + 1) + "\n\n");
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static String joinNames(List<PlanElement> planElements) {
+        StringBuilder names = new StringBuilder();
+        for (PlanElement planElement : planElements) {
+            if (names.length() > 0) {
+                names.append(", ");
+            }
+            names.append(planElement.getNameOfElement());
+        }
+        return names.toString();
+    }
+}
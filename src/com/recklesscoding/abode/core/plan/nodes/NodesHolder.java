@@ -1,16 +1,22 @@
 package com.recklesscoding.abode.core.plan.nodes;
 
-import com.recklesscoding.abode.core.plan.nodes.plannodes.DriveCollectionNode;
+import com.recklesscoding.abode.core.plan.PlanChangeEvent;
 import com.recklesscoding.abode.core.plan.nodes.plannodes.RouteElementNode;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
 import javafx.scene.paint.Color;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * <p>
  * Holds lists with all the nodes.
  * </p>
+ * <p>
+ * A {@link PlanChangeEvent} can be applied to the nodes with {@link #apply(PlanChangeEvent)}, which only replaces the
+ * nodes under the changed element and leaves what was replaced in the added and removed lists.
+ * </p>
  *
  * @author :   Andreas Theodorou - www.recklesscoding.com
  * @version :   %G%
@@ -27,6 +33,16 @@ public class NodesHolder {
 
     private Map<PlanElement, PlanElementNode> nodesMap; // <id,nodes>
 
+    /**
+     * Every node of each element; an element used in more than one place of the plan has more than one node.
+     */
+    private Map<PlanElement, List<PlanElementNode>> nodesOfElements;
+
+    /**
+     * The edge coming into each node from its parent.
+     */
+    private Map<PlanElementNode, NodesConnector> edgesToNodes;
+
     private volatile List<PlanElementNode> allPlanElementNodes;
     private List<PlanElementNode> addedPlanElementNodes;
     private List<PlanElementNode> removedPlanElementNodes;
@@ -37,18 +53,156 @@ public class NodesHolder {
     private PlanElement rootPlanElement;
 
     public NodesHolder(PlanElement rootPlanElement) {
+        this(rootPlanElement, true);
+    }
+
+    /**
+     * @param populate False to start with only the root node, adding the drive collections later with
+     *                 {@link #addDriveCollection(DriveCollection)}.
+     */
+    public NodesHolder(PlanElement rootPlanElement, boolean populate) {
         this.rootPlanElement = rootPlanElement;
         // clear plan, create lists
         clear();
         nodesHolderHelper = new NodesHolderHelper(this);
-        nodesHolderHelper.populateNodesHolder();
+        if (populate) {
+            nodesHolderHelper.populateNodesHolder();
+        } else {
+            addNode(driveCollection);
+        }
     }
 
     public void refresh() {
+        releaseNodes();
         clearLists();
         nodesHolderHelper.populateNodesHolder();
     }
 
+    /**
+     * Throws away every node but the root one.
+     */
+    public void clearNodes() {
+        releaseNodes();
+        clearLists();
+        addNode(driveCollection);
+    }
+
+    /**
+     * Adds the nodes of the drive collection under the root node, unless it already has nodes.
+     *
+     * @return True if nodes were added.
+     */
+    public boolean addDriveCollection(DriveCollection driveCollectionElement) {
+        if (!getNodesOfElement(driveCollectionElement).isEmpty()) {
+            return false;
+        }
+        nodesHolderHelper.addDriveCollection(driveCollectionElement);
+        return true;
+    }
+
+    /**
+     * Updates the nodes for a change of the plan.
+     *
+     * @return True if nodes were added or removed, in which case the layout needs to be done again.
+     */
+    public boolean apply(PlanChangeEvent event) {
+        PlanElement planElement = event.getPlanElement();
+        switch (event.getType()) {
+            case ELEMENT_RENAMED:
+                for (PlanElementNode planElementNode : getNodesOfElement(planElement)) {
+                    planElementNode.getText().setText(planElement.getNameOfElement());
+                }
+                return false;
+            case ELEMENT_ADDED:
+                return planElement instanceof DriveCollection && addDriveCollection((DriveCollection) planElement);
+            case ELEMENT_REMOVED:
+                if (planElement instanceof DriveCollection) {
+                    for (PlanElementNode planElementNode : getNodesOfElement(planElement)) {
+                        if (planElementNode.getNodeParent() == driveCollection) {
+                            removeSubtree(planElementNode);
+                        }
+                    }
+                    return true;
+                }
+                return false;
+            case TRIGGER_CHANGED:
+            case SUB_ELEMENTS_CHANGED:
+                for (PlanElementNode planElementNode : getNodesOfElement(planElement)) {
+                    for (PlanElementNode childNode : new ArrayList<>(planElementNode.getCellChildren())) {
+                        removeSubtree(childNode);
+                    }
+                    nodesHolderHelper.addChildren(planElementNode);
+                }
+                return true;
+            case SENSES_CHANGED:
+                // Senses are not part of the diagram.
+                return false;
+            default:
+                refresh();
+                return true;
+        }
+    }
+
+    /**
+     * Records an edge between the two nodes, making the target a child of the source.
+     */
+    public void connect(PlanElementNode source, PlanElementNode target) {
+        NodesConnector nodesConnector = new NodesConnector(source, target);
+        addedEdges.add(nodesConnector);
+        edgesToNodes.put(target, nodesConnector);
+    }
+
+    public void addNode(PlanElementNode planElementNode) {
+        addedPlanElementNodes.add(planElementNode);
+        nodesMap.put(planElementNode.getPlanElement(), planElementNode);
+        nodesOfElements.computeIfAbsent(planElementNode.getPlanElement(), planElement -> new ArrayList<>())
+                .add(planElementNode);
+    }
+
+    /**
+     * Removes the node, its edge and every node under it.
+     */
+    public void removeSubtree(PlanElementNode planElementNode) {
+        for (PlanElementNode childNode : new ArrayList<>(planElementNode.getCellChildren())) {
+            removeSubtree(childNode);
+        }
+        PlanElementNode parentNode = planElementNode.getNodeParent();
+        if (parentNode != null) {
+            parentNode.removeChild(planElementNode);
+        }
+        NodesConnector nodesConnector = edgesToNodes.remove(planElementNode);
+        if (nodesConnector != null) {
+            removedEdges.add(nodesConnector);
+        }
+        removedPlanElementNodes.add(planElementNode);
+        drives.remove(planElementNode);
+
+        PlanElement planElement = planElementNode.getPlanElement();
+        List<PlanElementNode> nodesOfElement = nodesOfElements.get(planElement);
+        if (nodesOfElement != null) {
+            nodesOfElement.remove(planElementNode);
+            if (nodesOfElement.isEmpty()) {
+                nodesOfElements.remove(planElement);
+            }
+        }
+        if (nodesMap.get(planElement) == planElementNode) {
+            if (nodesOfElement != null && !nodesOfElement.isEmpty()) {
+                nodesMap.put(planElement, nodesOfElement.get(nodesOfElement.size() - 1));
+            } else {
+                nodesMap.remove(planElement);
+            }
+        }
+        planElement.releaseNode(planElementNode);
+    }
+
+    public List<PlanElementNode> getNodesOfElement(PlanElement planElement) {
+        List<PlanElementNode> nodesOfElement = nodesOfElements.get(planElement);
+        if (nodesOfElement == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(nodesOfElement);
+    }
+
     public void clear() {
         clearLists();
     }
@@ -57,7 +211,7 @@ public class NodesHolder {
         driveCollection = new RouteElementNode(rootPlanElement);
         drives = new ArrayList<>();
 
-        allPlanElementNodes = new ArrayList<>();
+        allPlanElementNodes = new CopyOnWriteArrayList<>();
         addedPlanElementNodes = new ArrayList<>();
         removedPlanElementNodes = new ArrayList<>();
 
@@ -66,6 +220,19 @@ public class NodesHolder {
         removedEdges = new ArrayList<>();
 
         nodesMap = new HashMap<>(); // <id,nodes>
+        nodesOfElements = new HashMap<>();
+        edgesToNodes = new HashMap<>();
+    }
+
+    /**
+     * Stops the elements from updating the nodes that are about to be thrown away.
+     */
+    private void releaseNodes() {
+        for (List<PlanElementNode> nodesOfElement : nodesOfElements.values()) {
+            for (PlanElementNode planElementNode : nodesOfElement) {
+                planElementNode.getPlanElement().releaseNode(planElementNode);
+            }
+        }
     }
 
     public void clearAddedLists() {
@@ -87,14 +254,14 @@ public class NodesHolder {
     public void merge() {
         // nodes
         allPlanElementNodes.addAll(addedPlanElementNodes);
-        allPlanElementNodes.removeAll(removedPlanElementNodes);
+        allPlanElementNodes.removeAll(new HashSet<>(removedPlanElementNodes));
 
         addedPlanElementNodes.clear();
         removedPlanElementNodes.clear();
 
         // edges
         allNodesConnectors.addAll(addedEdges);
-        allNodesConnectors.removeAll(removedEdges);
+        allNodesConnectors.removeAll(new HashSet<>(removedEdges));
 
         addedEdges.clear();
         removedEdges.clear();
@@ -1,6 +1,7 @@
 package com.recklesscoding.abode.core.plan.nodes;
 
 import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanSnapshot;
 import com.recklesscoding.abode.core.plan.nodes.plannodes.*;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
@@ -12,6 +13,8 @@ import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
 
 /**
  * <p>
+ * Creates the nodes of the elements of the plan and connects them to the node of the element they are under. Every
+ * subtree is built from the node it hangs from, so a part of the diagram can be rebuilt on its own.
  * </p>
  *
  * @author :   Andreas Theodorou - www.recklesscoding.com
@@ -30,79 +33,66 @@ public class NodesHolderHelper {
         addGraphComponents();
     }
 
-    private void addGraphComponents() {
-        for (DriveCollection driveCollection : Plan.getInstance().getDriveCollections()) {
-            createNewNode(driveCollection);
-            PlanElement triggeredElement = driveCollection.getTriggeredElement();
+    /**
+     * Adds the node of the drive collection, and everything under it, under the root node.
+     */
+    public void addDriveCollection(DriveCollection driveCollection) {
+        PlanElementNode driveCollectionNode = createNewNode(driveCollection);
+        addNodesConnector(nodesHolder.getDriveCollection(), driveCollectionNode);
+        addChildren(driveCollectionNode);
+    }
+
+    /**
+     * Adds the nodes of everything the element of the node triggers or contains under the node.
+     */
+    public void addChildren(PlanElementNode planElementNode) {
+        PlanElement planElement = planElementNode.getPlanElement();
+        if (planElement instanceof DriveCollection) {
+            DriveCollection driveCollection = (DriveCollection) planElement;
             for (DriveElement driveElement : driveCollection.getDriveElements()) {
-                subtreeDriveElement(driveElement, driveCollection);
+                addNewCell(driveElement, planElementNode);
             }
-            if (triggeredElement != null) {
-                getSubtree(triggeredElement, driveCollection);
+            addTriggeredSubtree(driveCollection.getTriggeredElement(), planElementNode);
+        } else if (planElement instanceof DriveElement) {
+            addTriggeredSubtree(((DriveElement) planElement).getTriggeredElement(), planElementNode);
+        } else if (planElement instanceof Competence) {
+            for (CompetenceElement competenceElement : ((Competence) planElement).getCompetenceElements()) {
+                addNewCell(competenceElement, planElementNode);
+            }
+        } else if (planElement instanceof CompetenceElement) {
+            addTriggeredSubtree(((CompetenceElement) planElement).getTriggeredElement(), planElementNode);
+        } else if (planElement instanceof ActionPattern) {
+            for (ActionEvent actionEvent : ((ActionPattern) planElement).getActionEvents()) {
+                addNewCell(actionEvent, planElementNode);
             }
         }
     }
 
-    private void subtreeDriveElement(DriveElement driveElement, DriveCollection driveCollection) {
-        addNewCell(driveElement, driveCollection);
-        PlanElement triggeredElement = driveElement.getTriggeredElement();
-        if (triggeredElement != null) {
-            getSubtree(triggeredElement, driveElement);
+    private void addGraphComponents() {
+        PlanSnapshot plan = Plan.getInstance().snapshot();
+        for (DriveCollection driveCollection : plan.getDriveCollections()) {
+            addDriveCollection(driveCollection);
         }
     }
 
-    private void getSubtree(PlanElement elementToBeAdded, PlanElement parentElement) {
-        if (elementToBeAdded instanceof Competence) {
-            subtreeCompetence(elementToBeAdded, parentElement);
-        }
-        if (elementToBeAdded instanceof ActionPattern) {
-            subtreeActionPattern((ActionPattern) elementToBeAdded, parentElement);
-        }
-        if (elementToBeAdded instanceof ActionEvent) {
-            subtreeAction((ActionEvent) elementToBeAdded, parentElement);
+    private void addTriggeredSubtree(PlanElement triggeredElement, PlanElementNode parentNode) {
+        if (triggeredElement instanceof Competence || triggeredElement instanceof ActionPattern
+                || triggeredElement instanceof ActionEvent) {
+            addNewCell(triggeredElement, parentNode);
         }
     }
 
-    private void subtreeAction(ActionEvent action, PlanElement parentElement) {
-        addNewCell(action, parentElement);
+    private void addNewCell(PlanElement elementToBeAdded, PlanElementNode parentNode) {
+        PlanElementNode planElementNode = createNewNode(elementToBeAdded);
+        addNodesConnector(parentNode, planElementNode);
+        addChildren(planElementNode);
     }
 
-    private void subtreeActionPattern(ActionPattern actionPattern, PlanElement parentElement) {
-        addNewCell(actionPattern, parentElement);
-        for (ActionEvent actionEvent : actionPattern.getActionEvents())
-            subtreeAction(actionEvent, actionPattern);
+    public void addNodesConnector(PlanElementNode sourcePlanElementNode, PlanElementNode targetPlanElementNode) {
+        nodesHolder.connect(sourcePlanElementNode, targetPlanElementNode);
     }
 
-    private void subtreeCompetence(PlanElement competence, PlanElement parentElement) {
-        addNewCell(competence, parentElement);
-        for (CompetenceElement competenceElement : ((Competence) competence).getCompetenceElements())
-            subtreeCompetenceElement(competenceElement, competence);
-    }
-
-    private void subtreeCompetenceElement(CompetenceElement competenceElement, PlanElement parentElement) {
-        addNewCell(competenceElement, parentElement);
-        PlanElement triggeredElement = competenceElement.getTriggeredElement();
-        if (triggeredElement != null)
-            getSubtree(triggeredElement, competenceElement);
-    }
-
-    private void addNewCell(PlanElement elementToBeAdded, PlanElement parentElement) {
-        createNewNode(elementToBeAdded);
-        saveNodesConnector(elementToBeAdded, parentElement);
-    }
-
-    private void saveNodesConnector(PlanElement childElement, PlanElement parentElement) {
-        addNodesConnector(childElement, parentElement);
-    }
-
-    public void addNodesConnector(PlanElement target, PlanElement source) {
-        PlanElementNode targetPlanElementNode = nodesHolder.getNodesMap().get(target);
-        PlanElementNode sourcePlanElementNode = nodesHolder.getNodesMap().get(source);
-
-        nodesHolder.getAddedEdges().add(new NodesConnector(sourcePlanElementNode, targetPlanElementNode));
-    }
-
-    public void createNewNode(PlanElement planElement) {
+    public PlanElementNode createNewNode(PlanElement planElement) {
         PlanElementNode newPlanElementNode = null;
         if (planElement instanceof ActionEvent)
             newPlanElementNode = new ActionNode(planElement);
@@ -120,16 +110,13 @@ public class NodesHolderHelper {
         }
         if (newPlanElementNode != null) {
             addNode(newPlanElementNode);
-            if (planElement instanceof DriveCollection) {
-                addNodesConnector(planElement, nodesHolder.getDriveCollection().getPlanElement());
-            }
         } else {
             throw new UnsupportedOperationException("Unsupported type");
         }
+        return newPlanElementNode;
     }
 
     private void addNode(PlanElementNode planElementNode) {
-        nodesHolder.getAddedPlanElementNodes().add(planElementNode);
-        nodesHolder.getNodesMap().put(planElementNode.getPlanElement(), planElementNode);
+        nodesHolder.addNode(planElementNode);
     }
 }
@@ -1,11 +1,13 @@
 package com.recklesscoding.abode.core.plan.nodes;
 
+import com.recklesscoding.abode.core.metrics.Counter;
+import com.recklesscoding.abode.core.metrics.FxQueue;
+import com.recklesscoding.abode.core.metrics.Metrics;
 import com.recklesscoding.abode.core.plan.nodes.plannodes.ActionNode;
 import com.recklesscoding.abode.core.plan.nodes.plannodes.ActionPatternNode;
 import com.recklesscoding.abode.core.plan.nodes.plannodes.DriveCollectionNode;
 import com.recklesscoding.abode.core.plan.nodes.plannodes.RouteElementNode;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
-import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.effect.Glow;
 import javafx.scene.layout.Pane;
@@ -30,6 +32,8 @@ import java.util.List;
  */
 public class PlanElementNode extends Pane {
 
+    private static final Counter glowUpdates = Metrics.getInstance().counter("glow.updates");
+
     private final PlanElement planElement;
 
     private List<PlanElementNode> children = new ArrayList<>();
@@ -60,6 +64,14 @@ public class PlanElementNode extends Pane {
         setGlow(false);
     }
 
+    /**
+     * Sets the glow straight to a level, as when a replay jumps to another time.
+     */
+    public void setGlowLevel(double glowLevel) {
+        glow.setLevel(Math.max(0, Math.min(1, glowLevel)));
+        rectangle.setEffect(glow);
+    }
+
     public void increaseGlow() {
         boolean isCorrectElement = true;
         List<PlanElement> planElements = new ArrayList<>();
@@ -93,8 +105,9 @@ public class PlanElementNode extends Pane {
 
         if (isCorrectElement) {
             setGlow(true);
+            glowUpdates.increment();
 
-            Platform.runLater(() -> {
+            FxQueue.runLater(() -> {
                 if (this instanceof ActionNode) {
                     if (this.getNodeParent() instanceof ActionPatternNode) {
                         ((ActionPatternNode) this.getNodeParent()).activate();
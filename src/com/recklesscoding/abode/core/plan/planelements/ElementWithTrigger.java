@@ -1,12 +1,16 @@
 package com.recklesscoding.abode.core.plan.planelements;
 
+import com.recklesscoding.abode.core.plan.PlanChangeEvent;
+
+import java.util.List;
+
 /**
  * Athor: Andreas
  * Date: 04/02/2016.
  */
 public class ElementWithTrigger extends PlanElement{
 
-    private PlanElement triggeredElement;
+    private volatile PlanElement triggeredElement;
 
     public ElementWithTrigger(String nameOfElement) {
         super(nameOfElement);
@@ -24,9 +28,21 @@ public class ElementWithTrigger extends PlanElement{
 
     public void removeTriggeredElement(){
         triggeredElement = null;
+        referencesChanged(PlanChangeEvent.Type.TRIGGER_CHANGED);
     }
 
     public void setTriggeredElement(PlanElement triggeredElement) {
         this.triggeredElement = triggeredElement;
+        referencesChanged(PlanChangeEvent.Type.TRIGGER_CHANGED);
+    }
+
+    @Override
+    public List<PlanElement> getReferencedElements() {
+        List<PlanElement> referencedElements = super.getReferencedElements();
+        PlanElement currentTriggeredElement = triggeredElement;
+        if (currentTriggeredElement != null) {
+            referencedElements.add(currentTriggeredElement);
+        }
+        return referencedElements;
     }
 }
\ No newline at end of file
@@ -1,16 +1,21 @@
 package com.recklesscoding.abode.core.plan.planelements;
 
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanChangeEvent;
 import com.recklesscoding.abode.core.plan.nodes.PlanElementNode;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Created by Andreas on 28/12/2015.
  */
 public class PlanElement {
 
-    private static int ID = 0;
+    private int id = -1;
+
+    private volatile Plan plan;
 
     private String nameOfElement;
 
@@ -20,19 +25,47 @@ public class PlanElement {
 
     private boolean isSetToUpdate = false;
 
-    private List<PlanElementNode> planElementNodes = new ArrayList<>();
+    private final List<PlanElementNode> planElementNodes = new CopyOnWriteArrayList<>();
 
     public PlanElement(String nameOfElement) {
         this.nameOfElement = nameOfElement;
-        ID++;
+    }
+
+    /**
+     * The lists of sub-elements and senses are iterated by the debuggers and the diagram while the plan is edited, so
+     * each element keeps its own copy-on-write copy instead of the list it was given.
+     *
+     * @return A copy-on-write copy of the elements, or an empty list if they are null.
+     */
+    protected static <T> List<T> newChildList(List<T> elements) {
+        if (elements == null) {
+            return new CopyOnWriteArrayList<>();
+        }
+        return new CopyOnWriteArrayList<>(elements);
     }
 
     public synchronized void setToUpdate() {
+        setToUpdate(1);
+    }
+
+    /**
+     * Updates the element for several activations at once, as a fast replay does for those within one frame: the
+     * nodes glow once and the usage counter goes up by all of them.
+     */
+    public synchronized void setToUpdate(int activations) {
         isSetToUpdate = true;
         for (PlanElementNode planElementNode: planElementNodes) {
             planElementNode.increaseGlow();
         }
-        increaseUsageCounter();
+        increaseUsageCounter(activations);
+    }
+
+    /**
+     * Puts the element back to how it was at another point of a replay, without making its nodes glow.
+     */
+    public synchronized void restore(int usageCounter, boolean isSetToUpdate) {
+        this.usageCounter = usageCounter;
+        this.isSetToUpdate = isSetToUpdate;
     }
 
     public void setFinishUpdate() {
@@ -43,9 +76,57 @@ public class PlanElement {
         this.planElementNodes.add(planElementNode);
     }
 
+    /**
+     * Stops updating the node, once it has been removed from the diagram.
+     */
+    public void releaseNode(PlanElementNode planElementNode) {
+        this.planElementNodes.remove(planElementNode);
+    }
+
 
+    /**
+     * @return The dense id given to the element by the {@link com.recklesscoding.abode.core.plan.Plan} it was added
+     * to, or -1 if it was never added to one.
+     */
     public int getID() {
-        return ID;
+        return id;
+    }
+
+    public void setID(int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return The plan the element was added to, or null if it is not part of one.
+     */
+    public Plan getPlan() {
+        return plan;
+    }
+
+    public void setPlan(Plan plan) {
+        this.plan = plan;
+    }
+
+    /**
+     * @return The elements this element triggers, contains or uses as senses. Sub-classes add their own.
+     */
+    public List<PlanElement> getReferencedElements() {
+        return new ArrayList<>();
+    }
+
+    /**
+     * Has to be called after anything returned by {@link #getReferencedElements()} changes, so that the plan can keep
+     * track of who uses what and tell the views.
+     */
+    protected void referencesChanged(PlanChangeEvent.Type type) {
+        Plan currentPlan = plan;
+        if (currentPlan != null) {
+            currentPlan.referencesChanged(this, type);
+        }
+    }
+
+    public List<PlanElementNode> getPlanElementNodes() {
+        return planElementNodes;
     }
 
     public String getNameOfElement() {
@@ -65,8 +146,8 @@ public class PlanElement {
         return usageCounter;
     }
 
-    private void increaseUsageCounter() {
-        this.usageCounter++;
+    private void increaseUsageCounter(int activations) {
+        this.usageCounter += activations;
     }
 
     public boolean isSetToUpdate() {
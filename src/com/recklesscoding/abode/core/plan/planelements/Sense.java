@@ -25,7 +25,6 @@ public class Sense extends PlanElement {
     }
 
     public void setValue(String value) {
-        System.out.println(value);
         this.value = value;
     }
 
@@ -1,11 +1,13 @@
 package com.recklesscoding.abode.core.plan.planelements.action;
 
 import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanChangeEvent;
 import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.TimeUnits;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Author: Andreas
@@ -17,9 +19,9 @@ public class ActionPattern extends ElementWithTrigger {
 
     private TimeUnits timeUnits = TimeUnits.SECONDS;
 
-    private List<ActionPatternElement> actionPatternElements = new LinkedList<>();
+    private final List<ActionPatternElement> actionPatternElements = new CopyOnWriteArrayList<>();
 
-    private List<ActionEvent> actionEvents = new LinkedList<>();
+    private volatile List<ActionEvent> actionEvents = new CopyOnWriteArrayList<>();
 
     public ActionPattern(String nameOfElement) {
         super(nameOfElement);
@@ -28,7 +30,8 @@ public class ActionPattern extends ElementWithTrigger {
     public ActionPattern(String name,List<ActionEvent> actions) {
         super(name);
 
-        this.actionEvents = actions;
+        this.actionEvents = newChildList(actions);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public ActionPattern(String name, double timeValue, TimeUnits timeUnits, List<ActionEvent> actions) {
@@ -36,20 +39,22 @@ public class ActionPattern extends ElementWithTrigger {
 
         this.timeValue = timeValue;
         this.timeUnits = timeUnits;
-        this.actionEvents = actions;
+        this.actionEvents = newChildList(actions);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public void addAction(ActionEvent actionEvent) {
-        if (Plan.getInstance().getActionEvents().contains(actionEvent))
-            actionEvents.add(actionEvent);
-        else {
-            Plan.getInstance().getActionEvents().add(actionEvent);
-            actionEvents.add(actionEvent);
+        Plan plan = getPlan();
+        if (plan != null) {
+            plan.addAction(actionEvent);
         }
+        actionEvents.add(actionEvent);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public void addActionPatternElemment(ActionPatternElement actionPatternElement) {
         actionPatternElements.add(actionPatternElement);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public List<ActionEvent> getActionEvents() {
@@ -61,7 +66,8 @@ public class ActionPattern extends ElementWithTrigger {
     }
 
     public void setActions(List<ActionEvent> actions) {
-        this.actionEvents = actions;
+        this.actionEvents = newChildList(actions);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public void setTimeValue(double timeValue) {
@@ -82,10 +88,20 @@ public class ActionPattern extends ElementWithTrigger {
 
     public void clearActionEvents() {
         actionEvents.clear();
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public void removeActionEvent(ActionEvent actionEvent) {
         actionEvents.remove(actionEvent);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
+    }
+
+    @Override
+    public List<PlanElement> getReferencedElements() {
+        List<PlanElement> referencedElements = super.getReferencedElements();
+        referencedElements.addAll(actionEvents);
+        referencedElements.addAll(actionPatternElements);
+        return referencedElements;
     }
 
 }
\ No newline at end of file
@@ -1,11 +1,12 @@
 package com.recklesscoding.abode.core.plan.planelements.competence;
 
+import com.recklesscoding.abode.core.plan.PlanChangeEvent;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.Sense;
 import com.recklesscoding.abode.core.plan.planelements.TimeUnits;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Author: @Andreas.
@@ -17,9 +18,9 @@ public class Competence extends PlanElement {
 
     private TimeUnits timeUnits = TimeUnits.SECONDS;
 
-    private List<Sense> goals = new LinkedList<>();
+    private volatile List<Sense> goals = new CopyOnWriteArrayList<>();
 
-    private List<CompetenceElement> competenceElements = new LinkedList<>();
+    private volatile List<CompetenceElement> competenceElements = new CopyOnWriteArrayList<>();
 
     public Competence(String nameOfElement) {
         super(nameOfElement);
@@ -27,30 +28,21 @@ public class Competence extends PlanElement {
 
     public Competence(String nameOfElement, List<Sense> goals, List<CompetenceElement> comptenceElements) {
         super(nameOfElement);
-        this.goals = goals;
-
-        if (goals != null) {
-            this.goals = goals;
-        } else {
-            this.goals = new LinkedList<>();
-        }
-        if (comptenceElements != null) {
-            this.competenceElements = comptenceElements;
-        } else {
-            this.competenceElements = new LinkedList<>();
-        }
+        this.goals = newChildList(goals);
+        this.competenceElements = newChildList(comptenceElements);
     }
 
     public Competence(String nameOfElement, double timeout, TimeUnits timeUnits, List<Sense> goals, List<CompetenceElement> comptenceElements) {
         super(nameOfElement);
         this.timeout = timeout;
         this.timeUnits = timeUnits;
-        this.goals = goals;
-        this.competenceElements = comptenceElements;
+        this.goals = newChildList(goals);
+        this.competenceElements = newChildList(comptenceElements);
     }
 
     public void setCompetenceElements(List<CompetenceElement> competenceElements) {
-        this.competenceElements = competenceElements;
+        this.competenceElements = newChildList(competenceElements);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public List<CompetenceElement> getCompetenceElements() {
@@ -59,10 +51,12 @@ public class Competence extends PlanElement {
 
     public void removeCompetenceElement(CompetenceElement competenceElement) {
         competenceElements.remove(competenceElement);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public void addCompetenceElement(CompetenceElement competenceElement) {
         competenceElements.add(competenceElement);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public double getTimeout() {
@@ -78,7 +72,16 @@ public class Competence extends PlanElement {
     }
 
     public void setGoals(List<Sense> goals) {
-        this.goals = goals;
+        this.goals = newChildList(goals);
+        referencesChanged(PlanChangeEvent.Type.SENSES_CHANGED);
+    }
+
+    @Override
+    public List<PlanElement> getReferencedElements() {
+        List<PlanElement> referencedElements = super.getReferencedElements();
+        referencedElements.addAll(competenceElements);
+        referencedElements.addAll(goals);
+        return referencedElements;
     }
 
     public void setTimeUnits(TimeUnits timeUnits) {
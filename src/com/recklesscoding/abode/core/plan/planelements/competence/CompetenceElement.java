@@ -1,12 +1,12 @@
 package com.recklesscoding.abode.core.plan.planelements.competence;
 
+import com.recklesscoding.abode.core.plan.PlanChangeEvent;
 import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.Sense;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Author: @Andreas.
@@ -14,39 +14,33 @@ import java.util.List;
  */
 public class CompetenceElement extends ElementWithTrigger {
 
-    private List<Sense> senses;
+    private volatile List<Sense> senses;
 
     private int retries = -1;
 
     public CompetenceElement(String nameOfElement) {
         super(nameOfElement);
 
-        this.senses = new LinkedList<>();
+        this.senses = new CopyOnWriteArrayList<>();
     }
 
     public CompetenceElement(String nameOfElement, List<Sense> senses) {
         super(nameOfElement);
 
-        if (senses != null)
-            this.senses = senses;
-        else
-            this.senses = new ArrayList<>();
+        this.senses = newChildList(senses);
     }
 
 
     public CompetenceElement(String nameOfElement, List<Sense> senses, PlanElement triggeredElement) {
         super(nameOfElement, triggeredElement);
 
-        if (senses != null)
-            this.senses = senses;
-        else
-            this.senses = new ArrayList<>();
+        this.senses = newChildList(senses);
     }
 
     public CompetenceElement(String nameOfElement, List<Sense> senses, PlanElement triggeredElement, Integer retries) {
         super(nameOfElement, triggeredElement);
 
-        this.senses = senses;
+        this.senses = newChildList(senses);
         if (retries != null) {
             this.retries = retries;
         }
@@ -57,7 +51,15 @@ public class CompetenceElement extends ElementWithTrigger {
     }
 
     public void setSenses(List<Sense> senses) {
-        this.senses = senses;
+        this.senses = newChildList(senses);
+        referencesChanged(PlanChangeEvent.Type.SENSES_CHANGED);
+    }
+
+    @Override
+    public List<PlanElement> getReferencedElements() {
+        List<PlanElement> referencedElements = super.getReferencedElements();
+        referencedElements.addAll(senses);
+        return referencedElements;
     }
 
     public void setRetries(int retries) {
@@ -1,10 +1,12 @@
 package com.recklesscoding.abode.core.plan.planelements.drives;
 
+import com.recklesscoding.abode.core.plan.PlanChangeEvent;
 import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.Sense;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Author: @Andreas.
@@ -14,9 +16,9 @@ public class DriveCollection extends ElementWithTrigger {
 
     private boolean realTime = true;
 
-    private volatile List<Sense> goals  = new LinkedList<>();
+    private volatile List<Sense> goals  = new CopyOnWriteArrayList<>();
 
-    private volatile List<DriveElement> driveElements = new LinkedList<>();
+    private volatile List<DriveElement> driveElements = new CopyOnWriteArrayList<>();
 
     public DriveCollection(String nameOfElement) {
         super(nameOfElement);
@@ -25,33 +27,22 @@ public class DriveCollection extends ElementWithTrigger {
     public DriveCollection(String nameOfElement, boolean realTime, List<Sense> goals) {
         super(nameOfElement);
         this.realTime = realTime;
-        if  (!(goals == null))
-            this.goals = goals;
-        else
-            this.goals = new LinkedList<>();
+        this.goals = newChildList(goals);
     }
 
     public DriveCollection(String nameOfElement, List<Sense> goals) {
         super(nameOfElement);
         this.realTime = realTime;
-        if  (!(goals == null))
-            this.goals = goals;
-        else
-            this.goals = new LinkedList<>();
+        this.goals = newChildList(goals);
     }
 
     public DriveCollection(String nameOfElement, List<Sense> goals, List<DriveElement> driveElements) {
         super(nameOfElement);
         this.realTime = realTime;
-        if  (!(goals == null))
-            this.goals = goals;
-        else
-            this.goals = new LinkedList<>();
-
-        if  (!(driveElements == null))
-            this.driveElements = driveElements;
-        else
-            this.driveElements = new LinkedList<>();
+        this.goals = newChildList(goals);
+
+        this.driveElements = newChildList(driveElements);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public DriveElement findDriveElement(String elementsName) {
@@ -65,10 +56,12 @@ public class DriveCollection extends ElementWithTrigger {
 
     public void addDriveElement(DriveElement element) {
         this.driveElements.add(element);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public void removeDriveElement(DriveElement element) {
         this.driveElements.remove(element);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public boolean containsDriveElement(DriveElement element) {
@@ -80,14 +73,23 @@ public class DriveCollection extends ElementWithTrigger {
     }
 
     public void setDriveElements(List<DriveElement> driveElements) {
-        this.driveElements = driveElements;
+        this.driveElements = newChildList(driveElements);
+        referencesChanged(PlanChangeEvent.Type.SUB_ELEMENTS_CHANGED);
     }
 
     public void setGoals(List<Sense> goals)
     {
-        this.goals = goals;
+        this.goals = newChildList(goals);
+        referencesChanged(PlanChangeEvent.Type.SENSES_CHANGED);
     }
 
+    @Override
+    public List<PlanElement> getReferencedElements() {
+        List<PlanElement> referencedElements = super.getReferencedElements();
+        referencedElements.addAll(driveElements);
+        referencedElements.addAll(goals);
+        return referencedElements;
+    }
 
     public List<Sense> getGoals() {
         return goals;
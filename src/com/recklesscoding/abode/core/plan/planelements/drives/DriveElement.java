@@ -1,11 +1,12 @@
 package com.recklesscoding.abode.core.plan.planelements.drives;
 
+import com.recklesscoding.abode.core.plan.PlanChangeEvent;
 import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.Sense;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Author: @Andreas.
@@ -17,7 +18,7 @@ public class DriveElement extends ElementWithTrigger {
 
     private String frequencyUnit;
 
-    private List<Sense> driveElementSenses = new LinkedList<>();
+    private volatile List<Sense> driveElementSenses = new CopyOnWriteArrayList<>();
 
     public DriveElement(String nameOfElement) {
         super(nameOfElement);
@@ -32,9 +33,7 @@ public class DriveElement extends ElementWithTrigger {
     public DriveElement(String nameOfElement, List<Sense> driveElementSenses) {
         super(nameOfElement);
 
-        if (driveElementSenses != null) {
-            this.driveElementSenses = driveElementSenses;
-        }
+        this.driveElementSenses = newChildList(driveElementSenses);
         this.frequencyUnit = "sec";
         this.frequencyValue = 0;
     }
@@ -42,9 +41,7 @@ public class DriveElement extends ElementWithTrigger {
     public DriveElement(String nameOfElement,  PlanElement acTriggered, List<Sense> driveElementSenses) {
         super(nameOfElement, acTriggered);
 
-        if (driveElementSenses != null) {
-            this.driveElementSenses = driveElementSenses;
-        }
+        this.driveElementSenses = newChildList(driveElementSenses);
         this.frequencyUnit = "sec";
         this.frequencyValue = 0;
     }
@@ -59,9 +56,7 @@ public class DriveElement extends ElementWithTrigger {
     public DriveElement(String nameOfElement, List<Sense> driveElementSenses, double frequencyValue) {
         super(nameOfElement);
 
-        if (driveElementSenses != null) {
-            this.driveElementSenses = driveElementSenses;
-        }
+        this.driveElementSenses = newChildList(driveElementSenses);
         this.frequencyUnit = "sec";
         this.frequencyValue = frequencyValue;
     }
@@ -76,9 +71,7 @@ public class DriveElement extends ElementWithTrigger {
     public DriveElement(String nameOfElement,  PlanElement acTriggered, List<Sense> driveElementSenses, double frequencyValue) {
         super(nameOfElement, acTriggered);
 
-        if (driveElementSenses != null) {
-            this.driveElementSenses = driveElementSenses;
-        }
+        this.driveElementSenses = newChildList(driveElementSenses);
         this.frequencyUnit = "sec";
         this.frequencyValue = frequencyValue;
     }
@@ -87,9 +80,7 @@ public class DriveElement extends ElementWithTrigger {
     public DriveElement(String nameOfElement, List<Sense> driveElementSenses, PlanElement acTriggered, String frequencyUnit, double frequencyValue) {
         super(nameOfElement, acTriggered);
 
-        if (driveElementSenses != null) {
-            this.driveElementSenses = driveElementSenses;
-        }
+        this.driveElementSenses = newChildList(driveElementSenses);
         this.frequencyUnit = frequencyUnit;
         this.frequencyValue = frequencyValue;
     }
@@ -115,6 +106,14 @@ public class DriveElement extends ElementWithTrigger {
     }
 
     public void setDriveElementSenses(List<Sense> driveElementSenses) {
-        this.driveElementSenses = driveElementSenses;
+        this.driveElementSenses = newChildList(driveElementSenses);
+        referencesChanged(PlanChangeEvent.Type.SENSES_CHANGED);
+    }
+
+    @Override
+    public List<PlanElement> getReferencedElements() {
+        List<PlanElement> referencedElements = super.getReferencedElements();
+        referencedElements.addAll(driveElementSenses);
+        return referencedElements;
     }
 }
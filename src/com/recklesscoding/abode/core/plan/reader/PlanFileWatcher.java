@@ -0,0 +1,147 @@
+package com.recklesscoding.abode.core.plan.reader;
+
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanPatcher;
+import com.recklesscoding.abode.core.plan.PlanWorkspace;
+import javafx.application.Platform;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Watches the file of an open plan and, when it is written, reads it again in the background and patches the plan in
+ * the workspace with what changed, see {@link PlanPatcher}. The plan object stays the same, so the diagram, the glow of
+ * the nodes and the debuggers keep going.
+ * </p>
+ * <p>
+ * Programs writing a file often do it in a few steps, or write a new file and move it over the old one, so the file is
+ * only read once it has not changed for {@link #QUIET_MILLIS}. A file that cannot be read in full, e.g. because it was
+ * caught half written, is left for the next change.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class PlanFileWatcher {
+
+    private static final long QUIET_MILLIS = 250;
+
+    private WatchService watchService;
+
+    private String fileName;
+
+    /**
+     * Starts watching the file, instead of the one watched before.
+     */
+    public synchronized void watch(String fileName) {
+        stop();
+        Path file = Paths.get(fileName).toAbsolutePath();
+        Path directory = file.getParent();
+        if (directory == null || PlanReader.forFile(fileName) == null) {
+            return;
+        }
+        try {
+            WatchService newWatchService = FileSystems.getDefault().newWatchService();
+            directory.register(newWatchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            watchService = newWatchService;
+            this.fileName = fileName;
+            Thread watcherThread = new Thread(() -> watchFile(newWatchService, file, fileName), "Plan file watcher");
+            watcherThread.setDaemon(true);
+            watcherThread.start();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public synchronized void stop() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        watchService = null;
+        fileName = null;
+    }
+
+    /**
+     * @return The file being watched, or null.
+     */
+    public synchronized String getFileName() {
+        return fileName;
+    }
+
+    private void watchFile(WatchService watchService, Path file, String planId) {
+        try {
+            while (true) {
+                boolean changed = takeChanges(watchService.take(), file);
+                // Wait for the writing to finish.
+                while (changed) {
+                    WatchKey watchKey = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                    if (watchKey == null) {
+                        break;
+                    }
+                    takeChanges(watchKey, file);
+                }
+                if (changed) {
+                    reloadSafely(planId, file.toString());
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Stopped watching.
+        }
+    }
+
+    /**
+     * @return True if one of the events of the key is about the file.
+     */
+    private static boolean takeChanges(WatchKey watchKey, Path file) {
+        boolean changed = false;
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        watchKey.reset();
+        return changed;
+    }
+
+    /**
+     * Reloads the file, keeping the plan as it is and the watcher going if a reader throws, as one may on a file that
+     * is not finished.
+     */
+    private void reloadSafely(String planId, String file) {
+        try {
+            reload(planId, file);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void reload(String planId, String file) {
+        PlanReader planReader = PlanReader.forFile(file);
+        Plan freshPlan = PlanWorkspace.getInstance().createDetachedPlan(planId);
+        planReader.readFile(file, freshPlan);
+        if (planReader.hasFailed()) {
+            return;
+        }
+        Platform.runLater(() -> {
+            Plan plan = PlanWorkspace.getInstance().getPlan(planId);
+            if (plan != null && planId.equals(getFileName())) {
+                new PlanPatcher(plan).patch(freshPlan);
+            }
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package com.recklesscoding.abode.core.plan.reader;
+
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanWorkspace;
+import javafx.concurrent.Task;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * <p>
+ * Reads a plan file off the FX thread, into a new plan that is not part of the {@link PlanWorkspace} yet, so the plan
+ * that is open stays on screen, and can still be debugged, until the new one is complete. The progress is the bytes of
+ * the file read so far and the message also gives how many elements have been made.
+ * </p>
+ * <p>
+ * Cancelling the task interrupts the reading thread, which makes the reader stop at its next read of the file. A task
+ * that was cancelled has no plan. A file that cannot be read in full makes the task fail, so the plan that is open
+ * is kept rather than replaced with what could be read.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class PlanLoadTask extends Task<Plan> {
+
+    private final String fileName;
+
+    private final PlanReader planReader;
+
+    private final Plan plan;
+
+    public PlanLoadTask(String fileName, PlanReader planReader) {
+        this.fileName = fileName;
+        this.planReader = planReader;
+        this.plan = PlanWorkspace.getInstance().createDetachedPlan(fileName);
+    }
+
+    /**
+     * Starts the task on a thread of its own, which does not keep the application running.
+     */
+    public void start() {
+        Thread loadingThread = new Thread(this, "Plan loading");
+        loadingThread.setDaemon(true);
+        loadingThread.start();
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    protected Plan call() throws IOException {
+        long totalBytes = new File(fileName).length();
+        updateMessage("Loading " + new File(fileName).getName());
+        planReader.setProgressListener(bytesRead -> showProgress(bytesRead, totalBytes));
+        try {
+            planReader.readFile(fileName, plan);
+        } finally {
+            planReader.setProgressListener(null);
+        }
+        if (isCancelled()) {
+            return null;
+        }
+        if (planReader.hasFailed()) {
+            Exception failure = planReader.getFailure();
+            throw new IOException("Cannot read " + new File(fileName).getName()
+                    + (failure != null && failure.getMessage() != null ? ": " + failure.getMessage() : ""), failure);
+        }
+        showProgress(totalBytes, totalBytes);
+        return plan;
+    }
+
+    /**
+     * Only the last progress and message are handed to the FX thread, so this can be called after every read.
+     */
+    private void showProgress(long bytesRead, long totalBytes) {
+        updateProgress(bytesRead, totalBytes);
+        updateMessage(String.format("Loading %s: %,d of %,d KB, %,d elements", new File(fileName).getName(),
+                bytesRead / 1024, totalBytes / 1024, plan.getElementTable().size()));
+    }
+}
@@ -1,14 +1,127 @@
 package com.recklesscoding.abode.core.plan.reader;
 
+import com.recklesscoding.abode.core.metrics.Histogram;
+import com.recklesscoding.abode.core.metrics.Metrics;
+import com.recklesscoding.abode.core.plan.BinaryPlanFormat;
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.reader.binary.BinaryPlanReader;
+import com.recklesscoding.abode.core.plan.reader.inst.InstPlanReader;
+import com.recklesscoding.abode.core.plan.reader.lap.LapPlanReader;
+import com.recklesscoding.abode.core.plan.reader.xposh.XPOSHPlanReader;
 import com.recklesscoding.abode.util.IReader;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
 /**
  * Author: @Andreas.
  * Date : @29/12/2015
  */
 public abstract class PlanReader implements IReader {
 
+    private final Histogram readTime = Metrics.getInstance().histogram("plan.read." + getClass().getSimpleName());
+
+    private volatile LongConsumer progressListener;
+
+    private volatile boolean failed = false;
+
+    private volatile Exception failure;
+
+    /**
+     * @return A reader for the format of the file, told by its extension, or null if it is not a plan file.
+     */
+    public static PlanReader forFile(String fileName) {
+        if (fileName.endsWith(".xml")) {
+            return new XPOSHPlanReader();
+        } else if (fileName.endsWith(".inst")) {
+            return new InstPlanReader();
+        } else if (fileName.endsWith(".lap")) {
+            return new LapPlanReader();
+        } else if (fileName.endsWith(BinaryPlanFormat.FILE_EXTENSION)) {
+            return new BinaryPlanReader();
+        }
+        return null;
+    }
+
+    /**
+     * Reads the file into the active plan.
+     */
     @Override
-    public abstract void readFile(String fileName);
+    public void readFile(String fileName) {
+        readFile(fileName, Plan.getInstance());
+    }
+
+    /**
+     * Reads the file, adding its elements to the given plan.
+     */
+    public void readFile(String fileName, Plan plan) {
+        long startTime = Metrics.startTime();
+        failed = false;
+        failure = null;
+        readPlan(fileName, plan);
+        readTime.recordSince(startTime);
+    }
+
+    /**
+     * Tells the listener how many bytes of the file have been read so far, as they are read. The listener is called on
+     * the thread reading the file.
+     */
+    public void setProgressListener(LongConsumer progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * @return True if the last file read could not be read in full, e.g. because it is not well formed, so the plan
+     * read from it is missing elements.
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    /**
+     * @return Why the last file read could not be read in full, or null if it was, or if no reason was given.
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    protected abstract void readPlan(String fileName, Plan plan);
+
+    /**
+     * Opens the file for reading. The stream reports what it reads to the progress listener and stops with an
+     * {@link java.io.InterruptedIOException} once the reading thread is interrupted.
+     */
+    protected InputStream openFile(String fileName) throws IOException {
+        return new ProgressInputStream(new FileInputStream(fileName), progressListener);
+    }
+
+    /**
+     * Reports the bytes read for a file that is not read through {@link #openFile(String)}.
+     */
+    protected void reportProgress(long bytesRead) {
+        LongConsumer listener = progressListener;
+        if (listener != null) {
+            listener.accept(bytesRead);
+        }
+    }
+
+    /**
+     * @return True if the reading thread was interrupted, in which case what has been read is thrown away.
+     */
+    protected boolean isCancelled() {
+        return Thread.currentThread().isInterrupted();
+    }
 
+    /**
+     * Reports an error reading the file, unless the reading was stopped because it was cancelled.
+     */
+    protected void readFailed(Exception e) {
+        failed = true;
+        failure = e;
+        if (!isCancelled()) {
+            e.printStackTrace();
+        }
+    }
 }
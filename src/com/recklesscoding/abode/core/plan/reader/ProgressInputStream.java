@@ -0,0 +1,75 @@
+package com.recklesscoding.abode.core.plan.reader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.function.LongConsumer;
+
+/**
+ * <p>
+ * Counts the bytes read from a file and hands the count to a listener after every read. Once the reading thread is
+ * interrupted, e.g. because the load was cancelled, the next read throws an {@link InterruptedIOException}, so a reader
+ * stops where it is instead of going through the rest of the file.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+class ProgressInputStream extends FilterInputStream {
+
+    private final LongConsumer progressListener;
+
+    private long bytesRead = 0;
+
+    ProgressInputStream(InputStream input, LongConsumer progressListener) {
+        super(input);
+        this.progressListener = progressListener;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkInterrupted();
+        int read = super.read();
+        if (read >= 0) {
+            progress(1);
+        }
+        return read;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        checkInterrupted();
+        int read = super.read(bytes, offset, length);
+        if (read > 0) {
+            progress(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long length) throws IOException {
+        checkInterrupted();
+        long skipped = super.skip(length);
+        progress(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void progress(long read) {
+        bytesRead += read;
+        if (progressListener != null) {
+            progressListener.accept(bytesRead);
+        }
+    }
+
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("The reading of the file was cancelled.");
+        }
+    }
+}
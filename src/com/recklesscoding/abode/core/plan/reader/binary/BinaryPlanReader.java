@@ -0,0 +1,297 @@
+package com.recklesscoding.abode.core.plan.reader.binary;
+
+import com.recklesscoding.abode.core.plan.BinaryPlanFormat;
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.planelements.Sense;
+import com.recklesscoding.abode.core.plan.planelements.TimeUnits;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
+import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
+import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
+import com.recklesscoding.abode.core.plan.reader.PlanReader;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Reads a plan written by {@link com.recklesscoding.abode.core.plan.writer.BinaryPlanWriter}. The file is mapped
+ * into memory rather than read through a stream, and the records are read straight from the mapping. Strings are
+ * decoded the first time a record uses them, and only once, however many elements share them.
+ * </p>
+ * <p>
+ * The elements are made first, then added to the plan in the order of the file, and only then given their triggered
+ * element, senses and sub-elements, as records can refer to elements that come after them.
+ * </p>
+ * <p>
+ * The counts and offsets of the file are checked against its size before anything is made from them, so a file that
+ * is cut short, as one still being written, or is corrupt, fails to read rather than throwing.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class BinaryPlanReader extends PlanReader {
+
+    private static final TimeUnits[] TIME_UNITS = TimeUnits.values();
+
+    private Plan plan;
+
+    private ByteBuffer buffer;
+
+    private int[] stringOffsets;
+
+    private String[] strings;
+
+    private int stringBlobStart;
+
+    private int recordsStart;
+
+    private int referencesStart;
+
+    private int referencesCount;
+
+    private PlanElement[] elements;
+
+    @Override
+    protected void readPlan(String fileName, Plan plan) {
+        this.plan = plan;
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            readPlan(mappedBuffer, fileName);
+            // The file is mapped rather than streamed, so all of it is reported once it has been read.
+            reportProgress(mappedBuffer.limit());
+        } catch (IOException | IndexOutOfBoundsException | BufferUnderflowException e) {
+            readFailed(e);
+        } finally {
+            buffer = null;
+            strings = null;
+            elements = null;
+        }
+    }
+
+    private void readPlan(ByteBuffer mappedBuffer, String fileName) throws IOException {
+        buffer = mappedBuffer;
+        if (buffer.remaining() < 8 || buffer.getInt(0) != BinaryPlanFormat.MAGIC) {
+            throw new IOException(fileName + " is not a binary plan.");
+        }
+        short version = buffer.getShort(4);
+        if (version != BinaryPlanFormat.VERSION) {
+            throw new IOException(fileName + " is version " + version
+                    + " of the binary plan format, which is not supported.");
+        }
+
+        int position = 8;
+        checkRange(fileName, position, 1, 4, "string offsets");
+        int stringsCount = buffer.getInt(position);
+        position += 4;
+        checkRange(fileName, position, stringsCount, 4, "string offsets");
+        checkRange(fileName, position, stringsCount + 1L, 4, "string offsets");
+        stringOffsets = new int[stringsCount + 1];
+        for (int i = 0; i <= stringsCount; i++) {
+            stringOffsets[i] = buffer.getInt(position);
+            position += 4;
+        }
+        int blobLength = stringOffsets[stringsCount];
+        checkRange(fileName, position, blobLength, 1, "strings");
+        for (int i = 0; i < stringsCount; i++) {
+            if (stringOffsets[i] < 0 || stringOffsets[i] > stringOffsets[i + 1]) {
+                throw new IOException(fileName + " has a string at offset " + stringOffsets[i]
+                        + ", outside of the strings.");
+            }
+        }
+        stringBlobStart = position;
+        strings = new String[stringsCount];
+        position += blobLength;
+
+        checkRange(fileName, position, 1, 4, "element records");
+        int elementsCount = buffer.getInt(position);
+        recordsStart = position + 4;
+        checkRange(fileName, recordsStart, elementsCount, BinaryPlanFormat.RECORD_SIZE, "element records");
+        position = recordsStart + elementsCount * BinaryPlanFormat.RECORD_SIZE;
+        checkRange(fileName, position, 1, 4, "references");
+        referencesCount = buffer.getInt(position);
+        referencesStart = position + 4;
+        checkRange(fileName, referencesStart, referencesCount, 4, "references");
+
+        elements = new PlanElement[elementsCount];
+        for (int i = 0; i < elementsCount; i++) {
+            elements[i] = createElement(recordsStart + i * BinaryPlanFormat.RECORD_SIZE);
+        }
+        for (int i = 0; i < elementsCount; i++) {
+            int record = recordsStart + i * BinaryPlanFormat.RECORD_SIZE;
+            if ((buffer.get(record + 1) & BinaryPlanFormat.FLAG_IN_PLAN) != 0) {
+                addToPlan(elements[i]);
+            }
+        }
+        for (int i = 0; i < elementsCount; i++) {
+            linkElement(elements[i], recordsStart + i * BinaryPlanFormat.RECORD_SIZE);
+        }
+    }
+
+    /**
+     * Checks that a part of the file, of the given number of items of the given size, fits in the file.
+     */
+    private void checkRange(String fileName, int start, long count, int itemSize, String part) throws IOException {
+        if (count < 0 || start + count * itemSize > buffer.limit()) {
+            throw new IOException(fileName + " is cut short or corrupt: its " + part + " do not fit in the file.");
+        }
+    }
+
+    private PlanElement createElement(int record) throws IOException {
+        byte type = buffer.get(record);
+        int flags = buffer.get(record + 1);
+        String name = getString(buffer.getInt(record + 4));
+        String secondString = getString(buffer.getInt(record + 8));
+        String thirdString = getString(buffer.getInt(record + 12));
+        double number = buffer.getDouble(record + 16);
+        int integer = buffer.getInt(record + 24);
+
+        switch (type) {
+            case BinaryPlanFormat.SENSE:
+                return new Sense(name, secondString, thirdString);
+            case BinaryPlanFormat.ACTION:
+                return new ActionEvent(name);
+            case BinaryPlanFormat.ACTION_PATTERN:
+                ActionPattern actionPattern = new ActionPattern(name);
+                actionPattern.setTimeValue(number);
+                actionPattern.setTimeUnits(getTimeUnits(flags));
+                return actionPattern;
+            case BinaryPlanFormat.COMPETENCE:
+                Competence competence = new Competence(name);
+                competence.setTimeout(number);
+                competence.setTimeUnits(getTimeUnits(flags));
+                return competence;
+            case BinaryPlanFormat.COMPETENCE_ELEMENT:
+                CompetenceElement competenceElement = new CompetenceElement(name);
+                competenceElement.setRetries(integer);
+                return competenceElement;
+            case BinaryPlanFormat.DRIVE_ELEMENT:
+                DriveElement driveElement = new DriveElement(name);
+                driveElement.setFrequencyUnit(secondString);
+                driveElement.setFrequencyValue(number);
+                return driveElement;
+            case BinaryPlanFormat.DRIVE_COLLECTION:
+                DriveCollection driveCollection = new DriveCollection(name);
+                driveCollection.setRealTime((flags & BinaryPlanFormat.FLAG_REAL_TIME) != 0);
+                return driveCollection;
+            default:
+                throw new IOException("Unknown type of element " + type + " at " + record + ".");
+        }
+    }
+
+    private void addToPlan(PlanElement planElement) {
+        if (planElement instanceof Sense) {
+            plan.addSense((Sense) planElement);
+        } else if (planElement instanceof ActionEvent) {
+            plan.addAction((ActionEvent) planElement);
+        } else if (planElement instanceof ActionPattern) {
+            plan.addActionPattern((ActionPattern) planElement);
+        } else if (planElement instanceof Competence) {
+            plan.addCompetence((Competence) planElement);
+        } else if (planElement instanceof CompetenceElement) {
+            plan.addCompetenceElement((CompetenceElement) planElement);
+        } else if (planElement instanceof DriveElement) {
+            plan.addDriveElement((DriveElement) planElement);
+        } else if (planElement instanceof DriveCollection) {
+            plan.addDriveCollection((DriveCollection) planElement);
+        }
+    }
+
+    private void linkElement(PlanElement planElement, int record) throws IOException {
+        PlanElement triggeredElement = getElement(buffer.getInt(record + 28));
+        if (triggeredElement != null && planElement instanceof ElementWithTrigger) {
+            ((ElementWithTrigger) planElement).setTriggeredElement(triggeredElement);
+        }
+        int sensesStart = buffer.getInt(record + 32);
+        int sensesCount = buffer.getInt(record + 36);
+        int subElementsStart = buffer.getInt(record + 40);
+        int subElementsCount = buffer.getInt(record + 44);
+
+        if (planElement instanceof ActionPattern) {
+            if (subElementsCount > 0) {
+                ((ActionPattern) planElement).setActions(this.<ActionEvent>getElements(subElementsStart, subElementsCount));
+            }
+        } else if (planElement instanceof Competence) {
+            Competence competence = (Competence) planElement;
+            if (sensesCount > 0) {
+                competence.setGoals(this.<Sense>getElements(sensesStart, sensesCount));
+            }
+            if (subElementsCount > 0) {
+                competence.setCompetenceElements(this.<CompetenceElement>getElements(subElementsStart, subElementsCount));
+            }
+        } else if (planElement instanceof CompetenceElement) {
+            if (sensesCount > 0) {
+                ((CompetenceElement) planElement).setSenses(this.<Sense>getElements(sensesStart, sensesCount));
+            }
+        } else if (planElement instanceof DriveElement) {
+            if (sensesCount > 0) {
+                ((DriveElement) planElement).setDriveElementSenses(this.<Sense>getElements(sensesStart, sensesCount));
+            }
+        } else if (planElement instanceof DriveCollection) {
+            DriveCollection driveCollection = (DriveCollection) planElement;
+            if (sensesCount > 0) {
+                driveCollection.setGoals(this.<Sense>getElements(sensesStart, sensesCount));
+            }
+            if (subElementsCount > 0) {
+                driveCollection.setDriveElements(this.<DriveElement>getElements(subElementsStart, subElementsCount));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends PlanElement> List<T> getElements(int start, int count) throws IOException {
+        if (start < 0 || start > referencesCount - count) {
+            throw new IOException("The references " + start + " to " + (start + count) + " are not in the file.");
+        }
+        List<T> referencedElements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PlanElement planElement = getElement(buffer.getInt(referencesStart + (start + i) * 4));
+            if (planElement != null) {
+                referencedElements.add((T) planElement);
+            }
+        }
+        return referencedElements;
+    }
+
+    private PlanElement getElement(int index) {
+        if (index < 0 || index >= elements.length) {
+            return null;
+        }
+        return elements[index];
+    }
+
+    private TimeUnits getTimeUnits(int flags) {
+        int ordinal = flags & BinaryPlanFormat.TIME_UNITS_MASK;
+        return ordinal < TIME_UNITS.length ? TIME_UNITS[ordinal] : TimeUnits.SECONDS;
+    }
+
+    private String getString(int index) {
+        if (index < 0 || index >= strings.length) {
+            return null;
+        }
+        String string = strings[index];
+        if (string == null) {
+            int start = stringOffsets[index];
+            byte[] bytes = new byte[stringOffsets[index + 1] - start];
+            ByteBuffer stringBuffer = buffer.duplicate();
+            stringBuffer.position(stringBlobStart + start);
+            stringBuffer.get(bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = string;
+        }
+        return string;
+    }
+}
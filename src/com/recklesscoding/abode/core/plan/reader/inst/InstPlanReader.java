@@ -12,18 +12,62 @@ import com.recklesscoding.abode.core.plan.reader.PlanReader;
 import com.recklesscoding.abode.core.plan.reader.inst.builders.InstPlanReaderHelper;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.InputStreamReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
+ * <p>
+ * Reads the plans made by the Instinct tools. The file is read once, keeping for each commented block of an element
+ * its name and its parents and children lines. The elements are then made and linked one kind at a time, drives
+ * first and action pattern elements last, so that every name a block refers to is already in the plan.
+ * </p>
  * Author: @Andreas.
  * Date : @29/12/2015
  */
 public class InstPlanReader extends PlanReader {
 
+    /**
+     * The kinds of blocks, in the order they are linked.
+     */
+    private enum BlockKind {
+        DRIVE("// Drive: "),
+        COMPETENCE("// Competence: "),
+        ACTION_PATTERN("// ActionPattern: "),
+        COMPETENCE_ELEMENT("// CompetenceElement: "),
+        ACTION_PATTERN_ELEMENT("// ActionPatternElement: ");
+
+        private final String prefix;
+
+        BlockKind(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * The lines of a block that matter once all the blocks are read.
+     */
+    private static final class Block {
+
+        private final String nameLine;
+
+        private final List<String> linkLines = new ArrayList<>();
+
+        private boolean isDefinition = true;
+
+        private Block(String nameLine) {
+            this.nameLine = nameLine;
+        }
+    }
+
+    private Plan plan;
+
     @Override
-    public void readFile(String fileName) {
+    protected void readPlan(String fileName, Plan plan) {
+        this.plan = plan;
         readInstFile(fileName);
     }
 
@@ -31,73 +75,97 @@ public class InstPlanReader extends PlanReader {
         //All of them are local parameter, we don't need them in the memory after their job is done.
         InstPlanReaderHelper helper = new InstPlanReaderHelper();
 
-        int runCounter = 0;
-        String currentLine;
-
-        // Read the file as one string.
-        BufferedReader file;
-        while (runCounter < 5) {
-            try {
-                file = new BufferedReader(new FileReader(fileName));
-
-                while ((currentLine = file.readLine()) != null) {
-                    currentLine = removeSpacesTabs(currentLine);
-
-                    if (isStartingWithPrefix(currentLine, "// Drive: ") && (runCounter == 0)) {
-                        createNewDriveCollection(currentLine, file, helper);
-                    }
-
-                    if (isStartingWithPrefix(currentLine, "// Competence: ") && (runCounter == 1)) {
-                        createNewCompetence(currentLine, file, helper);
-                    }
+        Map<BlockKind, List<Block>> blocks = readBlocks(fileName);
+        if (isCancelled()) {
+            return;
+        }
+        for (Block block : blocks.get(BlockKind.DRIVE)) {
+            createNewDriveCollection(block, helper);
+        }
+        for (Block block : blocks.get(BlockKind.COMPETENCE)) {
+            createNewCompetence(block, helper);
+        }
+        for (Block block : blocks.get(BlockKind.ACTION_PATTERN)) {
+            createNewActionPattern(block, helper);
+        }
+        for (Block block : blocks.get(BlockKind.COMPETENCE_ELEMENT)) {
+            createNewCompetenceElement(block, helper);
+        }
+        for (Block block : blocks.get(BlockKind.ACTION_PATTERN_ELEMENT)) {
+            createActionsForAP(block, helper);
+        }
+    }
 
-                    if (isStartingWithPrefix(currentLine, "// ActionPattern: ") && (runCounter == 2)) {
-                        createNewActionPattern(currentLine, file, helper);
-                    }
+    /**
+     * A block runs from the line naming its element to the next empty line. A block naming an element inside a block
+     * of the same kind is left out, as the old reader, reading one kind per pass, skipped it.
+     */
+    private Map<BlockKind, List<Block>> readBlocks(String fileName) {
+        Map<BlockKind, List<Block>> blocks = new EnumMap<>(BlockKind.class);
+        for (BlockKind blockKind : BlockKind.values()) {
+            blocks.put(blockKind, new ArrayList<>());
+        }
+        Map<BlockKind, Block> openBlocks = new EnumMap<>(BlockKind.class);
 
-                    if (isStartingWithPrefix(currentLine, "// CompetenceElement: ") && (runCounter == 3)) {
-                        createNewCompetenceElement(currentLine, file, helper);
-                    }
-                    if (isStartingWithPrefix(currentLine, "// ActionPatternElement: ") && (runCounter == 4)) {
-                        createActionsForAP(file, helper);
+        try (BufferedReader file = new BufferedReader(new InputStreamReader(openFile(fileName)))) {
+            String currentLine;
+            while ((currentLine = file.readLine()) != null) {
+                currentLine = removeSpacesTabs(currentLine);
+                if (isEndOfBlock(currentLine)) {
+                    openBlocks.clear();
+                    continue;
+                }
+                for (Block block : openBlocks.values()) {
+                    if (isPELEMLine(currentLine)) {
+                        block.isDefinition = false;
+                    } else if (isParentLine(currentLine) || isChildrenLine(currentLine)) {
+                        block.linkLines.add(currentLine);
                     }
                 }
-            } catch (IOException e) {
-                // TODO: Exception handling
-                e.printStackTrace();
+                BlockKind blockKind = getBlockKind(currentLine);
+                if (blockKind != null && !openBlocks.containsKey(blockKind)) {
+                    Block block = new Block(currentLine);
+                    blocks.get(blockKind).add(block);
+                    openBlocks.put(blockKind, block);
+                }
             }
-            runCounter++;
+        } catch (IOException e) {
+            readFailed(e);
         }
+        return blocks;
     }
 
-    private void createActionsForAP(BufferedReader file, InstPlanReaderHelper helper) throws IOException {
-        boolean isDefinition = true;
+    private BlockKind getBlockKind(String currentLine) {
+        if (!isStartingWithPrefix(currentLine, "// ")) {
+            return null;
+        }
+        for (BlockKind blockKind : BlockKind.values()) {
+            if (isStartingWithPrefix(currentLine, blockKind.prefix)) {
+                return blockKind;
+            }
+        }
+        return null;
+    }
+
+    private void createActionsForAP(Block block, InstPlanReaderHelper helper) {
         ActionPattern parrentElement = null;
         PlanElement childElement = null;
-        String currentLine;
-        while ((currentLine = file.readLine()) != null) {
-            currentLine = removeSpacesTabs(currentLine);
+        for (String currentLine : block.linkLines) {
             if (isParentLine(currentLine)) {
-                parrentElement = (ActionPattern) Plan.getInstance().findActionPattern(helper.getParentName(currentLine, 0));
+                parrentElement = (ActionPattern) plan.findActionPattern(helper.getParentName(currentLine, 0));
             }
             if (isChildrenLine(currentLine)) {
-                childElement = Plan.getInstance().findCompetence(currentLine);
+                childElement = plan.findCompetence(currentLine);
                 if (childElement == null) {
-                    childElement = Plan.getInstance().findActionPattern(helper.getChildName(currentLine));
+                    childElement = plan.findActionPattern(helper.getChildName(currentLine));
                 }
                 if (childElement == null) {
-                    childElement = Plan.getInstance().createAction(helper.getChildName(currentLine));
+                    childElement = plan.createAction(helper.getChildName(currentLine));
                 }
 
             }
-            if (isPELEMLine(currentLine)) {
-                isDefinition = false;
-            }
-            if (isEndOfBlock(currentLine)) {
-                break;
-            }
         }
-        if (isDefinition) {
+        if (block.isDefinition) {
             if (!(childElement instanceof ActionEvent))
                 parrentElement.setTriggeredElement(childElement);
             else
@@ -105,58 +173,50 @@ public class InstPlanReader extends PlanReader {
         }
     }
 
-    private void createNewActionPattern(String currentLine, BufferedReader file, InstPlanReaderHelper helper) throws IOException {
-        ActionPattern actionPattern = helper.buildActionPattern(currentLine);
+    private void createNewActionPattern(Block block, InstPlanReaderHelper helper) {
+        ActionPattern actionPattern = helper.buildActionPattern(block.nameLine);
 
-        boolean isDefinition = true;
         ElementWithTrigger parrent;
-        while ((currentLine = file.readLine()) != null) {
-            currentLine = removeSpacesTabs(currentLine);
+        for (String currentLine : block.linkLines) {
             if (isParentLine(currentLine)) {
                 for (int i = 0; i < helper.getNumberOfParents(currentLine); i++) {
-                    parrent = Plan.getInstance().findDriveCollection(helper.getParentName(currentLine, i));
+                    parrent = plan.findDriveCollection(helper.getParentName(currentLine, i));
                     if (parrent == null)
-                        parrent = Plan.getInstance().findCompetenceElement(helper.getParentName(currentLine, i));
+                        parrent = plan.findCompetenceElement(helper.getParentName(currentLine, i));
                     if (parrent == null)
-                        parrent = (ElementWithTrigger) Plan.getInstance().findActionPattern(helper.getParentName(currentLine, i));
+                        parrent = (ElementWithTrigger) plan.findActionPattern(helper.getParentName(currentLine, i));
                     if (parrent != null) {
                         parrent.setTriggeredElement(actionPattern);
                     }
                 }
             }
-            if (isPELEMLine(currentLine))
-                isDefinition = false;
-            if (isEndOfBlock(currentLine))
-                break;
         }
-        if (isDefinition) {
-            Plan.getInstance().addActionPattern(actionPattern);
+        if (block.isDefinition) {
+            plan.addActionPattern(actionPattern);
         }
     }
 
-    private void createNewCompetence(String currentLine, BufferedReader file, InstPlanReaderHelper helper) throws IOException {
-        Competence competence = helper.buildCompetence(currentLine);
+    private void createNewCompetence(Block block, InstPlanReaderHelper helper) {
+        Competence competence = helper.buildCompetence(block.nameLine);
 
-        boolean isDefinition = true;
         ElementWithTrigger parrent;
-        while ((currentLine = file.readLine()) != null) {
-            currentLine = removeSpacesTabs(currentLine);
+        for (String currentLine : block.linkLines) {
             if (isParentLine(currentLine)) {
                 for (int i = 0; i < helper.getNumberOfParents(currentLine); i++) {
-                    parrent = Plan.getInstance().findDriveCollection(helper.getParentName(currentLine, i));
+                    parrent = plan.findDriveCollection(helper.getParentName(currentLine, i));
                     if (parrent == null) {
-                        parrent = Plan.getInstance().findCompetenceElement(helper.getParentName(currentLine, i));
+                        parrent = plan.findCompetenceElement(helper.getParentName(currentLine, i));
                     }
                     if (parrent == null) {
-                        parrent = (ElementWithTrigger) Plan.getInstance().findActionPattern(helper.getParentName(currentLine, i));
+                        parrent = (ElementWithTrigger) plan.findActionPattern(helper.getParentName(currentLine, i));
                     }
                     if (parrent != null) {
                         parrent.setTriggeredElement(competence);
                     }
                     if (parrent == null) {
-                        ActionEvent action = Plan.getInstance().findAction(competence.getNameOfElement());
+                        ActionEvent action = plan.findAction(competence.getNameOfElement());
                         if (action != null) {
-                            List<ActionPattern> actionPatternsWithAction = Plan.getInstance().findActionPatternsWithAction(competence.getNameOfElement());
+                            List<ActionPattern> actionPatternsWithAction = plan.findActionPatternsWithAction(competence.getNameOfElement());
                             for (ActionPattern actionPattern : actionPatternsWithAction) {
                                 actionPattern.removeActionEvent(action);
                                 actionPattern.setTriggeredElement(competence);
@@ -165,67 +225,36 @@ public class InstPlanReader extends PlanReader {
                     }
                 }
             }
-            if (isPELEMLine(currentLine)) {
-                isDefinition = false;
-            }
-            if (isEndOfBlock(currentLine)) {
-                break;
-            }
         }
-        if (isDefinition) {
-            Plan.getInstance().addCompetence(competence);
+        if (block.isDefinition) {
+            plan.addCompetence(competence);
         }
     }
 
-    private void createNewDriveCollection(String currentLine, BufferedReader file, InstPlanReaderHelper helper) throws IOException {
-        DriveCollection driveCollection = helper.buildDriveCollector(currentLine);
+    private void createNewDriveCollection(Block block, InstPlanReaderHelper helper) {
+        DriveCollection driveCollection = helper.buildDriveCollector(block.nameLine);
 
-        if (isDefinition(file))
-            Plan.getInstance().addDriveCollection(driveCollection);
+        if (block.isDefinition)
+            plan.addDriveCollection(driveCollection);
     }
 
-    private void createNewCompetenceElement(String currentLine, BufferedReader file, InstPlanReaderHelper helper) throws IOException {
-        CompetenceElement competenceElement = helper.buildCompetenceElement(currentLine);
+    private void createNewCompetenceElement(Block block, InstPlanReaderHelper helper) {
+        CompetenceElement competenceElement = helper.buildCompetenceElement(block.nameLine);
         Competence competence = null;
-        boolean isDefinition = true;
-        while ((currentLine = file.readLine()) != null) {
-            currentLine = removeSpacesTabs(currentLine);
+        for (String currentLine : block.linkLines) {
             if (isParentLine(currentLine))
-                competence = Plan.getInstance().findCompetence(helper.getParentName(currentLine, 0));
+                competence = plan.findCompetence(helper.getParentName(currentLine, 0));
             if (isChildrenLine(currentLine)) {
-                PlanElement triggeredElement = Plan.getInstance().findActionPatternOrCompetence(helper.getChildName(currentLine));
+                PlanElement triggeredElement = plan.findActionPatternOrCompetence(helper.getChildName(currentLine));
                 if (triggeredElement != null) {
                     competenceElement.setTriggeredElement(triggeredElement);
                 } else {
-                    competenceElement.setTriggeredElement(Plan.getInstance().createAction(helper.getChildName(currentLine)));
+                    competenceElement.setTriggeredElement(plan.createAction(helper.getChildName(currentLine)));
                 }
             }
-            if (isSense(currentLine)) {
-                //TODO: Sense
-            }
-            if (isPELEMLine(currentLine))
-                isDefinition = false;
-            if (isEndOfBlock(currentLine))
-                break;
-        }
-        if (isDefinition)
-            competence.addCompetenceElement(competenceElement);
-    }
-
-    private boolean isSense(String currentLine) {
-        return isStartingWithPrefix(currentLine, "// \tSense: ");
-    }
-
-    private boolean isDefinition(BufferedReader file) throws IOException {
-        String currentLine;
-        while ((currentLine = file.readLine()) != null) {
-            currentLine = removeSpacesTabs(currentLine);
-            if (isPELEMLine(currentLine))
-                return false;
-            if (isEndOfBlock(currentLine))
-                break;
         }
-        return true;
+        if (block.isDefinition)
+            plan.addCompetenceElement(competence, competenceElement);
     }
 
     private boolean isEndOfBlock(String currentLine) {
@@ -32,16 +32,23 @@ public class InstPlanReaderHelper {
         return getSpaceSplit(currentLine)[2];
     }
 
+    /**
+     * Elements used in more than one place list their parents separated by commas.
+     */
     public String getParentName(String currentLine, int number)
     {
-        return getSpaceSplit(currentLine)[number+2];
+        return getParentsSplit(currentLine)[number+2];
     }
 
     public int getNumberOfParents(String currentLine)
     {
-        return getSpaceSplit(currentLine).length - 2;
+        return getParentsSplit(currentLine).length - 2;
     }
-    
+
+    private String[] getParentsSplit(String currentLine) {
+        return currentLine.split("[ ,]+");
+    }
+
     private String getElementName(String nameLine) {
         return getSpaceSplit(nameLine)[2];
     }
@@ -0,0 +1,496 @@
+package com.recklesscoding.abode.core.plan.reader.lap;
+
+import com.recklesscoding.abode.core.plan.planelements.Sense;
+import com.recklesscoding.abode.core.plan.planelements.TimeUnits;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
+import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
+import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
+import com.recklesscoding.abode.core.plan.reader.lap.LapTokenizer.Token;
+import com.recklesscoding.abode.core.plan.reader.lap.builders.ActionPatternsBuilder;
+import com.recklesscoding.abode.core.plan.reader.lap.builders.CompetencesBuilder;
+import com.recklesscoding.abode.core.plan.reader.lap.builders.DriveCollectionBuilder;
+import com.recklesscoding.abode.core.plan.reader.lap.builders.ElementBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * A recursive descent parser of LAP plans, reading the tokens of a {@link LapTokenizer} and handing what it finds to
+ * the builders. Only the brackets matter, so a form can be split across lines, or put on one, in any way:
+ * </p>
+ * <pre>
+ * plan        := form*
+ * form        := '(' form* ')' | '(' 'AP' name time? '(' action* ')' ')' | '(' 'C' name time? goal elements ')'
+ *              | '(' ('RDC' | 'SRDC' | 'DC' | 'SDC' | 'NRDC') name goal drives ')' | '(' documentation ... ')'
+ * time        := '(' unit number ')'
+ * goal        := '(' 'goal' senses ')'
+ * senses      := ('(' sense* ')' | sense)*
+ * sense       := '(' name (value comparator?)? ')'
+ * elements    := '(' 'elements' ('(' element+ ')' | element)* ')'
+ * element     := '(' name '(' 'trigger' senses ')' triggered retries? ')'
+ * drives      := '(' 'drives' ('(' drive+ ')' | drive)* ')'
+ * drive       := '(' name '(' 'trigger' senses ')' triggered time? ')'
+ * </pre>
+ * <p>
+ * Anything outside of a form is ignored, as are forms the parser does not know at the level of the plan. The elements
+ * are not added to the plan; see {@link LapPlanReader}.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+class LapParser {
+
+    /**
+     * The comparator of a sense that only has a value.
+     */
+    private static final String DEFAULT_COMPERATOR = "=";
+
+    /**
+     * The frequency unit of a drive element that does not have one.
+     */
+    private static final String DEFAULT_FREQUENCY_UNIT = "seconds";
+
+    private static final String TIME_EXPECTED = "expected a time, such as (seconds 1.0)";
+
+    private final LapTokenizer tokenizer;
+
+    private final ActionPatternsBuilder actionPatternsBuilder;
+
+    private final CompetencesBuilder competencesBuilder;
+
+    private final DriveCollectionBuilder drivesBuilder;
+
+    private final ElementBuilder elementBuilder;
+
+    private final List<ActionPattern> actionPatterns = new ArrayList<>();
+
+    private final List<Competence> competences = new ArrayList<>();
+
+    private final List<DriveCollection> driveCollections = new ArrayList<>();
+
+    /**
+     * The unit and the value of the time read by the last call to {@link #parseTime()}.
+     */
+    private String parsedTimeUnit;
+
+    private double parsedTimeValue;
+
+    LapParser(LapTokenizer tokenizer, ActionPatternsBuilder actionPatternsBuilder,
+              CompetencesBuilder competencesBuilder, DriveCollectionBuilder drivesBuilder,
+              ElementBuilder elementBuilder) {
+        this.tokenizer = tokenizer;
+        this.actionPatternsBuilder = actionPatternsBuilder;
+        this.competencesBuilder = competencesBuilder;
+        this.drivesBuilder = drivesBuilder;
+        this.elementBuilder = elementBuilder;
+    }
+
+    List<ActionPattern> getActionPatterns() {
+        return actionPatterns;
+    }
+
+    List<Competence> getCompetences() {
+        return competences;
+    }
+
+    List<DriveCollection> getDriveCollections() {
+        return driveCollections;
+    }
+
+    void parsePlan() throws IOException, LapSyntaxException {
+        Token token;
+        while ((token = tokenizer.next()) != Token.END) {
+            if (token == Token.OPEN) {
+                parseForm();
+            } else if (token == Token.CLOSE) {
+                throw tokenizer.error("expected '('");
+            }
+        }
+    }
+
+    /**
+     * Parses a form whose opening bracket has been read: an element of the plan, or a list of forms, such as the
+     * plan itself.
+     */
+    private void parseForm() throws IOException, LapSyntaxException {
+        Token token = tokenizer.next();
+        if (token == Token.OPEN) {
+            parseForm();
+            parseForms();
+        } else if (token == Token.ATOM) {
+            if (tokenizer.is("AP")) {
+                parseActionPattern();
+            } else if (tokenizer.is("C")) {
+                parseCompetence();
+            } else if (tokenizer.is("RDC") || tokenizer.is("SRDC")) {
+                parseDriveCollection(true);
+            } else if (tokenizer.is("DC") || tokenizer.is("SDC") || tokenizer.is("NRDC")) {
+                parseDriveCollection(false);
+            } else {
+                skipForm();
+            }
+        } else if (token == Token.STRING) {
+            skipForm();
+        } else if (token == Token.END) {
+            throw tokenizer.error("expected ')'");
+        }
+    }
+
+    /**
+     * Parses forms up to the closing bracket of the list they are in.
+     */
+    private void parseForms() throws IOException, LapSyntaxException {
+        Token token;
+        while ((token = tokenizer.next()) != Token.CLOSE) {
+            if (token != Token.OPEN) {
+                throw tokenizer.error("expected '(' or ')'");
+            }
+            parseForm();
+        }
+    }
+
+    /**
+     * Skips the rest of a form whose opening bracket has been read.
+     */
+    private void skipForm() throws IOException, LapSyntaxException {
+        int depth = 1;
+        while (depth > 0) {
+            Token token = tokenizer.next();
+            if (token == Token.OPEN) {
+                depth++;
+            } else if (token == Token.CLOSE) {
+                depth--;
+            } else if (token == Token.END) {
+                throw tokenizer.error("expected ')'");
+            }
+        }
+    }
+
+    /**
+     * The time of an action pattern is optional and is told apart from its actions by being followed by them.
+     */
+    private void parseActionPattern() throws IOException, LapSyntaxException {
+        String name = expectAtom("expected the name of the action pattern");
+        List<String> actionNames = null;
+        List<String> timeAtoms = null;
+        int timeLine = 0;
+        int timeColumn = 0;
+        int actionsLine = 0;
+        int actionsColumn = 0;
+        Token token;
+        while ((token = tokenizer.next()) != Token.CLOSE) {
+            expect(token, Token.OPEN, "expected the actions of the action pattern");
+            if (actionNames != null) {
+                if (timeAtoms != null) {
+                    throw tokenizer.error("expected ')' after the actions of the action pattern");
+                }
+                timeAtoms = actionNames;
+                timeLine = actionsLine;
+                timeColumn = actionsColumn;
+            }
+            actionsLine = tokenizer.getTokenLine();
+            actionsColumn = tokenizer.getTokenColumn();
+            actionNames = readAtoms("expected the name of an action");
+        }
+        if (actionNames == null) {
+            throw tokenizer.error("expected the actions of the action pattern");
+        }
+
+        double timeValue = 0;
+        TimeUnits timeUnits = TimeUnits.SECONDS;
+        if (timeAtoms != null) {
+            if (timeAtoms.size() != 2) {
+                throw new LapSyntaxException(TIME_EXPECTED, timeLine, timeColumn);
+            }
+            timeUnits = TimeUnits.getTimeUnits(timeAtoms.get(0));
+            try {
+                timeValue = Double.parseDouble(timeAtoms.get(1));
+            } catch (NumberFormatException e) {
+                throw new LapSyntaxException(TIME_EXPECTED, timeLine, timeColumn);
+            }
+        }
+        actionPatterns.add(actionPatternsBuilder.buildActionPattern(name, timeValue, timeUnits, actionNames));
+    }
+
+    private void parseCompetence() throws IOException, LapSyntaxException {
+        String name = expectAtom("expected the name of the competence");
+        double timeout = 0;
+        TimeUnits timeUnits = TimeUnits.SECONDS;
+        List<Sense> goals = new ArrayList<>();
+        List<CompetenceElement> elements = new ArrayList<>();
+        Token token;
+        while ((token = tokenizer.next()) != Token.CLOSE) {
+            expect(token, Token.OPEN, "expected the time, the goal or the elements of the competence");
+            expect(tokenizer.next(), Token.ATOM, "expected (goal ...) or (elements ...)");
+            if (tokenizer.is("goal")) {
+                parseConditions(goals);
+            } else if (tokenizer.is("elements")) {
+                parseCompetenceElements(elements);
+            } else if (tokenizer.is("documentation")) {
+                skipForm();
+            } else {
+                parseTime();
+                timeout = parsedTimeValue;
+                timeUnits = TimeUnits.getTimeUnits(parsedTimeUnit);
+            }
+        }
+        competences.add(competencesBuilder.buildCompetence(name, timeout, timeUnits, goals, elements));
+    }
+
+    private void parseDriveCollection(boolean realTime) throws IOException, LapSyntaxException {
+        String name = expectAtom("expected the name of the drive collection");
+        List<Sense> goals = new ArrayList<>();
+        List<DriveElement> elements = new ArrayList<>();
+        Token token;
+        while ((token = tokenizer.next()) != Token.CLOSE) {
+            expect(token, Token.OPEN, "expected the goal or the drives of the drive collection");
+            expect(tokenizer.next(), Token.ATOM, "expected (goal ...) or (drives ...)");
+            if (tokenizer.is("goal")) {
+                parseConditions(goals);
+            } else if (tokenizer.is("drives")) {
+                parseDriveElements(elements);
+            } else if (tokenizer.is("documentation")) {
+                skipForm();
+            } else {
+                throw tokenizer.error("expected (goal ...) or (drives ...)");
+            }
+        }
+        driveCollections.add(drivesBuilder.buildDriveCollection(name, realTime, goals, elements));
+    }
+
+    /**
+     * Parses the elements of a competence, each on its own or in a list of elements of the same priority, up to the
+     * closing bracket of the list they are in.
+     */
+    private void parseCompetenceElements(List<CompetenceElement> elements) throws IOException, LapSyntaxException {
+        Token token;
+        while ((token = tokenizer.next()) != Token.CLOSE) {
+            expect(token, Token.OPEN, "expected a competence element");
+            token = tokenizer.next();
+            if (token == Token.OPEN) {
+                tokenizer.pushBack();
+                parseCompetenceElements(elements);
+            } else {
+                expect(token, Token.ATOM, "expected the name of the competence element");
+                parseCompetenceElement(tokenizer.text(), elements);
+            }
+        }
+    }
+
+    private void parseCompetenceElement(String name, List<CompetenceElement> elements)
+            throws IOException, LapSyntaxException {
+        List<Sense> senses = new ArrayList<>();
+        String triggeredName = null;
+        Integer retries = null;
+        Token token;
+        while ((token = tokenizer.next()) != Token.CLOSE) {
+            if (token == Token.OPEN) {
+                expect(tokenizer.next(), Token.ATOM, "expected (trigger ...)");
+                if (!tokenizer.is("trigger")) {
+                    throw tokenizer.error("expected (trigger ...)");
+                }
+                parseConditions(senses);
+            } else if (token == Token.ATOM && triggeredName == null) {
+                triggeredName = tokenizer.text();
+            } else if (token == Token.ATOM && retries == null) {
+                retries = tokenizer.intValue();
+            } else {
+                throw tokenizer.error("expected ')' after the competence element");
+            }
+        }
+        if (triggeredName == null) {
+            throw tokenizer.error("expected what the competence element triggers");
+        }
+        elements.add(elementBuilder.buildCompetenceElement(name, senses, triggeredName, retries));
+    }
+
+    /**
+     * Parses the elements of a drive collection, each on its own or in a list of elements of the same priority, up
+     * to the closing bracket of the list they are in.
+     */
+    private void parseDriveElements(List<DriveElement> elements) throws IOException, LapSyntaxException {
+        Token token;
+        while ((token = tokenizer.next()) != Token.CLOSE) {
+            expect(token, Token.OPEN, "expected a drive element");
+            token = tokenizer.next();
+            if (token == Token.OPEN) {
+                tokenizer.pushBack();
+                parseDriveElements(elements);
+            } else {
+                expect(token, Token.ATOM, "expected the name of the drive element");
+                parseDriveElement(tokenizer.text(), elements);
+            }
+        }
+    }
+
+    private void parseDriveElement(String name, List<DriveElement> elements) throws IOException, LapSyntaxException {
+        List<Sense> senses = new ArrayList<>();
+        String triggeredName = null;
+        String frequencyUnit = DEFAULT_FREQUENCY_UNIT;
+        double frequencyValue = 0;
+        Token token;
+        while ((token = tokenizer.next()) != Token.CLOSE) {
+            if (token == Token.ATOM && triggeredName == null) {
+                triggeredName = tokenizer.text();
+                continue;
+            }
+            expect(token, Token.OPEN, "expected ')' after the drive element");
+            token = tokenizer.next();
+            if (token == Token.OPEN && triggeredName != null) {
+                // The writer used to put the frequency in two brackets, leaving the element without its own.
+                expect(tokenizer.next(), Token.ATOM, TIME_EXPECTED);
+                parseTime();
+                frequencyUnit = parsedTimeUnit;
+                frequencyValue = parsedTimeValue;
+                expect(tokenizer.next(), Token.CLOSE, "expected ')' after the frequency of the drive element");
+                break;
+            }
+            expect(token, Token.ATOM, "expected (trigger ...) or the frequency of the drive element");
+            if (tokenizer.is("trigger")) {
+                parseConditions(senses);
+            } else if (triggeredName != null) {
+                parseTime();
+                frequencyUnit = parsedTimeUnit;
+                frequencyValue = parsedTimeValue;
+            } else {
+                throw tokenizer.error("expected (trigger ...)");
+            }
+        }
+        if (triggeredName == null) {
+            throw tokenizer.error("expected what the drive element triggers");
+        }
+        elements.add(elementBuilder.buildDriveElement(name, senses, triggeredName, frequencyUnit, frequencyValue));
+    }
+
+    /**
+     * Parses the senses of a goal or a trigger whose keyword has been read, up to its closing bracket. Two forms the
+     * writer used to get wrong are read too. A goal or a trigger without senses was written {@code (goal ()}, without
+     * its closing bracket, so such a form is taken to end at its empty list if what follows does not close it. A goal
+     * that had been misread was written back nested in another, as {@code (goal ((goal ((sense 1)))}, which leaves
+     * out the closing brackets of the outer goal, so that goal is taken to end with the nested one.
+     */
+    private void parseConditions(List<Sense> senses) throws IOException, LapSyntaxException {
+        Token token = tokenizer.next();
+        if (token == Token.OPEN) {
+            token = tokenizer.next();
+            if (token == Token.CLOSE) {
+                if (tokenizer.next() != Token.CLOSE) {
+                    tokenizer.pushBack();
+                }
+                return;
+            } else if (token == Token.OPEN) {
+                if (parseFirstSense(senses)) {
+                    return;
+                }
+                parseSenses(senses);
+            } else {
+                expect(token, Token.ATOM, "expected the name of the sense");
+                senses.add(parseSense(tokenizer.text()));
+            }
+        } else {
+            tokenizer.pushBack();
+        }
+        parseSenses(senses);
+    }
+
+    /**
+     * Parses the first item of the list of senses of a goal or a trigger, whose opening bracket has been read.
+     *
+     * @return True if it was a goal or a trigger nested in the one being parsed, which then ends with it.
+     */
+    private boolean parseFirstSense(List<Sense> senses) throws IOException, LapSyntaxException {
+        Token token = tokenizer.next();
+        if (token == Token.OPEN) {
+            tokenizer.pushBack();
+            parseSenses(senses);
+        } else if (token == Token.ATOM) {
+            String name = tokenizer.text();
+            token = tokenizer.next();
+            tokenizer.pushBack();
+            if (token == Token.OPEN && ("goal".equals(name) || "trigger".equals(name))) {
+                parseConditions(senses);
+                return true;
+            }
+            senses.add(parseSense(name));
+        } else if (token != Token.CLOSE) {
+            throw tokenizer.error("expected the name of the sense");
+        }
+        return false;
+    }
+
+    /**
+     * Parses senses, each on its own or in a list, up to the closing bracket of the list they are in.
+     */
+    private void parseSenses(List<Sense> senses) throws IOException, LapSyntaxException {
+        Token token;
+        while ((token = tokenizer.next()) != Token.CLOSE) {
+            expect(token, Token.OPEN, "expected a sense");
+            token = tokenizer.next();
+            if (token == Token.CLOSE) {
+                continue;
+            } else if (token == Token.OPEN) {
+                tokenizer.pushBack();
+                parseSenses(senses);
+            } else {
+                expect(token, Token.ATOM, "expected the name of the sense");
+                senses.add(parseSense(tokenizer.text()));
+            }
+        }
+    }
+
+    private Sense parseSense(String name) throws IOException, LapSyntaxException {
+        String value = null;
+        String comperator = null;
+        Token token = tokenizer.next();
+        if (token == Token.ATOM) {
+            value = tokenizer.text();
+            comperator = DEFAULT_COMPERATOR;
+            token = tokenizer.next();
+            if (token == Token.ATOM) {
+                comperator = tokenizer.text();
+                token = tokenizer.next();
+            }
+        }
+        expect(token, Token.CLOSE, "expected ')' after the sense");
+        return elementBuilder.buildSense(name, comperator, value);
+    }
+
+    /**
+     * Parses the rest of a time whose unit is the current token.
+     */
+    private void parseTime() throws IOException, LapSyntaxException {
+        parsedTimeUnit = tokenizer.text();
+        expect(tokenizer.next(), Token.ATOM, TIME_EXPECTED);
+        parsedTimeValue = tokenizer.doubleValue();
+        expect(tokenizer.next(), Token.CLOSE, "expected ')' after the time");
+    }
+
+    /**
+     * Reads atoms up to the closing bracket of the list they are in.
+     */
+    private List<String> readAtoms(String expected) throws IOException, LapSyntaxException {
+        List<String> atoms = new ArrayList<>();
+        Token token;
+        while ((token = tokenizer.next()) != Token.CLOSE) {
+            expect(token, Token.ATOM, expected);
+            atoms.add(tokenizer.text());
+        }
+        return atoms;
+    }
+
+    private String expectAtom(String expected) throws IOException, LapSyntaxException {
+        expect(tokenizer.next(), Token.ATOM, expected);
+        return tokenizer.text();
+    }
+
+    private void expect(Token token, Token expectedToken, String expected) throws LapSyntaxException {
+        if (token != expectedToken) {
+            throw tokenizer.error(expected);
+        }
+    }
+}
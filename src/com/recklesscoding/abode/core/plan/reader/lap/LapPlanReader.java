@@ -1,145 +1,72 @@
 package com.recklesscoding.abode.core.plan.reader.lap;
 
 import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
 import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
-import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
 import com.recklesscoding.abode.core.plan.reader.PlanReader;
+import com.recklesscoding.abode.core.plan.reader.lap.builders.ActionPatternsBuilder;
 import com.recklesscoding.abode.core.plan.reader.lap.builders.CompetencesBuilder;
 import com.recklesscoding.abode.core.plan.reader.lap.builders.DriveCollectionBuilder;
 import com.recklesscoding.abode.core.plan.reader.lap.builders.ElementBuilder;
-import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
-import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
-import com.recklesscoding.abode.core.plan.reader.lap.builders.ActionPatternsBuilder;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.List;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 
 /**
+ * <p>
+ * Reads LAP plans with {@link LapParser}, in a single pass over the file. Nothing is added to the plan until the whole
+ * file has been parsed, so a file that is not well formed leaves the plan as it was; the
+ * {@link LapSyntaxException} says where the problem is.
+ * </p>
+ * <p>
+ * The action patterns, competences and drive collections are then added in that order, and last what each element
+ * triggers is looked up in the plan, so an element can trigger a competence defined further down the file.
+ * </p>
  * Author: @Andreas.
  * Date : @29/12/2015
  */
 public class LapPlanReader extends PlanReader {
 
+    private Plan plan;
+
     public LapPlanReader() {
 
     }
 
     @Override
-    public void readFile(String fileName) {
+    protected void readPlan(String fileName, Plan plan) {
+        this.plan = plan;
         readLapFile(fileName);
     }
 
     private void readLapFile(String fileName) {
         //All of them are local parameter, we don't need them in the memory after their job is done.
-        ActionPatternsBuilder actionPatternsBuilder = new ActionPatternsBuilder();
+        ActionPatternsBuilder actionPatternsBuilder = new ActionPatternsBuilder(plan);
         CompetencesBuilder competencesBuilder = new CompetencesBuilder();
         DriveCollectionBuilder drivesBuilder = new DriveCollectionBuilder();
-        ElementBuilder elementBuilder = new ElementBuilder();
-
-        String line;
+        ElementBuilder elementBuilder = new ElementBuilder(plan);
 
-        // Read the file as one string.
-        BufferedReader file;
-        try {
-            file = new BufferedReader(new FileReader(fileName));
+        try (Reader file = new InputStreamReader(openFile(fileName), StandardCharsets.UTF_8)) {
+            LapParser parser = new LapParser(new LapTokenizer(file), actionPatternsBuilder, competencesBuilder,
+                    drivesBuilder, elementBuilder);
+            parser.parsePlan();
 
-            while ((line = file.readLine()) != null) {
-                line = removeSpacesTabs(line);
-                if (line.startsWith("(AP ")) {
-                    Plan.getInstance().addActionPattern(actionPatternsBuilder.actionPatternElementBuilder(line));
-                }
-                if (line.startsWith("(C ")) {
-                    Plan.getInstance().addCompetence(createNewCompetence(line, file, competencesBuilder, elementBuilder));
-                }
-                if (line.startsWith("(RDC ")) {
-                    Plan.getInstance().addDriveCollection(createNewDriveCollection(line, file, drivesBuilder, elementBuilder));
-                }
+            actionPatternsBuilder.linkActions();
+            for (ActionPattern actionPattern : parser.getActionPatterns()) {
+                plan.addActionPattern(actionPattern);
             }
-        } catch (IOException e) {
-            // TODO: Exception handling
-            e.printStackTrace();
-        }
-    }
-
-    private DriveCollection createNewDriveCollection(String currentLine, BufferedReader file, DriveCollectionBuilder drivesBuilder, ElementBuilder elementBuilder) throws IOException {
-        String driveCollectionAsString = currentLine;
-
-        List<DriveElement> elements = new LinkedList<>();
-
-        boolean elementFound = true;
-        while ((currentLine = file.readLine()) != null) {
-            currentLine = removeSpacesTabs(currentLine);
-            if (isStartOfElement(currentLine))
-                elementFound = true;
-            else if (isEndOfLine(currentLine))
-                if (elementFound)
-                    elementFound = false;
-                else
-                    break;
-            else if (isDriveElement(currentLine)) {
-
-                elements.add(elementBuilder.createDriveElement(currentLine));
+            for (Competence competence : parser.getCompetences()) {
+                plan.addCompetence(competence);
             }
-        }
-        DriveCollection driveCollection = drivesBuilder.createDriveCollectionFromLAPFile(driveCollectionAsString);
-        driveCollection.setDriveElements(elements);
-        return driveCollection;
-    }
-
-    private Competence createNewCompetence(String currentLine, BufferedReader file, CompetencesBuilder competencesBuilder, ElementBuilder elementBuilder) throws IOException {
-        String competenceAsString = currentLine;
-
-        List<CompetenceElement> elements = new LinkedList<>();
-
-        boolean elementFound = true;
-        while ((currentLine = file.readLine()) != null) {
-            // Remove spaces and tabs from the beginning of each line
-            currentLine = removeSpacesTabs(currentLine);
-            // If it is the start of an element declaration
-            if (isStartOfElement(currentLine))
-                elementFound = true;
-                // If it is the end of an element declaration or competence
-            else if (isEndOfLine(currentLine))
-                // If it is the end of an element
-                if (elementFound)
-                    elementFound = false;
-                    // It is the end of a declaration
-                else
-                    break;
-            else if (isCompetenceElement(currentLine)) {
-                elements.add(elementBuilder.createCompetenceElementFromLAPLine(currentLine));
+            for (DriveCollection driveCollection : parser.getDriveCollections()) {
+                plan.addDriveCollection(driveCollection);
             }
+            elementBuilder.linkTriggeredElements();
+        } catch (IOException | LapSyntaxException e) {
+            readFailed(e);
         }
-        Competence competence = getCompetence(competenceAsString, competencesBuilder);
-        competence.setCompetenceElements(elements);
-
-        return competence;
-    }
-
-    private Competence getCompetence(String line, CompetencesBuilder competencesBuilder) {
-        return competencesBuilder.createCompetenceFromLAPLine(line);
-    }
-
-    private String removeSpacesTabs(String line) {
-        return line.trim();
-    }
-
-    private boolean isCompetenceElement(String line) {
-        return !(line.toLowerCase().startsWith("(elements"));
-    }
-
-    private boolean isDriveElement(String line) {
-        return !(line.toLowerCase().startsWith("(drives"));
-    }
-
-    private boolean isEndOfLine(String line) {
-        return line.startsWith(")");
-    }
-
-    private boolean isStartOfElement(String line) {
-        return line.length() == 1 && line.startsWith("(");
     }
-}
\ No newline at end of file
+}
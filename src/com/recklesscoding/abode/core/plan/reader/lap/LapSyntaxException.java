@@ -0,0 +1,31 @@
+package com.recklesscoding.abode.core.plan.reader.lap;
+
+/**
+ * <p>
+ * Thrown when a LAP file is not well formed, with the line and the column where the parser found the problem.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class LapSyntaxException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+
+    private final int column;
+
+    public LapSyntaxException(String message, int line, int column) {
+        super("Line " + line + ", column " + column + ": " + message);
+        this.line = line;
+        this.column = column;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
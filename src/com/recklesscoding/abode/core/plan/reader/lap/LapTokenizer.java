@@ -0,0 +1,256 @@
+package com.recklesscoding.abode.core.plan.reader.lap;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * <p>
+ * Splits a LAP file into brackets, atoms and strings. The file is read through a {@link CharBuffer} that is refilled
+ * as the tokens are read, so the whole file is never held in memory. A token is only kept as where it starts and ends
+ * in the buffer; the parser asks for its text when it needs it and compares keywords in place.
+ * </p>
+ * <p>
+ * Everything from a {@code ;} to the end of the line is a comment. Strings are in double quotes and a backslash escapes
+ * the character after it. Any other run of characters up to a space, a bracket, a quote or a comment is an atom.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+class LapTokenizer {
+
+    enum Token {
+        OPEN, CLOSE, ATOM, STRING, END
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+
+    /**
+     * The characters read from the file, from its position to its limit are the ones not tokenized yet.
+     */
+    private CharBuffer buffer = CharBuffer.allocate(BUFFER_SIZE);
+
+    private final StringBuilder string = new StringBuilder();
+
+    /**
+     * The line and the column of the next character.
+     */
+    private int line = 1;
+
+    private int column = 1;
+
+    private Token token;
+
+    private int tokenStart;
+
+    private int tokenEnd;
+
+    private int tokenLine;
+
+    private int tokenColumn;
+
+    private boolean pushedBack = false;
+
+    LapTokenizer(Reader reader) {
+        this.reader = reader;
+        buffer.flip();
+    }
+
+    Token next() throws IOException, LapSyntaxException {
+        if (pushedBack) {
+            pushedBack = false;
+            return token;
+        }
+        if (!skipSpacesAndComments()) {
+            tokenLine = line;
+            tokenColumn = column;
+            token = Token.END;
+            return token;
+        }
+        tokenLine = line;
+        tokenColumn = column;
+        char first = read();
+        if (first == '(') {
+            token = Token.OPEN;
+        } else if (first == ')') {
+            token = Token.CLOSE;
+        } else if (first == '"') {
+            readString();
+            token = Token.STRING;
+        } else {
+            readAtom();
+            token = Token.ATOM;
+        }
+        return token;
+    }
+
+    /**
+     * Makes the next call to {@link #next()} return the current token again.
+     */
+    void pushBack() {
+        pushedBack = true;
+    }
+
+    /**
+     * @return The text of the current atom or string.
+     */
+    String text() {
+        if (token == Token.STRING) {
+            return string.toString();
+        }
+        return new String(buffer.array(), buffer.arrayOffset() + tokenStart, tokenEnd - tokenStart);
+    }
+
+    /**
+     * @return True if the current token is an atom spelling the keyword, whatever its case.
+     */
+    boolean is(String keyword) {
+        if (token != Token.ATOM || tokenEnd - tokenStart != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            char tokenChar = buffer.get(tokenStart + i);
+            if (Character.toLowerCase(tokenChar) != Character.toLowerCase(keyword.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    double doubleValue() throws LapSyntaxException {
+        try {
+            return Double.parseDouble(text());
+        } catch (NumberFormatException e) {
+            throw error("expected a number");
+        }
+    }
+
+    int intValue() throws LapSyntaxException {
+        try {
+            return Integer.parseInt(text());
+        } catch (NumberFormatException e) {
+            throw error("expected a whole number");
+        }
+    }
+
+    int getTokenLine() {
+        return tokenLine;
+    }
+
+    int getTokenColumn() {
+        return tokenColumn;
+    }
+
+    /**
+     * @return An exception at the current token, saying what was expected and what was found instead.
+     */
+    LapSyntaxException error(String expected) {
+        return new LapSyntaxException(expected + ", found " + describeToken(), tokenLine, tokenColumn);
+    }
+
+    private String describeToken() {
+        switch (token) {
+            case OPEN:
+                return "'('";
+            case CLOSE:
+                return "')'";
+            case ATOM:
+                return "'" + text() + "'";
+            case STRING:
+                return "a string";
+            default:
+                return "the end of the file";
+        }
+    }
+
+    /**
+     * @return False if the end of the file was reached.
+     */
+    private boolean skipSpacesAndComments() throws IOException {
+        boolean inComment = false;
+        while (buffer.hasRemaining() || fill(buffer.position())) {
+            char next = buffer.get(buffer.position());
+            if (inComment) {
+                inComment = next != '\n';
+            } else if (next == ';') {
+                inComment = true;
+            } else if (!Character.isWhitespace(next)) {
+                return true;
+            }
+            read();
+        }
+        return false;
+    }
+
+    private void readAtom() throws IOException {
+        tokenStart = buffer.position() - 1;
+        while (buffer.hasRemaining() || fill(tokenStart)) {
+            char next = buffer.get(buffer.position());
+            if (Character.isWhitespace(next) || next == '(' || next == ')' || next == '"' || next == ';') {
+                break;
+            }
+            read();
+        }
+        tokenEnd = buffer.position();
+    }
+
+    private void readString() throws IOException, LapSyntaxException {
+        string.setLength(0);
+        boolean escaped = false;
+        while (buffer.hasRemaining() || fill(buffer.position())) {
+            char next = read();
+            if (escaped) {
+                string.append(next);
+                escaped = false;
+            } else if (next == '\\') {
+                escaped = true;
+            } else if (next == '"') {
+                return;
+            } else {
+                string.append(next);
+            }
+        }
+        throw new LapSyntaxException("the string is not closed", tokenLine, tokenColumn);
+    }
+
+    private char read() {
+        char next = buffer.get();
+        if (next == '\n') {
+            line++;
+            column = 1;
+        } else {
+            column++;
+        }
+        return next;
+    }
+
+    /**
+     * Reads more of the file into the buffer, keeping the characters from the given index on, which move to the start
+     * of the buffer. The buffer grows if they fill it.
+     *
+     * @return False if there is nothing more to read.
+     */
+    private boolean fill(int keepFrom) throws IOException {
+        int consumed = buffer.position() - keepFrom;
+        buffer.position(keepFrom);
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            CharBuffer larger = CharBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        int read;
+        do {
+            read = reader.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        buffer.position(consumed);
+        tokenStart -= keepFrom;
+        tokenEnd -= keepFrom;
+        return read > 0;
+    }
+}
@@ -5,60 +5,52 @@ import com.recklesscoding.abode.core.plan.planelements.TimeUnits;
 import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
 import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
+ * Builds the action patterns of a LAP file. Their actions are only made in the plan by {@link #linkActions()}, once
+ * the whole file has been parsed.
+ *
  * Author: @Andreas.
  * Date : @29/12/2015
  */
 public class ActionPatternsBuilder {
 
-    private Pattern PATTERN = Pattern.compile("\\((.+?)\\)");
+    private final Plan plan;
 
-    public ActionPattern actionPatternElementBuilder(String elementAsString) {
-        String name = getElementName(elementAsString);
-        Queue<String> timeAndActions = getTimeAndActions(elementAsString);
-        // First item in the queue is the time, get that and leave rest
-        String[] time = getSpaceSplit(timeAndActions.poll());
-        TimeUnits timeUnits = TimeUnits.getTimeUnits(time[0]);
-        double timeValue = Double.valueOf(time[1]);
-        return new ActionPattern(name, timeValue, timeUnits, getActions(timeAndActions.poll()));
-    }
+    private final List<ActionPattern> actionPatterns = new ArrayList<>();
 
-    private String[] getSpaceSplit(String elementAsString) {
-        return elementAsString.split(" ");
-    }
+    private final List<List<String>> actionNames = new ArrayList<>();
 
-    private List<ActionEvent> getActions(String actionsString) {
-        List<ActionEvent> actions = new ArrayList<>();
+    public ActionPatternsBuilder(Plan plan) {
+        this.plan = plan;
+    }
 
-        String[] actionsArray = getSpaceSplit(actionsString);
-        if (actionsArray.length > 0) {
-            for (int i = 0; i < actionsArray.length; i++) {
-                actions.add(Plan.getInstance().createAction(actionsString));
-            }
-            return actions;
-        } else
-            return new ArrayList<>();
+    public ActionPattern buildActionPattern(String name, double timeValue, TimeUnits timeUnits,
+                                            List<String> actionNames) {
+        ActionPattern actionPattern = new ActionPattern(name, timeValue, timeUnits, new ArrayList<>());
+        actionPatterns.add(actionPattern);
+        this.actionNames.add(actionNames);
+        return actionPattern;
     }
 
-    private String getElementName(String elementAsString) {
-        String[] lineAsArray = elementAsString.split(" ");
-        // We get position 1, as 0 is AP
-        return lineAsArray[1];
+    /**
+     * Gives every action pattern built its actions, making the ones that are not in the plan yet.
+     */
+    public void linkActions() {
+        for (int i = 0; i < actionPatterns.size(); i++) {
+            actionPatterns.get(i).setActions(getActions(actionNames.get(i)));
+        }
+        actionPatterns.clear();
+        actionNames.clear();
     }
 
-    private Queue<String> getTimeAndActions(String elementAsString) {
-        Queue<String> actions = new ArrayDeque<>();
-        Matcher matcher = PATTERN.matcher(elementAsString.substring(1));
-        while (matcher.find()) {
-            actions.add(matcher.group(1));
+    private List<ActionEvent> getActions(List<String> actionNames) {
+        List<ActionEvent> actions = new ArrayList<>();
+        for (String actionName : actionNames) {
+            actions.add(plan.createAction(actionName));
         }
         return actions;
     }
-}
\ No newline at end of file
+}
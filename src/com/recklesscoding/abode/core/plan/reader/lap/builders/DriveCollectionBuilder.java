@@ -2,11 +2,9 @@ package com.recklesscoding.abode.core.plan.reader.lap.builders;
 
 import com.recklesscoding.abode.core.plan.planelements.Sense;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
 
-import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Author: @Andreas.
@@ -14,79 +12,15 @@ import java.util.regex.Pattern;
  */
 public class DriveCollectionBuilder {
 
-    private Pattern PATTERN = Pattern.compile("\\((.+?)\\)");
-
     /**
      * Creates a DriveCollection object.
      *
-     * @param driveCollectionAsString
-     * @return
+     * @param realTime True for a real-time drive collection, RDC or SRDC in the file.
      */
-    public DriveCollection createDriveCollectionFromLAPFile(String driveCollectionAsString) {
-        String[] driveCollectionAsStringArray = getSpaceSplit(driveCollectionAsString);
-
-        return new DriveCollection(getDriveCollectionName(driveCollectionAsStringArray),
-                isRealTimeDrive(driveCollectionAsStringArray), getGoalElements(driveCollectionAsString));
-    }
-
-    private List<Sense> getGoalElements(String goalAsString) {
-        List<Sense> goalElements = new LinkedList<>();
-        Matcher matcher = PATTERN.matcher(goalAsString.substring(1));
-        int counter = 0;
-        String matchFound;
-        String[] matchFoundAsArray;
-        String nameFound;
-        String predicateFound = null;
-        String goalValueFound = null;
-        while (matcher.find()) {
-            matchFound = matcher.group(1);
-            matchFoundAsArray = getSpaceSplit(matchFound);
-            if (counter == 0)
-                matchFound = getFirstGoal(matchFound);
-            if (hasPredicateAndValue(matchFoundAsArray)) {
-                nameFound = getGoalName(matchFoundAsArray);
-                predicateFound = getGoalPredicate(matchFoundAsArray);
-                goalValueFound = getGoalValue(matchFoundAsArray);
-            } else
-                nameFound = matchFound;
-
-            goalElements.add(new Sense(nameFound, predicateFound, goalValueFound));
-            predicateFound = null;
-            goalValueFound = null;
-            counter++;
-        }
-        return goalElements;
-    }
-
-    private String getGoalName(String[] matchFoundAsArray) {
-        return matchFoundAsArray[0].replaceAll("\\(", "");
-    }
-
-    private String getFirstGoal(String elementAsString) {
-        return getSpaceSplit(elementAsString)[1].replaceAll("\\(", "").replaceAll("\\)", "");
-    }
-
-    private String getGoalValue(String[] elementAsStringArray) {
-        return elementAsStringArray[1];
-    }
-
-    private String getGoalPredicate(String[] elementAsStringArray) {
-        return elementAsStringArray[2];
-    }
-
-    private String[] getSpaceSplit(String elementAsString) {
-        return elementAsString.split(" ");
-    }
-
-    private boolean isRealTimeDrive(String[] driveCollectionAsStringArray) {
-        return driveCollectionAsStringArray[0].equals("(RDC");
-    }
-
-    private boolean hasPredicateAndValue(String[] elementAsStringArray) {
-        return (elementAsStringArray.length >= 3);
-    }
-
-    private String getDriveCollectionName(String[] driveCollectionAsStringArray) {
-        return driveCollectionAsStringArray[1];
+    public DriveCollection buildDriveCollection(String name, boolean realTime, List<Sense> goals,
+                                                List<DriveElement> driveElements) {
+        DriveCollection driveCollection = new DriveCollection(name, realTime, goals);
+        driveCollection.setDriveElements(driveElements);
+        return driveCollection;
     }
 }
@@ -1,139 +1,78 @@
 package com.recklesscoding.abode.core.plan.reader.lap.builders;
 
 import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.Sense;
 import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
+ * Builds the senses, competence elements and drive elements of a LAP file. What an element triggers is only looked up
+ * by {@link #linkTriggeredElements()}, once the action patterns and competences are in the plan, so that an element
+ * can trigger one defined further down the file.
+ *
  * Author: @Andreas.
  * Date : @13/01/2016
  */
 public class ElementBuilder {
 
-    private Pattern PATTERN = Pattern.compile("\\((.+?)\\)");
+    private final Plan plan;
 
-    public CompetenceElement createCompetenceElementFromLAPLine(String elementAsString) {
-        String[] elementAsStringArray = getSpaceSplit(elementAsString);
+    private final List<ElementWithTrigger> elements = new ArrayList<>();
 
-        return new CompetenceElement(getElementName(elementAsStringArray), getSenses(elementAsString),
-                getTriggeredElement(elementAsStringArray), getRetries(elementAsStringArray));
-    }
-
-    public DriveElement createDriveElement(String driveElementAsString) {
-        String[] driveElementAsStringArray = getSpaceSplit(driveElementAsString);
-
-        List<Sense> driveElementSenses = getSenses(driveElementAsString);
-        // Remove the time of the AP/C found by the matcher wrongly
-        driveElementSenses.remove(driveElementSenses.size() - 1);
-
-        return new DriveElement(getElementName(driveElementAsStringArray), driveElementSenses,
-                getACTrigger(driveElementAsStringArray), getFrequencyUnits(driveElementAsStringArray), getFrequencyValue(driveElementAsStringArray));
-    }
-
-    private List<Sense> getSenses(String elementAsString) {
-        Matcher matcher = PATTERN.matcher(elementAsString.substring(1));
-        List<Sense> senses = new LinkedList<>();
-        String matchFound;
-        String[] matchFoundAsArray;
-        String predicateFound = null;
-        String valueFound = null;
-        int counter = 0;
-        while (matcher.find()) {
-            if (counter == 0)
-                matchFound = getFirstSense(matcher.group(1));
-            else
-                matchFound = matcher.group(1);
-            matchFoundAsArray = getSpaceSplit(matchFound);
-            if (hasPredicateAndValue(matchFoundAsArray)) {
-                matchFound = getSenseName(matchFoundAsArray);
-                valueFound = getSenseValue(matchFoundAsArray);
-                predicateFound = getSensePredicate(matchFoundAsArray);
-            }
-            senses.add(new Sense(matchFound, predicateFound, valueFound));
-            predicateFound = null;
-            valueFound = null;
-            counter++;
-        }
-
-        return senses;
-    }
-
-    private String[] getSpaceSplit(String elementAsString) {
-        return elementAsString.split(" ");
-    }
-
-    private String getElementName(String[] driveElementAsStringArray) {
-        return driveElementAsStringArray[0].substring(1);
-    }
+    private final List<String> triggeredNames = new ArrayList<>();
 
-    private String getSenseName(String[] matchFoundAsArray) {
-        return matchFoundAsArray[0];
+    public ElementBuilder(Plan plan) {
+        this.plan = plan;
     }
 
-    private String getSenseValue(String[] matchFoundAsArray) {
-        return matchFoundAsArray[1];
+    /**
+     * Each element has its own senses, as the same sense can be compared to a different value by each.
+     */
+    public Sense buildSense(String name, String comperator, String value) {
+        return new Sense(name, comperator, value);
     }
 
-    private String getSensePredicate(String[] matchFoundAsArray) {
-        return matchFoundAsArray[2];
+    public CompetenceElement buildCompetenceElement(String name, List<Sense> senses, String triggeredName,
+                                                    Integer retries) {
+        CompetenceElement competenceElement = new CompetenceElement(name, senses, null, retries);
+        addTriggeredName(competenceElement, triggeredName);
+        return competenceElement;
     }
 
-    private boolean hasPredicateAndValue(String[] matchFoundAsArray) {
-        return matchFoundAsArray.length == 3;
+    public DriveElement buildDriveElement(String name, List<Sense> senses, String triggeredName,
+                                          String frequencyUnit, double frequencyValue) {
+        DriveElement driveElement = new DriveElement(name, senses, null, frequencyUnit, frequencyValue);
+        addTriggeredName(driveElement, triggeredName);
+        return driveElement;
     }
 
     /**
-     * Removes the 10 digits of "trigger ((" detected by the Matcher
-     *
-     * @param elementAsString A string containing the sense as an unprocessed, LAP-formatted line.
-     * @return A string containing the first sense detected in an element.
+     * Sets what every element built triggers: the competence or action pattern with the name, or else the action with
+     * it, which is made if it is not in the plan yet.
      */
-    private String getFirstSense(String elementAsString) {
-        return elementAsString.substring(9).replaceAll("\\(", "");
-    }
-
-    private Integer getRetries(String[] elementAsStringArray) {
-        try {
-            Integer retries = Integer.valueOf(elementAsStringArray[elementAsStringArray.length - 1].replaceAll("\\)", ""));
-            return retries;
-        } catch (NumberFormatException ex) {
-            return null;
+    public void linkTriggeredElements() {
+        for (int i = 0; i < elements.size(); i++) {
+            elements.get(i).setTriggeredElement(getTriggeredElement(triggeredNames.get(i)));
         }
+        elements.clear();
+        triggeredNames.clear();
     }
 
-    private PlanElement getTriggeredElement(String[] elementAsStringArray) {
-        PlanElement actionPatternOrCompetence = Plan.getInstance().findActionPatternOrCompetence(elementAsStringArray[elementAsStringArray.length - 2]);
-        if (actionPatternOrCompetence != null)
-            return actionPatternOrCompetence;
-        else
-            return Plan.getInstance().createAction(elementAsStringArray[elementAsStringArray.length - 2]);
+    private void addTriggeredName(ElementWithTrigger element, String triggeredName) {
+        elements.add(element);
+        triggeredNames.add(triggeredName);
     }
 
-    private PlanElement getACTrigger(String[] driveElementAsStringArray) {
-        String ac = driveElementAsStringArray[driveElementAsStringArray.length - 2].split("\\(")[0];
-        PlanElement actionPatternOrCompetence = Plan.getInstance().findActionPatternOrCompetence(ac);
+    private PlanElement getTriggeredElement(String name) {
+        PlanElement actionPatternOrCompetence = plan.findActionPatternOrCompetence(name);
         if (actionPatternOrCompetence != null)
             return actionPatternOrCompetence;
         else
-            return Plan.getInstance().createAction(ac);
-    }
-
-    private Double getFrequencyValue(String[] driveElementAsStringArray) {
-        try {
-            return Double.parseDouble(driveElementAsStringArray[driveElementAsStringArray.length - 1].replaceAll("\\)", ""));
-        } catch (NumberFormatException e) {
-            return 0.0;
-        }
-    }
-
-    private String getFrequencyUnits(String[] driveElementAsStringArray) {
-        return driveElementAsStringArray[driveElementAsStringArray.length - 2].split("\\(")[1];
+            return plan.createAction(name);
     }
-}
\ No newline at end of file
+}
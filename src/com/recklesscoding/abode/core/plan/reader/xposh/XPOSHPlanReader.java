@@ -10,231 +10,328 @@ import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElem
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
 import com.recklesscoding.abode.core.plan.reader.PlanReader;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.File;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 /**
+ * <p>
+ * Reads XPOSH plans with a StAX stream, so the document is never held in memory. A single pass keeps, for each
+ * element defined in the file, its name, attributes, senses and the names it refers to. The elements are then made
+ * in the order action patterns, competence elements, competences, drive elements and drives, and the names are
+ * resolved through the indexes of the plan, so an element can refer to one defined further down the file.
+ * </p>
+ * <p>
+ * Competence elements and drive elements listed inside a competence or a drive are references to the ones defined
+ * on their own.
+ * </p>
  * Author: @Andreas.
  * Date : @29/12/2015
  */
 public class XPOSHPlanReader extends PlanReader {
 
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    /**
+     * An element of the file, as much of it as is needed to make the plan element.
+     */
+    private static final class ElementRecord {
+
+        private final String name;
+
+        private final String triggers;
+
+        private final String checkTime;
+
+        /**
+         * The name, comparator and value of each sense.
+         */
+        private final List<String[]> senses = new ArrayList<>();
+
+        /**
+         * The actions of an action pattern, or the elements listed by a competence or a drive.
+         */
+        private final List<String> children = new ArrayList<>();
+
+        private boolean hasSenses = false;
+
+        private boolean hasChildren = false;
+
+        private ElementRecord(XMLStreamReader reader) {
+            this.name = getAttribute(reader, "name");
+            this.triggers = getAttribute(reader, "triggers");
+            this.checkTime = getAttribute(reader, "checkTime");
+        }
+    }
+
+    private Plan plan;
+
+    private final List<ElementRecord> actionPatterns = new ArrayList<>();
+
+    private final List<ElementRecord> competenceElements = new ArrayList<>();
+
+    private final List<ElementRecord> competences = new ArrayList<>();
+
+    private final List<ElementRecord> driveElements = new ArrayList<>();
+
+    private final List<ElementRecord> drives = new ArrayList<>();
+
     @Override
-    public void readFile(String fileName) {
+    protected void readPlan(String fileName, Plan plan) {
+        this.plan = plan;
         readXPOSHFile(fileName);
     }
 
     private void readXPOSHFile(String fileName) {
         try {
-            File fXmlFile = new File(fileName);
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-            Document doc = dBuilder.parse(fXmlFile);
-            doc.getDocumentElement().normalize();
+            readRecords(fileName);
 
-            actionPatternsCreator(doc);
-            competenceElementsCreator(doc);
-            competencesCreator(doc);
-            driveElementCreator(doc);
-            drivesCreator(doc);
+            actionPatternsCreator();
+            competenceElementsCreator();
+            competencesCreator();
+            driveElementCreator();
+            drivesCreator();
 
-            competenceElementsLinker(doc);
+            competenceElementsLinker();
 
         } catch (Exception e) {
-            e.printStackTrace();
+            readFailed(e);
+        } finally {
+            actionPatterns.clear();
+            competenceElements.clear();
+            competences.clear();
+            driveElements.clear();
+            drives.clear();
         }
     }
 
-    private void actionPatternsCreator(Document doc) {
-        NodeList actionPatternsNodes = doc.getElementsByTagName("ActionPattern");
-        for (int i = 0; i < actionPatternsNodes.getLength(); i++) {
-            if (actionPatternsNodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
-                Element actionPatternElement = (Element) actionPatternsNodes.item(i);
-                NodeList actionNodes = actionPatternElement.getElementsByTagName("Action");
-                List<ActionEvent> actions = new ArrayList<>();
-                for (int j = 0; j < actionNodes.getLength(); j++) {
-                    if (actionNodes.item(j).getNodeType() == Node.ELEMENT_NODE) {
-                        Element actionElement = (Element) actionNodes.item(j);
-                        ActionEvent actionEvent = Plan.getInstance().findAction(actionElement.getAttribute("name"));
-                        if (actionEvent == null) {
-                            actionEvent = Plan.getInstance().createAction(actionElement.getAttribute("name"));
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Reads the file once, keeping a record of each element it defines. The records of the elements the reader is
+     * inside are kept on a stack; senses and children go to the innermost one, and only the first list of each is
+     * read.
+     */
+    private void readRecords(String fileName) throws IOException, XMLStreamException {
+        Deque<ElementRecord> openRecords = new ArrayDeque<>();
+        Deque<String> openRecordTags = new ArrayDeque<>();
+        ElementRecord sensesRecord = null;
+        ElementRecord childrenRecord = null;
+        int competenceDepth = 0;
+        int driveDepth = 0;
+
+        try (InputStream input = new BufferedInputStream(openFile(fileName))) {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(input);
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String tag = reader.getLocalName();
+                        ElementRecord current = openRecords.peek();
+                        switch (tag) {
+                            case "ActionPattern":
+                                openRecord(new ElementRecord(reader), tag, actionPatterns, openRecords, openRecordTags);
+                                childrenRecord = openRecords.peek();
+                                break;
+                            case "Action":
+                                if (childrenRecord != null && childrenRecord == current) {
+                                    current.children.add(getAttribute(reader, "name"));
+                                }
+                                break;
+                            case "Competence":
+                                competenceDepth++;
+                                openRecord(new ElementRecord(reader), tag, competences, openRecords, openRecordTags);
+                                break;
+                            case "Drive":
+                                driveDepth++;
+                                openRecord(new ElementRecord(reader), tag, drives, openRecords, openRecordTags);
+                                break;
+                            case "CompetenceElements":
+                            case "DriveElements":
+                                if (current != null && !current.hasChildren) {
+                                    current.hasChildren = true;
+                                    childrenRecord = current;
+                                }
+                                break;
+                            case "CompetenceElement":
+                                if (competenceDepth > 0) {
+                                    addReference(reader, current, childrenRecord);
+                                } else {
+                                    openRecord(new ElementRecord(reader), tag, competenceElements, openRecords,
+                                            openRecordTags);
+                                }
+                                break;
+                            case "DriveElement":
+                                if (driveDepth > 0) {
+                                    addReference(reader, current, childrenRecord);
+                                } else {
+                                    openRecord(new ElementRecord(reader), tag, driveElements, openRecords,
+                                            openRecordTags);
+                                }
+                                break;
+                            case "Senses":
+                                if (current != null && !current.hasSenses) {
+                                    current.hasSenses = true;
+                                    sensesRecord = current;
+                                }
+                                break;
+                            case "Sense":
+                                if (sensesRecord != null && sensesRecord == current) {
+                                    current.senses.add(new String[]{getAttribute(reader, "name"),
+                                            getAttribute(reader, "comperator"), getAttribute(reader, "value")});
+                                }
+                                break;
+                            default:
+                                break;
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        String tag = reader.getLocalName();
+                        if ("Senses".equals(tag)) {
+                            sensesRecord = null;
+                        } else if ("CompetenceElements".equals(tag) || "DriveElements".equals(tag)) {
+                            childrenRecord = null;
+                        } else if (tag.equals(openRecordTags.peek())) {
+                            openRecordTags.pop();
+                            ElementRecord closed = openRecords.pop();
+                            if (closed == childrenRecord) {
+                                childrenRecord = null;
+                            }
+                            if (closed == sensesRecord) {
+                                sensesRecord = null;
+                            }
+                            if ("Competence".equals(tag)) {
+                                competenceDepth--;
+                            } else if ("Drive".equals(tag)) {
+                                driveDepth--;
+                            }
                         }
-                        actions.add(actionEvent);
                     }
                 }
-                Plan.getInstance().addActionPattern(new ActionPattern(actionPatternElement.getAttribute("name"), actions));
+            } finally {
+                reader.close();
             }
         }
     }
 
-    private void competenceElementsCreator(Document doc) {
-        NodeList competenceElementNodes = doc.getElementsByTagName("CompetenceElement");
-        for (int i = 0; i < competenceElementNodes.getLength(); i++) {
-            if (competenceElementNodes.item(i).getNodeType() == Node.ELEMENT_NODE &&
-                    competenceElementNodes.item(i).getParentNode().getParentNode().getNodeName() != "Competence") {
-                Element ceElement = (Element) competenceElementNodes.item(i);
-                List<Sense> senses = conditionsCreator(ceElement.getElementsByTagName("Senses"));
-                CompetenceElement competenceElement = new CompetenceElement(ceElement.getAttribute("name"),
-                        senses);
-                Plan.getInstance().addCompetenceElement(competenceElement);
-            }
-        }
+    private static void openRecord(ElementRecord record, String tag, List<ElementRecord> records,
+                                   Deque<ElementRecord> openRecords, Deque<String> openRecordTags) {
+        records.add(record);
+        openRecords.push(record);
+        openRecordTags.push(tag);
     }
 
-
-    private void competenceElementsLinker(Document doc) {
-        NodeList competenceElementNodes = doc.getElementsByTagName("CompetenceElement");
-        for (int i = 0; i < competenceElementNodes.getLength(); i++) {
-            if (competenceElementNodes.item(i).getNodeType() == Node.ELEMENT_NODE &&
-                    competenceElementNodes.item(i).getParentNode().getParentNode().getNodeName() != "Competence") {
-                Element ceElement = (Element) competenceElementNodes.item(i);
-                PlanElement triggered = Plan.getInstance().findActionPattern(ceElement.getAttribute("triggers"));
-                if (triggered == null) {
-                    triggered = Plan.getInstance().findCompetence
-                            (ceElement.getAttribute("triggers"));
-                }
-                if (triggered == null) {
-                    triggered = Plan.getInstance().createAction
-                            (ceElement.getAttribute("triggers"));
-                }
-                Plan.getInstance().findCompetenceElementXPOSH(ceElement.getAttribute("name")).setTriggeredElement(triggered);
-            }
+    private static void addReference(XMLStreamReader reader, ElementRecord current, ElementRecord childrenRecord) {
+        if (childrenRecord != null && childrenRecord == current) {
+            current.children.add(getAttribute(reader, "name"));
         }
     }
 
+    /**
+     * @return The value of the attribute, or an empty string if it is missing, as the DOM gives.
+     */
+    private static String getAttribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value != null ? value : "";
+    }
 
-    private void driveElementCreator(Document doc) {
-        NodeList driveElementNode = doc.getElementsByTagName("DriveElement");
-        for (int i = 0; i < driveElementNode.getLength(); i++) {
-            if (driveElementNode.item(i).getNodeType() == Node.ELEMENT_NODE && driveElementNode.item(i).getParentNode().getParentNode().getNodeName() != "DriveElements") {
-                Element deElement = (Element) driveElementNode.item(i);
-                List<Sense> senses = conditionsCreator(deElement.getElementsByTagName("Senses"));
-                String checkTime = deElement.getAttribute("checkTime");
-                DriveElement driveElement;
-
-                PlanElement triggered = Plan.getInstance().findActionPattern(deElement.getAttribute("triggers"));
-                if (triggered == null) {
-                    triggered = Plan.getInstance().findCompetence
-                            (deElement.getAttribute("triggers"));
-                }
-                if (triggered == null) {
-                    triggered = Plan.getInstance().createAction
-                            (deElement.getAttribute("triggers"));
-                }
-
-                if (!checkTime.isEmpty()) {
-                    Double.parseDouble(deElement.getAttribute("checkTime"));
-                    driveElement = new DriveElement(deElement.getAttribute("name"), triggered,
-                            senses, Double.parseDouble(deElement.getAttribute("checkTime")));
-                } else {
-                    driveElement = new DriveElement(deElement.getAttribute("name"), triggered,
-                            senses);
+    private void actionPatternsCreator() {
+        for (ElementRecord record : actionPatterns) {
+            List<ActionEvent> actions = new ArrayList<>();
+            for (String actionName : record.children) {
+                ActionEvent actionEvent = plan.findAction(actionName);
+                if (actionEvent == null) {
+                    actionEvent = plan.createAction(actionName);
                 }
-
-                Plan.getInstance().addDriveElement(driveElement);
+                actions.add(actionEvent);
             }
+            plan.addActionPattern(new ActionPattern(record.name, actions));
         }
     }
 
-    private void competencesCreator(Document doc) {
-        NodeList competenceElementNodes = doc.getElementsByTagName("Competence");
-
-        for (int i = 0; i < competenceElementNodes.getLength(); i++) {
-            if (competenceElementNodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
-                Element competenceElement = (Element) competenceElementNodes.item(i);
-                List<Sense> goals = conditionsCreator(competenceElement.getElementsByTagName("Senses"));
-                List<CompetenceElement> competenceElements = ceCCreator(competenceElement.getElementsByTagName("CompetenceElements"));
-                Competence competence = new Competence(competenceElement.getAttribute("name"),
-                        goals, competenceElements);
-                Plan.getInstance().addCompetence(competence);
-            }
+    private void competenceElementsCreator() {
+        for (ElementRecord record : competenceElements) {
+            plan.addCompetenceElement(new CompetenceElement(record.name, conditionsCreator(record)));
         }
     }
 
-    private void drivesCreator(Document doc) {
-        NodeList drivesNodes = doc.getElementsByTagName("Drive");
+    private void competenceElementsLinker() {
+        for (ElementRecord record : competenceElements) {
+            plan.findCompetenceElementXPOSH(record.name).setTriggeredElement(findTriggered(record.triggers));
+        }
+    }
 
-        for (int i = 0; i < drivesNodes.getLength(); i++) {
-            if (drivesNodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
-                Element driveElement = (Element) drivesNodes.item(i);
-                List<Sense> conditions = conditionsCreator(driveElement.getElementsByTagName("Senses"));
-                List<DriveElement> driveElements = deCCreator(driveElement.getElementsByTagName("DriveElements"));
-                DriveCollection driveCollection = new DriveCollection(driveElement.getAttribute("name"),
-                        conditions, driveElements);
-                Plan.getInstance().addDriveCollection(driveCollection);
+    private void driveElementCreator() {
+        for (ElementRecord record : driveElements) {
+            List<Sense> senses = conditionsCreator(record);
+            PlanElement triggered = findTriggered(record.triggers);
+            DriveElement driveElement;
+            if (!record.checkTime.isEmpty()) {
+                driveElement = new DriveElement(record.name, triggered, senses, Double.parseDouble(record.checkTime));
+            } else {
+                driveElement = new DriveElement(record.name, triggered, senses);
             }
+            plan.addDriveElement(driveElement);
         }
     }
 
-    private List<Sense> conditionsCreator(NodeList conditionsNodes) {
-        List<Sense> senses = new ArrayList<>();
-        for (int i = 0; i < conditionsNodes.getLength(); i++) {
-            if (conditionsNodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
-                Element conditionsElement = (Element) conditionsNodes.item(i);
-                NodeList conditionNodes = conditionsElement.getElementsByTagName("Sense");
-                for (int j = 0; j < conditionNodes.getLength(); j++) {
-                    if (conditionNodes.item(j).getNodeType() == Node.ELEMENT_NODE) {
-                        Element conditionElement = (Element) conditionNodes.item(j);
-                        Sense sense = Plan.getInstance().createSense(conditionElement.getAttribute("name"),
-                                conditionElement.getAttribute("comperator"), conditionElement.getAttribute("value"));
-                        senses.add(sense);
-                    }
+    private void competencesCreator() {
+        for (ElementRecord record : competences) {
+            List<Sense> goals = conditionsCreator(record);
+            List<CompetenceElement> elements = new ArrayList<>();
+            for (String name : record.children) {
+                CompetenceElement competenceElement = plan.findCompetenceElementXPOSH(name);
+                if (competenceElement != null) {
+                    elements.add(competenceElement);
                 }
-                return senses;
             }
+            plan.addCompetence(new Competence(record.name, goals, elements));
         }
-        return senses;
     }
 
-    private List<CompetenceElement> ceCCreator(NodeList cesNodes) {
-        List<CompetenceElement> competenceElements = new ArrayList<>();
-        for (int i = 0; i < cesNodes.getLength(); i++) {
-            if (cesNodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
-                Element cesElement = (Element) cesNodes.item(i);
-                NodeList ceNodes = cesElement.getElementsByTagName("CompetenceElement");
-                for (int j = 0; j < ceNodes.getLength(); j++) {
-                    if (ceNodes.item(j).getNodeType() == Node.ELEMENT_NODE) {
-                        Element ceElement = (Element) ceNodes.item(j);
-                        CompetenceElement competenceElement = Plan.getInstance().
-                                findCompetenceElementXPOSH(ceElement.getAttribute("name"));
-                        if (competenceElement != null) {
-                            competenceElements.add(competenceElement);
-                        }
-                    }
+    private void drivesCreator() {
+        for (ElementRecord record : drives) {
+            List<Sense> conditions = conditionsCreator(record);
+            List<DriveElement> elements = new ArrayList<>();
+            for (String name : record.children) {
+                DriveElement driveElement = plan.findDriveElementXPOSH(name);
+                if (driveElement != null) {
+                    elements.add(driveElement);
                 }
-                return competenceElements;
             }
+            plan.addDriveCollection(new DriveCollection(record.name, conditions, elements));
         }
-        return competenceElements;
-    }
-
-    private List<DriveElement> deCCreator(NodeList desNodes) {
-        List<DriveElement> driveElements = new ArrayList<>();
-        for (int i = 0; i < desNodes.getLength(); i++) {
-            if (desNodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
-                Element desNode = (Element) desNodes.item(i);
-                NodeList deNode = desNode.getElementsByTagName("DriveElement");
-                for (int j = 0; j < deNode.getLength(); j++) {
-                    if (deNode.item(j).getNodeType() == Node.ELEMENT_NODE) {
-                        Element deElement = (Element) deNode.item(j);
-                        DriveElement driveElement = Plan.getInstance().
-                                findDriveElementXPOSH(deElement.getAttribute("name"));
-                        if (driveElement != null) {
-                            driveElements.add(driveElement);
-                        }
-                    }
-                }
-                return driveElements;
-            }
+    }
+
+    private PlanElement findTriggered(String name) {
+        PlanElement triggered = plan.findActionPattern(name);
+        if (triggered == null) {
+            triggered = plan.findCompetence(name);
+        }
+        if (triggered == null) {
+            triggered = plan.createImplicitAction(name);
         }
-        return driveElements;
+        return triggered;
+    }
+
+    private List<Sense> conditionsCreator(ElementRecord record) {
+        List<Sense> senses = new ArrayList<>();
+        for (String[] sense : record.senses) {
+            senses.add(plan.createSense(sense[0], sense[1], sense[2]));
+        }
+        return senses;
     }
-}
\ No newline at end of file
+}
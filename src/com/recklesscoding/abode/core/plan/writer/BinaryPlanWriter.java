@@ -0,0 +1,279 @@
+package com.recklesscoding.abode.core.plan.writer;
+
+import com.recklesscoding.abode.core.plan.BinaryPlanFormat;
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanSnapshot;
+import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.planelements.Sense;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
+import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
+import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * Writes a plan in the binary format described by {@link BinaryPlanFormat}. Every string is written once
+ * and every reference is an index, so the file can be read back without any parsing.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class BinaryPlanWriter extends PlanWriter {
+
+    private final List<PlanElement> elements = new ArrayList<>();
+
+    private final Map<PlanElement, Integer> indicesOfElements = new IdentityHashMap<>();
+
+    private final Set<PlanElement> elementsInPlan = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private final Map<String, Integer> indicesOfStrings = new HashMap<>();
+
+    private final List<Integer> stringOffsets = new ArrayList<>();
+
+    private final ByteArrayOutputStream stringBlob = new ByteArrayOutputStream();
+
+    private int[] references = new int[256];
+
+    private int referencesCount = 0;
+
+    @Override
+    public void writeFile(String filePath, Plan planToWrite) {
+        savePlan(filePath, planToWrite);
+    }
+
+    private void savePlan(String filePath, Plan planToWrite) {
+        PlanSnapshot plan = planToWrite.snapshot();
+        clear();
+        indexElements(plan);
+        ByteBuffer records = ByteBuffer.allocate(elements.size() * BinaryPlanFormat.RECORD_SIZE);
+        for (PlanElement planElement : elements) {
+            writeRecord(records, planElement);
+        }
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)))) {
+            output.writeInt(BinaryPlanFormat.MAGIC);
+            output.writeShort(BinaryPlanFormat.VERSION);
+            output.writeShort(0);
+
+            output.writeInt(stringOffsets.size());
+            for (int offset : stringOffsets) {
+                output.writeInt(offset);
+            }
+            output.writeInt(stringBlob.size());
+            stringBlob.writeTo(output);
+
+            output.writeInt(elements.size());
+            output.write(records.array());
+
+            output.writeInt(referencesCount);
+            for (int i = 0; i < referencesCount; i++) {
+                output.writeInt(references[i]);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void clear() {
+        elements.clear();
+        indicesOfElements.clear();
+        elementsInPlan.clear();
+        indicesOfStrings.clear();
+        stringOffsets.clear();
+        stringBlob.reset();
+        referencesCount = 0;
+    }
+
+    /**
+     * Gives an index to the elements of the plan, in the order of their lists, and then to anything they use that is
+     * not in the plan.
+     */
+    private void indexElements(PlanSnapshot plan) {
+        indexElementsInPlan(plan.getSenses());
+        indexElementsInPlan(plan.getActionEvents());
+        indexElementsInPlan(plan.getActionPatterns());
+        indexElementsInPlan(plan.getCompetences());
+        indexElementsInPlan(plan.getCompetenceElements());
+        indexElementsInPlan(plan.getDriveElements());
+        indexElementsInPlan(plan.getDriveCollections());
+
+        for (int i = 0; i < elements.size(); i++) {
+            PlanElement planElement = elements.get(i);
+            indexElement(getTriggeredElement(planElement));
+            for (PlanElement sense : getSenses(planElement)) {
+                indexElement(sense);
+            }
+            for (PlanElement subElement : getSubElements(planElement)) {
+                indexElement(subElement);
+            }
+        }
+    }
+
+    private void indexElementsInPlan(List<? extends PlanElement> planElements) {
+        for (PlanElement planElement : planElements) {
+            indexElement(planElement);
+            elementsInPlan.add(planElement);
+        }
+    }
+
+    private void indexElement(PlanElement planElement) {
+        if (planElement == null || getType(planElement) < 0 || indicesOfElements.containsKey(planElement)) {
+            return;
+        }
+        indicesOfElements.put(planElement, elements.size());
+        elements.add(planElement);
+    }
+
+    private void writeRecord(ByteBuffer records, PlanElement planElement) {
+        byte type = getType(planElement);
+        int flags = elementsInPlan.contains(planElement) ? BinaryPlanFormat.FLAG_IN_PLAN : 0;
+        int secondString = BinaryPlanFormat.NONE;
+        int thirdString = BinaryPlanFormat.NONE;
+        double number = 0;
+        int integer = 0;
+
+        if (planElement instanceof Sense) {
+            Sense sense = (Sense) planElement;
+            secondString = getStringIndex(sense.getComperator());
+            thirdString = getStringIndex(sense.getValue());
+        } else if (planElement instanceof ActionPattern) {
+            ActionPattern actionPattern = (ActionPattern) planElement;
+            flags |= actionPattern.getTimeUnits().ordinal();
+            number = actionPattern.getTimeValue();
+        } else if (planElement instanceof Competence) {
+            Competence competence = (Competence) planElement;
+            flags |= competence.getTimeUnits().ordinal();
+            number = competence.getTimeout();
+        } else if (planElement instanceof CompetenceElement) {
+            integer = ((CompetenceElement) planElement).getRetries();
+        } else if (planElement instanceof DriveElement) {
+            DriveElement driveElement = (DriveElement) planElement;
+            secondString = getStringIndex(driveElement.getFrequencyUnit());
+            number = driveElement.getFrequencyValue();
+        } else if (planElement instanceof DriveCollection) {
+            if (((DriveCollection) planElement).isRealTime()) {
+                flags |= BinaryPlanFormat.FLAG_REAL_TIME;
+            }
+        }
+
+        records.put(type);
+        records.put((byte) flags);
+        records.putShort((short) 0);
+        records.putInt(getStringIndex(planElement.getNameOfElement()));
+        records.putInt(secondString);
+        records.putInt(thirdString);
+        records.putDouble(number);
+        records.putInt(integer);
+        records.putInt(getElementIndex(getTriggeredElement(planElement)));
+        writeReferences(records, getSenses(planElement));
+        writeReferences(records, getSubElements(planElement));
+    }
+
+    private void writeReferences(ByteBuffer records, List<? extends PlanElement> planElements) {
+        int start = referencesCount;
+        for (PlanElement planElement : planElements) {
+            int index = getElementIndex(planElement);
+            if (index != BinaryPlanFormat.NONE) {
+                if (referencesCount == references.length) {
+                    references = Arrays.copyOf(references, referencesCount * 2);
+                }
+                references[referencesCount++] = index;
+            }
+        }
+        records.putInt(start);
+        records.putInt(referencesCount - start);
+    }
+
+    private int getElementIndex(PlanElement planElement) {
+        if (planElement == null) {
+            return BinaryPlanFormat.NONE;
+        }
+        Integer index = indicesOfElements.get(planElement);
+        return index != null ? index : BinaryPlanFormat.NONE;
+    }
+
+    private int getStringIndex(String string) {
+        if (string == null) {
+            return BinaryPlanFormat.NONE;
+        }
+        Integer index = indicesOfStrings.get(string);
+        if (index == null) {
+            index = stringOffsets.size();
+            indicesOfStrings.put(string, index);
+            stringOffsets.add(stringBlob.size());
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            stringBlob.write(bytes, 0, bytes.length);
+        }
+        return index;
+    }
+
+    private byte getType(PlanElement planElement) {
+        if (planElement instanceof Sense) {
+            return BinaryPlanFormat.SENSE;
+        } else if (planElement instanceof ActionEvent) {
+            return BinaryPlanFormat.ACTION;
+        } else if (planElement instanceof ActionPattern) {
+            return BinaryPlanFormat.ACTION_PATTERN;
+        } else if (planElement instanceof Competence) {
+            return BinaryPlanFormat.COMPETENCE;
+        } else if (planElement instanceof CompetenceElement) {
+            return BinaryPlanFormat.COMPETENCE_ELEMENT;
+        } else if (planElement instanceof DriveElement) {
+            return BinaryPlanFormat.DRIVE_ELEMENT;
+        } else if (planElement instanceof DriveCollection) {
+            return BinaryPlanFormat.DRIVE_COLLECTION;
+        }
+        return -1;
+    }
+
+    private PlanElement getTriggeredElement(PlanElement planElement) {
+        if (planElement instanceof ElementWithTrigger) {
+            return ((ElementWithTrigger) planElement).getTriggeredElement();
+        }
+        return null;
+    }
+
+    private List<? extends PlanElement> getSenses(PlanElement planElement) {
+        if (planElement instanceof Competence) {
+            return ((Competence) planElement).getGoals();
+        } else if (planElement instanceof CompetenceElement) {
+            return ((CompetenceElement) planElement).getSenses();
+        } else if (planElement instanceof DriveElement) {
+            return ((DriveElement) planElement).getSenses();
+        } else if (planElement instanceof DriveCollection) {
+            return ((DriveCollection) planElement).getGoals();
+        }
+        return Collections.emptyList();
+    }
+
+    private List<? extends PlanElement> getSubElements(PlanElement planElement) {
+        if (planElement instanceof ActionPattern) {
+            return ((ActionPattern) planElement).getActionEvents();
+        } else if (planElement instanceof Competence) {
+            return ((Competence) planElement).getCompetenceElements();
+        } else if (planElement instanceof DriveCollection) {
+            return ((DriveCollection) planElement).getDriveElements();
+        }
+        return Collections.emptyList();
+    }
+}
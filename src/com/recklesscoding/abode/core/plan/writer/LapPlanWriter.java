@@ -1,6 +1,7 @@
 package com.recklesscoding.abode.core.plan.writer;
 
 import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanSnapshot;
 import com.recklesscoding.abode.core.plan.planelements.Sense;
 import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
 import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
@@ -8,7 +9,6 @@ import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
 import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
-import com.recklesscoding.abode.util.IWriter;
 
 import java.io.FileWriter;
 import java.io.IOException;
@@ -20,7 +20,7 @@ import java.util.List;
  * @author :   Andreas Theodorou - www.recklesscoding.com
  * @version :   %G%
  */
-public class LapPlanWriter implements IWriter {
+public class LapPlanWriter extends PlanWriter {
 
     private final static String EMPTY_SPACE = " ";
 
@@ -66,11 +66,12 @@ public class LapPlanWriter implements IWriter {
 
 
     @Override
-    public void writeFile(String filePath) {
-        savePlan(filePath);
+    public void writeFile(String filePath, Plan planToWrite) {
+        savePlan(filePath, planToWrite);
     }
 
-    private void savePlan(String filePath) {
+    private void savePlan(String filePath, Plan planToWrite) {
+        PlanSnapshot plan = planToWrite.snapshot();
         try {
             FileWriter writer = new FileWriter(filePath);
 
@@ -80,11 +81,11 @@ public class LapPlanWriter implements IWriter {
             writer.append(TAB_SPACE + DOCUMENTATION_OPENING + CLOSING_BRACKET);
             writer.append(NEW_LINE);
 
-            for (ActionPattern actionPattern : Plan.getInstance().getActionPatterns()) {
+            for (ActionPattern actionPattern : plan.getActionPatterns()) {
                 writer.append(TAB_SPACE).append(constructAPLine(actionPattern));
             }
 
-            for (Competence competence : Plan.getInstance().getCompetences()) {
+            for (Competence competence : plan.getCompetences()) {
                 String competenceLine = constructCompetenceLine(competence);
                 writer.append(TAB_SPACE + competenceLine);
                 writer.append(CE_OPENING_LINE);
@@ -97,7 +98,7 @@ public class LapPlanWriter implements IWriter {
                 writer.append(TAB_SPACE + CLOSING_AND_NEW_LINE);
             }
 
-            for (DriveCollection driveCollection : Plan.getInstance().getDriveCollections()) {
+            for (DriveCollection driveCollection : plan.getDriveCollections()) {
                 writer.append(TAB_SPACE + constructDriveLine(driveCollection));
                 writer.append(DRIVES_OPENING_LINE);
                 for (DriveElement driveElement : driveCollection.getDriveElements()) {
@@ -119,7 +120,7 @@ public class LapPlanWriter implements IWriter {
 
     private String constructDELine(DriveElement driveElement) {
         return OPENING_BRACKET+ driveElement.getNameOfElement() + EMPTY_SPACE + constructTriggers(driveElement.getSenses())
-                + EMPTY_SPACE + driveElement.getTriggeredElement() +OPENING_BRACKET +
+                + EMPTY_SPACE + driveElement.getTriggeredElement() +
                 contructTime(driveElement.getFrequencyUnit().toLowerCase(), String.valueOf(driveElement.getFrequencyValue()))
                 + CLOSING_AND_NEW_LINE;
     }
@@ -182,7 +183,7 @@ public class LapPlanWriter implements IWriter {
             }
             line = line + CLOSING_BRACKET + CLOSING_BRACKET;
         } else {
-            line = line + CLOSING_BRACKET;
+            line = line + CLOSING_BRACKET + CLOSING_BRACKET;
         }
         return line;
     }
@@ -207,7 +208,6 @@ public class LapPlanWriter implements IWriter {
             actionsLine = actionsLine + actionEvents.get(i).getNameOfElement();
             if (i < actionEvents.size() - 1) {
                 actionsLine = actionsLine + EMPTY_SPACE;
-                System.out.println(actionsLine);
             }
         }
         actionsLine = actionsLine + CLOSING_BRACKET;
@@ -0,0 +1,25 @@
+package com.recklesscoding.abode.core.plan.writer;
+
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.util.IWriter;
+
+/**
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public abstract class PlanWriter implements IWriter {
+
+    /**
+     * Writes the active plan.
+     */
+    @Override
+    public void writeFile(String filePath) {
+        writeFile(filePath, Plan.getInstance());
+    }
+
+    /**
+     * Writes the given plan to the file.
+     */
+    public abstract void writeFile(String filePath, Plan planToWrite);
+
+}
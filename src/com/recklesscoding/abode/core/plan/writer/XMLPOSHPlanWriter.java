@@ -1,6 +1,7 @@
 package com.recklesscoding.abode.core.plan.writer;
 
 import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanSnapshot;
 import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.Sense;
@@ -10,7 +11,6 @@ import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
 import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
-import com.recklesscoding.abode.util.IWriter;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -31,14 +31,20 @@ import java.io.File;
  * @author :   Andreas Theodorou - www.recklesscoding.com
  * @version :   %G%
  */
-public class XMLPOSHPlanWriter implements IWriter {
+public class XMLPOSHPlanWriter extends PlanWriter {
+
+    /**
+     * The plan being written, taken once so that edits made while saving do not end up in half of the file.
+     */
+    private PlanSnapshot plan;
 
     @Override
-    public void writeFile(String filePath) {
-        savePlan(filePath);
+    public void writeFile(String filePath, Plan planToWrite) {
+        savePlan(filePath, planToWrite);
     }
 
-    private void savePlan(String filePath) {
+    private void savePlan(String filePath, Plan planToWrite) {
+        plan = planToWrite.snapshot();
         try {
 
             DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
@@ -97,7 +103,7 @@ public class XMLPOSHPlanWriter implements IWriter {
 
     private void createAPElements(Document doc, Element subrootElement) {
         for (ActionPattern actionPattern :
-                Plan.getInstance().getActionPatterns()) {
+                plan.getActionPatterns()) {
             Element actionPatternElement = doc.createElement("ActionPattern");
             addNameAttr(doc, actionPattern, actionPatternElement);
 
@@ -113,7 +119,7 @@ public class XMLPOSHPlanWriter implements IWriter {
 
     private void createCEElements(Document doc, Element subrootElement) {
         for (CompetenceElement competenceElement :
-                Plan.getInstance().getCompetenceElements()) {
+                plan.getCompetenceElements()) {
             Element competenceElementElement = doc.createElement("CompetenceElement");
             addNameAttr(doc, competenceElement, competenceElementElement);
             addTriggerAttr(doc, competenceElement, competenceElementElement);
@@ -134,7 +140,7 @@ public class XMLPOSHPlanWriter implements IWriter {
 
     private void createCompElements(Document doc, Element subrootElement) {
         for (Competence comptenece :
-                Plan.getInstance().getCompetences()) {
+                plan.getCompetences()) {
             Element compteneceElement = doc.createElement("Competence");
             addNameAttr(doc, comptenece, compteneceElement);
             addGoalsToCompElement(doc, comptenece, compteneceElement);
@@ -145,7 +151,7 @@ public class XMLPOSHPlanWriter implements IWriter {
 
     private void createDEElements(Document doc, Element subrootElement) {
         for (DriveElement driveElement :
-                Plan.getInstance().getDriveElements()) {
+                plan.getDriveElements()) {
             Element deElement = doc.createElement("DriveElement");
             addNameAttr(doc, driveElement, deElement);
             addTriggerAttr(doc, driveElement, deElement);
@@ -167,7 +173,7 @@ public class XMLPOSHPlanWriter implements IWriter {
 
     private void createDriveElements(Document doc, Element subrootElement) {
         for (DriveCollection driveCollection :
-                Plan.getInstance().getDriveCollections()) {
+                plan.getDriveCollections()) {
             Element driveElement = doc.createElement("Drive");
             addNameAttr(doc, driveCollection, driveElement);
             addGoalsToDriveElement(doc, driveCollection, driveElement);
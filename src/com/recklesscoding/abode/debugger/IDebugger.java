@@ -1,5 +1,6 @@
 package com.recklesscoding.abode.debugger;
 
+import com.recklesscoding.abode.debugger.prerecorded.LogReplay;
 import com.recklesscoding.abode.gui.videoplayer.VideoPlayerView;
 
 /**
@@ -7,6 +8,11 @@ import com.recklesscoding.abode.gui.videoplayer.VideoPlayerView;
  * Date : @02/08/2016
  */
 public interface IDebugger {
+    /**
+     * @return True if the debugger reads logs like the file.
+     */
+    boolean canReadLogFile(String logPath);
+
     void readLogFile(String logPath);
 
     void loadVideo(String videoPath);
@@ -19,7 +25,23 @@ public interface IDebugger {
 
     void pauseLogDebugger();
 
+    /**
+     * Goes on with the log from where it was paused.
+     */
+    void resumeLogDebugger();
+
+    /**
+     * @param rate How much faster than real time to replay the log, or
+     *             {@link com.recklesscoding.abode.debugger.prerecorded.LogSynchronizer#MAX_SPEED}.
+     */
+    void setLogDebuggerRate(double rate);
+
     void stopLogDebugger();
 
     VideoPlayerView getMediaViewPane();
+
+    /**
+     * @return The replay of the log read last, to follow and move through it.
+     */
+    LogReplay getLogReplay();
 }
@@ -1,6 +1,6 @@
 package com.recklesscoding.abode.debugger;
 
-import com.recklesscoding.abode.debugger.prerecorded.LogSynchronizer;
+import com.recklesscoding.abode.debugger.prerecorded.LogReplay;
 import com.recklesscoding.abode.debugger.prerecorded.instinct.InstictLogReader;
 import com.recklesscoding.abode.debugger.realtime.instinct.InstinctServer;
 import com.recklesscoding.abode.gui.videoplayer.VideoPlayerView;
@@ -11,18 +11,21 @@ import com.recklesscoding.abode.gui.videoplayer.VideoPlayerView;
  */
 public class InsinctDebugger implements IDebugger {
 
-    private InstictLogReader instictLogReader= null;
+    private final LogReplay logReplay = new LogReplay(new InstictLogReader());
 
     private InstinctServer instinctServer = null;
 
     private VideoPlayerView mediaViewPane = null;
 
-    private LogSynchronizer logSynchronizer = null;
+    @Override
+    public boolean canReadLogFile(String logPath) {
+        return logReplay.canOpen(logPath);
+    }
 
     @Override
     public void readLogFile(String logPath) {
-        instictLogReader = new InstictLogReader();
-        instictLogReader.readFile(logPath);
+        // Only the index of the log is read here; the events are read as the replay gets to them.
+        logReplay.open(logPath);
     }
 
     @Override
@@ -48,25 +51,37 @@ public class InsinctDebugger implements IDebugger {
 
     @Override
     public void startLogDebugger() {
-        logSynchronizer = new LogSynchronizer(instictLogReader.getTimePlanElementMap(), mediaViewPane);
-        logSynchronizer.startUp();
+        logReplay.start(mediaViewPane);
     }
 
     @Override
     public void pauseLogDebugger() {
-        logSynchronizer.stop();
+        logReplay.pause();
+    }
+
+    @Override
+    public void resumeLogDebugger() {
+        logReplay.resume();
+    }
+
+    @Override
+    public void setLogDebuggerRate(double rate) {
+        logReplay.setRate(rate);
     }
 
 
     @Override
     public void stopLogDebugger() {
-        logSynchronizer.stop();
-        logSynchronizer = null;
-        instictLogReader = null;
+        logReplay.stop();
     }
 
     @Override
     public VideoPlayerView getMediaViewPane() {
         return mediaViewPane;
     }
+
+    @Override
+    public LogReplay getLogReplay() {
+        return logReplay;
+    }
 }
@@ -1,5 +1,7 @@
 package com.recklesscoding.abode.debugger;
 
+import com.recklesscoding.abode.debugger.prerecorded.LogReplay;
+import com.recklesscoding.abode.debugger.prerecorded.xposh.UnityPOSHLogReader;
 import com.recklesscoding.abode.debugger.realtime.xposh.UnityPOSHServer;
 import com.recklesscoding.abode.gui.videoplayer.VideoPlayerView;
 
@@ -10,10 +12,16 @@ import com.recklesscoding.abode.gui.videoplayer.VideoPlayerView;
 public class UnityPOSHDebugger implements IDebugger {
     private UnityPOSHServer unityServer = null;
     private VideoPlayerView mediaViewPane = null;
+    private final LogReplay logReplay = new LogReplay(new UnityPOSHLogReader());
+
+    @Override
+    public boolean canReadLogFile(String logPath) {
+        return logReplay.canOpen(logPath);
+    }
 
     @Override
     public void readLogFile(String logPath) {
-        return;
+        logReplay.open(logPath);
     }
 
     @Override
@@ -39,22 +47,37 @@ public class UnityPOSHDebugger implements IDebugger {
 
     @Override
     public void startLogDebugger() {
-        return;
+        logReplay.start(mediaViewPane);
     }
 
     @Override
     public void pauseLogDebugger() {
-        return;
+        logReplay.pause();
+    }
+
+    @Override
+    public void resumeLogDebugger() {
+        logReplay.resume();
+    }
+
+    @Override
+    public void setLogDebuggerRate(double rate) {
+        logReplay.setRate(rate);
     }
 
 
     @Override
     public void stopLogDebugger() {
-        return;
+        logReplay.stop();
     }
 
     @Override
     public VideoPlayerView getMediaViewPane() {
         return mediaViewPane;
     }
+
+    @Override
+    public LogReplay getLogReplay() {
+        return logReplay;
+    }
 }
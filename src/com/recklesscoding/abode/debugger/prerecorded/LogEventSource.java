@@ -0,0 +1,37 @@
+package com.recklesscoding.abode.debugger.prerecorded;
+
+/**
+ * The events of a prerecorded log, in chunks that are in order of time, so a log larger than memory can be replayed a
+ * few chunks at a time.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public interface LogEventSource {
+
+    int getChunkCount();
+
+    /**
+     * @return The sealed events of the chunk, read first if need be; the caller should not keep chunks it is done with.
+     */
+    LogEventStore getChunk(int chunk);
+
+    /**
+     * Starts reading the chunk in the background, if it is not read yet, so that {@link #getChunk(int)} will not wait.
+     */
+    void prefetch(int chunk);
+
+    /**
+     * @return The first chunk with an event at or after the time, or the number of chunks if there is none.
+     */
+    int chunkAt(double time);
+
+    double getStartTime();
+
+    double getEndTime();
+
+    /**
+     * Lets go of the chunks and of anything reading them.
+     */
+    void close();
+}
@@ -0,0 +1,551 @@
+package com.recklesscoding.abode.debugger.prerecorded;
+
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Holds the events of a prerecorded log in columns of primitive arrays: the time, the element, the kind of event and
+ * the kind of element of each event, and optionally a payload. The elements are kept once, in a dictionary that the
+ * element column points into. Events are never merged, so events with the same time are all kept, in the order they
+ * were added.
+ * </p>
+ * <p>
+ * The time and the element columns start narrow, as an int offset from the first time and a char, and are widened to
+ * doubles and ints the first time a value does not fit, so an event of a usual log takes eight bytes.
+ * </p>
+ * <p>
+ * Once {@link #seal()} has been called the events are in order of time, which lets {@link #seek(double)} find a time
+ * with a binary search and {@link #forEach(double, double, EventVisitor)} go through a range of time. A store is filled
+ * by one thread and only read once it is sealed, so it can then be shared. As a {@link LogEventSource} a store is a
+ * single chunk.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class LogEventStore implements LogEventSource {
+
+    public static final byte ACTION = 1;
+
+    public static final byte ACTION_PATTERN = 2;
+
+    public static final byte COMPETENCE = 3;
+
+    public static final byte COMPETENCE_ELEMENT = 4;
+
+    public static final byte DRIVE = 5;
+
+    public static final byte DRIVE_ELEMENT = 6;
+
+    /**
+     * Goes through the events of a store.
+     */
+    public interface EventVisitor {
+
+        void event(int index, double time, PlanElement planElement, char eventKind);
+    }
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The time the offsets are from, which is the time of the first event added.
+     */
+    private double timeBase;
+
+    /**
+     * The times, as offsets from the base, while every time is a whole offset that fits in an int; this is what the
+     * milliseconds of a log nearly always are.
+     */
+    private int[] timeOffsets = new int[INITIAL_CAPACITY];
+
+    private int minTimeOffset = 0;
+
+    private int maxTimeOffset = 0;
+
+    /**
+     * The times, once one of them did not fit in {@link #timeOffsets}; the offsets are then dropped.
+     */
+    private double[] times;
+
+    /**
+     * The elements, while the dictionary has fewer elements than a char holds.
+     */
+    private char[] shortElements = new char[INITIAL_CAPACITY];
+
+    /**
+     * The elements, once the dictionary outgrew {@link #shortElements}; the short elements are then dropped.
+     */
+    private int[] elements;
+
+    private byte[] eventKinds = new byte[INITIAL_CAPACITY];
+
+    private byte[] elementKinds = new byte[INITIAL_CAPACITY];
+
+    private int[] payloads;
+
+    private PlanElement[] dictionary = new PlanElement[64];
+
+    private int dictionarySize = 0;
+
+    private int size = 0;
+
+    private boolean inOrder = true;
+
+    public LogEventStore() {
+        this(false);
+    }
+
+    /**
+     * @param withPayload True to keep a payload for each event.
+     */
+    public LogEventStore(boolean withPayload) {
+        if (withPayload) {
+            payloads = new int[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Puts the element in the dictionary.
+     *
+     * @return The index of the element in the dictionary, to be given to {@link #add}.
+     */
+    public int addElement(PlanElement planElement) {
+        if (dictionarySize == dictionary.length) {
+            dictionary = Arrays.copyOf(dictionary, dictionarySize * 2);
+        }
+        dictionary[dictionarySize] = planElement;
+        return dictionarySize++;
+    }
+
+    /**
+     * Adds an event at the end.
+     *
+     * @param element   The index of the element in the dictionary.
+     * @param eventKind The code of the event, e.g. E or S for Instinct.
+     * @param payload   Kept only if the store was made with a payload column.
+     */
+    public void add(double time, int element, char eventKind, byte elementKind, int payload) {
+        if (size == eventKinds.length) {
+            grow();
+        }
+        if (size == 0) {
+            timeBase = time;
+        } else if (time < getTime(size - 1)) {
+            inOrder = false;
+        }
+        setTime(size, time);
+        setElement(size, element);
+        eventKinds[size] = (byte) eventKind;
+        elementKinds[size] = elementKind;
+        if (payloads != null) {
+            payloads[size] = payload;
+        }
+        size++;
+    }
+
+    /**
+     * Joins sealed stores end to end into a new sealed store, with the elements of all of them in its dictionary. The
+     * columns are made as narrow as every part allows, then each part is copied into its own range of them on a thread
+     * of the pool.
+     */
+    public static LogEventStore concat(LogEventStore[] parts, ForkJoinPool pool) {
+        boolean withPayload = parts.length > 0;
+        for (LogEventStore part : parts) {
+            withPayload &= part.payloads != null;
+        }
+        LogEventStore joined = new LogEventStore(withPayload);
+        Map<PlanElement, Integer> elementIndexes = new IdentityHashMap<>();
+        int[][] partElements = new int[parts.length][];
+        int[] partStarts = new int[parts.length];
+        long size = 0;
+        boolean narrowTimes = true;
+        LogEventStore previous = null;
+        for (int i = 0; i < parts.length; i++) {
+            LogEventStore part = parts[i];
+            partStarts[i] = (int) size;
+            size += part.size;
+            partElements[i] = new int[part.dictionarySize];
+            for (int element = 0; element < part.dictionarySize; element++) {
+                Integer index = elementIndexes.get(part.dictionary[element]);
+                if (index == null) {
+                    index = joined.addElement(part.dictionary[element]);
+                    elementIndexes.put(part.dictionary[element], index);
+                }
+                partElements[i][element] = index;
+            }
+            if (part.size == 0) {
+                continue;
+            }
+            if (previous == null) {
+                joined.timeBase = part.timeBase;
+            } else if (part.getTime(0) < previous.getTime(previous.size - 1)) {
+                joined.inOrder = false;
+            }
+            joined.inOrder &= part.inOrder;
+            narrowTimes &= part.times == null && part.fitsTimeOffsets(joined.timeBase);
+            previous = part;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many events to join: " + size);
+        }
+
+        joined.size = (int) size;
+        joined.timeOffsets = narrowTimes ? new int[joined.size] : null;
+        joined.times = narrowTimes ? null : new double[joined.size];
+        boolean narrowElements = joined.dictionarySize <= Character.MAX_VALUE + 1;
+        joined.shortElements = narrowElements ? new char[joined.size] : null;
+        joined.elements = narrowElements ? null : new int[joined.size];
+        joined.eventKinds = new byte[joined.size];
+        joined.elementKinds = new byte[joined.size];
+        joined.payloads = withPayload ? new int[joined.size] : null;
+        pool.invoke(new CopyParts(joined, parts, partStarts, partElements, 0, parts.length));
+        joined.seal();
+        return joined;
+    }
+
+    /**
+     * Puts the events in order of time, keeping the order of the ones with the same time, and trims the columns to the
+     * events. Has to be called once all events have been added.
+     */
+    public void seal() {
+        if (!inOrder) {
+            sortByTime();
+            inOrder = true;
+        }
+        if (eventKinds.length != size) {
+            if (times != null) {
+                times = Arrays.copyOf(times, size);
+            } else {
+                timeOffsets = Arrays.copyOf(timeOffsets, size);
+            }
+            if (elements != null) {
+                elements = Arrays.copyOf(elements, size);
+            } else {
+                shortElements = Arrays.copyOf(shortElements, size);
+            }
+            eventKinds = Arrays.copyOf(eventKinds, size);
+            elementKinds = Arrays.copyOf(elementKinds, size);
+            if (payloads != null) {
+                payloads = Arrays.copyOf(payloads, size);
+            }
+        }
+        if (dictionary.length != dictionarySize) {
+            dictionary = Arrays.copyOf(dictionary, dictionarySize);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double getTime(int index) {
+        return times != null ? times[index] : timeBase + timeOffsets[index];
+    }
+
+    public PlanElement getPlanElement(int index) {
+        return dictionary[getElement(index)];
+    }
+
+    /**
+     * @return The index of the element of the event in the dictionary.
+     */
+    public int getElement(int index) {
+        return elements != null ? elements[index] : shortElements[index];
+    }
+
+    public char getEventKind(int index) {
+        return (char) eventKinds[index];
+    }
+
+    public byte getElementKind(int index) {
+        return elementKinds[index];
+    }
+
+    public boolean hasPayload() {
+        return payloads != null;
+    }
+
+    public int getPayload(int index) {
+        return payloads != null ? payloads[index] : 0;
+    }
+
+    /**
+     * @return The time of the first event, or 0 if there is none.
+     */
+    @Override
+    public double getStartTime() {
+        return size > 0 ? getTime(0) : 0;
+    }
+
+    /**
+     * @return The time of the last event, or 0 if there is none.
+     */
+    @Override
+    public double getEndTime() {
+        return size > 0 ? getTime(size - 1) : 0;
+    }
+
+    /**
+     * @return The index of the first event at or after the time; the size if there is none.
+     */
+    public int seek(double time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getTime(middle) < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Visits the events from the first time, included, to the second, excluded, in order.
+     */
+    public void forEach(double fromTime, double toTime, EventVisitor visitor) {
+        for (int i = seek(fromTime); i < size; i++) {
+            double time = getTime(i);
+            if (time >= toTime) {
+                break;
+            }
+            visitor.event(i, time, dictionary[getElement(i)], (char) eventKinds[i]);
+        }
+    }
+
+    @Override
+    public int getChunkCount() {
+        return 1;
+    }
+
+    @Override
+    public LogEventStore getChunk(int chunk) {
+        return this;
+    }
+
+    @Override
+    public void prefetch(int chunk) {
+    }
+
+    @Override
+    public int chunkAt(double time) {
+        return size > 0 && time <= getEndTime() ? 0 : 1;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * @return The bytes taken by the columns and the dictionary, not counting the elements themselves.
+     */
+    public long getMemoryFootprint() {
+        long bytes = times != null ? (long) times.length * 8 : (long) timeOffsets.length * 4;
+        bytes += elements != null ? (long) elements.length * 4 : (long) shortElements.length * 2;
+        bytes += eventKinds.length + elementKinds.length;
+        if (payloads != null) {
+            bytes += (long) payloads.length * 4;
+        }
+        return bytes + (long) dictionary.length * 4;
+    }
+
+    private void setTime(int index, double time) {
+        if (times == null) {
+            double offset = time - timeBase;
+            if ((int) offset == offset && timeBase + (int) offset == time) {
+                timeOffsets[index] = (int) offset;
+                minTimeOffset = Math.min(minTimeOffset, (int) offset);
+                maxTimeOffset = Math.max(maxTimeOffset, (int) offset);
+                return;
+            }
+            times = new double[timeOffsets.length];
+            for (int i = 0; i < index; i++) {
+                times[i] = timeBase + timeOffsets[i];
+            }
+            timeOffsets = null;
+        }
+        times[index] = time;
+    }
+
+    private void setElement(int index, int element) {
+        if (elements == null) {
+            if (element <= Character.MAX_VALUE) {
+                shortElements[index] = (char) element;
+                return;
+            }
+            elements = new int[shortElements.length];
+            for (int i = 0; i < index; i++) {
+                elements[i] = shortElements[i];
+            }
+            shortElements = null;
+        }
+        elements[index] = element;
+    }
+
+    private void grow() {
+        int capacity = Math.max(INITIAL_CAPACITY, eventKinds.length * 2);
+        if (times != null) {
+            times = Arrays.copyOf(times, capacity);
+        } else {
+            timeOffsets = Arrays.copyOf(timeOffsets, capacity);
+        }
+        if (elements != null) {
+            elements = Arrays.copyOf(elements, capacity);
+        } else {
+            shortElements = Arrays.copyOf(shortElements, capacity);
+        }
+        eventKinds = Arrays.copyOf(eventKinds, capacity);
+        elementKinds = Arrays.copyOf(elementKinds, capacity);
+        if (payloads != null) {
+            payloads = Arrays.copyOf(payloads, capacity);
+        }
+    }
+
+    /**
+     * Sorts an order of the events by time with a merge sort, which keeps events with the same time in the order they
+     * were added, then rearranges every column in that order.
+     */
+    private void sortByTime() {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        int[] scratch = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size - width; low += 2 * width) {
+                merge(order, scratch, low, low + width, Math.min(low + 2 * width, size));
+            }
+        }
+
+        double[] sortedTimes = times != null ? new double[size] : null;
+        int[] sortedTimeOffsets = times == null ? new int[size] : null;
+        int[] sortedElements = elements != null ? new int[size] : null;
+        char[] sortedShortElements = elements == null ? new char[size] : null;
+        byte[] sortedEventKinds = new byte[size];
+        byte[] sortedElementKinds = new byte[size];
+        int[] sortedPayloads = payloads != null ? new int[size] : null;
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            if (sortedTimes != null) {
+                sortedTimes[i] = times[from];
+            } else {
+                sortedTimeOffsets[i] = timeOffsets[from];
+            }
+            if (sortedElements != null) {
+                sortedElements[i] = elements[from];
+            } else {
+                sortedShortElements[i] = shortElements[from];
+            }
+            sortedEventKinds[i] = eventKinds[from];
+            sortedElementKinds[i] = elementKinds[from];
+            if (sortedPayloads != null) {
+                sortedPayloads[i] = payloads[from];
+            }
+        }
+        times = sortedTimes;
+        timeOffsets = sortedTimeOffsets;
+        elements = sortedElements;
+        shortElements = sortedShortElements;
+        eventKinds = sortedEventKinds;
+        elementKinds = sortedElementKinds;
+        payloads = sortedPayloads;
+    }
+
+    private void merge(int[] order, int[] scratch, int low, int middle, int high) {
+        System.arraycopy(order, low, scratch, low, high - low);
+        int left = low;
+        int right = middle;
+        for (int i = low; i < high; i++) {
+            if (right >= high || (left < middle && getTime(scratch[left]) <= getTime(scratch[right]))) {
+                order[i] = scratch[left++];
+            } else {
+                order[i] = scratch[right++];
+            }
+        }
+    }
+
+    /**
+     * @return True if the times, as offsets from the other base, are whole and still fit in an int.
+     */
+    private boolean fitsTimeOffsets(double otherTimeBase) {
+        double shift = timeBase - otherTimeBase;
+        return Math.rint(timeBase) == timeBase && Math.rint(otherTimeBase) == otherTimeBase
+                && shift + minTimeOffset >= Integer.MIN_VALUE && shift + maxTimeOffset <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Copies a range of the parts of {@link #concat}, splitting it in halves until a task has a single part.
+     */
+    private static class CopyParts extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final LogEventStore joined;
+
+        private final LogEventStore[] parts;
+
+        private final int[] partStarts;
+
+        private final int[][] partElements;
+
+        private final int from;
+
+        private final int to;
+
+        private CopyParts(LogEventStore joined, LogEventStore[] parts, int[] partStarts, int[][] partElements,
+                          int from, int to) {
+            this.joined = joined;
+            this.parts = parts;
+            this.partStarts = partStarts;
+            this.partElements = partElements;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CopyParts(joined, parts, partStarts, partElements, from, middle),
+                        new CopyParts(joined, parts, partStarts, partElements, middle, to));
+                return;
+            }
+            if (from == to) {
+                return;
+            }
+            LogEventStore part = parts[from];
+            int start = partStarts[from];
+            int[] elementIndexes = partElements[from];
+            int shift = (int) (part.timeBase - joined.timeBase);
+            for (int i = 0; i < part.size; i++) {
+                if (joined.timeOffsets != null) {
+                    joined.timeOffsets[start + i] = part.timeOffsets[i] + shift;
+                } else {
+                    joined.times[start + i] = part.getTime(i);
+                }
+                if (joined.shortElements != null) {
+                    joined.shortElements[start + i] = (char) elementIndexes[part.getElement(i)];
+                } else {
+                    joined.elements[start + i] = elementIndexes[part.getElement(i)];
+                }
+            }
+            System.arraycopy(part.eventKinds, 0, joined.eventKinds, start, part.size);
+            System.arraycopy(part.elementKinds, 0, joined.elementKinds, start, part.size);
+            if (joined.payloads != null) {
+                System.arraycopy(part.payloads, 0, joined.payloads, start, part.size);
+            }
+        }
+    }
+}
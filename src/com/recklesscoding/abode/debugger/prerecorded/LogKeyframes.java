@@ -0,0 +1,306 @@
+package com.recklesscoding.abode.debugger.prerecorded;
+
+import com.recklesscoding.abode.core.metrics.FxQueue;
+import com.recklesscoding.abode.core.metrics.Metrics;
+import com.recklesscoding.abode.core.plan.nodes.PlanElementNode;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Keyframes of what a replay of a log has shown at points along it, so that a replay can jump to any time without
+ * going through the log from its start. A keyframe is taken at the start of every chunk and every
+ * {@link #KEYFRAME_EVENTS} events within one, and holds for every element of the log how often it has run and how much
+ * it glows, and which element of each kind ran last, which is the chain of drive, competence and action that is
+ * active.
+ * </p>
+ * <p>
+ * To seek, the state of the last keyframe before the time is copied and the few events from there to the time are
+ * applied to it. The glow is worked out the way the diagram does it: each activation adds {@link #GLOW_STEP} and
+ * every {@link #GLOW_DECAY_TIME} milliseconds of the log take {@link #GLOW_DECAY} off.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class LogKeyframes {
+
+    private static final int KEYFRAME_EVENTS = 8192;
+
+    /**
+     * How much an activation adds to the glow of a node, as in {@link PlanElementNode#increaseGlow()}.
+     */
+    private static final double GLOW_STEP = 0.3;
+
+    /**
+     * How much the glow goes down every {@link #GLOW_DECAY_TIME}, as the graph updater does.
+     */
+    private static final double GLOW_DECAY = 0.1;
+
+    private static final double GLOW_DECAY_TIME = 300;
+
+    private static final int ELEMENT_KINDS = LogEventStore.DRIVE_ELEMENT + 1;
+
+    private final LogEventSource eventSource;
+
+    private final Map<PlanElement, Integer> elementIndices = new IdentityHashMap<>();
+
+    private final List<PlanElement> elements = new ArrayList<>();
+
+    private int keyframeCount = 0;
+
+    private double[] times = new double[64];
+
+    private int[] chunks = new int[64];
+
+    private int[] positions = new int[64];
+
+    private State[] states = new State[64];
+
+    private LogKeyframes(LogEventSource eventSource) {
+        this.eventSource = eventSource;
+    }
+
+    /**
+     * Reads the whole log once to take the keyframes; stops early, with the keyframes taken so far, if the thread is
+     * interrupted.
+     */
+    public static LogKeyframes build(LogEventSource eventSource) {
+        long startTime = Metrics.startTime();
+        LogKeyframes keyframes = new LogKeyframes(eventSource);
+        State state = keyframes.new State();
+        for (int chunk = 0; chunk < eventSource.getChunkCount(); chunk++) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            LogEventStore eventStore = eventSource.getChunk(chunk);
+            eventSource.prefetch(chunk + 1);
+            for (int event = 0; event < eventStore.size(); event++) {
+                if (event % KEYFRAME_EVENTS == 0) {
+                    keyframes.addKeyframe(eventStore.getTime(event), chunk, event, state);
+                }
+                state.apply(keyframes.indexOf(eventStore.getPlanElement(event)), eventStore.getElementKind(event),
+                        eventStore.getTime(event));
+            }
+        }
+        Metrics.getInstance().histogram("replay.keyframes.build").recordSince(startTime);
+        return keyframes;
+    }
+
+    public int getKeyframeCount() {
+        return keyframeCount;
+    }
+
+    /**
+     * @return What the replay shows at the time, and where in the log it goes on from.
+     */
+    public State seek(double time) {
+        long startTime = Metrics.startTime();
+        State state = new State();
+        int keyframe = keyframeAt(time);
+        if (keyframe < 0) {
+            // Before the first event; nothing has run yet.
+            state.chunk = 0;
+            state.position = 0;
+            state.time = time;
+            return state;
+        }
+        state.copy(states[keyframe]);
+        int chunk = chunks[keyframe];
+        int event = positions[keyframe];
+        while (chunk < eventSource.getChunkCount()) {
+            LogEventStore eventStore = eventSource.getChunk(chunk);
+            while (event < eventStore.size() && eventStore.getTime(event) <= time) {
+                state.apply(indexOf(eventStore.getPlanElement(event)), eventStore.getElementKind(event),
+                        eventStore.getTime(event));
+                event++;
+            }
+            if (event < eventStore.size()) {
+                break;
+            }
+            chunk++;
+            event = 0;
+        }
+        state.time = time;
+        state.chunk = chunk;
+        state.position = event;
+        Metrics.getInstance().histogram("replay.seek").recordSince(startTime);
+        return state;
+    }
+
+    /**
+     * @return The last keyframe at or before the time, or -1 if there is none.
+     */
+    private int keyframeAt(double time) {
+        int low = 0;
+        int high = keyframeCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] <= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    private void addKeyframe(double time, int chunk, int position, State state) {
+        if (keyframeCount == times.length) {
+            int capacity = keyframeCount * 2;
+            times = Arrays.copyOf(times, capacity);
+            chunks = Arrays.copyOf(chunks, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            states = Arrays.copyOf(states, capacity);
+        }
+        State keyframe = new State();
+        keyframe.copy(state);
+        times[keyframeCount] = time;
+        chunks[keyframeCount] = chunk;
+        positions[keyframeCount] = position;
+        states[keyframeCount] = keyframe;
+        keyframeCount++;
+    }
+
+    private int indexOf(PlanElement planElement) {
+        Integer index = elementIndices.get(planElement);
+        if (index == null) {
+            index = elements.size();
+            elementIndices.put(planElement, index);
+            elements.add(planElement);
+        }
+        return index;
+    }
+
+    /**
+     * What a replay of the log has shown up to a time.
+     */
+    public class State {
+
+        private int[] usageCounters = new int[0];
+
+        /**
+         * The glow of each element right after it last ran, which fades from then on.
+         */
+        private float[] glowLevels = new float[0];
+
+        private double[] glowTimes = new double[0];
+
+        /**
+         * The element of each kind that ran last, or -1.
+         */
+        private final int[] activeElements = new int[ELEMENT_KINDS];
+
+        private double time;
+
+        private int chunk;
+
+        private int position;
+
+        private State() {
+            Arrays.fill(activeElements, -1);
+        }
+
+        /**
+         * @return The chunk the replay goes on from.
+         */
+        public int getChunk() {
+            return chunk;
+        }
+
+        /**
+         * @return The first event in the chunk that comes after the time.
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        public double getTime() {
+            return time;
+        }
+
+        public int getUsageCounter(PlanElement planElement) {
+            Integer index = elementIndices.get(planElement);
+            return index != null && index < usageCounters.length ? usageCounters[index] : 0;
+        }
+
+        public double getGlowLevel(PlanElement planElement) {
+            Integer index = elementIndices.get(planElement);
+            return index != null ? getGlowLevel(index) : 0;
+        }
+
+        /**
+         * @param elementKind One of the element kinds of {@link LogEventStore}.
+         * @return The element of the kind that ran last, or null if none has.
+         */
+        public PlanElement getActiveElement(byte elementKind) {
+            int element = activeElements[elementKind];
+            return element < 0 ? null : elements.get(element);
+        }
+
+        /**
+         * Sets every element of the log to the state: its usage counter, whether it is part of the active chain and,
+         * on the FX thread, the glow of its nodes.
+         */
+        public void restore() {
+            int elementCount = elements.size();
+            boolean[] active = new boolean[elementCount];
+            for (int element : activeElements) {
+                if (element >= 0) {
+                    active[element] = true;
+                }
+            }
+            float[] levels = new float[elementCount];
+            boolean hasNodes = false;
+            for (int element = 0; element < elementCount; element++) {
+                PlanElement planElement = elements.get(element);
+                planElement.restore(element < usageCounters.length ? usageCounters[element] : 0, active[element]);
+                levels[element] = (float) getGlowLevel(element);
+                hasNodes |= !planElement.getPlanElementNodes().isEmpty();
+            }
+            if (hasNodes) {
+                FxQueue.runLater(() -> {
+                    for (int element = 0; element < levels.length; element++) {
+                        for (PlanElementNode planElementNode : elements.get(element).getPlanElementNodes()) {
+                            planElementNode.setGlowLevel(levels[element]);
+                        }
+                    }
+                });
+            }
+        }
+
+        private double getGlowLevel(int element) {
+            if (element >= glowLevels.length) {
+                return 0;
+            }
+            return Math.max(0, glowLevels[element] - (time - glowTimes[element]) / GLOW_DECAY_TIME * GLOW_DECAY);
+        }
+
+        private void apply(int element, byte elementKind, double eventTime) {
+            if (element >= usageCounters.length) {
+                int capacity = Math.max(element + 1, usageCounters.length * 2);
+                usageCounters = Arrays.copyOf(usageCounters, capacity);
+                glowLevels = Arrays.copyOf(glowLevels, capacity);
+                glowTimes = Arrays.copyOf(glowTimes, capacity);
+            }
+            time = eventTime;
+            usageCounters[element]++;
+            glowLevels[element] = (float) Math.min(1, getGlowLevel(element) + GLOW_STEP);
+            glowTimes[element] = eventTime;
+            activeElements[elementKind] = element;
+        }
+
+        private void copy(State other) {
+            usageCounters = other.usageCounters.clone();
+            glowLevels = other.glowLevels.clone();
+            glowTimes = other.glowTimes.clone();
+            System.arraycopy(other.activeElements, 0, activeElements, 0, ELEMENT_KINDS);
+            time = other.time;
+        }
+    }
+}
@@ -2,13 +2,101 @@ package com.recklesscoding.abode.debugger.prerecorded;
 
 import com.recklesscoding.abode.util.IReader;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
 /**
- * Synchronizers the map extracted by reading a local log file with the running ABODE, by poking the diagram view.
  * <p>
+ * Reads the log of a run of agents into a {@link LogEventStore}, for the replay of {@link LogReplay}. A reader only has
+ * to stream the events of a log, in the order of the file, into the store it is given; the store takes care of keeping
+ * them compact and in order of time. A reader that can do better than reading the whole log before the replay starts,
+ * e.g. by paging it in, overrides {@link #open(String)}.
+ * </p>
  *
  * @author :   Andreas Theodorou - www.recklesscoding.com
  * @version :   %G%
  */
 public abstract class LogReader implements IReader {
-    public abstract void readFile(String file);
+
+    private static final int SNIFF_SIZE = 4096;
+
+    private LogEventStore eventStore = new LogEventStore();
+
+    /**
+     * Adds the events of the log to the store, which the caller seals.
+     */
+    public abstract void readEvents(String file, LogEventStore eventStore) throws IOException;
+
+    /**
+     * @return True if the file looks like a log this reader reads.
+     */
+    public abstract boolean canRead(String file);
+
+    /**
+     * Opens the log for a replay; by default the whole log is read into a store.
+     */
+    public LogEventSource open(String file) throws IOException {
+        LogEventStore newEventStore = newEventStore();
+        readEvents(file, newEventStore);
+        newEventStore.seal();
+        return newEventStore;
+    }
+
+    /**
+     * Reads the whole log, for {@link #getEventStore()}.
+     */
+    @Override
+    public void readFile(String file) {
+        LogEventStore newEventStore = newEventStore();
+        try {
+            readEvents(file, newEventStore);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        newEventStore.seal();
+        eventStore = newEventStore;
+    }
+
+    /**
+     * @return The events read by {@link #readFile(String)}.
+     */
+    public LogEventStore getEventStore() {
+        return eventStore;
+    }
+
+    protected void setEventStore(LogEventStore eventStore) {
+        this.eventStore = eventStore;
+    }
+
+    /**
+     * @return The store the events of a log are read into.
+     */
+    protected LogEventStore newEventStore() {
+        return new LogEventStore();
+    }
+
+    /**
+     * @return The first line of the file that is not empty, cut at {@link #SNIFF_SIZE} bytes, or null if there is none
+     * or the file cannot be read.
+     */
+    protected static String firstLine(String file) {
+        byte[] start = new byte[SNIFF_SIZE];
+        int length = 0;
+        try (InputStream input = new FileInputStream(file)) {
+            int read;
+            while (length < start.length && (read = input.read(start, length, start.length - length)) > 0) {
+                length += read;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        for (String line : new String(start, 0, length, StandardCharsets.ISO_8859_1).split("\r?\n", -1)) {
+            if (!line.trim().isEmpty()) {
+                return line;
+            }
+        }
+        return null;
+    }
 }
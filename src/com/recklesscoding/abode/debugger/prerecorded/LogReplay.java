@@ -0,0 +1,205 @@
+package com.recklesscoding.abode.debugger.prerecorded;
+
+import com.recklesscoding.abode.gui.videoplayer.VideoPlayerView;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays a log opened by a {@link LogReader} on the diagram, through a {@link LogSynchronizer}. The debuggers of all
+ * kinds of agents share it and only differ in their reader.
+ * <p>
+ * Once a log is opened, its {@link LogKeyframes} are taken in the background, so that the replay can seek to any time.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class LogReplay {
+
+    private final LogReader logReader;
+
+    private final ExecutorService keyframeBuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Log keyframe builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile LogEventSource eventSource = null;
+
+    private volatile Future<LogKeyframes> keyframes = null;
+
+    private volatile LogSynchronizer logSynchronizer = null;
+
+    private double rate = 1;
+
+    private double videoOffset = 0;
+
+    public LogReplay(LogReader logReader) {
+        this.logReader = logReader;
+    }
+
+    /**
+     * @return True if the reader of the replay reads the log.
+     */
+    public boolean canOpen(String logPath) {
+        return logReader.canRead(logPath);
+    }
+
+    /**
+     * Opens the log, instead of the one opened before.
+     */
+    public void open(String logPath) {
+        stop();
+        try {
+            LogEventSource openedSource = logReader.open(logPath);
+            eventSource = openedSource;
+            keyframes = keyframeBuilder.submit(() -> LogKeyframes.build(openedSource));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public boolean isOpen() {
+        return eventSource != null;
+    }
+
+    /**
+     * Replays the open log from its start, with the video if there is one.
+     */
+    public void start(VideoPlayerView mediaViewPane) {
+        if (eventSource == null) {
+            return;
+        }
+        // The old replay must be done with the diagram before the new one starts sending to it.
+        stopSynchronizer();
+        logSynchronizer = new LogSynchronizer(eventSource, mediaViewPane);
+        logSynchronizer.setRate(rate);
+        logSynchronizer.setVideoOffset(videoOffset);
+        logSynchronizer.setKeyframes(keyframes);
+        logSynchronizer.startUp();
+    }
+
+    /**
+     * Stops the replay where it is, with the log kept open.
+     */
+    public void pause() {
+        if (logSynchronizer != null) {
+            logSynchronizer.stop();
+        }
+    }
+
+    private void stopSynchronizer() {
+        LogSynchronizer synchronizer = logSynchronizer;
+        if (synchronizer != null) {
+            synchronizer.stopAndWait();
+        }
+    }
+
+    /**
+     * Goes on with the replay from where it was paused.
+     */
+    public void resume() {
+        if (logSynchronizer != null) {
+            logSynchronizer.startUp();
+        }
+    }
+
+    /**
+     * @param rate How much faster than real time to replay, or {@link LogSynchronizer#MAX_SPEED}; kept for the
+     *             replays started later as well.
+     */
+    public void setRate(double rate) {
+        this.rate = rate;
+        if (logSynchronizer != null) {
+            logSynchronizer.setRate(rate);
+        }
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * @param videoOffset The time of the log when the video starts, in milliseconds; kept for the replays started later
+     *                    as well.
+     */
+    public void setVideoOffset(double videoOffset) {
+        this.videoOffset = videoOffset;
+        LogSynchronizer synchronizer = logSynchronizer;
+        if (synchronizer != null) {
+            synchronizer.setVideoOffset(videoOffset);
+        }
+    }
+
+    public double getVideoOffset() {
+        return videoOffset;
+    }
+
+    /**
+     * Jumps the replay to the time, with the diagram showing what it would have by then; waits for the keyframes if
+     * they are still being taken. Does nothing before the replay is started.
+     *
+     * @param time In milliseconds of the log.
+     */
+    public void seek(double time) {
+        LogSynchronizer synchronizer = logSynchronizer;
+        Future<LogKeyframes> logKeyframes = keyframes;
+        if (synchronizer == null || logKeyframes == null) {
+            return;
+        }
+        try {
+            synchronizer.seek(logKeyframes.get().seek(time));
+        } catch (CancellationException e) {
+            // The log was closed meanwhile.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return True once the replay has been started, even if it is paused.
+     */
+    public boolean isStarted() {
+        return logSynchronizer != null;
+    }
+
+    /**
+     * @return The time in the log, in milliseconds, the replay is at.
+     */
+    public double getLogTime() {
+        LogSynchronizer synchronizer = logSynchronizer;
+        return synchronizer != null ? synchronizer.getLogTime() : 0;
+    }
+
+    public double getStartTime() {
+        LogEventSource source = eventSource;
+        return source != null ? source.getStartTime() : 0;
+    }
+
+    public double getEndTime() {
+        LogEventSource source = eventSource;
+        return source != null ? source.getEndTime() : 0;
+    }
+
+    /**
+     * Stops the replay and closes the log.
+     */
+    public void stop() {
+        stopSynchronizer();
+        logSynchronizer = null;
+        if (keyframes != null) {
+            keyframes.cancel(true);
+            keyframes = null;
+        }
+        if (eventSource != null) {
+            eventSource.close();
+            eventSource = null;
+        }
+    }
+}
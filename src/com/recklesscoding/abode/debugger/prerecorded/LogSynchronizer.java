@@ -1,31 +1,156 @@
 package com.recklesscoding.abode.debugger.prerecorded;
 
-import com.recklesscoding.abode.gui.videoplayer.VideoPlayerView;
+import com.recklesscoding.abode.core.metrics.Counter;
+import com.recklesscoding.abode.core.metrics.Histogram;
+import com.recklesscoding.abode.core.metrics.Metrics;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.gui.videoplayer.VideoPlayerView;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Synchronizers the map extracted by reading a local log file with the running ABODE, by poking the diagram view.
+ * Synchronizers the events extracted by reading a local log file with the running ABODE, by poking the diagram view.
+ * <p>
+ * The events are walked with a cursor, in order of time. Between events the thread is parked until the next one is
+ * due, so a replay uses next to no processor time, and once it wakes up every event that is due by then is sent to the
+ * diagram at once.
  * <p>
+ * The log can be replayed faster or slower than it was recorded, or at {@link #MAX_SPEED}. Above real time the thread
+ * wakes up at most once a frame and sends each element that ran within the frame once, with all its activations, so
+ * the diagram is not flooded. A paused replay keeps its place and goes on from there when it is started again.
+ * <p>
+ * With a video on screen, and at a rate the video can play at, the video is the clock: its time, read at every pulse,
+ * plus the offset of the video is the time of the log, so the two cannot drift apart, and the replay waits while the
+ * video is paused or buffering. If the video jumps, because it was sought, the replay seeks to it through the
+ * keyframes of the log; seeking the replay seeks the video in turn.
  *
  * @author :   Andreas Theodorou - www.recklesscoding.com
  * @version :   %G%
  */
 public class LogSynchronizer implements Runnable {
 
-    private boolean isRunning = false;
+    public static final double MIN_RATE = 0.1;
 
-    private final Thread thread;
+    public static final double MAX_RATE = 100;
 
-    private Map<Double, PlanElement> timePlanElementMap;
+    /**
+     * Replays the events as fast as they can be sent, without waiting for their time.
+     */
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    /**
+     * How long a frame of the diagram is, in nanoseconds.
+     */
+    private static final long FRAME_TIME = 1000000000L / 60;
+
+    /**
+     * At max speed the time is checked once this many events, to see whether a frame is over.
+     */
+    private static final int EVENTS_PER_CLOCK_CHECK = 256;
+
+    /**
+     * How far the video may move between two readings, more than it could have played, before the replay seeks to it;
+     * in milliseconds.
+     */
+    private static final double VIDEO_JUMP = 500;
+
+    /**
+     * How long the video is not followed after it is sought, as its player takes a while to get there.
+     */
+    private static final long VIDEO_SEEK_TIME = 250000000L;
+
+    private static final Counter eventsReplayed = Metrics.getInstance().counter("replay.events");
+
+    /**
+     * How often the thread woke up to send events.
+     */
+    private static final Counter batchesReplayed = Metrics.getInstance().counter("replay.batches");
+
+    /**
+     * How long after its time in the log each element was updated, in the time of the log.
+     */
+    private static final Histogram lateness = Metrics.getInstance().histogram("replay.lateness");
+
+    private static final Counter videoJumps = Metrics.getInstance().counter("replay.video.jumps");
+
+    private volatile boolean isRunning = false;
+
+    private volatile double rate = 1;
+
+    private Thread thread;
+
+    private LogEventSource eventSource;
 
     private VideoPlayerView mediaViewPane;
 
-    public LogSynchronizer(Map<Double, PlanElement> timePlanElementMap, VideoPlayerView mediaViewPane) {
-        this.timePlanElementMap = timePlanElementMap;
+    /**
+     * The time of the log when the video starts, in milliseconds.
+     */
+    private volatile double videoOffset = 0;
+
+    private volatile Future<LogKeyframes> keyframes = null;
+
+    // Where the replay is; only the replay thread changes it while it runs, and it is read to show the time.
+
+    private int chunk = 0;
+
+    private LogEventStore eventStore = null;
+
+    private int count = 0;
+
+    private boolean isFinished = false;
+
+    /**
+     * The rate the clock of the log is running at.
+     */
+    private volatile double clockRate = 1;
+
+    /**
+     * The time in the log, in milliseconds, when the clock was last set.
+     */
+    private volatile double logTimeSet = 0;
+
+    /**
+     * The {@link System#nanoTime()} when the clock was last set.
+     */
+    private volatile long timeSet;
+
+    private volatile double lastEventTime = 0;
+
+    private boolean isFollowingVideo = false;
+
+    /**
+     * The time of the log the video was at when last read, and when that was.
+     */
+    private double videoLogTime;
+
+    private long videoReadAt;
+
+    private volatile boolean isVideoSeeking = false;
+
+    private volatile long videoSoughtAt;
+
+    /**
+     * True when the replay has skipped ahead without keyframes, so the events skipped are sent as one frame.
+     */
+    private boolean isCatchingUp = false;
+
+    /**
+     * The activations of each element in the current frame, in the order the elements first ran.
+     */
+    private final Map<PlanElement, int[]> frameActivations = new IdentityHashMap<>();
+
+    private final List<PlanElement> frameElements = new ArrayList<>();
+
+    public LogSynchronizer(LogEventSource eventSource, VideoPlayerView mediaViewPane) {
+        this.eventSource = eventSource;
         this.mediaViewPane = mediaViewPane;
-        this.thread = new Thread(this);
     }
 
     /**
@@ -33,58 +158,339 @@ public class LogSynchronizer implements Runnable {
      */
     @Override
     public void run() {
-        long timeThreadStarted = System.nanoTime();
-        long currentTime;
-        double timeDifference;
-        Double time;
-        int count = 0;
-        boolean notFound = true;
-
+        timeSet = System.nanoTime();
+        clockRate = rate;
         if (mediaViewPane != null) {
+            mediaViewPane.setPlayingRate(clockRate);
             mediaViewPane.startPlaying();
         }
         while (isRunning) {
-            if (count < timePlanElementMap.keySet().size()) {
-                time = (Double) timePlanElementMap.keySet().toArray()[count];
-            } else {
-                break;
+            if (eventStore == null || count == eventStore.size()) {
+                if (chunk == eventSource.getChunkCount()) {
+                    isFinished = true;
+                    break;
+                }
+                // Only the chunk being replayed is held; the next one is read meanwhile.
+                eventStore = eventSource.getChunk(chunk++);
+                eventSource.prefetch(chunk);
+                count = 0;
+                continue;
+            }
+            long currentTime = System.nanoTime();
+            if (rate != clockRate) {
+                boolean wasTooFastForVideo = !canFollowVideo();
+                changeRate(currentTime, rate);
+                if (mediaViewPane != null) {
+                    mediaViewPane.setPlayingRate(clockRate);
+                    if (wasTooFastForVideo && canFollowVideo()) {
+                        // The log has run ahead of the video, which has to catch up before it is followed again.
+                        seekVideo(logTimeSet);
+                    }
+                }
+            }
+            if (clockRate == MAX_SPEED) {
+                sendFrame(currentTime);
+                continue;
+            }
+            double logTime = readClock(currentTime);
+            if (eventStore == null || count == eventStore.size()) {
+                // Jumped to another chunk, or past the last.
+                continue;
+            }
+            double nextTime = eventStore.getTime(count);
+            if (nextTime > logTime) {
+                long waitTime = toNanos((nextTime - logTime) / clockRate);
+                if (isFollowingVideo) {
+                    // The video is read again at the next pulse, in case it has stopped or jumped.
+                    waitTime = Math.min(waitTime, FRAME_TIME);
+                }
+                // Wakes up when the event is due, when stopped or for no reason at all, so it is checked again.
+                LockSupport.parkNanos(this, waitTime);
+                continue;
             }
-            while (notFound) {
-                currentTime = System.nanoTime();
-                timeDifference = getTimeDifference(timeThreadStarted, currentTime);
-                if (isTimeToUpdateElement(timeDifference, time)) {
-                    timePlanElementMap.get(time).setToUpdate();
-                    notFound = false;
-                    count++;
+            int first = count;
+            boolean coalesce = clockRate > 1 || isCatchingUp;
+            isCatchingUp = false;
+            while (count < eventStore.size() && (nextTime = eventStore.getTime(count)) <= logTime) {
+                PlanElement planElement = eventStore.getPlanElement(count);
+                if (coalesce) {
+                    addActivation(planElement);
+                } else {
+                    planElement.setToUpdate();
                 }
+                lateness.record(toNanos(logTime - nextTime));
+                lastEventTime = nextTime;
+                count++;
+            }
+            if (coalesce) {
+                sendActivations();
+            }
+            eventsReplayed.add(count - first);
+            batchesReplayed.increment();
+            if (coalesce) {
+                // Nothing more is sent within the frame; what falls due meanwhile goes with the next one.
+                LockSupport.parkNanos(this, currentTime + FRAME_TIME - System.nanoTime());
             }
-            notFound = true;
+        }
+        // Keep the place the replay is at, so it goes on from there.
+        logTimeSet = clockRate == MAX_SPEED ? lastEventTime : getLogTime(System.nanoTime());
+        if (mediaViewPane != null && !isFinished) {
+            mediaViewPane.pausePlaying();
         }
         isRunning = false;
     }
 
-    private double getTimeDifference(long timeStarted, long currentTime) {
-        return (currentTime - timeStarted) / 1e6;
+    /**
+     * Sends the events of the chunk for as long as a frame lasts, however late they are.
+     */
+    private void sendFrame(long frameStart) {
+        int first = count;
+        while (count < eventStore.size()) {
+            addActivation(eventStore.getPlanElement(count));
+            lastEventTime = eventStore.getTime(count);
+            count++;
+            if ((count - first) % EVENTS_PER_CLOCK_CHECK == 0 && System.nanoTime() - frameStart >= FRAME_TIME) {
+                break;
+            }
+        }
+        sendActivations();
+        eventsReplayed.add(count - first);
+        batchesReplayed.increment();
     }
 
-    private boolean isTimeToUpdateElement(double timeThreadStarted, Double time) {
-        return ((time) <= timeThreadStarted - 0.25) && (timeThreadStarted + 0.25 >= (time));
+    private void addActivation(PlanElement planElement) {
+        int[] activations = frameActivations.get(planElement);
+        if (activations == null) {
+            frameActivations.put(planElement, new int[]{1});
+            frameElements.add(planElement);
+        } else {
+            activations[0]++;
+        }
+    }
+
+    private void sendActivations() {
+        for (PlanElement planElement : frameElements) {
+            planElement.setToUpdate(frameActivations.get(planElement)[0]);
+        }
+        frameElements.clear();
+        frameActivations.clear();
+    }
+
+    /**
+     * @return The time in the log, in milliseconds, the replay is at: that of the video if it is followed.
+     */
+    private double readClock(long currentTime) {
+        double videoTime = canFollowVideo() ? mediaViewPane.getVideoTime(currentTime) : Double.NaN;
+        if (isVideoSeeking && currentTime - videoSoughtAt < VIDEO_SEEK_TIME) {
+            videoTime = Double.NaN;
+        } else {
+            isVideoSeeking = false;
+        }
+        if (Double.isNaN(videoTime)) {
+            isFollowingVideo = false;
+            return getLogTime(currentTime);
+        }
+        double logTime = videoTime + videoOffset;
+        boolean hasJumped;
+        if (isFollowingVideo) {
+            double moved = logTime - videoLogTime;
+            double played = (currentTime - videoReadAt) / 1e6 * VideoPlayerView.MAX_RATE;
+            hasJumped = moved < -VIDEO_JUMP || moved > played + VIDEO_JUMP;
+        } else {
+            hasJumped = Math.abs(logTime - getLogTime(currentTime)) > VIDEO_JUMP;
+        }
+        if (hasJumped) {
+            jumpTo(logTime);
+        }
+        isFollowingVideo = true;
+        videoLogTime = logTime;
+        videoReadAt = currentTime;
+        // The clock of the replay is kept at the video, for when it stops following it.
+        logTimeSet = logTime;
+        timeSet = currentTime;
+        return logTime;
+    }
+
+    private boolean canFollowVideo() {
+        return mediaViewPane != null && clockRate <= VideoPlayerView.MAX_RATE;
+    }
+
+    /**
+     * Moves the replay to where the video has jumped to.
+     */
+    private void jumpTo(double logTime) {
+        videoJumps.increment();
+        Future<LogKeyframes> logKeyframes = keyframes;
+        if (logKeyframes != null && logKeyframes.isDone() && !logKeyframes.isCancelled()) {
+            try {
+                moveTo(logKeyframes.get().seek(logTime));
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+        // Without keyframes the replay can only go forwards, sending what it skips at once.
+        isCatchingUp = logTime > lastEventTime;
+    }
+
+    /**
+     * Puts the cursor and the elements of the plan where the state is.
+     */
+    private void moveTo(LogKeyframes.State state) {
+        state.restore();
+        chunk = state.getChunk();
+        eventStore = null;
+        count = 0;
+        if (chunk < eventSource.getChunkCount()) {
+            eventStore = eventSource.getChunk(chunk++);
+            eventSource.prefetch(chunk);
+            count = state.getPosition();
+        }
+        logTimeSet = state.getTime();
+        lastEventTime = state.getTime();
+        isFinished = false;
+    }
+
+    private void seekVideo(double logTime) {
+        if (mediaViewPane != null) {
+            mediaViewPane.seek(logTime - videoOffset);
+            videoSoughtAt = System.nanoTime();
+            isVideoSeeking = true;
+            isFollowingVideo = false;
+        }
+    }
+
+    /**
+     * Sets the clock going at the new rate from the time in the log it is at.
+     */
+    private void changeRate(long currentTime, double newRate) {
+        logTimeSet = clockRate == MAX_SPEED ? lastEventTime : getLogTime(currentTime);
+        timeSet = currentTime;
+        clockRate = newRate;
+    }
+
+    /**
+     * @return The time in the log, in milliseconds, the replay is at.
+     */
+    private double getLogTime(long currentTime) {
+        return logTimeSet + (currentTime - timeSet) / 1e6 * clockRate;
+    }
+
+    private static long toNanos(double milliseconds) {
+        return (long) (milliseconds * 1e6);
+    }
+
+    /**
+     * @param rate How much faster than real time to replay, from {@link #MIN_RATE} to {@link #MAX_RATE}, or
+     *             {@link #MAX_SPEED}; takes effect at once, from where the replay is.
+     */
+    public void setRate(double rate) {
+        this.rate = rate == MAX_SPEED ? rate : Math.max(MIN_RATE, Math.min(MAX_RATE, rate));
+        Thread replayThread = thread;
+        if (replayThread != null) {
+            LockSupport.unpark(replayThread);
+        }
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * @param videoOffset The time of the log when the video starts, in milliseconds; negative if the video starts
+     *                    before the log. Takes effect at once.
+     */
+    public void setVideoOffset(double videoOffset) {
+        this.videoOffset = videoOffset;
+    }
+
+    public double getVideoOffset() {
+        return videoOffset;
+    }
+
+    /**
+     * @param keyframes The keyframes of the log, to seek to where the video jumps.
+     */
+    public void setKeyframes(Future<LogKeyframes> keyframes) {
+        this.keyframes = keyframes;
     }
 
     /**
-     * Starts the thread.
+     * @return The time in the log, in milliseconds, the replay is at.
      */
-    public void startUp() {
+    public double getLogTime() {
         if (!isRunning) {
+            return logTimeSet;
+        }
+        return clockRate == MAX_SPEED ? lastEventTime : getLogTime(System.nanoTime());
+    }
+
+    /**
+     * Jumps to the time of the state, which the elements of the plan are set to, and goes on from there if the replay
+     * was running.
+     */
+    public synchronized void seek(LogKeyframes.State state) {
+        boolean wasRunning = isRunning;
+        stop();
+        waitForThread();
+        moveTo(state);
+        seekVideo(state.getTime());
+        if (wasRunning) {
+            startUp();
+        }
+    }
+
+    /**
+     * @return True once every event has been replayed.
+     */
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    /**
+     * Starts the thread, from where the replay was paused if it was.
+     */
+    public synchronized void startUp() {
+        if (!isRunning && !isFinished) {
+            waitForThread();
             isRunning = true;
+            thread = new Thread(this);
             thread.start();
         }
     }
 
     /**
-     * Stops the thread from running on its next iteration.
+     * Stops the thread, waking it up if it is waiting for the next event; the replay keeps its place.
      */
     public void stop() {
         isRunning = false;
+        Thread replayThread = thread;
+        if (replayThread != null) {
+            LockSupport.unpark(replayThread);
+        }
+    }
+
+    /**
+     * Stops the thread and waits for it to finish, so that it sends nothing more to the diagram and reads nothing more
+     * from the log once this returns.
+     */
+    public synchronized void stopAndWait() {
+        stop();
+        waitForThread();
+    }
+
+    /**
+     * Waits for the thread stopped last to save its place, which it does as soon as it wakes up.
+     */
+    private void waitForThread() {
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
     }
 }
@@ -1,116 +1,78 @@
 package com.recklesscoding.abode.debugger.prerecorded.instinct;
 
 import com.recklesscoding.abode.core.plan.Plan;
-import com.recklesscoding.abode.core.plan.planelements.PlanElement;
-import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
+import com.recklesscoding.abode.debugger.prerecorded.LogEventSource;
+import com.recklesscoding.abode.debugger.prerecorded.LogEventStore;
 import com.recklesscoding.abode.debugger.prerecorded.LogReader;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 /**
+ * Reads an Instinct log of the elements of the active plan. A whole log is read through a
+ * {@link ParallelInstinctLogParser}, and a log opened for a replay is paged in through a {@link PagedInstinctLog}. The
+ * replay only needs the time and the element of each event, so the count of the lines is only kept, as the payload, if
+ * asked for.
+ * <p>
  * Athor: Andreas
  * Date: 30/01/2016.
  */
 public class InstictLogReader extends LogReader {
 
-    Map<Double, PlanElement> timePlanElementMap = new LinkedHashMap<>();
+    private final boolean withCounts;
 
-    @Override
-    public void readFile(String file) {
-        BufferedReader bufferedReader = null;
-        String line;
-        String cvsSplitBy = " ";
-
-        try {
-            bufferedReader = new BufferedReader(new FileReader(file));
-            double time;
-            String typeOfPlanElement;
-            String planElementName;
-            PlanElement planElement = null;
-            while ((line = bufferedReader.readLine()) != null) {
-                String[] splittedLine = line.split(cvsSplitBy);
-
-                // Making sure the search is not pointless
-                if (isValidLine(splittedLine)) {
-                    time = Double.parseDouble(splittedLine[0]);
-                    typeOfPlanElement = splittedLine[2];
-                    planElementName = splittedLine[3];
-                    if (!isActionPatternElement(typeOfPlanElement)) { //We ignore ActionPatternELements as they are instinct only
-                        planElement = getPlanElement(typeOfPlanElement, planElement, planElementName);
-                        if (planElement != null) {
-                            timePlanElementMap.put(time, planElement);
-                        }
-                        planElement = null;
-                    }
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            if (bufferedReader != null) {
-                try {
-                    bufferedReader.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
-    }
-
-    public Map<Double, PlanElement> getTimePlanElementMap() {
-        return timePlanElementMap;
-    }
-
-    private PlanElement getPlanElement(String typeOfPlanElement, PlanElement planElement, String planElementName) {
-        if (isAction(typeOfPlanElement)) {
-            planElement = Plan.getInstance().findAction(planElementName);
-            if (planElement == null) {
-                planElement = new ActionEvent(planElementName);
-            }
-        } else if (isActionPattern(typeOfPlanElement)) {
-            planElement = Plan.getInstance().findActionPattern(planElementName);
-            if (planElement == null) {
-                planElement = new ActionEvent(planElementName);
-            }
-        } else if (isCompetence(typeOfPlanElement)) {
-            planElement = Plan.getInstance().findCompetence(planElementName);
-        } else if (isCompetenceElement(typeOfPlanElement)) {
-            planElement = Plan.getInstance().findCompetenceElement(planElementName);
-        } else if (isDrive(typeOfPlanElement)) {
-            planElement = Plan.getInstance().findDriveCollection(planElementName);
-        }
-        return planElement;
-    }
-
-    private boolean isValidLine(String[] splittedLine) {
-        return !splittedLine[0].startsWith("*") && splittedLine.length >= 4;
+    public InstictLogReader() {
+        this(false);
     }
 
-    private boolean isActionPatternElement(String typeOfPlanElement) {
-        return typeOfPlanElement.startsWith("APE");
+    /**
+     * @param withCounts True to keep how often the element of each event ran, as its payload.
+     */
+    public InstictLogReader(boolean withCounts) {
+        this.withCounts = withCounts;
     }
 
-    private boolean isActionPattern(String typeOfPlanElement) {
-        return typeOfPlanElement.equals("AP");
+    @Override
+    public void readEvents(String file, LogEventStore eventStore) throws IOException {
+        InstinctLogParser parser = new InstinctLogParser(Plan.getInstance());
+        parser.parse(file, new InstinctEventCollector(parser, eventStore));
     }
 
-    private boolean isAction(String typeOfPlanElement) {
-        return typeOfPlanElement.equals("A");
+    /**
+     * @return True if the log starts with a time and a space, as the lines of Instinct do, or with the {@code *} of
+     * the greeting of the server.
+     */
+    @Override
+    public boolean canRead(String file) {
+        String line = firstLine(file);
+        if (line == null) {
+            return false;
+        }
+        if (line.startsWith("*")) {
+            return true;
+        }
+        int digits = 0;
+        while (digits < line.length() && Character.isDigit(line.charAt(digits))) {
+            digits++;
+        }
+        return digits > 0 && digits < line.length() && line.charAt(digits) == ' ';
     }
 
-    private boolean isCompetence(String typeOfPlanElement) {
-        return typeOfPlanElement.equals("C");
+    @Override
+    public LogEventSource open(String file) throws IOException {
+        return new PagedInstinctLog(file, Plan.getInstance());
     }
 
-    private boolean isCompetenceElement(String typeOfPlanElement) {
-        return typeOfPlanElement.equals("CE");
+    @Override
+    public void readFile(String file) {
+        try {
+            setEventStore(new ParallelInstinctLogParser(Plan.getInstance()).parse(file, withCounts));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
-    private boolean isDrive(String typeOfPlanElement) {
-        return typeOfPlanElement.equals("D");
+    @Override
+    protected LogEventStore newEventStore() {
+        return new LogEventStore(withCounts);
     }
 }
@@ -0,0 +1,46 @@
+package com.recklesscoding.abode.debugger.prerecorded.instinct;
+
+import com.recklesscoding.abode.debugger.prerecorded.LogEventStore;
+
+import java.util.Arrays;
+
+/**
+ * Adds the lines of plan elements handed on by an {@link InstinctLogParser} to a {@link LogEventStore}, putting each
+ * element in the dictionary of the store the first time it is seen.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+final class InstinctEventCollector implements InstinctLogParser.Handler {
+
+    private final InstinctLogParser parser;
+
+    private final LogEventStore eventStore;
+
+    /**
+     * The index in the dictionary of the store of each element of the parser, or -1 if it has none yet.
+     */
+    private int[] storeElements = new int[0];
+
+    InstinctEventCollector(InstinctLogParser parser, LogEventStore eventStore) {
+        this.parser = parser;
+        this.eventStore = eventStore;
+    }
+
+    @Override
+    public void planElementLine(double time, char eventCode, int element, int count) {
+        eventStore.add(time, storeElement(element), eventCode, parser.getElementKind(element), count);
+    }
+
+    private int storeElement(int element) {
+        if (element >= storeElements.length) {
+            int oldLength = storeElements.length;
+            storeElements = Arrays.copyOf(storeElements, Math.max(element + 1, oldLength * 2));
+            Arrays.fill(storeElements, oldLength, storeElements.length, -1);
+        }
+        if (storeElements[element] < 0) {
+            storeElements[element] = eventStore.addElement(parser.getPlanElement(element));
+        }
+        return storeElements[element];
+    }
+}
@@ -0,0 +1,228 @@
+package com.recklesscoding.abode.debugger.prerecorded.instinct;
+
+import com.recklesscoding.abode.core.metrics.Metrics;
+import com.recklesscoding.abode.debugger.prerecorded.LogEventStore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * An index of an Instinct log, kept in a file next to it named as the log plus {@link #SUFFIX}. The log is cut into
+ * chunks of about {@link #CHUNK_SIZE} bytes, each starting at the line of an element; for each chunk the index keeps
+ * where it starts in the file, the earliest and the latest times of its events and how many events of each kind of
+ * element it has. A chunk at a time can then be found with a binary search and parsed on its own.
+ * </p>
+ * <p>
+ * The index is made by reading the whole log once, the first time it is opened, and is made again if the log has
+ * changed since. It does not depend on the plan, as the names of the elements are not looked up. The chunks are
+ * expected to be in order of time, as the logs of a robot are; the events within a chunk need not be.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class InstinctLogIndex {
+
+    public static final String SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x41424c49;
+
+    private static final int VERSION = 1;
+
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    private static final int ELEMENT_KINDS = LogEventStore.DRIVE;
+
+    private final long logSize;
+
+    private final long logModified;
+
+    private int chunkCount = 0;
+
+    private long[] offsets = new long[16];
+
+    private double[] firstTimes = new double[16];
+
+    private double[] lastTimes = new double[16];
+
+    /**
+     * The events of each kind of element in each chunk, {@link #ELEMENT_KINDS} to a chunk.
+     */
+    private int[] elementCounts = new int[16 * ELEMENT_KINDS];
+
+    private InstinctLogIndex(long logSize, long logModified) {
+        this.logSize = logSize;
+        this.logModified = logModified;
+    }
+
+    /**
+     * Reads the index of the log, or makes it if it is missing or out of date and tries to keep it next to the log.
+     */
+    public static InstinctLogIndex open(String logFile) throws IOException {
+        File log = new File(logFile);
+        File indexFile = new File(logFile + SUFFIX);
+        InstinctLogIndex index = read(indexFile, log.length(), log.lastModified());
+        if (index == null) {
+            index = build(logFile, log.length(), log.lastModified());
+            index.write(indexFile);
+        }
+        return index;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * @return Where the chunk starts in the log.
+     */
+    public long getChunkStart(int chunk) {
+        return offsets[chunk];
+    }
+
+    /**
+     * @return Where the chunk ends in the log, which is where the next one starts.
+     */
+    public long getChunkEnd(int chunk) {
+        return chunk + 1 < chunkCount ? offsets[chunk + 1] : logSize;
+    }
+
+    public double getFirstTime(int chunk) {
+        return firstTimes[chunk];
+    }
+
+    public double getLastTime(int chunk) {
+        return lastTimes[chunk];
+    }
+
+    /**
+     * @param elementKind One of the element kinds of {@link LogEventStore}.
+     */
+    public int getElementCount(int chunk, byte elementKind) {
+        return elementCounts[chunk * ELEMENT_KINDS + elementKind - 1];
+    }
+
+    public int getEventCount(int chunk) {
+        int events = 0;
+        for (int kind = 0; kind < ELEMENT_KINDS; kind++) {
+            events += elementCounts[chunk * ELEMENT_KINDS + kind];
+        }
+        return events;
+    }
+
+    /**
+     * @return The first chunk with an event at or after the time, or the number of chunks if there is none.
+     */
+    public int chunkAt(double time) {
+        int low = 0;
+        int high = chunkCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lastTimes[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public double getStartTime() {
+        return chunkCount > 0 ? firstTimes[0] : 0;
+    }
+
+    public double getEndTime() {
+        return chunkCount > 0 ? lastTimes[chunkCount - 1] : 0;
+    }
+
+    private static InstinctLogIndex build(String logFile, long logSize, long logModified) throws IOException {
+        long startTime = Metrics.startTime();
+        InstinctLogIndex index = new InstinctLogIndex(logSize, logModified);
+        InstinctLogParser parser = new InstinctLogParser();
+        parser.parse(logFile, (time, eventCode, element, count) -> {
+            long offset = parser.getLineOffset();
+            int chunk = index.chunkCount - 1;
+            if (chunk < 0 || offset - index.offsets[chunk] >= CHUNK_SIZE) {
+                chunk = index.addChunk(chunk < 0 ? 0 : offset, time);
+            }
+            index.firstTimes[chunk] = Math.min(index.firstTimes[chunk], time);
+            index.lastTimes[chunk] = Math.max(index.lastTimes[chunk], time);
+            index.elementCounts[chunk * ELEMENT_KINDS + parser.getElementKind(element) - 1]++;
+        });
+        Metrics.getInstance().histogram("log.index.build").recordSince(startTime);
+        return index;
+    }
+
+    private int addChunk(long offset, double firstTime) {
+        if (chunkCount == offsets.length) {
+            int capacity = chunkCount * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            firstTimes = Arrays.copyOf(firstTimes, capacity);
+            lastTimes = Arrays.copyOf(lastTimes, capacity);
+            elementCounts = Arrays.copyOf(elementCounts, capacity * ELEMENT_KINDS);
+        }
+        offsets[chunkCount] = offset;
+        firstTimes[chunkCount] = firstTime;
+        lastTimes[chunkCount] = firstTime;
+        return chunkCount++;
+    }
+
+    /**
+     * @return The index in the file, or null if there is none or it is not of the log as it is now.
+     */
+    private static InstinctLogIndex read(File indexFile, long logSize, long logModified) {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION || input.readLong() != logSize
+                    || input.readLong() != logModified) {
+                return null;
+            }
+            InstinctLogIndex index = new InstinctLogIndex(logSize, logModified);
+            int chunkCount = input.readInt();
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                index.addChunk(input.readLong(), input.readDouble());
+                index.lastTimes[chunk] = input.readDouble();
+                for (int kind = 0; kind < ELEMENT_KINDS; kind++) {
+                    index.elementCounts[chunk * ELEMENT_KINDS + kind] = input.readInt();
+                }
+            }
+            return index;
+        } catch (IOException e) {
+            // A broken index is made again.
+            return null;
+        }
+    }
+
+    /**
+     * Keeps the index next to the log; if the folder cannot be written to, the index is made again next time.
+     */
+    private void write(File indexFile) {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(logSize);
+            output.writeLong(logModified);
+            output.writeInt(chunkCount);
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                output.writeLong(offsets[chunk]);
+                output.writeDouble(firstTimes[chunk]);
+                output.writeDouble(lastTimes[chunk]);
+                for (int kind = 0; kind < ELEMENT_KINDS; kind++) {
+                    output.writeInt(elementCounts[chunk * ELEMENT_KINDS + kind]);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.recklesscoding.abode.debugger.prerecorded.instinct;
+
+import com.recklesscoding.abode.core.metrics.Counter;
+import com.recklesscoding.abode.core.metrics.Metrics;
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanSnapshot;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
+import com.recklesscoding.abode.debugger.prerecorded.LogEventStore;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * <p>
+ * Reads an Instinct log file from memory mapped windows of the file, so a log of gigabytes is never copied into the
+ * heap. The fields of each line are parsed straight from the bytes: the time into a double, the event code into a char
+ * and the type and the name into the element of the plan, through an {@link InstinctNameTable}. Nothing is allocated
+ * for a line.
+ * </p>
+ * <p>
+ * A line of a plan element is {@code <time> <code> <type> <name> ...}, where the code is one of E, S, P, F and Z and
+ * the type one of D, C, CE, AP and A, and the first number after the name counts how often the element ran. The
+ * lines of action pattern elements, which only Instinct knows about, and the lines of releasers (R) and sensors (X, Y)
+ * are counted and skipped, as are lines starting with {@code *} and anything else that does not fit.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class InstinctLogParser {
+
+    /**
+     * Gets the lines of plan elements, in the order they are in the file.
+     */
+    public interface Handler {
+
+        /**
+         * @param time      The time of the line, in the milliseconds of the robot.
+         * @param eventCode E, S, P, F or Z.
+         * @param element   The element, to be looked up with {@link #getPlanElement(int)}; elements are numbered from
+         *                  zero, in the order they are first seen.
+         * @param count     How often the element ran, or 0 if the line does not say.
+         */
+        void planElementLine(double time, char eventCode, int element, int count);
+    }
+
+    /**
+     * How much of the file is mapped at once.
+     */
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final int MAX_TIME_DIGITS = 18;
+
+    private static final Counter linesRead = Metrics.getInstance().counter("log.instinct.lines");
+
+    private static final Counter linesSkipped = Metrics.getInstance().counter("log.instinct.lines.skipped");
+
+    private final InstinctNameTable nameTable;
+
+    private MappedByteBuffer buffer;
+
+    /**
+     * Where the current window starts in the file.
+     */
+    private long windowStart;
+
+    /**
+     * Where in the file the lines to parse end.
+     */
+    private long end;
+
+    private int lineStart;
+
+    /**
+     * The index in the buffer the current field starts at.
+     */
+    private int position;
+
+    private int lineEnd;
+
+    private double time;
+
+    private long lines = 0;
+
+    private long releaserLines = 0;
+
+    private long sensorLines = 0;
+
+    /**
+     * Makes a parser that hands on every line of an element without looking its name up in a plan, so
+     * {@link #getPlanElement(int)} is always null; it is what an index of the log needs.
+     */
+    public InstinctLogParser() {
+        this(null);
+    }
+
+    /**
+     * @param plan The plan the names are looked up in, as it is when the parser is made.
+     */
+    public InstinctLogParser(Plan plan) {
+        this.nameTable = new InstinctNameTable(plan != null ? plan.snapshot() : null);
+    }
+
+    /**
+     * @param standIns The elements made for names that are not in the plan, shared with other parsers of the log.
+     */
+    InstinctLogParser(PlanSnapshot plan, Map<String, ActionEvent> standIns) {
+        this.nameTable = new InstinctNameTable(plan, standIns);
+    }
+
+    public void parse(String fileName, Handler handler) throws IOException {
+        parse(fileName, 0, Long.MAX_VALUE, handler);
+    }
+
+    /**
+     * Parses the lines that start in a part of the file.
+     *
+     * @param from Where the first line starts; has to be the start of a line.
+     * @param to   Lines starting here or after are not parsed.
+     */
+    public void parse(String fileName, long from, long to, Handler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            end = Math.min(to, fileSize);
+            windowStart = from;
+            while (windowStart < end) {
+                long windowSize = Math.min(WINDOW_SIZE, fileSize - windowStart);
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+                boolean lastWindow = windowStart + windowSize == fileSize;
+                long parsed = parseWindow(handler, lastWindow);
+                if (parsed == 0) {
+                    // A single line longer than the window; it cannot be an Instinct line, so it is skipped.
+                    parsed = skipLongLine(channel, windowStart + windowSize);
+                }
+                windowStart += parsed;
+            }
+        } finally {
+            buffer = null;
+        }
+    }
+
+    /**
+     * @return How many lines were read by the last parse.
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    public long getReleaserLines() {
+        return releaserLines;
+    }
+
+    public long getSensorLines() {
+        return sensorLines;
+    }
+
+    /**
+     * @return Where in the file the line given to the handler starts.
+     */
+    public long getLineOffset() {
+        return windowStart + lineStart;
+    }
+
+    /**
+     * @return The element of the plan given to the handler with the number; never null if the parser has a plan.
+     */
+    public PlanElement getPlanElement(int element) {
+        return nameTable.element(element);
+    }
+
+    /**
+     * @return The kind of the element given to the handler with the number, one of those of {@link LogEventStore}.
+     */
+    public byte getElementKind(int element) {
+        return nameTable.type(element);
+    }
+
+    /**
+     * Parses the whole lines of the window; the last line, unless it ends the file, may be cut and is left for the next
+     * window.
+     *
+     * @return How many bytes of the window were parsed.
+     */
+    private int parseWindow(Handler handler, boolean lastWindow) {
+        int limit = buffer.limit();
+        lineStart = 0;
+        while (lineStart < limit && windowStart + lineStart < end) {
+            int lineBreak = lineStart;
+            while (lineBreak < limit && buffer.get(lineBreak) != '\n') {
+                lineBreak++;
+            }
+            if (lineBreak == limit && !lastWindow) {
+                break;
+            }
+            lineEnd = lineBreak;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            lines++;
+            linesRead.increment();
+            if (!parseLine(handler)) {
+                linesSkipped.increment();
+            }
+            lineStart = lineBreak + 1;
+        }
+        return Math.min(lineStart, limit);
+    }
+
+    /**
+     * @return False if the line is not one of a plan element.
+     */
+    private boolean parseLine(Handler handler) {
+        position = lineStart;
+        if (position == lineEnd || buffer.get(position) == '*' || !parseTime()) {
+            return false;
+        }
+        int codeStart = nextField();
+        if (codeStart < 0 || position - codeStart != 1) {
+            return false;
+        }
+        char eventCode = (char) buffer.get(codeStart);
+        switch (eventCode) {
+            case 'E':
+            case 'S':
+            case 'P':
+            case 'F':
+            case 'Z':
+                break;
+            case 'R':
+                releaserLines++;
+                return false;
+            case 'X':
+            case 'Y':
+                sensorLines++;
+                return false;
+            default:
+                return false;
+        }
+        int typeStart = nextField();
+        if (typeStart < 0) {
+            return false;
+        }
+        byte type = parseType(typeStart, position - typeStart);
+        int nameStart = nextField();
+        if (type == 0 || nameStart < 0) {
+            return false;
+        }
+        int element = nameTable.resolve(type, buffer, nameStart, position - nameStart);
+        if (nameTable.element(element) == null && nameTable.hasPlan()) {
+            return false;
+        }
+        handler.planElementLine(time, eventCode, element, parseCount());
+        return true;
+    }
+
+    /**
+     * Parses the digits, with an optional fraction, at the start of the line into {@link #time}.
+     *
+     * @return False if the line does not start with a number followed by a space.
+     */
+    private boolean parseTime() {
+        long mantissa = 0;
+        long scale = 1;
+        boolean fraction = false;
+        int digits = 0;
+        while (position < lineEnd) {
+            byte next = buffer.get(position);
+            if (next >= '0' && next <= '9') {
+                // More digits than a long holds are not a time.
+                if (++digits > MAX_TIME_DIGITS) {
+                    return false;
+                }
+                mantissa = mantissa * 10 + (next - '0');
+                if (fraction) {
+                    scale *= 10;
+                }
+            } else if (next == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+            position++;
+        }
+        if (digits == 0 || position == lineEnd || !isSpace(buffer.get(position))) {
+            return false;
+        }
+        time = scale == 1 ? mantissa : (double) mantissa / scale;
+        return true;
+    }
+
+    /**
+     * @return The number in the field after the name, or 0 if there is none.
+     */
+    private int parseCount() {
+        int countStart = nextField();
+        if (countStart < 0 || position - countStart > 9) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = countStart; i < position; i++) {
+            byte next = buffer.get(i);
+            if (next < '0' || next > '9') {
+                return 0;
+            }
+            count = count * 10 + (next - '0');
+        }
+        return count;
+    }
+
+    /**
+     * Skips the spaces after the current field and moves past the next one.
+     *
+     * @return Where the next field starts, or -1 if the line has no more fields.
+     */
+    private int nextField() {
+        while (position < lineEnd && isSpace(buffer.get(position))) {
+            position++;
+        }
+        if (position == lineEnd) {
+            return -1;
+        }
+        int fieldStart = position;
+        while (position < lineEnd && !isSpace(buffer.get(position))) {
+            position++;
+        }
+        return fieldStart;
+    }
+
+    /**
+     * @return The type of the element, or 0 for an action pattern element or a field that is not a type.
+     */
+    private byte parseType(int start, int length) {
+        byte first = buffer.get(start);
+        if (length == 1) {
+            switch (first) {
+                case 'A':
+                    return LogEventStore.ACTION;
+                case 'C':
+                    return LogEventStore.COMPETENCE;
+                case 'D':
+                    return LogEventStore.DRIVE;
+                default:
+                    return 0;
+            }
+        }
+        if (length == 2 && first == 'A' && buffer.get(start + 1) == 'P') {
+            return LogEventStore.ACTION_PATTERN;
+        }
+        if (length == 2 && first == 'C' && buffer.get(start + 1) == 'E') {
+            return LogEventStore.COMPETENCE_ELEMENT;
+        }
+        return 0;
+    }
+
+    /**
+     * @return How many bytes there are from the start of the current window to the end of the line that goes on at
+     * the given offset.
+     */
+    private long skipLongLine(FileChannel channel, long from) throws IOException {
+        long offset = from;
+        long fileSize = channel.size();
+        while (offset < fileSize) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                    Math.min(WINDOW_SIZE, fileSize - offset));
+            for (int i = 0; i < window.limit(); i++) {
+                if (window.get(i) == '\n') {
+                    return offset + i + 1 - windowStart;
+                }
+            }
+            offset += window.limit();
+        }
+        return fileSize - windowStart;
+    }
+
+    private static boolean isSpace(byte next) {
+        return next == ' ' || next == '\t';
+    }
+}
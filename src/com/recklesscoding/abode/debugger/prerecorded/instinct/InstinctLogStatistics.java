@@ -0,0 +1,318 @@
+package com.recklesscoding.abode.debugger.prerecorded.instinct;
+
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.debugger.prerecorded.LogEventStore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Works out what each element of the plan did in an Instinct log, in a single pass over the file and without keeping
+ * the lines: how often it ran (E), succeeded (S), failed (F), was still in progress (P) and went wrong (Z), how long it
+ * was active and, for drives, how often the agent switched to it from another drive.
+ * </p>
+ * <p>
+ * An element is active from the time it runs until another element of the same kind runs, or the log ends, which is
+ * the chain of drive, competence and action the diagram lights up. Only the elements found in the plan are counted,
+ * and actions that are not in it, as a replay shows them.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class InstinctLogStatistics implements InstinctLogParser.Handler {
+
+    private static final int ELEMENT_KINDS = LogEventStore.DRIVE_ELEMENT + 1;
+
+    private final String logFile;
+
+    private InstinctLogParser parser;
+
+    private int[] activations = new int[0];
+
+    private int[] successes = new int[0];
+
+    private int[] failures = new int[0];
+
+    private int[] inProgress = new int[0];
+
+    private int[] errors = new int[0];
+
+    private int[] switchesTo = new int[0];
+
+    private double[] dwellTimes = new double[0];
+
+    /**
+     * The element of each kind that ran last, or -1, and the time it did.
+     */
+    private final int[] activeElements = new int[ELEMENT_KINDS];
+
+    private final double[] activeSince = new double[ELEMENT_KINDS];
+
+    private int elementCount = 0;
+
+    private long events = 0;
+
+    private long driveSwitches = 0;
+
+    private double startTime = Double.NaN;
+
+    private double endTime = Double.NaN;
+
+    private List<Element> elements;
+
+    public InstinctLogStatistics(String logFile) {
+        this.logFile = logFile;
+        Arrays.fill(activeElements, -1);
+    }
+
+    /**
+     * Reads the whole log, looking the elements up in the plan; the plan is only read, so one plan can be shared by
+     * the statistics of many logs worked out at once.
+     */
+    public void read(Plan plan) throws IOException {
+        parser = new InstinctLogParser(plan);
+        parser.parse(logFile, this);
+        for (int kind = 0; kind < ELEMENT_KINDS; kind++) {
+            deactivate(kind, endTime);
+        }
+        elements = new ArrayList<>(elementCount);
+        for (int element = 0; element < elementCount; element++) {
+            PlanElement planElement = parser.getPlanElement(element);
+            if (planElement == null) {
+                // A name that is not in the plan; its lines were skipped.
+                continue;
+            }
+            elements.add(new Element(typeName(parser.getElementKind(element)),
+                    planElement.getNameOfElement(), activations[element], successes[element],
+                    failures[element], inProgress[element], errors[element], dwellTimes[element],
+                    switchesTo[element]));
+        }
+        parser = null;
+    }
+
+    @Override
+    public void planElementLine(double time, char eventCode, int element, int count) {
+        if (element >= elementCount) {
+            grow(element + 1);
+        }
+        events++;
+        if (Double.isNaN(startTime)) {
+            startTime = time;
+        }
+        endTime = time;
+        switch (eventCode) {
+            case 'E':
+                activations[element]++;
+                activate(element, parser.getElementKind(element), time);
+                break;
+            case 'S':
+                successes[element]++;
+                break;
+            case 'F':
+                failures[element]++;
+                break;
+            case 'P':
+                inProgress[element]++;
+                break;
+            case 'Z':
+                errors[element]++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    public String getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * @return How many lines of elements were counted.
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * @return How often the agent switched from one drive to another.
+     */
+    public long getDriveSwitches() {
+        return driveSwitches;
+    }
+
+    /**
+     * @return The time of the first line of an element, in the milliseconds of the robot, or NaN if there is none.
+     */
+    public double getStartTime() {
+        return startTime;
+    }
+
+    public double getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * @return The statistics of every element of the log, in the order they were first seen, once it has been read.
+     */
+    public List<Element> getElements() {
+        return elements;
+    }
+
+    private void activate(int element, byte elementKind, double time) {
+        int activeElement = activeElements[elementKind];
+        if (elementKind == LogEventStore.DRIVE && activeElement >= 0 && activeElement != element) {
+            driveSwitches++;
+            switchesTo[element]++;
+        }
+        deactivate(elementKind, time);
+        activeElements[elementKind] = element;
+        activeSince[elementKind] = time;
+    }
+
+    private void deactivate(int elementKind, double time) {
+        int activeElement = activeElements[elementKind];
+        if (activeElement >= 0) {
+            // Times that go back, as when the robot's clock is reset, add nothing.
+            dwellTimes[activeElement] += Math.max(0, time - activeSince[elementKind]);
+            activeElements[elementKind] = -1;
+        }
+    }
+
+    private void grow(int count) {
+        if (count > activations.length) {
+            int capacity = Math.max(count, activations.length * 2);
+            activations = Arrays.copyOf(activations, capacity);
+            successes = Arrays.copyOf(successes, capacity);
+            failures = Arrays.copyOf(failures, capacity);
+            inProgress = Arrays.copyOf(inProgress, capacity);
+            errors = Arrays.copyOf(errors, capacity);
+            switchesTo = Arrays.copyOf(switchesTo, capacity);
+            dwellTimes = Arrays.copyOf(dwellTimes, capacity);
+        }
+        elementCount = count;
+    }
+
+    /**
+     * @return The type of element as Instinct writes it in a log.
+     */
+    private static String typeName(byte elementKind) {
+        switch (elementKind) {
+            case LogEventStore.ACTION:
+                return "A";
+            case LogEventStore.ACTION_PATTERN:
+                return "AP";
+            case LogEventStore.COMPETENCE:
+                return "C";
+            case LogEventStore.COMPETENCE_ELEMENT:
+                return "CE";
+            case LogEventStore.DRIVE:
+                return "D";
+            default:
+                return "?";
+        }
+    }
+
+    /**
+     * What an element did in a log, or in several logs added up.
+     */
+    public static final class Element {
+
+        private final String type;
+
+        private final String name;
+
+        private long activations;
+
+        private long successes;
+
+        private long failures;
+
+        private long inProgress;
+
+        private long errors;
+
+        private double dwellTime;
+
+        private long switchesTo;
+
+        private Element(String type, String name, long activations, long successes, long failures, long inProgress,
+                        long errors, double dwellTime, long switchesTo) {
+            this.type = type;
+            this.name = name;
+            this.activations = activations;
+            this.successes = successes;
+            this.failures = failures;
+            this.inProgress = inProgress;
+            this.errors = errors;
+            this.dwellTime = dwellTime;
+            this.switchesTo = switchesTo;
+        }
+
+        /**
+         * @return An element with nothing counted yet, to add the statistics of other logs to.
+         */
+        public static Element empty(String type, String name) {
+            return new Element(type, name, 0, 0, 0, 0, 0, 0, 0);
+        }
+
+        public void add(Element other) {
+            activations += other.activations;
+            successes += other.successes;
+            failures += other.failures;
+            inProgress += other.inProgress;
+            errors += other.errors;
+            dwellTime += other.dwellTime;
+            switchesTo += other.switchesTo;
+        }
+
+        /**
+         * @return D, C, CE, AP or A.
+         */
+        public String getType() {
+            return type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getActivations() {
+            return activations;
+        }
+
+        public long getSuccesses() {
+            return successes;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getInProgress() {
+            return inProgress;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return How long the element was active, in the milliseconds of the robot.
+         */
+        public double getDwellTime() {
+            return dwellTime;
+        }
+
+        /**
+         * @return How often the agent switched to the drive from another one; 0 for other elements.
+         */
+        public long getSwitchesTo() {
+            return switchesTo;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.recklesscoding.abode.debugger.prerecorded.instinct;
+
+import com.recklesscoding.abode.core.plan.PlanSnapshot;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
+import com.recklesscoding.abode.debugger.prerecorded.LogEventStore;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Resolves the element names of an Instinct log, read straight from the bytes of the file, to the elements of the
+ * plan. Each type and name is looked up in the plan once, the first time it is seen; after that a hash of the bytes
+ * and a compare against the bytes kept for it find the element, so no string is made for a line. The names are looked
+ * up in a {@link PlanSnapshot}, so every name of a log is found in the plan as it was when the table was made.
+ * </p>
+ * <p>
+ * An action or action pattern that is not in the plan gets an {@link ActionEvent} of its own, made once and shared
+ * with the other tables given the same map of stand-ins, so that the replay can still show it; any other element that
+ * is not in the plan has no element. The types are the element kinds of {@link LogEventStore}.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+final class InstinctNameTable {
+
+    private final PlanSnapshot plan;
+
+    /**
+     * The elements made for actions and action patterns that are not in the plan, by type and name.
+     */
+    private final Map<String, ActionEvent> standIns;
+
+    /**
+     * The index of an entry plus one, at the slot its hash leads to, or zero for an empty slot.
+     */
+    private int[] slots = new int[256];
+
+    private int[] hashes = new int[128];
+
+    private byte[] types = new byte[128];
+
+    private byte[][] names = new byte[128][];
+
+    private PlanElement[] elements = new PlanElement[128];
+
+    private int size = 0;
+
+    InstinctNameTable(PlanSnapshot plan) {
+        this(plan, new HashMap<>());
+    }
+
+    /**
+     * @param standIns Has to be a concurrent map if tables on other threads share it.
+     */
+    InstinctNameTable(PlanSnapshot plan, Map<String, ActionEvent> standIns) {
+        this.plan = plan;
+        this.standIns = standIns;
+    }
+
+    /**
+     * @return The entry of the type and the name found in the buffer from the given index on; entries are numbered
+     * from zero in the order they were first seen.
+     */
+    int resolve(byte type, ByteBuffer buffer, int start, int length) {
+        int hash = type;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) {
+                return add(slot, hash, type, buffer, start, length);
+            }
+            if (hashes[entry] == hash && types[entry] == type && names[entry].length == length
+                    && sameName(names[entry], buffer, start)) {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * @return The element of the entry, or null if there is not one in the plan.
+     */
+    PlanElement element(int entry) {
+        return elements[entry];
+    }
+
+    byte type(int entry) {
+        return types[entry];
+    }
+
+    /**
+     * @return False if the names are not looked up, so no entry has an element.
+     */
+    boolean hasPlan() {
+        return plan != null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int add(int slot, int hash, byte type, ByteBuffer buffer, int start, int length) {
+        byte[] name = new byte[length];
+        for (int i = 0; i < length; i++) {
+            name[i] = buffer.get(start + i);
+        }
+        if (size == hashes.length) {
+            int capacity = size * 2;
+            hashes = Arrays.copyOf(hashes, capacity);
+            types = Arrays.copyOf(types, capacity);
+            names = Arrays.copyOf(names, capacity);
+            elements = Arrays.copyOf(elements, capacity);
+        }
+        int entry = size++;
+        hashes[entry] = hash;
+        types[entry] = type;
+        names[entry] = name;
+        elements[entry] = findInPlan(type, new String(name, StandardCharsets.UTF_8));
+        slots[slot] = entry + 1;
+        // Keep the slots at most half full.
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return entry;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = mix(hashes[entry]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private PlanElement findInPlan(byte type, String name) {
+        if (plan == null) {
+            return null;
+        }
+        PlanElement planElement = null;
+        switch (type) {
+            case LogEventStore.ACTION:
+                planElement = plan.findAction(name);
+                break;
+            case LogEventStore.ACTION_PATTERN:
+                planElement = plan.findActionPattern(name);
+                break;
+            case LogEventStore.COMPETENCE:
+                return plan.findCompetence(name);
+            case LogEventStore.COMPETENCE_ELEMENT:
+                return plan.findCompetenceElement(name);
+            case LogEventStore.DRIVE:
+                return plan.findDriveCollection(name);
+            default:
+                return null;
+        }
+        if (planElement != null) {
+            return planElement;
+        }
+        return standIns.computeIfAbsent(type + " " + name, key -> new ActionEvent(name));
+    }
+
+    private static boolean sameName(byte[] name, ByteBuffer buffer, int start) {
+        for (int i = 0; i < name.length; i++) {
+            if (name[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Spreads the bits of the hash, as names that only differ at the end would otherwise fill neighbouring slots.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+}
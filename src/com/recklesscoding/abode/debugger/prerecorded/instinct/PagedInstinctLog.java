@@ -0,0 +1,148 @@
+package com.recklesscoding.abode.debugger.prerecorded.instinct;
+
+import com.recklesscoding.abode.core.metrics.Histogram;
+import com.recklesscoding.abode.core.metrics.Metrics;
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.debugger.prerecorded.LogEventSource;
+import com.recklesscoding.abode.debugger.prerecorded.LogEventStore;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * An Instinct log opened through its {@link InstinctLogIndex}: opening it only reads the index, and each chunk is
+ * parsed when it is asked for. Only the last {@link #CACHED_CHUNKS} chunks asked for are kept, so the memory taken is
+ * bound by the part of the log being replayed and not by the size of the log.
+ * </p>
+ * <p>
+ * The chunks are parsed one at a time on a daemon thread, which also keeps the names resolved once for all of them.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class PagedInstinctLog implements LogEventSource {
+
+    /**
+     * The chunk being replayed, the next one and one either side for jumping back and forth.
+     */
+    private static final int CACHED_CHUNKS = 4;
+
+    private static final Histogram chunkLoads = Metrics.getInstance().histogram("log.chunk.load");
+
+    private final String logFile;
+
+    private final InstinctLogIndex index;
+
+    private final InstinctLogParser parser;
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Log chunk loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Integer, Future<LogEventStore>> chunks = new LinkedHashMap<Integer, Future<LogEventStore>>(
+            16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Future<LogEventStore>> eldest) {
+            return size() > CACHED_CHUNKS;
+        }
+    };
+
+    /**
+     * Opens the log, making its index first if it has none.
+     *
+     * @param plan The plan the names are looked up in.
+     */
+    public PagedInstinctLog(String logFile, Plan plan) throws IOException {
+        this.logFile = logFile;
+        this.index = InstinctLogIndex.open(logFile);
+        this.parser = new InstinctLogParser(plan);
+    }
+
+    public InstinctLogIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public int getChunkCount() {
+        return index.getChunkCount();
+    }
+
+    /**
+     * @return The events of the chunk; none once the log is closed.
+     */
+    @Override
+    public LogEventStore getChunk(int chunk) {
+        try {
+            Future<LogEventStore> eventStore = load(chunk);
+            if (eventStore != null) {
+                return eventStore.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+        LogEventStore emptyChunk = new LogEventStore();
+        emptyChunk.seal();
+        return emptyChunk;
+    }
+
+    @Override
+    public void prefetch(int chunk) {
+        if (chunk >= 0 && chunk < index.getChunkCount()) {
+            load(chunk);
+        }
+    }
+
+    @Override
+    public int chunkAt(double time) {
+        return index.chunkAt(time);
+    }
+
+    @Override
+    public double getStartTime() {
+        return index.getStartTime();
+    }
+
+    @Override
+    public double getEndTime() {
+        return index.getEndTime();
+    }
+
+    @Override
+    public synchronized void close() {
+        loader.shutdownNow();
+        chunks.clear();
+    }
+
+    /**
+     * @return The chunk being read or read, or null if the log is closed.
+     */
+    private synchronized Future<LogEventStore> load(int chunk) {
+        Future<LogEventStore> eventStore = chunks.get(chunk);
+        if (eventStore == null && !loader.isShutdown()) {
+            eventStore = loader.submit(() -> readChunk(chunk));
+            chunks.put(chunk, eventStore);
+        }
+        return eventStore;
+    }
+
+    private LogEventStore readChunk(int chunk) throws IOException {
+        long startTime = Metrics.startTime();
+        LogEventStore eventStore = new LogEventStore();
+        parser.parse(logFile, index.getChunkStart(chunk), index.getChunkEnd(chunk),
+                new InstinctEventCollector(parser, eventStore));
+        eventStore.seal();
+        chunkLoads.recordSince(startTime);
+        return eventStore;
+    }
+}
@@ -0,0 +1,191 @@
+package com.recklesscoding.abode.debugger.prerecorded.instinct;
+
+import com.recklesscoding.abode.core.metrics.Histogram;
+import com.recklesscoding.abode.core.metrics.Metrics;
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanSnapshot;
+import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
+import com.recklesscoding.abode.debugger.prerecorded.LogEventStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Reads a whole Instinct log into a {@link LogEventStore} on the threads of a {@link ForkJoinPool}. Every line of an
+ * Instinct log stands on its own, as it names its element, so the file is cut at line breaks into a few chunks per
+ * thread and each chunk is parsed by an {@link InstinctLogParser} of its own into a store of its own. The stores are
+ * then joined in the order of the file, on the pool as well, which is the order of time for the log of a robot; events
+ * out of order are sorted when the joined store is sealed.
+ * </p>
+ * <p>
+ * The parsers look the names up in the same snapshot of the plan, taken when the parse starts, and share the elements
+ * they make for actions that are not in the plan, so an action is the same element in every chunk.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class ParallelInstinctLogParser {
+
+    /**
+     * Chunks smaller than this are not worth a task.
+     */
+    private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * More chunks than threads, so a thread that is done early takes over the work of a slower one.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final Histogram parseTimes = Metrics.getInstance().histogram("log.instinct.parallel.parse");
+
+    private final Plan plan;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Parses on the common pool.
+     */
+    public ParallelInstinctLogParser(Plan plan) {
+        this(plan, ForkJoinPool.commonPool());
+    }
+
+    public ParallelInstinctLogParser(Plan plan, ForkJoinPool pool) {
+        this.plan = plan;
+        this.pool = pool;
+    }
+
+    /**
+     * @param withCounts True to keep how often the element of each event ran, as its payload.
+     * @return The sealed events of the log.
+     */
+    public LogEventStore parse(String fileName, boolean withCounts) throws IOException {
+        long startTime = Metrics.startTime();
+        long[] bounds = splitAtLines(fileName);
+        LogEventStore[] chunks = new LogEventStore[bounds.length - 1];
+        PlanSnapshot snapshot = plan != null ? plan.snapshot() : null;
+        Map<String, ActionEvent> standIns = new ConcurrentHashMap<>();
+        try {
+            pool.invoke(new ParseChunks(fileName, bounds, chunks, snapshot, standIns, withCounts, 0, chunks.length));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // Joining is done on all the threads too, or on a big machine it would take as long as the parsing.
+        LogEventStore eventStore = chunks.length == 1 ? chunks[0] : LogEventStore.concat(chunks, pool);
+        parseTimes.recordSince(startTime);
+        return eventStore;
+    }
+
+    /**
+     * @return Where the chunks start, each at the start of a line, followed by the size of the file.
+     */
+    private long[] splitAtLines(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            int chunkCount = (int) Math.max(1, Math.min((long) pool.getParallelism() * CHUNKS_PER_THREAD,
+                    fileSize / MIN_CHUNK_SIZE));
+            long[] bounds = new long[chunkCount + 1];
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            int count = 1;
+            for (int chunk = 1; chunk < chunkCount; chunk++) {
+                long lineStart = nextLineStart(channel, buffer, fileSize * chunk / chunkCount);
+                // A line longer than a chunk leaves nothing for the chunk it ran into.
+                if (lineStart > bounds[count - 1] && lineStart < fileSize) {
+                    bounds[count++] = lineStart;
+                }
+            }
+            bounds[count++] = fileSize;
+            return count == bounds.length ? bounds : Arrays.copyOf(bounds, count);
+        }
+    }
+
+    /**
+     * @return Where the first line that starts at or after the offset starts, or the size of the file.
+     */
+    private static long nextLineStart(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        if (offset == 0) {
+            return 0;
+        }
+        // The line starts at the offset if the byte before it ends a line.
+        long position = offset - 1;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Parses a range of the chunks, splitting it in halves until a task has a single chunk.
+     */
+    private class ParseChunks extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String fileName;
+
+        private final long[] bounds;
+
+        private final LogEventStore[] chunks;
+
+        private final PlanSnapshot snapshot;
+
+        private final Map<String, ActionEvent> standIns;
+
+        private final boolean withCounts;
+
+        private final int from;
+
+        private final int to;
+
+        private ParseChunks(String fileName, long[] bounds, LogEventStore[] chunks, PlanSnapshot snapshot,
+                            Map<String, ActionEvent> standIns, boolean withCounts, int from, int to) {
+            this.fileName = fileName;
+            this.bounds = bounds;
+            this.chunks = chunks;
+            this.snapshot = snapshot;
+            this.standIns = standIns;
+            this.withCounts = withCounts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParseChunks(fileName, bounds, chunks, snapshot, standIns, withCounts, from, middle),
+                        new ParseChunks(fileName, bounds, chunks, snapshot, standIns, withCounts, middle, to));
+                return;
+            }
+            InstinctLogParser parser = new InstinctLogParser(snapshot, standIns);
+            LogEventStore eventStore = new LogEventStore(withCounts);
+            try {
+                parser.parse(fileName, bounds[from], bounds[from + 1], new InstinctEventCollector(parser, eventStore));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            eventStore.seal();
+            chunks[from] = eventStore;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.recklesscoding.abode.debugger.prerecorded.xposh;
+
+import com.recklesscoding.abode.core.metrics.Counter;
+import com.recklesscoding.abode.core.metrics.Metrics;
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanWorkspace;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.debugger.prerecorded.LogEventStore;
+import com.recklesscoding.abode.debugger.prerecorded.LogReader;
+import com.recklesscoding.abode.debugger.realtime.xposh.UnityPOSHElements;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * Reads a log of a UnityPOSH run: the {@code bot,element,type} lines the live server gets, each followed by the time
+ * it was sent, in milliseconds from the start of the run, as in {@code 2,Patrol,AP,1530}. A line without a time
+ * happened at the time of the line before it. The elements are looked up in the plan of each bot, as the live server
+ * does, and the number of the bot is kept as the payload of the event.
+ * </p>
+ * <p>
+ * The part of a line before the time is looked up once for all the lines that share it, so a line costs a substring
+ * and a lookup in a map.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class UnityPOSHLogReader extends LogReader {
+
+    private static final Pattern LINE = Pattern.compile("\\s*\\d+,[^,]+,(A|AP|C|CE|DE|D)(,.*)?");
+
+    private static final Counter linesRead = Metrics.getInstance().counter("log.unityposh.lines");
+
+    private static final Counter linesSkipped = Metrics.getInstance().counter("log.unityposh.lines.skipped");
+
+    /**
+     * What a {@code bot,element,type} resolves to; an element of -1 if it is not in the plan of the bot.
+     */
+    private static final class Entry {
+
+        private final int element;
+
+        private final byte elementKind;
+
+        private final int bot;
+
+        private Entry(int element, byte elementKind, int bot) {
+            this.element = element;
+            this.elementKind = elementKind;
+            this.bot = bot;
+        }
+    }
+
+    private static final Entry UNKNOWN = new Entry(-1, (byte) 0, 0);
+
+    @Override
+    public void readEvents(String file, LogEventStore eventStore) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        Map<PlanElement, Integer> elementIndexes = new IdentityHashMap<>();
+        double time = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                linesRead.increment();
+                int firstComma = line.indexOf(',');
+                int secondComma = firstComma < 0 ? -1 : line.indexOf(',', firstComma + 1);
+                int timeComma = secondComma < 0 ? -1 : line.indexOf(',', secondComma + 1);
+                if (timeComma > 0) {
+                    try {
+                        time = Double.parseDouble(line.substring(timeComma + 1));
+                    } catch (NumberFormatException e) {
+                        linesSkipped.increment();
+                        continue;
+                    }
+                }
+                String key = timeComma > 0 ? line.substring(0, timeComma) : line;
+                Entry entry = entries.get(key);
+                if (entry == null) {
+                    entry = resolve(key, eventStore, elementIndexes);
+                    entries.put(key, entry);
+                }
+                if (entry.element < 0) {
+                    linesSkipped.increment();
+                    continue;
+                }
+                eventStore.add(time, entry.element, 'E', entry.elementKind, entry.bot);
+            }
+        }
+    }
+
+    @Override
+    public boolean canRead(String file) {
+        String line = firstLine(file);
+        return line != null && LINE.matcher(line).matches();
+    }
+
+    @Override
+    protected LogEventStore newEventStore() {
+        return new LogEventStore(true);
+    }
+
+    /**
+     * @param elementIndexes The index in the dictionary of the store of each element added to it, as bots with the same
+     *                       plan share elements.
+     */
+    private static Entry resolve(String key, LogEventStore eventStore, Map<PlanElement, Integer> elementIndexes) {
+        String[] fields = key.split(",");
+        if (fields.length != 3) {
+            return UNKNOWN;
+        }
+        String botId = fields[0].trim();
+        int bot;
+        try {
+            bot = Integer.parseInt(botId);
+        } catch (NumberFormatException e) {
+            return UNKNOWN;
+        }
+        byte elementKind = UnityPOSHElements.elementKind(fields[2].trim());
+        Plan plan = PlanWorkspace.getInstance().getPlanOfAgent(botId);
+        if (elementKind == 0 || plan == null) {
+            return UNKNOWN;
+        }
+        PlanElement planElement = UnityPOSHElements.find(plan.snapshot(), fields[1], elementKind);
+        if (planElement == null) {
+            return UNKNOWN;
+        }
+        Integer element = elementIndexes.get(planElement);
+        if (element == null) {
+            element = eventStore.addElement(planElement);
+            elementIndexes.put(planElement, element);
+        }
+        return new Entry(element, elementKind, bot);
+    }
+}
@@ -0,0 +1,124 @@
+package com.recklesscoding.abode.debugger.realtime.instinct;
+
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanElementTable;
+import com.recklesscoding.abode.core.plan.PlanSnapshot;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Maps the numeric ids Instinct uses for its plan elements, as declared by the PELEM name=id commands, to the ids of
+ * the {@link PlanElement}s in the loaded {@link Plan}. An Instinct id is resolved by name once, the first time it is
+ * seen in a log line; after that it is a pair of array reads, without any allocation.
+ * </p>
+ * <p>
+ * Names are looked up in a {@link PlanSnapshot} of the plan, so the lookups of a version of the plan never see it
+ * half edited. The resolved ids are dropped whenever the plan is changed, e.g. cleared or patched by a reload of its
+ * file, or a new PELEM is declared.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class InstinctElementTable {
+
+    private static final int UNRESOLVED = -1;
+
+    private static final int NOT_IN_PLAN = -2;
+
+    private String[] names = new String[256];
+
+    private int[] planElementIds = new int[256];
+
+    /**
+     * The plan the ids were resolved in and its version at the time; a plan that is reloaded into a new plan, or
+     * cleared, gives its elements new ids, and one that is patched may have elements with the names that were not
+     * found.
+     */
+    private Plan resolvedPlan;
+
+    private long planVersion = -1;
+
+    public InstinctElementTable() {
+        Arrays.fill(planElementIds, UNRESOLVED);
+    }
+
+    /**
+     * Declares the name of an Instinct plan element. Declaring an id again replaces its old name.
+     */
+    public synchronized void declare(int instinctId, String name) {
+        ensureCapacity(instinctId);
+        names[instinctId] = name;
+        Arrays.fill(planElementIds, UNRESOLVED);
+    }
+
+    /**
+     * @return The name declared for the id, or null if it was never declared.
+     */
+    public synchronized String getName(int instinctId) {
+        if (instinctId < 0 || instinctId >= names.length) {
+            return null;
+        }
+        return names[instinctId];
+    }
+
+    /**
+     * @param instinctId        The Instinct id found in the log line.
+     * @param typeOfPlanElement The type found in the log line, e.g. AP or CE.
+     * @return The element of the plan, or null if the id was not declared or there is no such element in the plan.
+     */
+    public synchronized PlanElement resolve(int instinctId, String typeOfPlanElement) {
+        if (instinctId < 0 || instinctId >= names.length) {
+            return null;
+        }
+        Plan plan = Plan.getInstance();
+        PlanElementTable elementTable = plan.getElementTable();
+        PlanSnapshot snapshot = plan.snapshot();
+        if (resolvedPlan != plan || planVersion != snapshot.getVersion()) {
+            Arrays.fill(planElementIds, UNRESOLVED);
+            resolvedPlan = plan;
+            planVersion = snapshot.getVersion();
+        }
+
+        int planElementId = planElementIds[instinctId];
+        if (planElementId == UNRESOLVED) {
+            PlanElement planElement = findInPlan(snapshot, typeOfPlanElement, names[instinctId]);
+            planElementId = planElement != null ? planElement.getID() : NOT_IN_PLAN;
+            planElementIds[instinctId] = planElementId;
+        }
+        if (planElementId == NOT_IN_PLAN) {
+            return null;
+        }
+        return elementTable.get(planElementId);
+    }
+
+    private PlanElement findInPlan(PlanSnapshot plan, String typeOfPlanElement, String name) {
+        if (name == null) {
+            return null;
+        }
+        switch (typeOfPlanElement) {
+            case "A":
+                return plan.findAction(name);
+            case "AP":
+                return plan.findActionPattern(name);
+            case "C":
+                return plan.findCompetence(name);
+            case "CE":
+                return plan.findCompetenceElement(name);
+            case "D":
+                return plan.findDriveCollection(name);
+            default:
+                return null;
+        }
+    }
+
+    private void ensureCapacity(int instinctId) {
+        if (instinctId >= names.length) {
+            int newLength = Math.max(names.length * 2, instinctId + 1);
+            names = Arrays.copyOf(names, newLength);
+            planElementIds = Arrays.copyOf(planElementIds, newLength);
+        }
+    }
+}
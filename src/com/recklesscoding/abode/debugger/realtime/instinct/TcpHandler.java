@@ -17,9 +17,10 @@
 
 package com.recklesscoding.abode.debugger.realtime.instinct;
 
-import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.metrics.Counter;
+import com.recklesscoding.abode.core.metrics.Histogram;
+import com.recklesscoding.abode.core.metrics.Metrics;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
-import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
 
 import java.io.*;
 import java.util.*;
@@ -32,12 +33,15 @@ import java.util.regex.*;
 // class to handle comms over a particular tcp stream
 public class TcpHandler implements Runnable {
 
+    private static final Counter linesRead = Metrics.getInstance().counter("instinct.lines");
+    private static final Histogram lookupTime = Metrics.getInstance().histogram("instinct.lookup");
+
     protected Socket clientSocket = null;
     protected String cmdFileName = null;
     protected PrintWriter oss = null;
     protected boolean logDisplay = false;
     protected boolean isStopped = false;
-    protected HashMap<Integer, String> planElements = new HashMap<Integer, String>(255);
+    protected InstinctElementTable planElements = new InstinctElementTable();
     protected HashMap<Integer, String> robotActions = new HashMap<Integer, String>(100);
     protected HashMap<Integer, String> robotSenses = new HashMap<Integer, String>(100);
 
@@ -80,6 +84,8 @@ public class TcpHandler implements Runnable {
     }
 
     public void run() {
+        String connectionMetric = "instinct.connection." + clientSocket.getRemoteSocketAddress() + ".lines";
+        Counter connectionLinesRead = Metrics.getInstance().counter(connectionMetric);
         try {
             BufferedReader iss = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
             oss = new PrintWriter(clientSocket.getOutputStream(), true);
@@ -95,6 +101,8 @@ public class TcpHandler implements Runnable {
             String[] comparators = {"EQ", "NE", "GT", "LT", "TR", "FL"};
 
             while (!isStopped && (line = iss.readLine()) != null) {
+                linesRead.increment();
+                connectionLinesRead.increment();
                 boolean bEcho = true; // default is to echo lines from the robot back to the console
                 String[] elements = line.split("[ ]+");
                 if ((elements.length > 3) && (elements[1].length() == 1)) // check its a single character
@@ -133,18 +141,20 @@ public class TcpHandler implements Runnable {
                             bEcho = logDisplay;
 
                             try {
-                                Integer val = new Integer(elements[3]);
-                                String name = planElements.get(val);
-                                if (!(name == null) && (name.length() > 0))
-                                    elements[3] = name;
-
-                                line = "";
-                                for (String str : elements) {
-                                    line = line + str + " ";
+                                int val = Integer.parseInt(elements[3]);
+                                if (!elements[0].startsWith("*"))
+                                    handlePlanElementUpdate(val, elements[2]);
+
+                                if (bEcho) {
+                                    String name = planElements.getName(val);
+                                    if (!(name == null) && (name.length() > 0))
+                                        elements[3] = name;
+
+                                    line = "";
+                                    for (String str : elements) {
+                                        line = line + str + " ";
+                                    }
                                 }
-
-                                handlePlanElementUpdate(name, line);
-
                             } catch (NumberFormatException e) {
                                 System.err.println("Error processing Element log entry " + line);
                             }
@@ -171,6 +181,7 @@ public class TcpHandler implements Runnable {
             if (!isStopped)
                 System.err.println("IO Exception caught: client disconnected.");
         } finally {
+            Metrics.getInstance().remove(connectionMetric);
             try {
                 clientSocket.close();
             } catch (IOException e) {
@@ -179,21 +190,13 @@ public class TcpHandler implements Runnable {
         }
     }
 
-    private void handlePlanElementUpdate(String planElementName, String line) {
-        String cvsSplitBy = " ";
-
-        String[] splittedLine = line.split(cvsSplitBy);
-        PlanElement planElement = null;
-        String typeOfPlanElement;
-
-        // Making sure the search is not pointless
-        if (isValidLine(splittedLine)) {
-            typeOfPlanElement = splittedLine[2];
-            if (!isActionPatternElement(typeOfPlanElement)) { //We ignore ActionPatternELements as they are instinct only
-                planElement = getPlanElement(typeOfPlanElement, planElement, planElementName);
-                if (planElement != null) {
-                    planElement.setToUpdate();
-                }
+    private void handlePlanElementUpdate(int instinctId, String typeOfPlanElement) {
+        if (!isActionPatternElement(typeOfPlanElement)) { //We ignore ActionPatternELements as they are instinct only
+            long startTime = Metrics.startTime();
+            PlanElement planElement = planElements.resolve(instinctId, typeOfPlanElement);
+            lookupTime.recordSince(startTime);
+            if (planElement != null) {
+                planElement.setToUpdate();
             }
         }
     }
@@ -245,11 +248,9 @@ public class TcpHandler implements Runnable {
         try {
             int idx = str.indexOf("=");
             String name = str.substring(0, idx);
-            Integer value = new Integer(str.substring(idx + 1));
-            // if plan is reloaded with different values, remove the old ones
-            if (planElements.containsValue(value))
-                planElements.remove(value);
-            planElements.put(value, name);
+            int value = Integer.parseInt(str.substring(idx + 1));
+            // if plan is reloaded with different values, the old ones are replaced
+            planElements.declare(value, name);
         } catch (NumberFormatException | IndexOutOfBoundsException e) {
             System.err.print("AddPlanElement, Invalid entry: ");
             System.err.println(str);
@@ -285,52 +286,7 @@ public class TcpHandler implements Runnable {
         }
     }
 
-    private PlanElement getPlanElement(String typeOfPlanElement, PlanElement planElement, String planElementName) {
-        if (isAction(typeOfPlanElement)) {
-            planElement = Plan.getInstance().findAction(planElementName);
-            if (planElement == null) {
-                planElement = new ActionEvent(planElementName);
-            }
-        } else if (isActionPattern(typeOfPlanElement)) {
-            planElement = Plan.getInstance().findActionPattern(planElementName);
-            if (planElement == null) {
-                planElement = new ActionEvent(planElementName);
-            }
-        } else if (isCompetence(typeOfPlanElement)) {
-            planElement = Plan.getInstance().findCompetence(planElementName);
-        } else if (isCompetenceElement(typeOfPlanElement)) {
-            planElement = Plan.getInstance().findCompetenceElement(planElementName);
-        } else if (isDrive(typeOfPlanElement)) {
-            planElement = Plan.getInstance().findDriveCollection(planElementName);
-        }
-        return planElement;
-    }
-
-    private boolean isValidLine(String[] splittedLine) {
-        return !splittedLine[0].startsWith("*") && splittedLine.length >= 4;
-    }
-
     private boolean isActionPatternElement(String typeOfPlanElement) {
         return typeOfPlanElement.startsWith("APE");
     }
-
-    private boolean isActionPattern(String typeOfPlanElement) {
-        return typeOfPlanElement.equals("AP");
-    }
-
-    private boolean isAction(String typeOfPlanElement) {
-        return typeOfPlanElement.equals("A");
-    }
-
-    private boolean isCompetence(String typeOfPlanElement) {
-        return typeOfPlanElement.equals("C");
-    }
-
-    private boolean isCompetenceElement(String typeOfPlanElement) {
-        return typeOfPlanElement.equals("CE");
-    }
-
-    private boolean isDrive(String typeOfPlanElement) {
-        return typeOfPlanElement.equals("D");
-    }
 }
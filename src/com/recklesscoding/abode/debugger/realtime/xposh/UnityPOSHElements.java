@@ -0,0 +1,62 @@
+package com.recklesscoding.abode.debugger.realtime.xposh;
+
+import com.recklesscoding.abode.core.plan.PlanSnapshot;
+import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.debugger.prerecorded.LogEventStore;
+
+/**
+ * Finds the elements named by the {@code bot,element,type} lines of UnityPOSH, which the live server gets and the logs
+ * of a run keep. The type is one of A, AP, C, CE, DE and D.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public final class UnityPOSHElements {
+
+    private UnityPOSHElements() {
+    }
+
+    /**
+     * @return The element kind of {@link LogEventStore} of the type, or 0 if it is not a type.
+     */
+    public static byte elementKind(String typeOfPlanElement) {
+        switch (typeOfPlanElement) {
+            case "A":
+                return LogEventStore.ACTION;
+            case "AP":
+                return LogEventStore.ACTION_PATTERN;
+            case "C":
+                return LogEventStore.COMPETENCE;
+            case "CE":
+                return LogEventStore.COMPETENCE_ELEMENT;
+            case "DE":
+                return LogEventStore.DRIVE_ELEMENT;
+            case "D":
+                return LogEventStore.DRIVE;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return The element of the kind with the name, or null if there is not one in the plan.
+     */
+    public static PlanElement find(PlanSnapshot plan, String planElementName, byte elementKind) {
+        switch (elementKind) {
+            case LogEventStore.ACTION:
+                return plan.findAction(planElementName);
+            case LogEventStore.ACTION_PATTERN:
+                return plan.findActionPattern(planElementName);
+            case LogEventStore.COMPETENCE:
+                return plan.findCompetence(planElementName);
+            case LogEventStore.COMPETENCE_ELEMENT:
+                return plan.findCompetenceElement(planElementName);
+            case LogEventStore.DRIVE_ELEMENT:
+                return plan.findDriveElement(planElementName);
+            case LogEventStore.DRIVE:
+                return plan.findDriveCollection(planElementName);
+            default:
+                return null;
+        }
+    }
+}
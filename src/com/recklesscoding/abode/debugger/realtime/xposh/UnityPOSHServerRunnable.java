@@ -17,7 +17,11 @@
 
 package com.recklesscoding.abode.debugger.realtime.xposh;
 
+import com.recklesscoding.abode.core.metrics.Counter;
+import com.recklesscoding.abode.core.metrics.Histogram;
+import com.recklesscoding.abode.core.metrics.Metrics;
 import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanWorkspace;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 
 import java.io.BufferedReader;
@@ -29,6 +33,9 @@ import java.net.Socket;
 
 public class UnityPOSHServerRunnable implements Runnable {
 
+    private static final Counter linesRead = Metrics.getInstance().counter("unityposh.lines");
+    private static final Histogram lookupTime = Metrics.getInstance().histogram("unityposh.lookup");
+
     private int serverPort = 3000;
     private ServerSocket serverSocket = null;
     private boolean isStopped = false;
@@ -110,18 +117,24 @@ public class UnityPOSHServerRunnable implements Runnable {
         }
 
         public void run() {
+            String connectionMetric = "unityposh.connection." + clientSocket.getRemoteSocketAddress() + ".lines";
+            Counter connectionLinesRead = Metrics.getInstance().counter(connectionMetric);
             try {
                 BufferedReader clientInput = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
 
                 String line;
 
                 while (!isStopped && (line = clientInput.readLine()) != null) {
+                    linesRead.increment();
+                    connectionLinesRead.increment();
                     handlePlanElementUpdate(line);
                 }
                 clientInput.close();
             } catch (IOException e) {
                 //report exception somewhere.
                 e.printStackTrace();
+            } finally {
+                Metrics.getInstance().remove(connectionMetric);
             }
         }
 
@@ -147,7 +160,10 @@ public class UnityPOSHServerRunnable implements Runnable {
 //                }
                 planElementName = splittedLine[1];
                 typeOfPlanElement = splittedLine[2];
-                planElement = getPlanElement(planElementName, typeOfPlanElement);
+                long startTime = Metrics.startTime();
+                planElement = getPlanElement(PlanWorkspace.getInstance().getPlanOfAgent(splittedLine[0]),
+                        planElementName, typeOfPlanElement);
+                lookupTime.recordSince(startTime);
 
                 if (planElement != null) {
                     planElement.setToUpdate();
@@ -159,48 +175,9 @@ public class UnityPOSHServerRunnable implements Runnable {
             return splittedLine.length >= 3;
         }
 
-        private PlanElement getPlanElement(String planElementName, String typeOfPlanElement) {
-            PlanElement planElement = null;
-
-            if (isAction(typeOfPlanElement)) {
-                planElement = Plan.getInstance().findAction(planElementName);
-            } else if (isActionPattern(typeOfPlanElement)) {
-                planElement = Plan.getInstance().findActionPattern(planElementName);
-            } else if (isCompetence(typeOfPlanElement)) {
-                planElement = Plan.getInstance().findCompetence(planElementName);
-            } else if (isCompetenceElement(typeOfPlanElement)) {
-                planElement = Plan.getInstance().findCompetenceElementXPOSH(planElementName);
-            } else if (isDriveElement(typeOfPlanElement)) {
-                planElement = Plan.getInstance().findDriveElementXPOSH(planElementName);
-            } else if (isDrive(typeOfPlanElement)) {
-                planElement = Plan.getInstance().findDriveCollection(planElementName);
-            }
-
-            return planElement;
-        }
-
-        private boolean isAction(String typeOfPlanElement) {
-            return typeOfPlanElement.equals("A");
-        }
-
-        private boolean isActionPattern(String typeOfPlanElement) {
-            return typeOfPlanElement.equals("AP");
-        }
-
-        private boolean isCompetence(String typeOfPlanElement) {
-            return typeOfPlanElement.equals("C");
-        }
-
-        private boolean isCompetenceElement(String typeOfPlanElement) {
-            return typeOfPlanElement.equals("CE");
-        }
-
-        private boolean isDriveElement(String typeOfPlanElement) {
-            return typeOfPlanElement.equals("DE");
-        }
-
-        private boolean isDrive(String typeOfPlanElement) {
-            return typeOfPlanElement.equals("D");
+        private PlanElement getPlanElement(Plan plan, String planElementName, String typeOfPlanElement) {
+            return UnityPOSHElements.find(plan.snapshot(), planElementName,
+                    UnityPOSHElements.elementKind(typeOfPlanElement));
         }
     }
 }
\ No newline at end of file
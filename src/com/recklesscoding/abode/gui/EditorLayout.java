@@ -1,6 +1,7 @@
 package com.recklesscoding.abode.gui;
 
 import com.recklesscoding.abode.core.Editor;
+import com.recklesscoding.abode.core.plan.reader.PlanLoadTask;
 import com.recklesscoding.abode.gui.layout.TabComponent;
 import com.recklesscoding.abode.gui.menu.mainmenu.MainMenuBar;
 import com.recklesscoding.abode.gui.menu.wrappers.MenuBarWrapper;
@@ -9,6 +10,7 @@ import com.recklesscoding.abode.gui.views.diagramview.diagram.saving.GraphLayout
 import com.recklesscoding.abode.gui.views.diagramview.diagram.saving.GraphLayoutWriter;
 import com.recklesscoding.abode.gui.views.editorlayout.IEditorLayout;
 import com.recklesscoding.abode.util.wrappers.VBoxWrapper;
+import javafx.scene.control.Alert;
 import javafx.scene.layout.Priority;
 import javafx.stage.Stage;
 
@@ -26,6 +28,8 @@ public class EditorLayout extends VBoxWrapper implements IEditorLayout {
 
     private TabComponent tabComponent;
 
+    private PlanLoadingBar planLoadingBar = new PlanLoadingBar();
+
     /**
      * @param primaryWindow
      * @param editor
@@ -43,8 +47,8 @@ public class EditorLayout extends VBoxWrapper implements IEditorLayout {
     @Override
     public void refresh() {
         removeItem(tabComponent);
+        // The new views are built from the active plan, so their content does not need refreshing.
         initViewSelector();
-        tabComponent.getDiagramTab().refreshContent();
     }
 
     public void saveLayout(String filePath) {
@@ -58,12 +62,35 @@ public class EditorLayout extends VBoxWrapper implements IEditorLayout {
         getDiagramTab().getGraphWindow().setNodesLocation(graphLayoutReader.getNodesLocation());
     }
 
+    /**
+     * Shows the progress of the task until {@link #hidePlanLoading(PlanLoadTask)} is called for it.
+     */
+    public void showPlanLoading(PlanLoadTask planLoadTask) {
+        planLoadingBar.show(planLoadTask);
+    }
+
+    public void hidePlanLoading(PlanLoadTask planLoadTask) {
+        planLoadingBar.hide(planLoadTask);
+    }
+
+    /**
+     * Tells the user about an error in a dialog over the main window.
+     */
+    public void showError(String header, String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.initOwner(primaryWindow);
+        alert.setHeaderText(header);
+        alert.setContentText(message);
+        alert.show();
+    }
+
     public void switchOrientation() {
         getDiagramTab().switchOrientation();
     }
 
     private void init(Editor editor) {
         addItem(getNewMainMenuBar(editor));
+        addItem(planLoadingBar);
         initViewSelector();
     }
 
@@ -0,0 +1,73 @@
+package com.recklesscoding.abode.gui;
+
+import com.recklesscoding.abode.core.plan.reader.PlanLoadTask;
+import com.recklesscoding.abode.util.wrappers.HBoxWrapper;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+
+/**
+ * <p>
+ * Shows how far the loading of a plan has got, with a button to cancel it. The bar only takes up space while a plan is
+ * being loaded.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class PlanLoadingBar extends HBoxWrapper {
+
+    private final Label message = new Label();
+
+    private final ProgressBar progressBar = new ProgressBar();
+
+    private final Button cancelButton = new Button("Cancel");
+
+    private PlanLoadTask planLoadTask;
+
+    public PlanLoadingBar() {
+        setSpacing(10);
+        setPadding(new Insets(4, 10, 4, 10));
+        setAlignment(Pos.CENTER_LEFT);
+        progressBar.setPrefWidth(200);
+        cancelButton.setOnAction(event -> {
+            if (planLoadTask != null) {
+                planLoadTask.cancel();
+            }
+        });
+        addItem(progressBar);
+        addItem(message);
+        addItem(cancelButton);
+        setShown(false);
+    }
+
+    /**
+     * Follows the task until it is done, replacing the task followed before.
+     */
+    public void show(PlanLoadTask task) {
+        planLoadTask = task;
+        message.textProperty().bind(task.messageProperty());
+        progressBar.progressProperty().bind(task.progressProperty());
+        setShown(true);
+    }
+
+    /**
+     * Hides the bar, unless it has moved on to another task.
+     */
+    public void hide(PlanLoadTask task) {
+        if (task != planLoadTask) {
+            return;
+        }
+        planLoadTask = null;
+        message.textProperty().unbind();
+        progressBar.progressProperty().unbind();
+        setShown(false);
+    }
+
+    private void setShown(boolean shown) {
+        setVisible(shown);
+        setManaged(shown);
+    }
+}
@@ -1,5 +1,6 @@
 package com.recklesscoding.abode.gui;
 
+import com.recklesscoding.abode.core.plan.Plan;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
 import javafx.fxml.FXMLLoader;
@@ -119,7 +120,7 @@ public class TextFieldTreeCellImpl extends TreeCell<PlanElement> {
         textField.setOnKeyReleased(t -> {
             // If user commits change
             if (t.getCode() == KeyCode.ENTER) {
-                getItem().setNameOfElement(textField.getText());
+                Plan.getInstance().renameElement(getItem(), textField.getText());
                 commitEdit(getItem());
                 // Abort!
             } else if (t.getCode() == KeyCode.ESCAPE) {
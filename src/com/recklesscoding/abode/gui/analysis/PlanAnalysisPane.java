@@ -0,0 +1,60 @@
+package com.recklesscoding.abode.gui.analysis;
+
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.analysis.PlanAnalysis;
+import com.recklesscoding.abode.core.plan.analysis.PlanAnalyzer;
+import com.recklesscoding.abode.core.plan.analysis.PlanIssue;
+import com.recklesscoding.abode.util.wrappers.BorderPaneWrapper;
+import javafx.application.Platform;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+
+/**
+ * <p>
+ * Lists the issues the {@link PlanAnalyzer} finds in the active plan. The analysis runs off the FX thread, as a large
+ * plan can take a while.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class PlanAnalysisPane extends BorderPaneWrapper {
+
+    private final ListView<PlanIssue> issuesList = new ListView<>();
+
+    private final Label summaryLabel = new Label();
+
+    private final Button analyseButton = new Button("Analyse");
+
+    public PlanAnalysisPane() {
+        initLayout();
+        analyseButton.setOnAction(event -> analyse());
+    }
+
+    private void initLayout() {
+        HBox top = new HBox(10, analyseButton, summaryLabel);
+        setTop(top);
+        setCenter(issuesList);
+    }
+
+    public void analyse() {
+        Plan plan = Plan.getInstance();
+        analyseButton.setDisable(true);
+        summaryLabel.setText("Analysing " + plan.getPlanId() + "...");
+        Thread analysisThread = new Thread(() -> {
+            PlanAnalysis analysis = PlanAnalyzer.getInstance().analyze(plan);
+            Platform.runLater(() -> show(plan, analysis));
+        }, "Plan analysis");
+        analysisThread.setDaemon(true);
+        analysisThread.start();
+    }
+
+    private void show(Plan plan, PlanAnalysis analysis) {
+        issuesList.getItems().setAll(analysis.getIssues());
+        summaryLabel.setText(plan.getPlanId() + ": " + analysis.getIssues().size() + " issues in "
+                + analysis.getDurationNanos() / 1000000 + " ms");
+        analyseButton.setDisable(false);
+    }
+}
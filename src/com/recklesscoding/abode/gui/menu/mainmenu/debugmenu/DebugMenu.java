@@ -25,6 +25,9 @@ public class DebugMenu extends MenuWrapper {
         addMenuItem(new MenuButtonOpenLog(primaryStage, editor));
         addMenuItem(new MenuButtonOpenVideo(primaryStage, editor));
         addMenuItem(new MenuButtonStartDebug(editor));
+        addMenuItem(new MenuButtonPauseDebug(editor));
         addMenuItem(new MenuButtonStopDebug(editor));
+        addMenuItem(new MenuReplaySpeed(editor));
+        addMenuItem(new MenuButtonShowTimeline(editor));
     }
 }
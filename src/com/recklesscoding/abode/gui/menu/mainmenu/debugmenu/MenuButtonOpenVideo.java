@@ -28,7 +28,7 @@ public class MenuButtonOpenVideo extends MenuButtonFileHandler {
                 File file = getFileChooser().showOpenDialog(primaryStage);
                 if (file != null) {
                     String filePath = file.toURI().toURL().toExternalForm();
-                    editor.getIncinctDebugger().loadVideo(filePath);
+                    editor.getLogDebugger().loadVideo(filePath);
                 }
             } catch (MalformedURLException e) {
                 e.printStackTrace();
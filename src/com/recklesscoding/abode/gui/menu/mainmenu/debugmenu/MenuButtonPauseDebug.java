@@ -0,0 +1,58 @@
+package com.recklesscoding.abode.gui.menu.mainmenu.debugmenu;
+
+import com.recklesscoding.abode.core.Editor;
+import javafx.event.ActionEvent;
+import javafx.scene.control.MenuItem;
+
+/**
+ * Pauses the replay of a log where it is, and goes on with it from there when clicked again.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class MenuButtonPauseDebug extends MenuItem {
+
+    private static final String NAME_LABEL = "Pause Debugging";
+
+    private static final String RESUME_LABEL = "Resume Debugging";
+
+    private boolean isPaused = false;
+
+    public MenuButtonPauseDebug(Editor editor) {
+        super(NAME_LABEL);
+        initButton(editor);
+
+        setVisible(false);
+        setDisable(true);
+    }
+
+    private void initButton(Editor editor) {
+        setMnemonicParsing(true);
+        initAction(editor);
+    }
+
+    private void initAction(Editor editor) {
+        setOnAction((ActionEvent actionEvent) -> {
+            if (isPaused) {
+                editor.getLogDebugger().resumeLogDebugger();
+            } else {
+                editor.getLogDebugger().pauseLogDebugger();
+            }
+            setPaused(!isPaused);
+        });
+    }
+
+    /**
+     * Shows the button for a replay that has just been started or stopped.
+     */
+    void setDebugging(boolean debugging) {
+        setPaused(false);
+        setVisible(debugging);
+        setDisable(!debugging);
+    }
+
+    private void setPaused(boolean paused) {
+        isPaused = paused;
+        setText(paused ? RESUME_LABEL : NAME_LABEL);
+    }
+}
@@ -0,0 +1,41 @@
+package com.recklesscoding.abode.gui.menu.mainmenu.debugmenu;
+
+import com.recklesscoding.abode.core.Editor;
+import com.recklesscoding.abode.gui.console.Window;
+import com.recklesscoding.abode.gui.timeline.ReplayTimelinePane;
+import javafx.event.ActionEvent;
+import javafx.scene.control.MenuItem;
+
+/**
+ * Opens the window with the timeline of the replay of a log, to see where it is and to move it to another time.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class MenuButtonShowTimeline extends MenuItem {
+
+    private static final String NAME_LABEL = "Show Timeline";
+
+    private static final String WINDOW_TITLE = "Replay Timeline";
+
+    private Window window;
+
+    public MenuButtonShowTimeline(Editor editor) {
+        super(NAME_LABEL);
+        initButton(true);
+        initAction(editor);
+    }
+
+    private void initButton(boolean keyMnemonicsOn) {
+        setMnemonicParsing(keyMnemonicsOn);
+    }
+
+    private void initAction(Editor editor) {
+        setOnAction((ActionEvent actionEvent) -> {
+            if (window == null) {
+                window = new Window(WINDOW_TITLE, new ReplayTimelinePane(editor));
+            }
+            window.show();
+        });
+    }
+}
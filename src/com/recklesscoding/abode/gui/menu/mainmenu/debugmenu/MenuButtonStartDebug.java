@@ -24,11 +24,14 @@ public class MenuButtonStartDebug extends MenuItem {
 
     private void initAction(Editor editor) {
         setOnAction((ActionEvent actionEvent) -> {
-            editor.getIncinctDebugger().startLogDebugger();
+            editor.getLogDebugger().startLogDebugger();
             for (MenuItem menuItem : this.getParentMenu().getItems()) {
                 if (menuItem instanceof MenuButtonOpenLog) {
                     menuItem.setDisable(true);
                 }
+                if (menuItem instanceof MenuButtonPauseDebug) {
+                    ((MenuButtonPauseDebug) menuItem).setDebugging(true);
+                }
                 if (menuItem instanceof MenuButtonStopDebug) {
                     menuItem.setDisable(false);
                     menuItem.setVisible(true);
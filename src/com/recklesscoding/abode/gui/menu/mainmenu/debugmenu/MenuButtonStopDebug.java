@@ -26,11 +26,14 @@ public class MenuButtonStopDebug extends MenuItem {
 
     private void initAction(Editor editor) {
         setOnAction((ActionEvent actionEvent) -> {
-            editor.getIncinctDebugger().stopLogDebugger();
+            editor.getLogDebugger().stopLogDebugger();
             for (MenuItem menuItem : this.getParentMenu().getItems()) {
                 if (menuItem instanceof MenuButtonOpenLog || menuItem instanceof MenuButtonOpenVideo) {
                     menuItem.setDisable(false);
                 }
+                if (menuItem instanceof MenuButtonPauseDebug) {
+                    ((MenuButtonPauseDebug) menuItem).setDebugging(false);
+                }
                 if (menuItem instanceof MenuButtonStartDebug) {
                     menuItem.setDisable(true);
                     menuItem.setVisible(false);
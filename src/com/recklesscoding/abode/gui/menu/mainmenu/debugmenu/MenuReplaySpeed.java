@@ -0,0 +1,43 @@
+package com.recklesscoding.abode.gui.menu.mainmenu.debugmenu;
+
+import com.recklesscoding.abode.core.Editor;
+import com.recklesscoding.abode.debugger.prerecorded.LogSynchronizer;
+import javafx.scene.control.Menu;
+import javafx.scene.control.RadioMenuItem;
+import javafx.scene.control.ToggleGroup;
+
+/**
+ * Chooses how much faster than real time logs are replayed, while replaying or before.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class MenuReplaySpeed extends Menu {
+
+    private static final String NAME_LABEL = "Replay Speed";
+
+    private static final double[] RATES = {0.1, 0.25, 0.5, 1, 2, 5, 10, 25, 50, 100, LogSynchronizer.MAX_SPEED};
+
+    public MenuReplaySpeed(Editor editor) {
+        super(NAME_LABEL);
+        initItems(editor);
+    }
+
+    private void initItems(Editor editor) {
+        ToggleGroup rates = new ToggleGroup();
+        for (double rate : RATES) {
+            RadioMenuItem item = new RadioMenuItem(getLabel(rate));
+            item.setToggleGroup(rates);
+            item.setSelected(rate == 1);
+            item.setOnAction(actionEvent -> editor.setLogReplayRate(rate));
+            getItems().add(item);
+        }
+    }
+
+    private static String getLabel(double rate) {
+        if (rate == LogSynchronizer.MAX_SPEED) {
+            return "Max Speed";
+        }
+        return (rate == Math.rint(rate) ? String.valueOf((long) rate) : String.valueOf(rate)) + "x";
+    }
+}
@@ -20,6 +20,7 @@ public class FileMenu extends MenuWrapper {
     private void init(Window primaryStage, Editor editor) {
         addMenuItem(new MenuButtonOpenPlan(primaryStage, editor));
         addMenuItem(new MenuButtonSavePlan(primaryStage, editor));
+        addMenuItem(new MenuButtonHotReload(editor));
         addMenuItem(new SeparatorMenuItem());
         addMenuItem(new MenuButtonOpenLayout(primaryStage, editor));
         addMenuItem(new MenuButtonSaveLayout(primaryStage, editor));
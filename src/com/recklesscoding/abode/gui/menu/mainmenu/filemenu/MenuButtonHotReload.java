@@ -0,0 +1,23 @@
+package com.recklesscoding.abode.gui.menu.mainmenu.filemenu;
+
+import com.recklesscoding.abode.core.Editor;
+import javafx.scene.control.CheckMenuItem;
+
+/**
+ * <p>
+ * Turns on or off reloading the open plan whenever its file changes.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class MenuButtonHotReload extends CheckMenuItem {
+
+    private static final String NAME_LABEL = "Reload plan when its file changes";
+
+    public MenuButtonHotReload(Editor editor) {
+        super(NAME_LABEL);
+        setMnemonicParsing(true);
+        setSelected(editor.isHotReload());
+        setOnAction(actionEvent -> editor.setHotReload(isSelected()));
+    }
+}
@@ -1,6 +1,7 @@
 package com.recklesscoding.abode.gui.menu.mainmenu.filemenu;
 
 import com.recklesscoding.abode.core.Editor;
+import com.recklesscoding.abode.core.plan.BinaryPlanFormat;
 import com.recklesscoding.abode.gui.menu.menuitems.MenuButtonFileHandler;
 import javafx.stage.FileChooser;
 import javafx.stage.Window;
@@ -30,7 +31,8 @@ public class MenuButtonOpenPlan extends MenuButtonFileHandler {
         getFileChooser().setTitle("Open Plan File");
         getFileChooser().getExtensionFilters().addAll(new FileChooser.ExtensionFilter("All files", "*.*"),
                 new FileChooser.ExtensionFilter("XPOSH", "*.xml"), new FileChooser.ExtensionFilter("Instinct", "*.inst"),
-                new FileChooser.ExtensionFilter("Lap", "*.lap"));
+                new FileChooser.ExtensionFilter("Lap", "*.lap"),
+                new FileChooser.ExtensionFilter("ABODE Plan", "*" + BinaryPlanFormat.FILE_EXTENSION));
         getFileChooser().setSelectedExtensionFilter(getFileChooser().getExtensionFilters().get(1));
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.recklesscoding.abode.gui.menu.mainmenu.filemenu;
 
 import com.recklesscoding.abode.core.Editor;
+import com.recklesscoding.abode.core.plan.BinaryPlanFormat;
 import com.recklesscoding.abode.gui.menu.menuitems.MenuButtonFileHandler;
 import javafx.stage.FileChooser;
 import javafx.stage.Window;
@@ -32,7 +33,8 @@ public class MenuButtonSavePlan extends MenuButtonFileHandler {
     protected  void initFileChooser() {
         getFileChooser().setTitle("Save Plan File");
         getFileChooser().getExtensionFilters().addAll(new FileChooser.ExtensionFilter("All files", "*.*"),
-                new FileChooser.ExtensionFilter("XML", "*.xml"));
+                new FileChooser.ExtensionFilter("XML", "*.xml"),
+                new FileChooser.ExtensionFilter("ABODE Plan", "*" + BinaryPlanFormat.FILE_EXTENSION));
         getFileChooser().setSelectedExtensionFilter(getFileChooser().getExtensionFilters().get(1));
     }
 }
\ No newline at end of file
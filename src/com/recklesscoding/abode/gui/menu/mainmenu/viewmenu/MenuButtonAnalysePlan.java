@@ -0,0 +1,44 @@
+package com.recklesscoding.abode.gui.menu.mainmenu.viewmenu;
+
+import com.recklesscoding.abode.gui.analysis.PlanAnalysisPane;
+import com.recklesscoding.abode.gui.console.Window;
+import javafx.event.ActionEvent;
+import javafx.scene.control.MenuItem;
+
+/**
+ * Opens the window listing the issues found in the active plan.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class MenuButtonAnalysePlan extends MenuItem {
+
+    private static final String NAME_LABEL = "Analyse Plan";
+
+    private static final String WINDOW_TITLE = "Plan Analysis";
+
+    private Window window;
+
+    private PlanAnalysisPane planAnalysisPane;
+
+    public MenuButtonAnalysePlan() {
+        super(NAME_LABEL);
+        initButton(true);
+        initAction();
+    }
+
+    private void initButton(boolean keyMnemonicsOn) {
+        setMnemonicParsing(keyMnemonicsOn);
+    }
+
+    private void initAction() {
+        setOnAction((ActionEvent actionEvent) -> {
+            if (window == null) {
+                planAnalysisPane = new PlanAnalysisPane();
+                window = new Window(WINDOW_TITLE, planAnalysisPane);
+            }
+            window.show();
+            planAnalysisPane.analyse();
+        });
+    }
+}
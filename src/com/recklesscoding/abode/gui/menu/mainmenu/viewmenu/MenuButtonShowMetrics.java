@@ -0,0 +1,40 @@
+package com.recklesscoding.abode.gui.menu.mainmenu.viewmenu;
+
+import com.recklesscoding.abode.gui.console.Window;
+import com.recklesscoding.abode.gui.metrics.MetricsPane;
+import javafx.event.ActionEvent;
+import javafx.scene.control.MenuItem;
+
+/**
+ * Opens the window showing the metrics of ABODE.
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class MenuButtonShowMetrics extends MenuItem {
+
+    private static final String NAME_LABEL = "Show Metrics";
+
+    private static final String WINDOW_TITLE = "Metrics";
+
+    private Window window;
+
+    public MenuButtonShowMetrics() {
+        super(NAME_LABEL);
+        initButton(true);
+        initAction();
+    }
+
+    private void initButton(boolean keyMnemonicsOn) {
+        setMnemonicParsing(keyMnemonicsOn);
+    }
+
+    private void initAction() {
+        setOnAction((ActionEvent actionEvent) -> {
+            if (window == null) {
+                window = new Window(WINDOW_TITLE, new MetricsPane());
+            }
+            window.show();
+        });
+    }
+}
@@ -25,6 +25,8 @@ public class ViewMenu extends MenuWrapper {
         // addMenuItem(new MenuButtonDiagramOrientation(editorLayout));
       //fa  addMenuItem(new SeparatorMenuItem());
         addMenuItem(new MenuButtonOpenConsole(primaryStage));
+        addMenuItem(new MenuButtonAnalysePlan());
+        addMenuItem(new MenuButtonShowMetrics());
 
     }
 }
@@ -0,0 +1,123 @@
+package com.recklesscoding.abode.gui.metrics;
+
+import com.recklesscoding.abode.core.metrics.Metrics;
+import com.recklesscoding.abode.core.metrics.MetricsDumper;
+import com.recklesscoding.abode.core.metrics.MetricsReport;
+import com.recklesscoding.abode.util.wrappers.BorderPaneWrapper;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Shows every metric, refreshed each second while the pane is on screen. Rates are per second since the last refresh
+ * and times are in milliseconds.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class MetricsPane extends BorderPaneWrapper {
+
+    private static final long DUMP_PERIOD_SECONDS = 5;
+
+    private final TableView<MetricsReport.Row> metricsTable = new TableView<>();
+
+    private final CheckBox enabledCheckBox = new CheckBox("Enabled");
+
+    private final Button dumpButton = new Button("Dump to File...");
+
+    private final MetricsReport report = new MetricsReport();
+
+    private final Timeline refreshTimeline = new Timeline(new KeyFrame(Duration.seconds(1), event -> refresh()));
+
+    private MetricsDumper metricsDumper;
+
+    public MetricsPane() {
+        initLayout();
+        initColumns();
+        initActions();
+        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
+        sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (newScene != null) {
+                refresh();
+                refreshTimeline.play();
+            } else {
+                refreshTimeline.stop();
+            }
+        });
+    }
+
+    private void initLayout() {
+        setTop(new HBox(10, enabledCheckBox, dumpButton));
+        setCenter(metricsTable);
+        metricsTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+    }
+
+    private void initColumns() {
+        addColumn("Name", MetricsReport.Row::getName);
+        addColumn("Value", row -> String.valueOf(row.getValue()));
+        addColumn("Rate/s", row -> String.format("%.1f", row.getRatePerSecond()));
+        addColumn("Mean", row -> toMillis(row, row.getMean()));
+        addColumn("p50", row -> toMillis(row, row.getMedian()));
+        addColumn("p99", row -> toMillis(row, row.getPercentile99()));
+        addColumn("Max", row -> toMillis(row, row.getMax()));
+    }
+
+    private void addColumn(String title, Function<MetricsReport.Row, String> value) {
+        TableColumn<MetricsReport.Row, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new SimpleStringProperty(value.apply(cell.getValue())));
+        metricsTable.getColumns().add(column);
+    }
+
+    private void initActions() {
+        enabledCheckBox.setSelected(Metrics.isEnabled());
+        enabledCheckBox.setOnAction(event -> Metrics.setEnabled(enabledCheckBox.isSelected()));
+        dumpButton.setOnAction(event -> toggleDump());
+    }
+
+    private void toggleDump() {
+        if (metricsDumper != null) {
+            metricsDumper.stop();
+            metricsDumper = null;
+            dumpButton.setText("Dump to File...");
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Dump Metrics");
+        fileChooser.setInitialDirectory(new File(System.getProperty("user.dir")));
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON", "*.json"));
+        File file = fileChooser.showSaveDialog(getScene().getWindow());
+        if (file != null) {
+            Metrics.setEnabled(true);
+            enabledCheckBox.setSelected(true);
+            metricsDumper = new MetricsDumper(file.getPath());
+            metricsDumper.start(DUMP_PERIOD_SECONDS);
+            dumpButton.setText("Stop Dumping");
+        }
+    }
+
+    private void refresh() {
+        enabledCheckBox.setSelected(Metrics.isEnabled());
+        metricsTable.getItems().setAll(report.take());
+    }
+
+    private static String toMillis(MetricsReport.Row row, double nanos) {
+        if (!"histogram".equals(row.getType())) {
+            return "";
+        }
+        return String.format("%.3f", nanos / 1e6);
+    }
+}
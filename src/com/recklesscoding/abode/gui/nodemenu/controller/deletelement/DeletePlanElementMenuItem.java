@@ -3,11 +3,7 @@ package com.recklesscoding.abode.gui.nodemenu.controller.deletelement;
 import com.recklesscoding.abode.core.plan.Plan;
 import com.recklesscoding.abode.core.plan.nodes.PlanElementNode;
 import com.recklesscoding.abode.core.plan.nodes.plannodes.RouteElementNode;
-import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
-import com.recklesscoding.abode.core.plan.planelements.action.ActionEvent;
-import com.recklesscoding.abode.core.plan.planelements.action.ActionPattern;
-import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
 import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
@@ -36,24 +32,19 @@ public class DeletePlanElementMenuItem extends MenuItem {
         setOnAction(t -> {
             PlanElement planParent = planElementNode.getNodeParent().getPlanElement();
             PlanElement planElement = planElementNode.getPlanElement();
-            if (planParent instanceof ElementWithTrigger) {
-                ElementWithTrigger planParentTriggered = (ElementWithTrigger) planParent;
-                planParentTriggered.removeTriggeredElement();
-            } else if (planParent instanceof ActionPattern) {
-                ActionPattern planParentAP = (ActionPattern) planParent;
-                planParentAP.removeActionEvent((ActionEvent) planElement);
-            } else if (planParent instanceof Competence) {
-                Competence planParentC = (Competence) planParent;
-                planParentC.removeCompetenceElement((CompetenceElement) planElement);
-            } else if (planParent instanceof DriveCollection) {
-                Competence planParentC = (Competence) planParent;
-                planParentC.removeCompetenceElement((CompetenceElement) planElement);
-            }else if (planElementNode.getNodeParent() instanceof RouteElementNode) {
-                Plan.getInstance().removeDriveCollection((DriveCollection) planElement);
+            Plan plan = Plan.getInstance();
+            if (planElementNode.getNodeParent() instanceof RouteElementNode) {
+                plan.removeDriveCollection((DriveCollection) planElement);
+            } else {
+                plan.removeReference(planParent, planElement);
+                // Competence and drive elements belong to a single parent, so they go once nothing uses them.
+                if ((planElement instanceof CompetenceElement || planElement instanceof DriveElement)
+                        && plan.getUsages(planElement).isEmpty()) {
+                    plan.removeElement(planElement);
+                }
             }
 
-            planElementNode.getNodeParent().removeChild(planElementNode);
-            graphWindow.refresh();
+            // The diagram updates itself from the change events of the plan.
         });
 
     }
@@ -35,8 +35,8 @@ public class EditAction extends EditElementPopup {
         saveButton.setOnAction(event -> {
                     if (isTextNotEmpty(getName())) {
                         ActionEvent actionEvent = (ActionEvent) planElement;
-                        actionEvent.setNameOfElement(getName());
-                        refresh();
+                        Plan.getInstance().renameElement(actionEvent, getName());
+                        hide();
                     }
                 }
         );
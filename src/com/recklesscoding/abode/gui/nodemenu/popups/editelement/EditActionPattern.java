@@ -1,5 +1,6 @@
 package com.recklesscoding.abode.gui.nodemenu.popups.editelement;
 
+import com.recklesscoding.abode.core.plan.Plan;
 import com.recklesscoding.abode.core.plan.nodes.PlanElementNode;
 import com.recklesscoding.abode.core.plan.planelements.ElementWithTrigger;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
@@ -54,10 +55,10 @@ public class EditActionPattern extends EditElementPopup {
         saveButton.setOnAction(event -> {
                     if (isTextNotEmpty(getName())) {
                         ActionPattern actionPattern = (ActionPattern) planElement;
-                        actionPattern.setNameOfElement(getName());
+                        Plan.getInstance().renameElement(actionPattern, getName());
                         setTime(actionPattern);
                         setActions(actionPattern);
-                        refresh();
+                        hide();
                     }
                 }
         );
@@ -47,7 +47,7 @@ public class EditCompetence extends EditElementPopup {
         saveButton.setOnAction(event -> {
                     if (isTextNotEmpty(getName())) {
                         Competence competence = (Competence) planElement;
-                        competence.setNameOfElement(getName());
+                        Plan.getInstance().renameElement(competence, getName());
                         competence.setGoals(sensesPane.getSenses());
                         setTime(competence);
                         saveActions(competence);
@@ -58,7 +58,7 @@ public class EditCompetence extends EditElementPopup {
 
     private void saveActions(Competence competence) {
         Plan.getInstance().addCompetence(competence);
-        refresh();
+        hide();
     }
 
     private void setTime(Competence competence) {
@@ -41,9 +41,9 @@ public class EditCompetenceElement extends EditElementPopup {
         saveButton.setOnAction(event -> {
                     if (isTextNotEmpty(getName())) {
                         CompetenceElement competenceElement = (CompetenceElement) planElement;
-                        competenceElement.setNameOfElement(getName());
+                        Plan.getInstance().renameElement(competenceElement, getName());
                         competenceElement.setRetries(retriesPane.getRetries());
-                        refresh();
+                        hide();
                     }
                 }
         );
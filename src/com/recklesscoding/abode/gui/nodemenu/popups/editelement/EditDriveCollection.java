@@ -51,7 +51,7 @@ public class EditDriveCollection extends EditElementPopup {
         saveButton.setOnAction(event -> {
                     if (isTextNotEmpty(getName())) {
                         DriveCollection driveCollection = (DriveCollection) planElement;
-                        driveCollection.setNameOfElement(getName());
+                        Plan.getInstance().renameElement(driveCollection, getName());
                         driveCollection.setGoals(sensesPane.getSenses());
                         setRT(driveCollection);
                     }
@@ -1,5 +1,6 @@
 package com.recklesscoding.abode.gui.nodemenu.popups.editelement;
 
+import com.recklesscoding.abode.core.plan.Plan;
 import com.recklesscoding.abode.core.plan.nodes.PlanElementNode;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
@@ -40,9 +41,9 @@ public class EditDriveElement extends EditElementPopup {
         saveButton.setOnAction(event -> {
                     if (isTextNotEmpty(getName())) {
                         DriveElement driveElement = (DriveElement) planElement;
-                        driveElement.setNameOfElement(getName());
+                        Plan.getInstance().renameElement(driveElement, getName());
                         driveElement.setDriveElementSenses(sensesPane.getSenses());
-                        refresh();
+                        hide();
                     }
                 }
         );
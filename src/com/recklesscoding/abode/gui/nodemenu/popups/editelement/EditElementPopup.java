@@ -74,8 +74,4 @@ public abstract class EditElementPopup extends PopOver {
         return nameTextField.getText();
     }
 
-    void refresh(){
-        hide();
-        graphWindow.refresh();
-    }
 }
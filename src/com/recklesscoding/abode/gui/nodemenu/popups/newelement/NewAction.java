@@ -44,7 +44,7 @@ public class NewAction extends NewElementPopup {
                             ElementWithTrigger elementWithTrigger = (ElementWithTrigger) planElement;
                             elementWithTrigger.setTriggeredElement(actionEvent);
                         }
-                       refresh();
+                       hide();
                     }
                 }
         );
@@ -66,7 +66,7 @@ public class NewActionPattern extends NewElementPopup {
             elementWithTrigger.setTriggeredElement(actionPattern);
         }
         Plan.getInstance().addActionPattern(actionPattern);
-        refresh();
+        hide();
     }
 
     private void setActions(ActionPattern actionPattern) {
@@ -62,7 +62,7 @@ public class NewCompetence extends NewElementPopup {
 
     private void saveActions(Competence competence) {
         Plan.getInstance().addCompetence(competence);
-        refresh();
+        hide();
     }
 
     private void setTriggeredElement(PlanElement fatherElement, Competence competence) {
@@ -1,5 +1,6 @@
 package com.recklesscoding.abode.gui.nodemenu.popups.newelement;
 
+import com.recklesscoding.abode.core.plan.Plan;
 import com.recklesscoding.abode.core.plan.nodes.PlanElementNode;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
@@ -49,8 +50,8 @@ public class NewCompetenceElement extends NewElementPopup {
 
     private void saveCompetenceElement(PlanElement fatherElement, CompetenceElement competenceElement) {
         Competence competence = (Competence) fatherElement;
-        competence.addCompetenceElement(competenceElement);
-        refresh();
+        Plan.getInstance().addCompetenceElement(competence, competenceElement);
+        hide();
     }
 
 
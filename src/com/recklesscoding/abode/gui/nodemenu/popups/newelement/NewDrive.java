@@ -61,7 +61,7 @@ public class NewDrive extends NewElementPopup {
 
     private void saveDC(DriveCollection driveCollection) {
         Plan.getInstance().addDriveCollection(driveCollection);
-        refresh();
+        hide();
     }
 
     private void setTriggeredElement(PlanElement fatherElement, DriveCollection driveCollection) {
@@ -53,10 +53,9 @@ public class NewDriveElement extends NewElementPopup {
     }
 
     private void saveDE(DriveElement driveElement, PlanElement fatherElement) {
-        Plan.getInstance().addDriveElement(driveElement);
         DriveCollection driveCollection = (DriveCollection) fatherElement;
-        driveCollection.addDriveElement(driveElement);
-        refresh();
+        Plan.getInstance().addDriveElement(driveCollection, driveElement);
+        hide();
     }
 
     private void setTriggeredElement(PlanElement fatherElement, DriveCollection driveCollection) {
@@ -78,11 +78,6 @@ public abstract class NewElementPopup extends PopOver {
         return stringToBeChecked != null && !stringToBeChecked.equals("") && !stringToBeChecked.isEmpty();
     }
 
-    void refresh(){
-        hide();
-        graphWindow.refresh();
-    }
-
     public String getName() {
         return nameTextField.getText();
     }
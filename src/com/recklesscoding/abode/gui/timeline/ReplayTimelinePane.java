@@ -0,0 +1,143 @@
+package com.recklesscoding.abode.gui.timeline;
+
+import com.recklesscoding.abode.core.Editor;
+import com.recklesscoding.abode.debugger.prerecorded.LogReplay;
+import com.recklesscoding.abode.util.wrappers.BorderPaneWrapper;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.util.Duration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * A scrubber for the replay of a log: the slider follows the replay, and dragging or clicking it seeks the replay to
+ * that time. Seeks are done off the FX thread, one at a time; while one is being done only the last time asked for is
+ * kept, so dragging never queues up seeks.
+ * </p>
+ * <p>
+ * The offset of the video, the time of the log at which it starts, is set here too, to line the two up.
+ * </p>
+ *
+ * @author :   Andreas Theodorou - www.recklesscoding.com
+ * @version :   %G%
+ */
+public class ReplayTimelinePane extends BorderPaneWrapper {
+
+    private static final Duration REFRESH_PERIOD = Duration.millis(100);
+
+    private final Editor editor;
+
+    private final Slider slider = new Slider();
+
+    private final Label timeLabel = new Label();
+
+    private final TextField videoOffsetField = new TextField("0");
+
+    private final Timeline refreshTimeline = new Timeline(new KeyFrame(REFRESH_PERIOD, event -> refresh()));
+
+    private final ExecutorService seeker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Log seeker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The time to seek to next, or null if no seek is waiting.
+     */
+    private final AtomicReference<Double> pendingSeek = new AtomicReference<>();
+
+    private boolean isRefreshing = false;
+
+    public ReplayTimelinePane(Editor editor) {
+        this.editor = editor;
+        initLayout();
+        initActions();
+        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
+        sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (newScene != null) {
+                refresh();
+                refreshTimeline.play();
+            } else {
+                refreshTimeline.stop();
+            }
+        });
+    }
+
+    private void initLayout() {
+        setPadding(new Insets(10));
+        videoOffsetField.setPrefColumnCount(8);
+        setTop(new HBox(10, new Label("Video offset (ms)"), videoOffsetField));
+        setCenter(slider);
+        setBottom(timeLabel);
+    }
+
+    private void initActions() {
+        slider.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!isRefreshing) {
+                seek(newValue.doubleValue());
+            }
+        });
+        videoOffsetField.setOnAction(event -> setVideoOffset());
+        videoOffsetField.focusedProperty().addListener((observable, wasFocused, isFocused) -> {
+            if (!isFocused) {
+                setVideoOffset();
+            }
+        });
+    }
+
+    private void setVideoOffset() {
+        LogReplay logReplay = editor.getLogDebugger().getLogReplay();
+        try {
+            logReplay.setVideoOffset(Double.parseDouble(videoOffsetField.getText().trim()));
+        } catch (NumberFormatException e) {
+            videoOffsetField.setText(String.valueOf(logReplay.getVideoOffset()));
+        }
+    }
+
+    private void seek(double time) {
+        LogReplay logReplay = editor.getLogDebugger().getLogReplay();
+        if (pendingSeek.getAndSet(time) != null) {
+            return;
+        }
+        seeker.submit(() -> {
+            Double nextTime = pendingSeek.get();
+            while (true) {
+                logReplay.seek(nextTime);
+                if (pendingSeek.compareAndSet(nextTime, null)) {
+                    break;
+                }
+                nextTime = pendingSeek.get();
+            }
+        });
+    }
+
+    private void refresh() {
+        LogReplay logReplay = editor.getLogDebugger().getLogReplay();
+        slider.setDisable(!logReplay.isStarted());
+        double logTime = logReplay.getLogTime();
+        isRefreshing = true;
+        slider.setMin(logReplay.getStartTime());
+        slider.setMax(Math.max(logReplay.getStartTime(), logReplay.getEndTime()));
+        if (!slider.isValueChanging() && pendingSeek.get() == null) {
+            slider.setValue(logTime);
+        }
+        isRefreshing = false;
+        timeLabel.setText(formatTime(logTime) + " / " + formatTime(logReplay.getEndTime()));
+        if (!videoOffsetField.isFocused()) {
+            videoOffsetField.setText(String.valueOf(logReplay.getVideoOffset()));
+        }
+    }
+
+    private static String formatTime(double milliseconds) {
+        long time = (long) Math.max(0, milliseconds);
+        return String.format("%d:%02d:%02d.%03d", time / 3600000, time / 60000 % 60, time / 1000 % 60, time % 1000);
+    }
+}
@@ -1,29 +1,38 @@
 package com.recklesscoding.abode.gui.trees;
 
+import com.recklesscoding.abode.core.metrics.FxQueue;
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanChangeEvent;
+import com.recklesscoding.abode.core.plan.PlanChangeListener;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.gui.TextFieldTreeCellImpl;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
-import javafx.scene.control.ListView;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeView;
 import javafx.stage.Window;
 
 /**
  * Creates the graphviewer of the .
- * <p>>
+ * <p>
+ * While the tree is shown it listens to the active plan: renames relabel the items of the element, and any other
+ * change only rebuilds the top level items that show the element.
+ * </p>
  * @author :   Andreas Theodorou - www.recklesscoding.com
  * @version :   %G%
  */
-public abstract class PlanTree extends TreeView {
+public abstract class PlanTree extends TreeView<PlanElement> implements PlanChangeListener {
 
     private Window primaryStage;
 
+    private Plan observedPlan;
+
     public PlanTree(Window primaryStage) {
         this.primaryStage = primaryStage;
         createTree();
 
         init();
+        observePlanWhileShown();
     }
 
     private void init() {
@@ -37,9 +46,94 @@ public abstract class PlanTree extends TreeView {
         return this;
     }
 
+    @Override
+    public void planChanged(PlanChangeEvent event) {
+        if (!Platform.isFxApplicationThread()) {
+            FxQueue.runLater(() -> planChanged(event));
+            return;
+        }
+        if (event.getPlan() != observedPlan || getRoot() == null) {
+            return;
+        }
+        PlanElement planElement = event.getPlanElement();
+        ObservableList<TreeItem<PlanElement>> topLevelItems = getRoot().getChildren();
+        switch (event.getType()) {
+            case PLAN_RELOADED:
+                createTree();
+                break;
+            case ELEMENT_RENAMED:
+                relabelItems(getRoot(), planElement);
+                break;
+            case ELEMENT_ADDED:
+                if (isTopLevel(planElement)) {
+                    topLevelItems.add(createItem(planElement));
+                }
+                break;
+            case ELEMENT_REMOVED:
+                if (isTopLevel(planElement)) {
+                    topLevelItems.removeIf(item -> item.getValue() == planElement);
+                }
+                break;
+            default:
+                for (int i = 0; i < topLevelItems.size(); i++) {
+                    TreeItem<PlanElement> topLevelItem = topLevelItems.get(i);
+                    if (isShowing(topLevelItem, planElement)) {
+                        topLevelItems.set(i, createItem(topLevelItem.getValue()));
+                    }
+                }
+                break;
+        }
+    }
+
     protected abstract void createTree();
 
+    /**
+     * @return True if the element is listed at the top level of this tree.
+     */
+    protected abstract boolean isTopLevel(PlanElement planElement);
+
+    /**
+     * @return The item of a top level element, with everything shown under it.
+     */
+    protected abstract TreeItemWrapper<PlanElement> createItem(PlanElement planElement);
+
     protected void addItem() {
 
     }
+
+    private void observePlanWhileShown() {
+        sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (observedPlan != null) {
+                observedPlan.removePlanChangeListener(this);
+                observedPlan = null;
+            }
+            if (newScene != null) {
+                observedPlan = Plan.getInstance();
+                observedPlan.addPlanChangeListener(this);
+            }
+        });
+    }
+
+    private void relabelItems(TreeItem<PlanElement> item, PlanElement planElement) {
+        if (item.getValue() == planElement) {
+            // The value is the same object, so it has to be changed for the cells to show the new name.
+            item.setValue(null);
+            item.setValue(planElement);
+        }
+        for (TreeItem<PlanElement> child : item.getChildren()) {
+            relabelItems(child, planElement);
+        }
+    }
+
+    private boolean isShowing(TreeItem<PlanElement> item, PlanElement planElement) {
+        if (item.getValue() == planElement) {
+            return true;
+        }
+        for (TreeItem<PlanElement> child : item.getChildren()) {
+            if (isShowing(child, planElement)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
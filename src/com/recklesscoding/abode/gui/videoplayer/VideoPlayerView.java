@@ -1,24 +1,43 @@
 package com.recklesscoding.abode.gui.videoplayer;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.DoubleProperty;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.scene.media.MediaView;
+import javafx.util.Duration;
 
 /**
  * Wraps a {@link MediaView} and a {@link MediaPlayer} objects to make them easier to use within ABOD3 code.
  * <p>
+ * While the window is open, the time of the player is read at every pulse of the FX thread, so that a replay of a log
+ * can follow the video, with the time it has played since the last pulse added.
  *
  * @author :   Andreas Theodorou - www.recklesscoding.com
  * @version :   %G%
  */
 public class VideoPlayerView extends MediaView {
 
+    /**
+     * The fastest the player plays.
+     */
+    public static final double MAX_RATE = 8;
+
     private MediaPlayer mediaPlayer;
 
-    private boolean windowOpenned;
+    private volatile boolean windowOpenned;
+
+    private volatile ClockReading clockReading = null;
+
+    private final AnimationTimer clockReader = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            clockReading = new ClockReading(mediaPlayer.getCurrentTime().toMillis(), System.nanoTime(),
+                    mediaPlayer.getStatus() == MediaPlayer.Status.PLAYING, mediaPlayer.getRate());
+        }
+    };
 
     public VideoPlayerView(String file) {
         Media media = new Media(file);
@@ -29,7 +48,10 @@ public class VideoPlayerView extends MediaView {
 
     public void openInWindow() {
         windowOpenned = true;
-        Platform.runLater(() -> new VideoPlayerWindow(VideoPlayerView.this));
+        Platform.runLater(() -> {
+            new VideoPlayerWindow(VideoPlayerView.this);
+            clockReader.start();
+        });
     }
 
     public void startPlaying() {
@@ -44,14 +66,45 @@ public class VideoPlayerView extends MediaView {
         }
     }
 
+    /**
+     * @param rate How much faster than real time to play; the player goes no faster than 8 times.
+     */
+    public void setPlayingRate(double rate) {
+        mediaPlayer.setRate(Math.min(rate, MAX_RATE));
+    }
+
+    /**
+     * @param time Where to play from, in milliseconds from the start of the video.
+     */
+    public void seek(double time) {
+        mediaPlayer.seek(Duration.millis(Math.max(0, time)));
+    }
+
     public void stopPlaying() {
         if (windowOpenned) {
             mediaPlayer.stop();
         }
     }
 
+    /**
+     * @param currentTime A {@link System#nanoTime()}.
+     * @return Where the video is at the time, in milliseconds, or NaN if it is not on screen.
+     */
+    public double getVideoTime(long currentTime) {
+        ClockReading reading = clockReading;
+        if (reading == null || !windowOpenned) {
+            return Double.NaN;
+        }
+        if (!reading.isPlaying) {
+            return reading.videoTime;
+        }
+        return reading.videoTime + (currentTime - reading.readAt) / 1e6 * reading.rate;
+    }
+
     public void closedWindow() {
         windowOpenned = false;
+        clockReader.stop();
+        clockReading = null;
     }
 
     public void resize() {
@@ -60,4 +113,31 @@ public class VideoPlayerView extends MediaView {
 
         setPreserveRatio(true);
     }
-}
\ No newline at end of file
+
+    /**
+     * The time of the player, read at a pulse.
+     */
+    private static final class ClockReading {
+
+        private final double videoTime;
+
+        /**
+         * The {@link System#nanoTime()} it was read at.
+         */
+        private final long readAt;
+
+        /**
+         * False while paused, stopped or buffering, when the time stands still.
+         */
+        private final boolean isPlaying;
+
+        private final double rate;
+
+        private ClockReading(double videoTime, long readAt, boolean isPlaying, double rate) {
+            this.videoTime = videoTime;
+            this.readAt = readAt;
+            this.isPlaying = isPlaying;
+            this.rate = rate;
+        }
+    }
+}
@@ -5,11 +5,13 @@ import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.CornerRadii;
 import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 
@@ -35,6 +37,8 @@ public class VideoPlayerWindow extends Stage {
     private Label bottomLeft = new Label("B - L");
     private Label bottomRight = new Label("B - R");
 
+    private boolean isFollowingVideo = false;
+
     public VideoPlayerWindow(VideoPlayerView videoPlayer) {
         Media media = videoPlayer.getMediaPlayer().getMedia();
         mediaWidth = media.getWidth();
@@ -58,10 +62,35 @@ public class VideoPlayerWindow extends Stage {
         BorderPane pane = new BorderPane();
         pane.setScaleShape(true);
         pane.setCenter(videoPlayer);
+        pane.setBottom(initSeekBar(videoPlayer));
         pane.setBackground(new Background(new BackgroundFill(Color.BLACK, CornerRadii.EMPTY, Insets.EMPTY)));
         return new Scene(pane, WINDOW_WIDTH, WINDOW_HEIGHT);
     }
 
+    /**
+     * A slider that follows the video and seeks it when dragged; a replay following the video seeks with it.
+     */
+    private Slider initSeekBar(VideoPlayerView videoPlayer) {
+        MediaPlayer mediaPlayer = videoPlayer.getMediaPlayer();
+        Slider seekBar = new Slider(0, 1, 0);
+        seekBar.setPadding(new Insets(5, 10, 5, 10));
+        mediaPlayer.totalDurationProperty().addListener((observable, oldDuration, newDuration) ->
+                seekBar.setMax(Math.max(1, newDuration.toMillis())));
+        mediaPlayer.currentTimeProperty().addListener((observable, oldTime, newTime) -> {
+            if (!seekBar.isValueChanging()) {
+                isFollowingVideo = true;
+                seekBar.setValue(newTime.toMillis());
+                isFollowingVideo = false;
+            }
+        });
+        seekBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!isFollowingVideo) {
+                videoPlayer.seek(newValue.doubleValue());
+            }
+        });
+        return seekBar;
+    }
+
     private void initWindowProperties(VideoPlayerView videoPlayer) {
         setAlwaysOnTop(true);
         setOnCloseRequest(t -> {
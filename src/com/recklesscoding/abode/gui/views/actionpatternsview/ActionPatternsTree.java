@@ -39,12 +39,20 @@ public class ActionPatternsTree extends PlanTree {
 
         List<ActionPattern> actionPatterns = Plan.getInstance().getActionPatterns();
 
-        TreeItemWrapper<PlanElement> actionPatternItem;
         for (ActionPattern action : actionPatterns) {
-            actionPatternItem = new TreeItemWrapper<>(action);
-            rootItem.addChild(actionPatternItem);
+            rootItem.addChild(createItem(action));
         }
 
         super.setRoot(rootItem);
     }
+
+    @Override
+    protected boolean isTopLevel(PlanElement planElement) {
+        return planElement instanceof ActionPattern;
+    }
+
+    @Override
+    protected TreeItemWrapper<PlanElement> createItem(PlanElement planElement) {
+        return new TreeItemWrapper<>(planElement);
+    }
 }
\ No newline at end of file
@@ -4,7 +4,6 @@ import com.recklesscoding.abode.core.plan.Plan;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.competence.Competence;
 import com.recklesscoding.abode.core.plan.planelements.competence.CompetenceElement;
-import javafx.scene.control.TreeItem;
 import javafx.stage.Window;
 import com.recklesscoding.abode.gui.trees.PlanTree;
 import com.recklesscoding.abode.gui.trees.TreeItemWrapper;
@@ -34,28 +33,37 @@ public class CompetenceTree extends PlanTree {
 
         List<Competence> competences = Plan.getInstance().getCompetences();
 
-        TreeItem<PlanElement> item;
-        // O(N^2) to populate the tree
         for (Competence competence : competences) {
-            item = new TreeItemWrapper<>(competence);
+            rootItem.getChildren().add(createItem(competence));
+        }
+
+        super.setRoot(rootItem);
+    }
+
+    @Override
+    protected boolean isTopLevel(PlanElement planElement) {
+        return planElement instanceof Competence;
+    }
+
+    @Override
+    protected TreeItemWrapper<PlanElement> createItem(PlanElement planElement) {
+        Competence competence = (Competence) planElement;
+        TreeItemWrapper<PlanElement> item = new TreeItemWrapper<>(competence);
 //            TreeItemWrapper<PlanElement> goalItem = new TreeItemWrapper<>((new Sense("Goal", null, null)));
 //            for (Sense competenceGoal : competence.getSenses()) {
 //                goalItem.getChildren().add(new TreeItemWrapper<>(competenceGoal));
 //            }
 //            item.getChildren().add(goalItem);
 
-            for (CompetenceElement competenceElement : competence.getCompetenceElements()) {
-                TreeItemWrapper<PlanElement> competenceElementItem = new TreeItemWrapper<>((competenceElement));
+        for (CompetenceElement competenceElement : competence.getCompetenceElements()) {
+            TreeItemWrapper<PlanElement> competenceElementItem = new TreeItemWrapper<>((competenceElement));
 //                for (Sense sense : competenceElement.getSenses()) {
 //                    competenceElementItem.getChildren().add(new TreeItemWrapper<>(sense));
 //                }
-                competenceElementItem.getChildren().add(new TreeItemWrapper<>(competenceElement.getTriggeredElement()));
-                item.getChildren().add(competenceElementItem);
-            }
-
-            rootItem.getChildren().add(item);
+            competenceElementItem.getChildren().add(new TreeItemWrapper<>(competenceElement.getTriggeredElement()));
+            item.getChildren().add(competenceElementItem);
         }
 
-        super.setRoot(rootItem);
+        return item;
     }
 }
\ No newline at end of file
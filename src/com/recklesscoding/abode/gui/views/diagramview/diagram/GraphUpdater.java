@@ -1,11 +1,16 @@
 package com.recklesscoding.abode.gui.views.diagramview.diagram;
 
+import com.recklesscoding.abode.core.metrics.Histogram;
+import com.recklesscoding.abode.core.metrics.Metrics;
+
 /**
  * Athor: Andreas
  * Date: 16/02/2016.
  */
 public class GraphUpdater implements Runnable {
 
+    private static final Histogram decreaseGlowTime = Metrics.getInstance().histogram("graph.decreaseGlow");
+
     // In MS.
     private long decreaseGlowTimer = 300;
 
@@ -25,7 +30,9 @@ public class GraphUpdater implements Runnable {
         while (isRunning) {
             try {
                 Thread.sleep(decreaseGlowTimer);
+                long startTime = Metrics.startTime();
                 graphWindow.update();
+                decreaseGlowTime.recordSince(startTime);
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
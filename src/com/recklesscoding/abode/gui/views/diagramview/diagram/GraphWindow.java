@@ -1,32 +1,59 @@
 package com.recklesscoding.abode.gui.views.diagramview.diagram;
 
+import com.recklesscoding.abode.core.metrics.FxQueue;
+import com.recklesscoding.abode.core.metrics.Histogram;
+import com.recklesscoding.abode.core.metrics.Metrics;
+import com.recklesscoding.abode.core.plan.Plan;
+import com.recklesscoding.abode.core.plan.PlanChangeEvent;
+import com.recklesscoding.abode.core.plan.PlanChangeListener;
 import com.recklesscoding.abode.core.plan.nodes.NodesHolder;
 import com.recklesscoding.abode.core.plan.nodes.PlanElementNode;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
+import com.recklesscoding.abode.core.plan.planelements.drives.DriveCollection;
 import com.recklesscoding.abode.gui.views.diagramview.diagram.controller.MouseGestures;
 import com.recklesscoding.abode.gui.views.diagramview.diagram.graphviewer.GraphNodesLayer;
 import com.recklesscoding.abode.gui.views.diagramview.diagram.graphviewer.layout.PlanHorizontalLayout;
 import com.recklesscoding.abode.gui.views.diagramview.diagram.graphviewer.layout.PlanLayout;
 import com.recklesscoding.abode.gui.views.diagramview.diagram.graphviewer.layout.PlanLayoutType;
 import com.recklesscoding.abode.gui.views.diagramview.diagram.graphviewer.layout.PlanVerticalLayout;
+import javafx.application.Platform;
 import javafx.scene.Group;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 
 /**
  * <p>
+ * Shows the nodes of the active plan. While it is on screen it listens to the plan and only replaces the nodes under
+ * the elements that changed.
+ * </p>
  * <p>
+ * A refresh builds the nodes one drive collection at a time, in steps of a few milliseconds on the FX thread, laying
+ * out what is there after each step. A large plan shows up as it is built and the FX thread is free in between, e.g.
+ * for the glow of the debugger.
  * </p>
  *
  * @author :   Andreas Theodorou - www.recklesscoding.com
  * @version :   %G%
  */
-public class GraphWindow {
+public class GraphWindow implements PlanChangeListener {
+
+    private static final Histogram refreshTime = Metrics.getInstance().histogram("graph.refresh");
+
+    private static final Histogram layoutTime = Metrics.getInstance().histogram("graph.layout");
+
+    private static final Histogram buildStepTime = Metrics.getInstance().histogram("graph.build.step");
+
+    /**
+     * How long a step of building the nodes may go on before it hands the FX thread back.
+     */
+    private static final long BUILD_STEP_NANOS = 12_000_000L;
 
     private NodesHolder nodesHolder;
 
@@ -40,18 +67,83 @@ public class GraphWindow {
 
     private List<PlanElementNode> lastUpdatedNodes = new ArrayList<>();
 
+    private Plan observedPlan;
+
+    /**
+     * Increased by every refresh, so that the steps of a build that was overtaken by another stop.
+     */
+    private int buildNumber = 0;
+
     public GraphWindow(Stage stage, PlanLayoutType diagramViewLayoutType) {
         init(stage);
         initDiagramView(diagramViewLayoutType);
+        refresh();
     }
 
+    /**
+     * Builds the nodes of the active plan again. The first step is done straight away, which for most plans is all
+     * of it; the rest follow on the FX thread.
+     */
     public void refresh() {
+        long startTime = Metrics.startTime();
+        Plan plan = Plan.getInstance();
+        if (observedPlan != null && observedPlan != plan) {
+            observedPlan.removePlanChangeListener(this);
+            observedPlan = plan;
+            observedPlan.addPlanChangeListener(this);
+        }
 //        graphNodesLayer.saveLocationsInMemory();
         graphNodesLayer.clearAll();
-        nodesHolder.refresh();
-        updateGraph();
-        diagramViewLayout.execute();
+        nodesHolder.clearNodes();
+        int build = ++buildNumber;
+        buildStep(build, plan, new ArrayDeque<>(plan.getDriveCollections()));
 //        graphNodesLayer.loadLocationsFromMemory();
+        refreshTime.recordSince(startTime);
+    }
+
+    @Override
+    public void planChanged(PlanChangeEvent event) {
+        if (!Platform.isFxApplicationThread()) {
+            FxQueue.runLater(() -> planChanged(event));
+            return;
+        }
+        if (event.getPlan() != observedPlan) {
+            return;
+        }
+        if (event.getType() == PlanChangeEvent.Type.PLAN_RELOADED) {
+            refresh();
+        } else if (nodesHolder.apply(event)) {
+            updateGraph();
+            executeLayout();
+        }
+    }
+
+    /**
+     * Adds drive collections until they run out or the step has taken its time, then lays out the nodes and leaves
+     * the rest to the next step. A drive collection taken out of the plan in the meantime is skipped, and one already
+     * added by a change of the plan is not added twice.
+     */
+    private void buildStep(int build, Plan plan, Deque<DriveCollection> remaining) {
+        if (build != buildNumber) {
+            return;
+        }
+        long startTime = Metrics.startTime();
+        long deadline = System.nanoTime() + BUILD_STEP_NANOS;
+        while (!remaining.isEmpty()) {
+            DriveCollection driveCollection = remaining.poll();
+            if (driveCollection.getPlan() == plan) {
+                nodesHolder.addDriveCollection(driveCollection);
+            }
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        updateGraph();
+        executeLayout();
+        if (!remaining.isEmpty()) {
+            FxQueue.runLater(() -> buildStep(build, plan, remaining));
+        }
+        buildStepTime.recordSince(startTime);
     }
 
     public synchronized void update() {
@@ -66,7 +158,7 @@ public class GraphWindow {
         } else if (diagramViewLayout instanceof PlanVerticalLayout) {
             this.diagramViewLayout = new PlanHorizontalLayout(this);
         }
-        diagramViewLayout.execute();
+        executeLayout();
     }
 
     public void setNodesLocation(Map<String[], double[]> positions) {
@@ -90,10 +182,28 @@ public class GraphWindow {
     }
 
     private void init(Stage stage) {
-        nodesHolder = new NodesHolder(new PlanElement("Drives"));
+        nodesHolder = new NodesHolder(new PlanElement("Drives"), false);
         mouseGestures = new MouseGestures(stage, this);
         initScrollPane();
         updateGraph();
+        observePlanWhileShown();
+    }
+
+    /**
+     * Listens to the active plan only while the diagram is part of a scene, so that replaced diagrams are not kept
+     * alive by the plan.
+     */
+    private void observePlanWhileShown() {
+        scrollPane.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (observedPlan != null) {
+                observedPlan.removePlanChangeListener(this);
+                observedPlan = null;
+            }
+            if (newScene != null) {
+                observedPlan = Plan.getInstance();
+                observedPlan.addPlanChangeListener(this);
+            }
+        });
     }
 
     private void initDiagramView(PlanLayoutType diagramViewLayoutType) {
@@ -105,7 +215,13 @@ public class GraphWindow {
                 diagramViewLayout = new PlanVerticalLayout(this);
                 break;
         }
+        executeLayout();
+    }
+
+    private void executeLayout() {
+        long startTime = Metrics.startTime();
         diagramViewLayout.execute();
+        layoutTime.recordSince(startTime);
     }
 
     private void initScrollPane() {
@@ -3,7 +3,6 @@ package com.recklesscoding.abode.gui.views.drivescollectionsview;
 import com.recklesscoding.abode.core.plan.planelements.PlanElement;
 import com.recklesscoding.abode.core.plan.planelements.Sense;
 import com.recklesscoding.abode.core.plan.planelements.drives.DriveElement;
-import javafx.scene.control.TreeItem;
 import javafx.stage.Window;
 import com.recklesscoding.abode.gui.trees.PlanTree;
 import com.recklesscoding.abode.core.plan.Plan;
@@ -42,26 +41,36 @@ public class DrivesCollectionsTree extends PlanTree {
 
         List<DriveCollection> driveCollections = Plan.getInstance().getDriveCollections();
 
-        TreeItem<PlanElement> item;
         for (DriveCollection driveCollection : driveCollections) {
-            item = new TreeItemWrapper<>(driveCollection);
+            rootItem.getChildren().add(createItem(driveCollection));
+        }
+
+        super.setRoot(rootItem);
+    }
+
+    @Override
+    protected boolean isTopLevel(PlanElement planElement) {
+        return planElement instanceof DriveCollection;
+    }
+
+    @Override
+    protected TreeItemWrapper<PlanElement> createItem(PlanElement planElement) {
+        DriveCollection driveCollection = (DriveCollection) planElement;
+        TreeItemWrapper<PlanElement> item = new TreeItemWrapper<>(driveCollection);
 //            TreeItemWrapper<PlanElement> goalItem = new TreeItemWrapper<>((new Sense("Goal", null, null)));
 //            for (Sense goal : driveCollection.getSenses()) {
 //                goalItem.getChildren().add(new TreeItemWrapper<>(goal));
 //            }
 //            item.getChildren().add(goalItem);
 
-            for (DriveElement driveElement : driveCollection.getDriveElements()) {
-                TreeItemWrapper<PlanElement> driveElementItem = new TreeItemWrapper<>((driveElement));
-                for (Sense sense : driveElement.getSenses()) {
-                    driveElementItem.getChildren().add(new TreeItemWrapper<>(sense));
-                }
-
-                item.getChildren().add(driveElementItem);
+        for (DriveElement driveElement : driveCollection.getDriveElements()) {
+            TreeItemWrapper<PlanElement> driveElementItem = new TreeItemWrapper<>((driveElement));
+            for (Sense sense : driveElement.getSenses()) {
+                driveElementItem.getChildren().add(new TreeItemWrapper<>(sense));
             }
-            rootItem.getChildren().add(item);
-        }
 
-        super.setRoot(rootItem);
+            item.getChildren().add(driveElementItem);
+        }
+        return item;
     }
 }
\ No newline at end of file
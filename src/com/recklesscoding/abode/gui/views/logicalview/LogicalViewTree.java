@@ -45,33 +45,42 @@ public class LogicalViewTree extends PlanTree {
 
         List<DriveCollection> driveCollections = Plan.getInstance().getDriveCollections();
 
-        TreeItemWrapper<PlanElement> driveItem;
         for (DriveCollection driveCollection : driveCollections) {
-            driveItem = new TreeItemWrapper<>(driveCollection);
+            rootItem.addChild(createItem(driveCollection));
+        }
+        super.setRoot(rootItem);
+    }
 
-            PlanElement triggeredElement = driveCollection.getTriggeredElement();
-            if (triggeredElement != null) {
-                TreeItemWrapper<PlanElement> triggeredElementItem = getSubtree(triggeredElement);
-                driveItem.addChild((triggeredElementItem));
-            }
+    @Override
+    protected boolean isTopLevel(PlanElement planElement) {
+        return planElement instanceof DriveCollection;
+    }
 
-            for (DriveElement driveElement : driveCollection.getDriveElements()) {
-                TreeItemWrapper<PlanElement> driveElementItem = new TreeItemWrapper<>((driveElement));
-                driveElementItem.getChildren().add(new TreeItemWrapper<>(driveElement.getTriggeredElement()));
+    @Override
+    protected TreeItemWrapper<PlanElement> createItem(PlanElement planElement) {
+        DriveCollection driveCollection = (DriveCollection) planElement;
+        TreeItemWrapper<PlanElement> driveItem = new TreeItemWrapper<>(driveCollection);
+
+        PlanElement triggeredElement = driveCollection.getTriggeredElement();
+        if (triggeredElement != null) {
+            TreeItemWrapper<PlanElement> triggeredElementItem = getSubtree(triggeredElement);
+            driveItem.addChild((triggeredElementItem));
+        }
 
-                TreeItemWrapper<PlanElement> triggerElementsItem = new TreeItemWrapper<>((new Sense("Trigger Elements", null, null)));
-                for (Sense sense : driveElement.getSenses()) {
-                    triggerElementsItem.addChild(new TreeItemWrapper<>(sense));
-                }
-                driveElementItem.addChild(triggerElementsItem);
+        for (DriveElement driveElement : driveCollection.getDriveElements()) {
+            TreeItemWrapper<PlanElement> driveElementItem = new TreeItemWrapper<>((driveElement));
+            driveElementItem.getChildren().add(new TreeItemWrapper<>(driveElement.getTriggeredElement()));
 
-                driveItem.addChild((driveElementItem));
+            TreeItemWrapper<PlanElement> triggerElementsItem = new TreeItemWrapper<>((new Sense("Trigger Elements", null, null)));
+            for (Sense sense : driveElement.getSenses()) {
+                triggerElementsItem.addChild(new TreeItemWrapper<>(sense));
             }
+            driveElementItem.addChild(triggerElementsItem);
 
-
-            rootItem.addChild(driveItem);
+            driveItem.addChild((driveElementItem));
         }
-        super.setRoot(rootItem);
+
+        return driveItem;
     }
 //
 //    private TreeItemWrapper<PlanElement> getTriggeredElementTree(PlanElement triggeredElement) {
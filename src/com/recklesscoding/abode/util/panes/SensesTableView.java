@@ -1,5 +1,6 @@
 package com.recklesscoding.abode.util.panes;
 
+import com.recklesscoding.abode.core.plan.Plan;
 import com.recklesscoding.abode.core.plan.planelements.Sense;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -52,7 +53,7 @@ public class SensesTableView extends TableViewPanel {
         nameColumn.setMinWidth(200);
         nameColumn.setOnEditCommit(event ->
         {
-            event.getTableView().getItems().get(event.getTablePosition().getRow()).setNameOfElement(event.getNewValue());
+            Plan.getInstance().renameElement(event.getTableView().getItems().get(event.getTablePosition().getRow()), event.getNewValue());
             getTable().refresh();
         });
 